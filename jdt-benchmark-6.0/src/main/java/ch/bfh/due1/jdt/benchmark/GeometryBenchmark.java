@@ -0,0 +1,144 @@
+/*
+ * Eric Dubuis, Berner Fachhochschule,
+ * Biel, Switzerland.
+ * Copyright (c) 2007
+ *
+ * Distributable under LGPL license.
+ * See terms of license at gnu.org.
+ */
+package ch.bfh.due1.jdt.benchmark;
+
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ch.bfh.due1.jdt.framework.BoundingBox;
+import ch.bfh.due1.jdt.framework.Coord;
+import ch.bfh.due1.jdt.framework.Vector;
+
+/**
+ * Measures the hit-test, union, and displacement operations of the geometry
+ * classes against their former, AWT based implementations, and the vector
+ * arithmetic. Run with <code>-prof gc</code> to see the allocations per
+ * operation.
+ *
+ * @author Eric Dubuis
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GeometryBenchmark {
+	private BoundingBox box;
+
+	private BoundingBox other;
+
+	private Coord inside;
+
+	private Coord outside;
+
+	private Vector v;
+
+	private Vector w;
+
+	@Setup
+	public void setUp() {
+		// A box with negative width and height needs to be normalized.
+		this.box = new BoundingBox(120, 80, -100, -60);
+		this.other = new BoundingBox(50, 50, 100, 100);
+		this.inside = new Coord(60, 40);
+		this.outside = new Coord(200, 200);
+		this.v = new Vector(3, 4);
+		this.w = new Vector(-7, 11);
+	}
+
+	@Benchmark
+	public boolean contains() {
+		return this.box.contains(this.inside) | this.box.contains(this.outside);
+	}
+
+	@Benchmark
+	public boolean legacyContains() {
+		return legacyAWTRectangle(this.box).contains(this.inside.getAWTPoint())
+				| legacyAWTRectangle(this.box).contains(
+						new Point(this.outside.getX0(), this.outside.getY0()));
+	}
+
+	@Benchmark
+	public boolean intersects() {
+		return this.box.intersects(this.other);
+	}
+
+	@Benchmark
+	public boolean legacyIntersects() {
+		Rectangle r1 = legacyAWTRectangle(this.box);
+		Rectangle r2 = legacyAWTRectangle(this.other);
+		return r1.x <= r2.x + r2.width && r2.x <= r1.x + r1.width
+				&& r1.y <= r2.y + r2.height && r2.y <= r1.y + r1.height;
+	}
+
+	@Benchmark
+	public BoundingBox union() {
+		return this.box.union(this.other);
+	}
+
+	@Benchmark
+	public BoundingBox legacyUnion() {
+		Rectangle r = legacyAWTRectangle(this.box);
+		r.add(legacyAWTRectangle(this.other));
+		return new BoundingBox(r);
+	}
+
+	@Benchmark
+	public Vector displacementVector() {
+		return this.inside.getDisplacementVector(this.outside);
+	}
+
+	@Benchmark
+	public Vector legacyDisplacementVector() {
+		return new Vector(this.outside).minus(new Vector(this.inside));
+	}
+
+	@Benchmark
+	public Vector vectorArithmetic() {
+		return this.v.plus(this.w).minus(this.w.getNormalVector()).neg();
+	}
+
+	@Benchmark
+	public double vectorProducts() {
+		return this.v.scalarProduct(this.w) + this.v.getDeterminantBy(this.w)
+				+ this.v.magnitude();
+	}
+
+	/**
+	 * The former normalization of a bounding box, computed on every call.
+	 */
+	private static Rectangle legacyAWTRectangle(BoundingBox b) {
+		int x = b.getX0();
+		int y = b.getY0();
+		int w = b.getWidth();
+		int h = b.getHeight();
+		if (w < 0) {
+			x += w;
+			w = -w;
+		}
+		if (h < 0) {
+			y += h;
+			h = -h;
+		}
+		return new Rectangle(x, y, w, h);
+	}
+}
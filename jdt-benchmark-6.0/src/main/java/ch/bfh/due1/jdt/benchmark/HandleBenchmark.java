@@ -0,0 +1,121 @@
+/*
+ * Eric Dubuis, Berner Fachhochschule,
+ * Biel, Switzerland.
+ * Copyright (c) 2007
+ *
+ * Distributable under LGPL license.
+ * See terms of license at gnu.org.
+ */
+package ch.bfh.due1.jdt.benchmark;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.Stroke;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ch.bfh.due1.jdt.framework.AbstractHandle;
+import ch.bfh.due1.jdt.framework.BoundingBox;
+import ch.bfh.due1.jdt.framework.HandleRenderer;
+import ch.bfh.due1.jdt.framework.Shape;
+import ch.bfh.due1.jdt.framework.ShapeHandle;
+import ch.bfh.due1.jdt.simple.impl.shape.SimpleBox;
+
+/**
+ * Measures drawing the handles of 10'000 selected boxes, i.e., 80'000
+ * handles, one by one and in one pass.
+ *
+ * @author Eric Dubuis
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = { "-Djava.awt.headless=true" })
+@State(Scope.Benchmark)
+public class HandleBenchmark {
+	@Param({ "10000" })
+	private int shapeCount;
+
+	private List<ShapeHandle> handles;
+
+	private BufferedImage image;
+
+	private Graphics2D graphics;
+
+	@Setup
+	public void setUp() {
+		Random random = new Random(4711);
+		this.handles = new ArrayList<ShapeHandle>();
+		for (int i = 0; i < this.shapeCount; i++) {
+			Shape s = new SimpleBox(random.nextInt(800), random.nextInt(500),
+					5 + random.nextInt(40), 5 + random.nextInt(40));
+			s.setSelected(true);
+			this.handles.addAll(s.getShapeHandles());
+		}
+		this.image = new BufferedImage(800, 500, BufferedImage.TYPE_INT_RGB);
+		this.graphics = this.image.createGraphics();
+	}
+
+	@TearDown
+	public void tearDown() {
+		this.graphics.dispose();
+	}
+
+	@Benchmark
+	public BufferedImage batched() {
+		HandleRenderer.draw(this.graphics, this.handles);
+		return this.image;
+	}
+
+	@Benchmark
+	public BufferedImage oneByOne() {
+		for (ShapeHandle h : this.handles) {
+			h.draw(this.graphics);
+		}
+		return this.image;
+	}
+
+	@Benchmark
+	public BufferedImage legacy() {
+		for (ShapeHandle h : this.handles) {
+			legacyDraw(this.graphics, h);
+		}
+		return this.image;
+	}
+
+	/**
+	 * The former drawing of a handle, creating a stroke and a rectangle.
+	 */
+	private static void legacyDraw(Graphics2D g2, ShapeHandle h) {
+		Color current = g2.getColor();
+		Stroke stroke = new BasicStroke(AbstractHandle.PEN_SIZE);
+		BoundingBox b = h.getBounds();
+		Rectangle r = new Rectangle(b.getX0(), b.getY0(), b.getWidth(), b
+				.getHeight());
+		g2.setStroke(stroke);
+		g2.setColor(AbstractHandle.PEN_COLOR);
+		g2.draw(r);
+		g2.setColor(AbstractHandle.FILL_COLOR);
+		g2.fill(r);
+		g2.setColor(current);
+	}
+}
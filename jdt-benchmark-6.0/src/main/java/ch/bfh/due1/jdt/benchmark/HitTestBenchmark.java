@@ -0,0 +1,191 @@
+/*
+ * Eric Dubuis, Berner Fachhochschule,
+ * Biel, Switzerland.
+ * Copyright (c) 2007
+ *
+ * Distributable under LGPL license.
+ * See terms of license at gnu.org.
+ */
+package ch.bfh.due1.jdt.benchmark;
+
+import java.awt.geom.Ellipse2D;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ch.bfh.due1.jdt.framework.BoundingBox;
+import ch.bfh.due1.jdt.framework.Coord;
+import ch.bfh.due1.jdt.framework.Shape;
+import ch.bfh.due1.jdt.framework.Vector;
+import ch.bfh.due1.jdt.simple.impl.shape.ShapeGroup;
+import ch.bfh.due1.jdt.simple.impl.shape.SimpleEllipse;
+import ch.bfh.due1.jdt.simple.impl.shape.SimpleLine;
+
+/**
+ * Measures the two-phase hit tests of ellipses, lines, and groups against
+ * their former implementations, on one million random points of which most
+ * miss the shapes. The scores are per point.
+ *
+ * @author Eric Dubuis
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HitTestBenchmark {
+	private static final int POINTS = 1000000;
+
+	private Coord[] points;
+
+	private Shape ellipse;
+
+	private Shape line;
+
+	private Shape group;
+
+	private List<Shape> children;
+
+	@Setup
+	public void setUp() {
+		Random random = new Random(4711);
+		this.points = new Coord[POINTS];
+		for (int i = 0; i < POINTS; i++) {
+			this.points[i] = new Coord(random.nextInt(1000),
+					random.nextInt(1000));
+		}
+		this.ellipse = new SimpleEllipse(400, 400, 200, 100);
+		this.line = new SimpleLine(100, 100, 300, 200);
+		this.children = new ArrayList<Shape>();
+		for (int i = 0; i < 20; i++) {
+			if (i % 2 == 0) {
+				this.children.add(new SimpleEllipse(600 + i * 10, 600, 30, 20));
+			} else {
+				this.children.add(new SimpleLine(600 + i * 10, 650, 30, 20));
+			}
+		}
+		this.group = new ShapeGroup(this.children);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(POINTS)
+	public int ellipse() {
+		int hits = 0;
+		for (Coord c : this.points) {
+			if (this.ellipse.mayContain(c) && this.ellipse.contains(c)) {
+				hits++;
+			}
+		}
+		return hits;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(POINTS)
+	public int legacyEllipse() {
+		int hits = 0;
+		for (Coord c : this.points) {
+			if (legacyEllipseContains(this.ellipse, c)) {
+				hits++;
+			}
+		}
+		return hits;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(POINTS)
+	public int line() {
+		int hits = 0;
+		for (Coord c : this.points) {
+			if (this.line.mayContain(c) && this.line.contains(c)) {
+				hits++;
+			}
+		}
+		return hits;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(POINTS)
+	public int legacyLine() {
+		int hits = 0;
+		for (Coord c : this.points) {
+			if (legacyLineContains(this.line, c)) {
+				hits++;
+			}
+		}
+		return hits;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(POINTS)
+	public int group() {
+		int hits = 0;
+		for (Coord c : this.points) {
+			if (this.group.mayContain(c) && this.group.contains(c)) {
+				hits++;
+			}
+		}
+		return hits;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(POINTS)
+	public int legacyGroup() {
+		int hits = 0;
+		for (Coord c : this.points) {
+			for (Shape s : this.children) {
+				if (s instanceof SimpleEllipse ? legacyEllipseContains(s, c)
+						: legacyLineContains(s, c)) {
+					hits++;
+					break;
+				}
+			}
+		}
+		return hits;
+	}
+
+	/**
+	 * The former hit test of an ellipse.
+	 */
+	private static boolean legacyEllipseContains(Shape s, Coord c) {
+		BoundingBox r = s.getBoundingBox();
+		return new Ellipse2D.Double(r.getX0(), r.getY0(), r.getWidth(),
+				r.getHeight()).contains(c.getAWTPoint());
+	}
+
+	/**
+	 * The former hit test of a line.
+	 */
+	private static boolean legacyLineContains(Shape s, Coord c) {
+		BoundingBox r = s.getBoundingBox();
+		Coord a = r.getOrigin();
+		Coord b = new Coord(a.getX0() + r.getWidth(), a.getY0()
+				+ r.getHeight());
+		Vector oa = new Vector(a);
+		Vector ob = new Vector(b);
+		Vector oc = new Vector(c);
+		Vector ab = ob.minus(oa);
+		Vector ac = oc.minus(oa);
+		Vector abN = ab.getNormalVector();
+		double d = ab.getDeterminantBy(abN);
+		double alpha = ac.getDeterminantBy(abN) / d;
+		if (alpha < 0.0 || alpha > 1.0) {
+			return false;
+		}
+		double beta = ab.getDeterminantBy(ac) / d;
+		return Math.abs(beta * abN.magnitude()) <= 2;
+	}
+}
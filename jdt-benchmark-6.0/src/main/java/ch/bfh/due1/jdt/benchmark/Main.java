@@ -0,0 +1,47 @@
+/*
+ * Eric Dubuis, Berner Fachhochschule,
+ * Biel, Switzerland.
+ * Copyright (c) 2007
+ *
+ * Distributable under LGPL license.
+ * See terms of license at gnu.org.
+ */
+package ch.bfh.due1.jdt.benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Runs the benchmarks like the JMH main class, but writes the results to the
+ * file {@link #DEFAULT_RESULT_FILE} in JSON format unless another file or
+ * format is given by the options "-rff" and "-rf". The results of two builds
+ * can be compared by means of these files.
+ *
+ * @author Eric Dubuis
+ */
+public class Main {
+	/** The default name of the result file. */
+	public static final String DEFAULT_RESULT_FILE = "jmh-result.json";
+
+	/**
+	 * Runs the benchmarks.
+	 *
+	 * @param args
+	 *            the JMH command line options
+	 * @throws Exception
+	 *             if JMH fails
+	 */
+	public static void main(String[] args) throws Exception {
+		List<String> options = new ArrayList<String>(Arrays.asList(args));
+		if (!options.contains("-rf")) {
+			options.add("-rf");
+			options.add("json");
+		}
+		if (!options.contains("-rff")) {
+			options.add("-rff");
+			options.add(DEFAULT_RESULT_FILE);
+		}
+		org.openjdk.jmh.Main.main(options.toArray(new String[options.size()]));
+	}
+}
@@ -0,0 +1,124 @@
+/*
+ * Eric Dubuis, Berner Fachhochschule,
+ * Biel, Switzerland.
+ * Copyright (c) 2007
+ *
+ * Distributable under LGPL license.
+ * See terms of license at gnu.org.
+ */
+package ch.bfh.due1.jdt.benchmark;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ch.bfh.due1.jdt.framework.Shape;
+import ch.bfh.due1.jdt.framework.Sheet;
+import ch.bfh.due1.jdt.simple.DefaultView;
+import ch.bfh.due1.jdt.simple.impl.IndexedSheet;
+import ch.bfh.due1.jdt.simple.impl.shape.ShapeGroup;
+import ch.bfh.due1.jdt.simple.impl.shape.SimpleBox;
+import ch.bfh.due1.jdt.simple.impl.shape.SimpleEllipse;
+import ch.bfh.due1.jdt.simple.impl.shape.SimpleLine;
+
+/**
+ * Measures painting an 800x500 view of a sheet with 200'000 shapes, spread
+ * over an area of 20'000x20'000, at several zoom levels, with and without the
+ * level-of-detail policy. Every tenth shape is a group of ten shapes.
+ *
+ * @author Eric Dubuis
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = { "-Djava.awt.headless=true" })
+@State(Scope.Benchmark)
+public class RenderBenchmark {
+	private static final int EXTENT = 20000;
+
+	@Param({ "200000" })
+	private int shapeCount;
+
+	@Param({ "1.0", "0.25", "0.04" })
+	private double zoom;
+
+	@Param({ "true", "false" })
+	private boolean levelOfDetail;
+
+	private DefaultView view;
+
+	private BufferedImage image;
+
+	private Graphics2D graphics;
+
+	@Setup
+	public void setUp() {
+		Random random = new Random(4711);
+		Sheet sheet = new IndexedSheet();
+		int i = 0;
+		while (i < this.shapeCount) {
+			if (i % 100 == 0) {
+				List<Shape> children = new ArrayList<Shape>();
+				int x = random.nextInt(EXTENT);
+				int y = random.nextInt(EXTENT);
+				for (int j = 0; j < 10; j++) {
+					children.add(createShape(random, x, y, j));
+				}
+				sheet.addShape(new ShapeGroup(children));
+				i += 10;
+			} else {
+				sheet.addShape(createShape(random, random.nextInt(EXTENT),
+						random.nextInt(EXTENT), i));
+				i++;
+			}
+		}
+		this.view = new DefaultView(null);
+		this.view.setSheet(sheet);
+		this.view.setSize(800, 500);
+		this.view.setDetailThresholds(this.levelOfDetail ? 3.0 : 0.0, 0.0);
+		this.view.setZoom(this.zoom);
+		this.image = new BufferedImage(800, 500, BufferedImage.TYPE_INT_RGB);
+		this.graphics = this.image.createGraphics();
+	}
+
+	@TearDown
+	public void tearDown() {
+		this.graphics.dispose();
+	}
+
+	@Benchmark
+	public BufferedImage paint() {
+		this.view.paintComponent(this.graphics);
+		return this.image;
+	}
+
+	private static Shape createShape(Random random, int x, int y, int kind) {
+		int w = 5 + random.nextInt(40);
+		int h = 5 + random.nextInt(40);
+		switch (kind % 3) {
+		case 0:
+			return new SimpleBox(x, y, w, h);
+		case 1:
+			return new SimpleEllipse(x, y, w, h);
+		default:
+			return new SimpleLine(x, y, w, h);
+		}
+	}
+}
@@ -0,0 +1,93 @@
+/*
+ * Eric Dubuis, Berner Fachhochschule,
+ * Biel, Switzerland.
+ * Copyright (c) 2007
+ *
+ * Distributable under LGPL license.
+ * See terms of license at gnu.org.
+ */
+package ch.bfh.due1.jdt.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ch.bfh.due1.jdt.framework.BoundingBox;
+import ch.bfh.due1.jdt.framework.Shape;
+import ch.bfh.due1.jdt.simple.impl.shape.ShapeGroup;
+import ch.bfh.due1.jdt.simple.impl.shape.SimpleBox;
+
+/**
+ * Measures resizing nested groups, i.e., groups of four groups down to the
+ * given depth, the innermost groups holding four boxes. Each operation
+ * resizes the outermost group to the other one of two bounding boxes, such
+ * that all boxes are scaled.
+ *
+ * @author Eric Dubuis
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ShapeGroupBenchmark {
+	private static final int FAN_OUT = 4;
+
+	@Param({ "1", "3", "5" })
+	private int depth;
+
+	private Shape group;
+
+	private BoundingBox small;
+
+	private BoundingBox large;
+
+	private boolean toggle;
+
+	@Setup
+	public void setUp() {
+		this.group = createGroup(this.depth, 0, 0, 1000);
+		this.small = this.group.getBoundingBox();
+		this.large = new BoundingBox(this.small.getX0() + 10, this.small
+				.getY0() + 20, this.small.getWidth() * 2, this.small
+				.getHeight() * 3 / 2);
+	}
+
+	@Benchmark
+	public Shape setBoundingBox() {
+		this.toggle = !this.toggle;
+		this.group.setBoundingBox(this.toggle ? this.large : this.small);
+		return this.group;
+	}
+
+	/**
+	 * Creates a group of the given depth filling the given square.
+	 */
+	private static Shape createGroup(int depth, int x, int y, int size) {
+		List<Shape> children = new ArrayList<Shape>(FAN_OUT);
+		int half = size / 2;
+		for (int i = 0; i < FAN_OUT; i++) {
+			int cx = x + (i % 2) * half;
+			int cy = y + (i / 2) * half;
+			if (depth == 1) {
+				children.add(new SimpleBox(cx + 1, cy + 1, half - 2, half - 2));
+			} else {
+				children.add(createGroup(depth - 1, cx, cy, half));
+			}
+		}
+		return new ShapeGroup(children);
+	}
+}
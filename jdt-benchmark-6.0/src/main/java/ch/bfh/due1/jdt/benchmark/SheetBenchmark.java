@@ -0,0 +1,138 @@
+/*
+ * Eric Dubuis, Berner Fachhochschule,
+ * Biel, Switzerland.
+ * Copyright (c) 2007
+ *
+ * Distributable under LGPL license.
+ * See terms of license at gnu.org.
+ */
+package ch.bfh.due1.jdt.benchmark;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ch.bfh.due1.jdt.framework.Coord;
+import ch.bfh.due1.jdt.framework.Shape;
+import ch.bfh.due1.jdt.framework.Sheet;
+import ch.bfh.due1.jdt.simple.impl.CompactSheet;
+import ch.bfh.due1.jdt.simple.impl.IndexedSheet;
+import ch.bfh.due1.jdt.simple.impl.SimpleSheet;
+import ch.bfh.due1.jdt.simple.impl.shape.SimpleBox;
+import ch.bfh.due1.jdt.simple.impl.shape.SimpleEllipse;
+import ch.bfh.due1.jdt.simple.impl.shape.SimpleLine;
+
+/**
+ * Measures hit-testing and drawing sheets of 1'000 up to one million shapes.
+ * The shapes are spread such that their density is the same for all sizes,
+ * i.e., an 800x500 image shows about 200 shapes. The hit-test scores are per
+ * point, over 1'000 random points; the draw scores are per image.
+ *
+ * @author Eric Dubuis
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = { "-Djava.awt.headless=true", "-Xmx4g" })
+@State(Scope.Benchmark)
+public class SheetBenchmark {
+	private static final int POINTS = 1000;
+
+	/** The area per shape, in square units. */
+	private static final int AREA_PER_SHAPE = 2000;
+
+	@Param({ "1000", "10000", "100000", "1000000" })
+	private int shapeCount;
+
+	@Param({ "simple", "indexed", "compact" })
+	private String sheetKind;
+
+	private Sheet sheet;
+
+	private Coord[] points;
+
+	private BufferedImage image;
+
+	private Graphics2D graphics;
+
+	@Setup
+	public void setUp() {
+		Random random = new Random(4711);
+		int extent = (int) Math.sqrt((double) this.shapeCount
+				* AREA_PER_SHAPE);
+		CompactSheet compact = "compact".equals(this.sheetKind) ? new CompactSheet()
+				: null;
+		this.sheet = compact != null ? compact
+				: "indexed".equals(this.sheetKind) ? new IndexedSheet()
+						: new SimpleSheet();
+		for (int i = 0; i < this.shapeCount; i++) {
+			Shape s = createShape(random, random.nextInt(extent), random
+					.nextInt(extent), i);
+			if (compact != null) {
+				compact.addCompact(s);
+			} else {
+				this.sheet.addShape(s);
+			}
+		}
+		this.points = new Coord[POINTS];
+		for (int i = 0; i < POINTS; i++) {
+			this.points[i] = new Coord(random.nextInt(extent), random
+					.nextInt(extent));
+		}
+		this.image = new BufferedImage(800, 500, BufferedImage.TYPE_INT_RGB);
+		this.graphics = this.image.createGraphics();
+		this.graphics.clipRect(0, 0, 800, 500);
+	}
+
+	@TearDown
+	public void tearDown() {
+		this.graphics.dispose();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(POINTS)
+	public int shapeAt() {
+		int hits = 0;
+		for (Coord c : this.points) {
+			if (this.sheet.getShapeAt(c) != null) {
+				hits++;
+			}
+		}
+		return hits;
+	}
+
+	@Benchmark
+	public BufferedImage draw() {
+		this.sheet.draw(this.graphics);
+		return this.image;
+	}
+
+	private static Shape createShape(Random random, int x, int y, int kind) {
+		int w = 5 + random.nextInt(40);
+		int h = 5 + random.nextInt(40);
+		switch (kind % 3) {
+		case 0:
+			return new SimpleBox(x, y, w, h);
+		case 1:
+			return new SimpleEllipse(x, y, w, h);
+		default:
+			return new SimpleLine(x, y, w, h);
+		}
+	}
+}
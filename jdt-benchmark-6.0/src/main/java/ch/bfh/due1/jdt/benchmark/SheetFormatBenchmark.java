@@ -0,0 +1,111 @@
+/*
+ * Eric Dubuis, Berner Fachhochschule,
+ * Biel, Switzerland.
+ * Copyright (c) 2007
+ *
+ * Distributable under LGPL license.
+ * See terms of license at gnu.org.
+ */
+package ch.bfh.due1.jdt.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ch.bfh.due1.jdt.framework.Shape;
+import ch.bfh.due1.jdt.simple.impl.io.SheetFormat;
+import ch.bfh.due1.jdt.simple.impl.shape.ShapeGroup;
+import ch.bfh.due1.jdt.simple.impl.shape.SimpleBox;
+import ch.bfh.due1.jdt.simple.impl.shape.SimpleEllipse;
+import ch.bfh.due1.jdt.simple.impl.shape.SimpleLine;
+
+/**
+ * Measures writing and reading a sheet file with one million shapes, of which
+ * every tenth is a member of a group of ten shapes.
+ *
+ * @author Eric Dubuis
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SheetFormatBenchmark {
+	@Param({ "1000000" })
+	private int shapeCount;
+
+	private List<Shape> shapes;
+
+	private Path file;
+
+	@Setup
+	public void setUp() throws IOException {
+		Random random = new Random(4711);
+		this.shapes = new ArrayList<Shape>();
+		int i = 0;
+		while (i < this.shapeCount) {
+			if (i % 100 == 0) {
+				List<Shape> children = new ArrayList<Shape>();
+				for (int j = 0; j < 10; j++) {
+					children.add(createShape(random, j));
+				}
+				this.shapes.add(new ShapeGroup(children));
+				i += 10;
+			} else {
+				this.shapes.add(createShape(random, i));
+				i++;
+			}
+		}
+		this.file = Files.createTempFile("sheet", ".jdt");
+		SheetFormat.write(this.shapes, this.file);
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		Files.deleteIfExists(this.file);
+	}
+
+	@Benchmark
+	public List<Shape> read() throws IOException {
+		return SheetFormat.read(this.file);
+	}
+
+	@Benchmark
+	public Path write() throws IOException {
+		SheetFormat.write(this.shapes, this.file);
+		return this.file;
+	}
+
+	private static Shape createShape(Random random, int kind) {
+		int x = random.nextInt(20000);
+		int y = random.nextInt(20000);
+		int w = 5 + random.nextInt(40);
+		int h = 5 + random.nextInt(40);
+		switch (kind % 3) {
+		case 0:
+			return new SimpleBox(x, y, w, h);
+		case 1:
+			return new SimpleEllipse(x, y, w, h);
+		default:
+			return new SimpleLine(x, y, w, h);
+		}
+	}
+}
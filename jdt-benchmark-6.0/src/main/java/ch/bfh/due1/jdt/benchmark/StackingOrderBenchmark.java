@@ -0,0 +1,90 @@
+/*
+ * Eric Dubuis, Berner Fachhochschule,
+ * Biel, Switzerland.
+ * Copyright (c) 2007
+ *
+ * Distributable under LGPL license.
+ * See terms of license at gnu.org.
+ */
+package ch.bfh.due1.jdt.benchmark;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ch.bfh.due1.jdt.framework.Shape;
+import ch.bfh.due1.jdt.framework.Sheet;
+import ch.bfh.due1.jdt.simple.impl.SimpleSheet;
+import ch.bfh.due1.jdt.simple.impl.shape.SimpleBox;
+
+/**
+ * Measures the reordering operations of a sheet with many shapes.
+ *
+ * @author Eric Dubuis
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class StackingOrderBenchmark {
+	@Param({ "100000" })
+	private int shapeCount;
+
+	private Sheet sheet;
+
+	private Random random = new Random(4711);
+
+	@Setup
+	public void setUp() {
+		this.sheet = new SimpleSheet();
+		for (int i = 0; i < this.shapeCount; i++) {
+			this.sheet.addShape(new SimpleBox(this.random.nextInt(2000),
+					this.random.nextInt(2000), 20, 20));
+		}
+	}
+
+	@Benchmark
+	public int bringToFront() {
+		Shape s = randomShape();
+		this.sheet.setStackingIndex(s, this.shapeCount - 1);
+		return this.sheet.getStackingIndex(s);
+	}
+
+	@Benchmark
+	public int moveUp() {
+		Shape s = randomShape();
+		int index = this.sheet.getStackingIndex(s);
+		this.sheet.setStackingIndex(s, Math.min(index + 1,
+				this.shapeCount - 1));
+		return index;
+	}
+
+	@Benchmark
+	public int removeAndAdd() {
+		Shape s = randomShape();
+		this.sheet.removeShape(s);
+		this.sheet.addShape(s);
+		return this.sheet.getShapes().size();
+	}
+
+	private Shape randomShape() {
+		// The stacking order has changed: finding a shape by its index costs
+		// O(log n) here instead of O(1).
+		List<Shape> shapes = this.sheet.getShapes();
+		return shapes.get(this.random.nextInt(shapes.size()));
+	}
+}
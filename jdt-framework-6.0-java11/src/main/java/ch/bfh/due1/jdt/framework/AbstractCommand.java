@@ -8,13 +8,20 @@
  */
 package ch.bfh.due1.jdt.framework;
 
+import java.io.Serializable;
+
 /**
  * An abstraction of commands that provides unsupported implementations for methods
  * addCommand() and removeCommand().
+ * <p>
+ * Commands are serializable such that a command handler can move the older
+ * part of its history out of memory. Fields referring to objects that are not
+ * serializable, e.g., to the editor, must be resolved by the command handler.
  * 
  * @author Eric Dubuis
  */
-public abstract class AbstractCommand implements Command {
+public abstract class AbstractCommand implements Command, Serializable {
+	private static final long serialVersionUID = -5192873540181629405L;
 
 	/**
 	 * Empty initialization of this base class.
@@ -8,18 +8,21 @@
  */
 package ch.bfh.due1.jdt.framework;
 
-import java.awt.BasicStroke;
 import java.awt.Color;
 import java.awt.Cursor;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
-import java.awt.Rectangle;
 import java.awt.Stroke;
 
 
 /**
  * A handle being a small quadratic box. Full handle behavior must be provided
  * by sub-classing this class.
+ * <p>
+ * A handle either has a location of its own, or its location is derived from
+ * the current bounding box of its owner whenever it is read, see
+ * {@link #locate(BoundingBox)}. In the latter case, the owner need not update
+ * the handle upon changes.
  * 
  * @author Eric Dubuis
  */
@@ -37,7 +40,7 @@ public abstract class AbstractHandle implements ShapeHandle {
 	/** The fill color. */
 	public static final Color FILL_COLOR = Color.WHITE;
 
-	/** The location of this handle. */
+	/** The location of this handle, or null if derived from the owner. */
 	private Coord location;
 
 	/** The owner of the handle. */
@@ -53,28 +56,48 @@ public abstract class AbstractHandle implements ShapeHandle {
 		this.location = location;
 	}
 
+	/**
+	 * Initializes the abstract (common) part of a handle whose location is
+	 * derived from the bounding box of its owner.
+	 * @param owner the shape owning this handle
+	 */
+	protected AbstractHandle(Shape owner) {
+		this(owner, null);
+	}
+
 	/**
 	 * @inheritDoc
 	 */
 	@Override
 	public boolean contains(Coord c) {
-		return new Rectangle(getX0(), getY0(), getWidth(), getHeight())
-				.contains(c.getX0(), c.getY0());
+		Coord p = getPosition();
+		int dx = c.getX0() - getX0(p);
+		int dy = c.getY0() - getY0(p);
+		return dx >= 0 && dy >= 0 && dx < getWidth() && dy < getHeight();
 	}
 
 	/**
-	 * @inheritDoc
+	 * Draws the handle as a box filled with the fill color and outlined with
+	 * the pen color. Many handles are drawn more efficiently by the
+	 * {@link HandleRenderer}, which also draws the handles of subclasses not
+	 * overriding this method.
+	 * 
+	 * @see ch.bfh.due1.jdt.framework.ShapeHandle#draw(java.awt.Graphics)
 	 */
 	@Override
 	public void draw(Graphics g) {
 		Graphics2D g2 = (Graphics2D) g;
 		Color current = g2.getColor();
-		Stroke stroke = new BasicStroke(PEN_SIZE);
-		g2.setStroke(stroke);
-		g2.setColor(PEN_COLOR);
-		g2.draw(new Rectangle(getX0(), getY0(), getWidth(), getHeight()));
+		Stroke stroke = g2.getStroke();
+		Coord p = getPosition();
+		int x0 = getX0(p);
+		int y0 = getY0(p);
 		g2.setColor(FILL_COLOR);
-		g2.fill(new Rectangle(getX0(), getY0(), getWidth(), getHeight()));
+		g2.fillRect(x0, y0, getWidth(), getHeight());
+		g2.setStroke(RenderingResources.getStroke(PEN_SIZE));
+		g2.setColor(PEN_COLOR);
+		g2.drawRect(x0, y0, getWidth(), getHeight());
+		g2.setStroke(stroke);
 		g2.setColor(current);
 	}
 
@@ -83,7 +106,8 @@ public abstract class AbstractHandle implements ShapeHandle {
 	 */
 	@Override
 	public BoundingBox getBounds() {
-		return new BoundingBox(getX0(), getY0(), getWidth(), getHeight());
+		Coord p = getPosition();
+		return new BoundingBox(getX0(p), getY0(p), getWidth(), getHeight());
 	}
 
 	/**
@@ -122,27 +146,50 @@ public abstract class AbstractHandle implements ShapeHandle {
 	}
 
 	/**
-	 * @inheritDoc
+	 * Returns the location of this handle. If this handle has no location of
+	 * its own, the location is computed from the current bounding box of the
+	 * owner.
+	 * 
+	 * @see ch.bfh.due1.jdt.framework.ShapeHandle#getPosition()
 	 */
 	@Override
 	public Coord getPosition() {
-		return this.location;
+		if (this.location != null) {
+			return this.location;
+		}
+		return locate(getOwner().getBoundingBox());
 	}
 
 	/**
-	 * @inheritDoc
+	 * Sets the location of this handle. From now on, the location is no
+	 * longer derived from the bounding box of the owner.
+	 * 
+	 * @see ch.bfh.due1.jdt.framework.ShapeHandle#setPosition(ch.bfh.due1.jdt.framework.Coord)
 	 */
 	@Override
 	public void setPosition(Coord p) {
 		this.location = p;
 	}
 
-	private int getX0() {
-		return this.location.getX0() - HANDLE_SIZE / 2;
+	/**
+	 * Computes the location of this handle from the given bounding box of its
+	 * owner. Called only if this handle has no location of its own. By
+	 * default, returns the origin of the bounding box.
+	 * 
+	 * @param r
+	 *            the current bounding box of the owner
+	 * @return the location of this handle
+	 */
+	protected Coord locate(BoundingBox r) {
+		return r.getOrigin();
+	}
+
+	private int getX0(Coord p) {
+		return p.getX0() - HANDLE_SIZE / 2;
 	}
 
-	private int getY0() {
-		return this.location.getY0() - HANDLE_SIZE / 2;
+	private int getY0(Coord p) {
+		return p.getY0() - HANDLE_SIZE / 2;
 	}
 
 	private int getWidth() {
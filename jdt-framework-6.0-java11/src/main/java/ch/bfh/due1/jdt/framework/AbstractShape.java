@@ -10,6 +10,7 @@ package ch.bfh.due1.jdt.framework;
 
 import java.awt.Color;
 import java.awt.Graphics;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -25,6 +26,19 @@ import java.util.Set;
  * @author Eric Dubuis
  */
 public abstract class AbstractShape implements Shape {
+	/**
+	 * The margin (in pixels) by which a shape may paint beyond its bounding
+	 * box, i.e., half of its pen and the handles drawn if it is selected.
+	 * Used for computing the areas to be repainted.
+	 */
+	public static final int DRAWING_MARGIN = AbstractHandle.HANDLE_SIZE;
+
+	/**
+	 * The default distance (in pixels) beyond its bounding box within which a
+	 * coordinate may still hit a shape, e.g., a thin line.
+	 */
+	public static final int HIT_TOLERANCE = 2;
+
 	/** The fill color of a shape. */
 	protected Color fillColor;
 
@@ -39,6 +53,10 @@ public abstract class AbstractShape implements Shape {
 
 	/** If true then shape is selected, false otherwise. */
 	protected boolean selected = false;
+
+	/** The handles of this shape, or null if not created yet. */
+	private List<ShapeHandle> handles;
+
 	/**
 	 * Sets the default values for all shapes.
 	 */
@@ -96,6 +114,38 @@ public abstract class AbstractShape implements Shape {
 		}
 	}
 
+	/**
+	 * Tests whether the coordinate lies within the normalized bounding box of
+	 * this shape, grown by the hit tolerance. If the bounding box is unknown,
+	 * returns true.
+	 * 
+	 * @see ch.bfh.due1.jdt.framework.Shape#mayContain(ch.bfh.due1.jdt.framework.Coord)
+	 */
+	@Override
+	public boolean mayContain(Coord c) {
+		BoundingBox b = getBoundingBox();
+		if (b == null) {
+			return true;
+		}
+		int t = getHitTolerance();
+		int x = c.getX0();
+		int y = c.getY0();
+		return b.getMinX() - t <= x && x <= b.getMaxX() + t
+				&& b.getMinY() - t <= y && y <= b.getMaxY() + t;
+	}
+
+	/**
+	 * Returns the distance (in pixels) beyond the bounding box within which
+	 * contains() may return true. Shapes whose exact test reaches farther
+	 * must override this method. By default, returns {@link #HIT_TOLERANCE}.
+	 * 
+	 * @see ch.bfh.due1.jdt.framework.Shape#getHitTolerance()
+	 */
+	@Override
+	public int getHitTolerance() {
+		return HIT_TOLERANCE;
+	}
+
 	/**
 	 * By default, a shape of this base type is not a container.
 	 * 
@@ -186,6 +236,10 @@ public abstract class AbstractShape implements Shape {
 	@Override
 	public final void setSelected(boolean value) {
 		this.selected = value;
+		if (!value) {
+			// Handles are needed while being selected only.
+			this.handles = null;
+		}
 	}
 
 	/**
@@ -196,15 +250,52 @@ public abstract class AbstractShape implements Shape {
 		return this.selected;
 	}
 
+	/**
+	 * Returns the handles of this shape. The handles are created upon the
+	 * first call by means of {@link #createShapeHandles()}, and dropped when
+	 * this shape gets deselected.
+	 * 
+	 * @see ch.bfh.due1.jdt.framework.Shape#getShapeHandles()
+	 */
+	@Override
+	public List<ShapeHandle> getShapeHandles() {
+		if (this.handles == null) {
+			this.handles = createShapeHandles();
+		}
+		return this.handles;
+	}
+
+	/**
+	 * Creates the handles of this shape. Concrete shapes supporting handles
+	 * override this method, preferably with handles deriving their location
+	 * from the bounding box of the shape. By default, a shape has no handles.
+	 * 
+	 * @return a list of shape handles
+	 */
+	protected List<ShapeHandle> createShapeHandles() {
+		return Collections.emptyList();
+	}
+
 	/**
 	 * Draws the (abstract) shape by calling the concrete
 	 * shape's doDrawShape() method and then by drawing the
-	 * shape handles, if the shape is selected.
+	 * shape handles, if the shape is selected. If the graphics
+	 * context carries a level-of-detail policy and the shape
+	 * is small on the screen, the shape is drawn as a rectangle
+	 * or skipped instead of calling doDrawShape(). If the
+	 * graphics context tells that the view draws the handles
+	 * itself, the handles are not drawn here.
+	 * 
+	 * @see LevelOfDetail
+	 * @see HandleRenderer
 	 */
 	@Override
 	public final void draw(Graphics g) {
-		doDrawShape(g);
-		if (isSelected()) {
+		LevelOfDetail lod = LevelOfDetail.get(g);
+		if (lod == null || !lod.drawReduced(g, getBoundingBox(), this.penColor)) {
+			doDrawShape(g);
+		}
+		if (isSelected() && !HandleRenderer.isDeferred(g)) {
 			drawShapeHandles(g);
 		}
 	}
@@ -215,9 +306,7 @@ public abstract class AbstractShape implements Shape {
 	 * @param g the graphics context.
 	 */
 	private final void drawShapeHandles(Graphics g) {
-		for (ShapeHandle sh : getShapeHandles()) {
-			sh.draw(g);
-		}
+		HandleRenderer.draw(g, getShapeHandles());
 	}
 
 	/**
@@ -241,7 +330,38 @@ public abstract class AbstractShape implements Shape {
 	 * upon changes of a shape.
 	 */
 	protected final void notifyShapeChangedListeners() {
-		ShapeChangedEvent e = new ShapeChangedEvent(this);
+		fireShapeChanged(new ShapeChangedEvent(this));
+	}
+
+	/**
+	 * Notifies all registered shape changed listeners. Called by subclasses
+	 * upon changes of a shape's geometry. The event carries the given old and
+	 * the current bounding box of this shape.
+	 * 
+	 * @param oldBounds
+	 *            the bounding box prior to the change
+	 */
+	protected final void notifyShapeChangedListeners(BoundingBox oldBounds) {
+		fireShapeChanged(new ShapeChangedEvent(this, oldBounds,
+				getBoundingBox()));
+	}
+
+	/**
+	 * Notifies all registered shape changed listeners about a change limited
+	 * to the given area. Called by subclasses if only a part of a shape has
+	 * changed, e.g., a member of a group.
+	 * 
+	 * @param oldBounds
+	 *            the bounding box of the changed part prior to the change
+	 * @param newBounds
+	 *            the bounding box of the changed part after the change
+	 */
+	protected final void notifyShapeChangedListeners(BoundingBox oldBounds,
+			BoundingBox newBounds) {
+		fireShapeChanged(new ShapeChangedEvent(this, oldBounds, newBounds));
+	}
+
+	private void fireShapeChanged(ShapeChangedEvent e) {
 		for (ShapeChangedListener l : this.shapeChangedListeners) {
 			l.shapeChanged(e);
 		}
@@ -9,6 +9,7 @@
 package ch.bfh.due1.jdt.framework;
 
 import java.awt.Rectangle;
+import java.io.Serializable;
 
 
 /**
@@ -16,16 +17,25 @@ import java.awt.Rectangle;
  * rectangle class. However, areas of this class are NOT considered to be
  * "empty" if the width or the height is negative. In addition, instances of
  * this class are immutable.
+ * <p>
+ * The normalized bounds, i.e., the bounds with a non-negative width and
+ * height, are computed once at construction time. Thus, the tests of this
+ * class use plain integer arithmetic and do not create any objects.
  * 
  * @author Eric Dubuis
  */
-public final class BoundingBox {
+public final class BoundingBox implements Serializable {
+	private static final long serialVersionUID = -2263519876402917634L;
+
 	private final Coord origin;
 
 	private final int width;
 
 	private final int height;
 
+	/** The normalized left, top, right, and bottom bounds. */
+	private final int minX, minY, maxX, maxY;
+
 	/**
 	 * Creates a bounding box.
 	 * 
@@ -57,6 +67,12 @@ public final class BoundingBox {
 		this.origin = origin;
 		this.width = width;
 		this.height = height;
+		int x0 = origin == null ? 0 : origin.getX0();
+		int y0 = origin == null ? 0 : origin.getY0();
+		this.minX = width >= 0 ? x0 : x0 + width;
+		this.maxX = width >= 0 ? x0 + width : x0;
+		this.minY = height >= 0 ? y0 : y0 + height;
+		this.maxY = height >= 0 ? y0 + height : y0;
 	}
 
 	/**
@@ -114,6 +130,42 @@ public final class BoundingBox {
 		return width;
 	}
 
+	/**
+	 * Returns the left bound of the normalized bounding box.
+	 * 
+	 * @return the smallest x-coordinate
+	 */
+	public int getMinX() {
+		return this.minX;
+	}
+
+	/**
+	 * Returns the top bound of the normalized bounding box.
+	 * 
+	 * @return the smallest y-coordinate
+	 */
+	public int getMinY() {
+		return this.minY;
+	}
+
+	/**
+	 * Returns the right bound of the normalized bounding box.
+	 * 
+	 * @return the largest x-coordinate
+	 */
+	public int getMaxX() {
+		return this.maxX;
+	}
+
+	/**
+	 * Returns the bottom bound of the normalized bounding box.
+	 * 
+	 * @return the largest y-coordinate
+	 */
+	public int getMaxY() {
+		return this.maxY;
+	}
+
 	/**
 	 * Tests whether a coordinate point is contained within this bounding box.
 	 * 
@@ -123,20 +175,63 @@ public final class BoundingBox {
 	 *         box, false otherwise
 	 */
 	public boolean contains(Coord c) {
-		return getAWTRectangle().contains(c.getAWTPoint());
+		return contains(c.getX0(), c.getY0());
+	}
+
+	/**
+	 * Tests whether a coordinate point is contained within this bounding box.
+	 * As with the AWT rectangle, the left and top borders belong to the box,
+	 * but the right and bottom borders do not. Hence, a box with a width or
+	 * height of 0 does not contain any point.
+	 * 
+	 * @param x
+	 *            the x-coordinate of the point
+	 * @param y
+	 *            the y-coordinate of the point
+	 * @return true if the coordinate point is contained within this bounding
+	 *         box, false otherwise
+	 * @see Rectangle#contains(int, int)
+	 */
+	public boolean contains(int x, int y) {
+		return this.minX <= x && x < this.maxX && this.minY <= y
+				&& y < this.maxY;
 	}
 
 	/**
 	 * Constructs a new union form this bounding box and the given bounding box.
+	 * The union is normalized. If this bounding box is normalized already and
+	 * encloses the given one, this bounding box is returned.
 	 * 
 	 * @param b
 	 *            the given bounding box
-	 * @return a new bounding box
+	 * @return the union of both bounding boxes
 	 */
 	public BoundingBox union(BoundingBox b) {
-		Rectangle r = getAWTRectangle();
-		r.add(b.getAWTRectangle());
-		return new BoundingBox(r);
+		int x1 = Math.min(this.minX, b.minX);
+		int y1 = Math.min(this.minY, b.minY);
+		int x2 = Math.max(this.maxX, b.maxX);
+		int y2 = Math.max(this.maxY, b.maxY);
+		if (this.width >= 0 && this.height >= 0 && x1 == this.minX
+				&& y1 == this.minY && x2 == this.maxX && y2 == this.maxY) {
+			return this;
+		}
+		return new BoundingBox(x1, y1, x2 - x1, y2 - y1);
+	}
+
+	/**
+	 * Tests whether this bounding box and the given bounding box share at
+	 * least one point. Both boxes are normalized first, and their borders are
+	 * considered to belong to them. Thus, a box with a width or height of 0
+	 * (e.g., the box of a horizontal line) still intersects the boxes it
+	 * touches.
+	 * 
+	 * @param b
+	 *            the given bounding box
+	 * @return true if both bounding boxes intersect, false otherwise
+	 */
+	public boolean intersects(BoundingBox b) {
+		return this.minX <= b.maxX && b.minX <= this.maxX
+				&& this.minY <= b.maxY && b.minY <= this.maxY;
 	}
 
 	/**
@@ -148,29 +243,8 @@ public final class BoundingBox {
 	 * @return an AWT rectangle object
 	 */
 	public Rectangle getAWTRectangle() {
-		Rectangle r = null;
-		if (width >= 0) {
-			if (height >= 0) {
-				r = new Rectangle(this.origin.getX0(), this.origin
-						.getY0(), width, height);
-			} else {
-				// width >= 0 && height < 0
-				r = new Rectangle(this.origin.getX0(), this.origin
-						.getY0()
-						+ height, width, -height);
-			}
-		} else {
-			if (height >= 0) {
-				r = new Rectangle(this.origin.getX0() + width, this.origin
-						.getY0(), -width, height);
-			} else {
-				// width < 0 && height < 0
-				r = new Rectangle(this.origin.getX0() + width, this.origin
-						.getY0()
-						+ height, -width, -height);
-			}
-		}
-		return r;
+		return new Rectangle(this.minX, this.minY, this.maxX - this.minX,
+				this.maxY - this.minY);
 	}
 
 	/**
@@ -48,4 +48,34 @@ public interface Command {
 	 *            Returns true if the underlying collection is modified.
 	 */
 	public boolean removeCommand(Command c);
+
+	/**
+	 * Tells whether the given command, executed right after this one, can be
+	 * merged into this command, such that undoing this command undoes both.
+	 * For example, two successive moves of the same shapes can be merged. By
+	 * default, commands cannot be merged.
+	 *
+	 * @param c
+	 *            the command executed after this one
+	 * @return true if the given command can be merged into this one
+	 * @see #coalesceWith(Command)
+	 */
+	public default boolean canCoalesceWith(Command c) {
+		return false;
+	}
+
+	/**
+	 * Merges the given command, executed right after this one, into this
+	 * command. Optional method.
+	 *
+	 * @param c
+	 *            the command executed after this one
+	 * @throws UnsupportedOperationException
+	 *             if the command cannot be merged into this one
+	 * @see #canCoalesceWith(Command)
+	 */
+	public default void coalesceWith(Command c) {
+		throw new UnsupportedOperationException(
+				"No command can be merged into this command.");
+	}
 }
@@ -66,4 +66,17 @@ public interface CommandHandler {
 	 * @param listener a command handler listener
 	 */
 	public boolean removeCommandHandlerListener(CommandHandlerListener listener);
+
+	/**
+	 * Sets the resolver of the shapes the commands refer to, e.g., for
+	 * writing commands to a file and reading them back.
+	 * <p>
+	 * By default, does nothing.
+	 *
+	 * @param resolver
+	 *            a shape resolver, or null if shapes are to be kept in memory
+	 */
+	public default void setShapeResolver(ShapeResolver resolver) {
+		// Intentionally left empty.
+	}
 }
@@ -9,6 +9,7 @@
 package ch.bfh.due1.jdt.framework;
 
 import java.awt.Point;
+import java.io.Serializable;
 
 
 /**
@@ -17,7 +18,9 @@ import java.awt.Point;
  * 
  * @author Eric Dubuis
  */
-public final class Coord {
+public final class Coord implements Serializable {
+	private static final long serialVersionUID = 4417349817261873905L;
+
 	private final int x0;
 
 	private final int y0;
@@ -72,7 +75,7 @@ public final class Coord {
 	 * @return the displacement vector
 	 */
 	public Vector getDisplacementVector(Coord b) {
-		return new Vector(b).minus(new Vector(this));
+		return new Vector(b.x0 - this.x0, b.y0 - this.y0);
 	}
 
 	/**
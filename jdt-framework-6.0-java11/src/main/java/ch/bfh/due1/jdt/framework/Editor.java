@@ -119,6 +119,101 @@ public interface Editor {
 	 */
 	public List<Shape> getShapes();
 
+	/**
+	 * Returns the topmost shape of the current view that contains the given
+	 * coordinate point.
+	 * <p>
+	 * The default implementation visits all shapes in reverse stacking order.
+	 * 
+	 * @param c
+	 *            the coordinate point
+	 * @return the topmost shape containing the point, or null
+	 * @see Sheet#findShapeAt(List, Coord)
+	 */
+	public default Shape getShapeAt(Coord c) {
+		return Sheet.findShapeAt(getShapes(), c);
+	}
+
+	/**
+	 * Returns the shapes of the current view whose bounding boxes intersect the
+	 * given area, ordered along the stacking order.
+	 * <p>
+	 * The default implementation visits all shapes.
+	 * 
+	 * @param area
+	 *            the area
+	 * @return a list of the shapes intersecting the area, never null
+	 * @see Sheet#findShapesIn(List, BoundingBox)
+	 */
+	public default List<Shape> getShapesIn(BoundingBox area) {
+		return Sheet.findShapesIn(getShapes(), area);
+	}
+
+	/**
+	 * Returns the stacking index of the given shape on the sheet of the current view.
+	 * <p>
+	 * The default implementation searches the list of shapes.
+	 * 
+	 * @param s
+	 *            a shape
+	 * @return the stacking index of the shape, or -1
+	 * @see Sheet#getStackingIndex(Shape)
+	 */
+	public default int getStackingIndex(Shape s) {
+		return getShapes().indexOf(s);
+	}
+
+	/**
+	 * Moves the given shape to the given stacking index on the sheet of the current view.
+	 * <p>
+	 * The default implementation throws an UnsupportedOperationException.
+	 * 
+	 * @param s
+	 *            a shape
+	 * @param index
+	 *            the new stacking index
+	 * @see Sheet#setStackingIndex(Shape, int)
+	 */
+	public default void setStackingIndex(Shape s, int index) {
+		throw new UnsupportedOperationException(
+				"Changing the stacking order is not supported.");
+	}
+
+	/**
+	 * Begins a batch of changes on the sheet of the current view.
+	 * <p>
+	 * The default implementation does nothing.
+	 * 
+	 * @see Sheet#beginBatch()
+	 */
+	public default void beginBatch() {
+		// Intentionally left empty.
+	}
+
+	/**
+	 * Ends a batch of changes on the sheet of the current view.
+	 * <p>
+	 * The default implementation does nothing.
+	 * 
+	 * @see Sheet#commitBatch()
+	 */
+	public default void commitBatch() {
+		// Intentionally left empty.
+	}
+
+	/**
+	 * Enables or disables the render cache of the current view.
+	 * <p>
+	 * The default implementation does nothing.
+	 * 
+	 * @param enabled
+	 *            true to enable the render cache, false to disable it
+	 * @see View#setRenderCacheEnabled(boolean)
+	 */
+	public default void setRenderCacheEnabled(boolean enabled) {
+		// Intentionally left empty.
+	}
+
 	/**
 	 * Returns the handles of selected shapes of the current view.
 	 *
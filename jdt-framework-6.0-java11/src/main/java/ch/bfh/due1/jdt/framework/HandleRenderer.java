@@ -0,0 +1,143 @@
+/*
+ * Eric Dubuis, Berner Fachhochschule,
+ * Biel, Switzerland.
+ * Copyright (c) 2007
+ *
+ * Distributable under LGPL license.
+ * See terms of license at gnu.org.
+ */
+package ch.bfh.due1.jdt.framework;
+
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.Stroke;
+import java.util.List;
+
+/**
+ * Draws many shape handles in one pass. The handles drawn as plain boxes by
+ * {@link AbstractHandle} are filled and then outlined with the colors and the
+ * stroke set once for all of them. All other handles draw themselves.
+ * <p>
+ * Note that the boxes are not collected into a single path: filling a path
+ * of many thousand overlapping sub-paths is by orders of magnitude slower
+ * than filling the boxes one by one.
+ * <p>
+ * A view drawing the handles of its selection on its own installs the
+ * rendering hint {@link #KEY_HANDLES} with the value
+ * {@link #VALUE_HANDLES_DEFERRED}. Shapes then do not draw their handles.
+ *
+ * @see AbstractShape#draw(Graphics)
+ * @author Eric Dubuis
+ */
+public final class HandleRenderer {
+	/**
+	 * The key of the rendering hint telling whether shapes draw their
+	 * handles.
+	 */
+	public static final RenderingHints.Key KEY_HANDLES = new Key();
+
+	/**
+	 * The value of the rendering hint telling that the handles are drawn by
+	 * the view, not by the shapes.
+	 */
+	public static final Object VALUE_HANDLES_DEFERRED = "Handles deferred";
+
+	/**
+	 * The key of the handles rendering hint.
+	 */
+	private static class Key extends RenderingHints.Key {
+		private Key() {
+			super(0x484e44);
+		}
+
+		@Override
+		public boolean isCompatibleValue(Object val) {
+			return val == VALUE_HANDLES_DEFERRED;
+		}
+
+		@Override
+		public String toString() {
+			return "Handles";
+		}
+	}
+
+	/**
+	 * Tells per handle class whether its handles are drawn as plain boxes,
+	 * i.e., whether the class does not override AbstractHandle.draw().
+	 */
+	private static final ClassValue<Boolean> plain = new ClassValue<Boolean>() {
+		@Override
+		protected Boolean computeValue(Class<?> type) {
+			try {
+				return type.getMethod("draw", Graphics.class)
+						.getDeclaringClass() == AbstractHandle.class;
+			} catch (NoSuchMethodException e) {
+				return Boolean.FALSE;
+			}
+		}
+	};
+
+	/**
+	 * Not to be instantiated.
+	 */
+	private HandleRenderer() {
+	}
+
+	/**
+	 * Returns true if the handles are drawn by the view instead of by the
+	 * shapes.
+	 *
+	 * @param g
+	 *            a graphics context
+	 * @return true if the shapes are not to draw their handles
+	 */
+	public static boolean isDeferred(Graphics g) {
+		return g instanceof Graphics2D
+				&& ((Graphics2D) g).getRenderingHint(KEY_HANDLES) == VALUE_HANDLES_DEFERRED;
+	}
+
+	/**
+	 * Draws the given handles.
+	 *
+	 * @param g
+	 *            the graphics context
+	 * @param handles
+	 *            the handles
+	 */
+	public static void draw(Graphics g, List<? extends ShapeHandle> handles) {
+		// The upper left corners of the plain handles.
+		int[] corners = null;
+		int count = 0;
+		for (ShapeHandle h : handles) {
+			if (h instanceof AbstractHandle && plain.get(h.getClass())) {
+				if (corners == null) {
+					corners = new int[2 * handles.size()];
+				}
+				Coord p = h.getPosition();
+				corners[count++] = p.getX0() - AbstractHandle.HANDLE_SIZE / 2;
+				corners[count++] = p.getY0() - AbstractHandle.HANDLE_SIZE / 2;
+			} else {
+				h.draw(g);
+			}
+		}
+		if (count > 0) {
+			int size = AbstractHandle.HANDLE_SIZE;
+			Graphics2D g2 = (Graphics2D) g;
+			Color color = g2.getColor();
+			Stroke stroke = g2.getStroke();
+			g2.setColor(AbstractHandle.FILL_COLOR);
+			for (int i = 0; i < count; i += 2) {
+				g2.fillRect(corners[i], corners[i + 1], size, size);
+			}
+			g2.setStroke(RenderingResources.getStroke(AbstractHandle.PEN_SIZE));
+			g2.setColor(AbstractHandle.PEN_COLOR);
+			for (int i = 0; i < count; i += 2) {
+				g2.drawRect(corners[i], corners[i + 1], size, size);
+			}
+			g2.setStroke(stroke);
+			g2.setColor(color);
+		}
+	}
+}
@@ -0,0 +1,168 @@
+/*
+ * Eric Dubuis, Berner Fachhochschule,
+ * Biel, Switzerland.
+ * Copyright (c) 2007
+ *
+ * Distributable under LGPL license.
+ * See terms of license at gnu.org.
+ */
+package ch.bfh.due1.jdt.framework;
+
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+
+/**
+ * The level-of-detail policy for drawing shapes. A view installs a policy as
+ * the rendering hint {@link #KEY_LEVEL_OF_DETAIL} of its graphics context.
+ * Shapes whose on-screen size, i.e., the larger side of the bounding box, is
+ * below the detail threshold are then drawn as a filled rectangle of their
+ * pen color. Shapes whose on-screen size is below the skip threshold are not
+ * drawn at all. Without the rendering hint, all shapes are drawn in full
+ * detail.
+ * <p>
+ * The thresholds are given in pixels. Since a policy takes the scale of the
+ * view into account, testing a bounding box against the thresholds uses
+ * plain arithmetic in sheet coordinates. Instances of this class are
+ * immutable.
+ *
+ * @see AbstractShape#draw(Graphics)
+ * @author Eric Dubuis
+ */
+public final class LevelOfDetail {
+	/**
+	 * The key of the rendering hint holding the level-of-detail policy.
+	 */
+	public static final RenderingHints.Key KEY_LEVEL_OF_DETAIL = new Key();
+
+	/**
+	 * The key of the level-of-detail rendering hint.
+	 */
+	private static class Key extends RenderingHints.Key {
+		private Key() {
+			super(0x4c4f44);
+		}
+
+		@Override
+		public boolean isCompatibleValue(Object val) {
+			return val instanceof LevelOfDetail;
+		}
+
+		@Override
+		public String toString() {
+			return "Level of detail";
+		}
+	}
+
+	/** The detail threshold in sheet coordinates. */
+	private final double detailSize;
+
+	/** The skip threshold in sheet coordinates. */
+	private final double skipSize;
+
+	/** The size of a pixel in sheet coordinates, at least 1. */
+	private final int pixelSize;
+
+	/**
+	 * Creates a policy.
+	 *
+	 * @param scale
+	 *            the scale of the view, i.e., the number of pixels per unit
+	 *            of the sheet
+	 * @param detailThreshold
+	 *            the size (in pixels) below which shapes are drawn as a
+	 *            rectangle
+	 * @param skipThreshold
+	 *            the size (in pixels) below which shapes are not drawn
+	 * @throws IllegalArgumentException
+	 *             if the scale is not positive or if a threshold is negative
+	 */
+	public LevelOfDetail(double scale, double detailThreshold,
+			double skipThreshold) {
+		if (!(scale > 0.0)) {
+			throw new IllegalArgumentException("Illegal scale: " + scale);
+		}
+		if (!(detailThreshold >= 0.0) || !(skipThreshold >= 0.0)) {
+			throw new IllegalArgumentException("Illegal thresholds: "
+					+ detailThreshold + ", " + skipThreshold);
+		}
+		this.detailSize = detailThreshold / scale;
+		this.skipSize = skipThreshold / scale;
+		this.pixelSize = Math.max(1, (int) Math.ceil(1.0 / scale));
+	}
+
+	/**
+	 * Returns the level-of-detail policy of the given graphics context.
+	 *
+	 * @param g
+	 *            a graphics context
+	 * @return the policy, or null if shapes are to be drawn in full detail
+	 */
+	public static LevelOfDetail get(Graphics g) {
+		if (g instanceof Graphics2D) {
+			return (LevelOfDetail) ((Graphics2D) g)
+					.getRenderingHint(KEY_LEVEL_OF_DETAIL);
+		}
+		return null;
+	}
+
+	/**
+	 * Draws a shape with the given bounding box and pen color in reduced
+	 * detail, if the policy says so. The color of the graphics context is
+	 * restored.
+	 *
+	 * @param g
+	 *            the graphics context
+	 * @param b
+	 *            the bounding box of the shape
+	 * @param penColor
+	 *            the pen color of the shape
+	 * @return true if the shape has been drawn in reduced detail or has been
+	 *         skipped, false if the shape is to be drawn in full detail
+	 */
+	public boolean drawReduced(Graphics g, BoundingBox b, Color penColor) {
+		if (b == null) {
+			return false;
+		}
+		return drawReduced(g, b.getMinX(), b.getMinY(), b.getMaxX(), b
+				.getMaxY(), penColor);
+	}
+
+	/**
+	 * Draws a shape with the given normalized bounds and pen color in
+	 * reduced detail, if the policy says so. Does the same as
+	 * {@link #drawReduced(Graphics, BoundingBox, Color)} without needing a
+	 * bounding box.
+	 *
+	 * @param g
+	 *            the graphics context
+	 * @param minX
+	 *            the smallest x-coordinate of the shape
+	 * @param minY
+	 *            the smallest y-coordinate of the shape
+	 * @param maxX
+	 *            the largest x-coordinate of the shape
+	 * @param maxY
+	 *            the largest y-coordinate of the shape
+	 * @param penColor
+	 *            the pen color of the shape
+	 * @return true if the shape has been drawn in reduced detail or has been
+	 *         skipped, false if the shape is to be drawn in full detail
+	 */
+	public boolean drawReduced(Graphics g, int minX, int minY, int maxX,
+			int maxY, Color penColor) {
+		int size = Math.max(maxX - minX, maxY - minY);
+		if (size >= this.detailSize) {
+			return false;
+		}
+		if (size >= this.skipSize) {
+			Color color = g.getColor();
+			g.setColor(penColor);
+			g.fillRect(minX, minY, Math.max(this.pixelSize, maxX - minX), Math
+					.max(this.pixelSize, maxY - minY));
+			g.setColor(color);
+		}
+		return true;
+	}
+}
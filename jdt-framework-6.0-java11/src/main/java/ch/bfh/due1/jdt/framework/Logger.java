@@ -8,9 +8,17 @@
  */
 package ch.bfh.due1.jdt.framework;
 
+import java.util.function.Supplier;
+
 /**
  * Represents a logger. Concrete loggers are adapters for the log4j or the
  * standard java.util.logging frameworks.
+ * <p>
+ * Building a message costs time and memory even if the message is not
+ * logged. On the paths taken per mouse event or per shape change, check the
+ * level first, see {@link #isDebugEnabled()}, or pass a supplier building
+ * the message only if it is logged. The default implementations log at all
+ * levels; adapters should override the level checks.
  * 
  * @author Eric Dubuis
  */
@@ -30,4 +38,48 @@ public interface Logger {
 	 *            The message to log.
 	 */
 	public void debug(String message);
+
+	/**
+	 * Tells if messages are logged at the info level.
+	 * 
+	 * @return true if info messages are logged
+	 */
+	public default boolean isInfoEnabled() {
+		return true;
+	}
+
+	/**
+	 * Tells if messages are logged at the debug level.
+	 * 
+	 * @return true if debug messages are logged
+	 */
+	public default boolean isDebugEnabled() {
+		return true;
+	}
+
+	/**
+	 * Logs the message built by the given supplier at the info level. The
+	 * supplier is not called if info messages are not logged.
+	 * 
+	 * @param message
+	 *            The supplier of the message to log.
+	 */
+	public default void info(Supplier<String> message) {
+		if (isInfoEnabled()) {
+			info(message.get());
+		}
+	}
+
+	/**
+	 * Logs the message built by the given supplier at the debug level. The
+	 * supplier is not called if debug messages are not logged.
+	 * 
+	 * @param message
+	 *            The supplier of the message to log.
+	 */
+	public default void debug(Supplier<String> message) {
+		if (isDebugEnabled()) {
+			debug(message.get());
+		}
+	}
 }
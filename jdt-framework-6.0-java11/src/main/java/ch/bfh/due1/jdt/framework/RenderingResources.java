@@ -0,0 +1,100 @@
+/*
+ * Eric Dubuis, Berner Fachhochschule,
+ * Biel, Switzerland.
+ * Copyright (c) 2007
+ *
+ * Distributable under LGPL license.
+ * See terms of license at gnu.org.
+ */
+package ch.bfh.due1.jdt.framework;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Cursor;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Shared instances of the immutable resources needed to draw shapes and
+ * handles, i.e., strokes, cursors, and colors. Shapes obtain these resources
+ * from here instead of creating new instances each time they are drawn.
+ * <p>
+ * The strokes of small pen sizes are kept in an array. All other resources
+ * are kept in concurrent maps. Thus, the methods of this class may be called
+ * from any thread.
+ *
+ * @author Eric Dubuis
+ */
+public final class RenderingResources {
+	/** The number of pen sizes whose strokes are kept in an array. */
+	private static final int SMALL_PEN_SIZES = 32;
+
+	/**
+	 * The strokes of the small pen sizes. Filled when the class is
+	 * initialized, hence safely published to all threads.
+	 */
+	private static final BasicStroke[] smallStrokes = new BasicStroke[SMALL_PEN_SIZES];
+
+	static {
+		for (int i = 0; i < SMALL_PEN_SIZES; i++) {
+			smallStrokes[i] = new BasicStroke(i);
+		}
+	}
+
+	/** The strokes of the other pen sizes. */
+	private static final ConcurrentMap<Integer, BasicStroke> strokes = new ConcurrentHashMap<Integer, BasicStroke>();
+
+	/** The colors, keyed by their ARGB value. */
+	private static final ConcurrentMap<Integer, Color> colors = new ConcurrentHashMap<Integer, Color>();
+
+	/**
+	 * Not to be instantiated.
+	 */
+	private RenderingResources() {
+	}
+
+	/**
+	 * Returns the solid stroke of the given pen size.
+	 *
+	 * @param penSize
+	 *            the pen size
+	 * @return the shared stroke
+	 * @throws IllegalArgumentException
+	 *             if the pen size is negative
+	 */
+	public static BasicStroke getStroke(int penSize) {
+		if (penSize < 0) {
+			throw new IllegalArgumentException("Illegal pen size: " + penSize);
+		}
+		if (penSize < SMALL_PEN_SIZES) {
+			return smallStrokes[penSize];
+		}
+		return strokes.computeIfAbsent(penSize, size -> new BasicStroke(size));
+	}
+
+	/**
+	 * Returns the predefined cursor of the given type. The cursors are shared
+	 * by AWT already, see {@link Cursor#getPredefinedCursor(int)}.
+	 *
+	 * @param type
+	 *            the type of the cursor, e.g., {@link Cursor#MOVE_CURSOR}
+	 * @return the shared cursor
+	 * @throws IllegalArgumentException
+	 *             if the type is not a predefined cursor type
+	 */
+	public static Cursor getCursor(int type) {
+		return Cursor.getPredefinedCursor(type);
+	}
+
+	/**
+	 * Returns the color of the given ARGB value.
+	 *
+	 * @param argb
+	 *            the alpha (bits 24-31), red (bits 16-23), green (bits 8-15),
+	 *            and blue (bits 0-7) components
+	 * @return the shared color
+	 */
+	public static Color getColor(int argb) {
+		return colors.computeIfAbsent(argb, value -> new Color(value, true));
+	}
+}
@@ -77,6 +77,37 @@ public interface Shape {
 	 */
 	public boolean contains(Coord c);
 
+	/**
+	 * Tests quickly whether the mouse coordinate may be contained in the
+	 * shape. This broad-phase test is meant to be run before the exact test
+	 * of {@link #contains(Coord)}, rejecting most of the coordinates at low
+	 * cost. A result of false is definite: contains() must then return false,
+	 * too. A result of true requires the exact test.
+	 * <p>
+	 * By default, returns true.
+	 * 
+	 * @param c
+	 *            The coordinate of the mouse position.
+	 * @return False if the coordinate is not contained in the shape, true if
+	 *         it may be contained.
+	 */
+	public default boolean mayContain(Coord c) {
+		return true;
+	}
+
+	/**
+	 * Returns the distance (in pixels) beyond the bounding box within which
+	 * contains() may return true, e.g., for indexing the shape by its
+	 * bounding box grown by this distance.
+	 * <p>
+	 * By default, returns -1, i.e., the distance is unknown.
+	 * 
+	 * @return a distance in pixels, or a negative value if unknown
+	 */
+	public default int getHitTolerance() {
+		return -1;
+	}
+
 	/**
 	 * Sets the fill color. If the shape has no area then this method has no
 	 * effect.
@@ -186,6 +217,25 @@ public interface Shape {
 	 */
 	public Shape cloneMe();
 
+	/**
+	 * Provides a deep copy of this shape having its current state, e.g., for
+	 * drawing it by another thread. Unlike {@link #cloneMe()}, taking a
+	 * snapshot must not change this shape in any way, and the copy must not
+	 * share anything with this shape that may change.
+	 * <p>
+	 * By default, returns a clone of this shape being set to a memento of
+	 * this shape.
+	 *
+	 * @return a copy of myself
+	 * @throws UnsupportedOperationException
+	 *             if this shape cannot be copied
+	 */
+	public default Shape snapshot() {
+		Shape copy = cloneMe();
+		copy.setMemento(createMemento());
+		return copy;
+	}
+
 	/**
 	 * Tells a shape whether it is selected or not. If selected,
 	 * shape must draw its handles.
@@ -16,6 +16,10 @@ import java.util.EventObject;
  * (position, size, etc.). The corresponding shape can be obtained with method
  * getShape().
  * <p>
+ * If known, the event carries the bounding boxes of the shape prior to and
+ * after the change. Listeners can use them to limit their work to the area
+ * that has actually changed, see {@link #getDirtyArea()}.
+ * <p>
  * Listeners interested in receiving this event must implement the
  * ShapeChangedListener interface.
  * 
@@ -30,6 +34,12 @@ public class ShapeChangedEvent extends EventObject {
 	 */
 	private static final long serialVersionUID = -2482837780686127999L;
 
+	/** The bounding box prior to the change, or null. */
+	private final transient BoundingBox oldBounds;
+
+	/** The bounding box after the change, or null. */
+	private final transient BoundingBox newBounds;
+
 	/**
 	 * Creates an instance of this class. Only shapes are allowed to generate this
 	 * kind of event.
@@ -38,7 +48,25 @@ public class ShapeChangedEvent extends EventObject {
 	 *            The Shape object that changed state.
 	 */
 	public ShapeChangedEvent(Shape source) {
+		this(source, null, null);
+	}
+
+	/**
+	 * Creates an instance of this class carrying the bounding boxes of the
+	 * shape prior to and after the change.
+	 * 
+	 * @param source
+	 *            The Shape object that changed state.
+	 * @param oldBounds
+	 *            The bounding box prior to the change, or null if unknown.
+	 * @param newBounds
+	 *            The bounding box after the change, or null if unknown.
+	 */
+	public ShapeChangedEvent(Shape source, BoundingBox oldBounds,
+			BoundingBox newBounds) {
 		super(source);
+		this.oldBounds = oldBounds;
+		this.newBounds = newBounds;
 	}
 
 	/**
@@ -49,4 +77,35 @@ public class ShapeChangedEvent extends EventObject {
 	public Shape getShape() {
 		return (Shape) getSource();
 	}
+
+	/**
+	 * Returns the bounding box of the shape prior to the change.
+	 * 
+	 * @return The bounding box, or null if unknown.
+	 */
+	public BoundingBox getOldBounds() {
+		return this.oldBounds;
+	}
+
+	/**
+	 * Returns the bounding box of the shape after the change.
+	 * 
+	 * @return The bounding box, or null if unknown.
+	 */
+	public BoundingBox getNewBounds() {
+		return this.newBounds;
+	}
+
+	/**
+	 * Returns the area affected by the change, i.e., the union of the old and
+	 * the new bounding box.
+	 * 
+	 * @return The affected area, or null if it is unknown.
+	 */
+	public BoundingBox getDirtyArea() {
+		if (this.oldBounds == null || this.newBounds == null) {
+			return null;
+		}
+		return this.oldBounds.union(this.newBounds);
+	}
 }
@@ -0,0 +1,46 @@
+/*
+ * Eric Dubuis, Berner Fachhochschule,
+ * Biel, Switzerland.
+ * Copyright (c) 2007
+ *
+ * Distributable under LGPL license.
+ * See terms of license at gnu.org.
+ */
+package ch.bfh.due1.jdt.framework;
+
+import java.io.IOException;
+import java.io.Serializable;
+
+/**
+ * Replaces shapes by serializable stand-ins and resolves the stand-ins back
+ * into shapes, e.g., for a command handler writing commands to a file. The
+ * objects a stand-in refers to are written in turn; in particular, the
+ * shapes it refers to are replaced by their stand-ins as well.
+ *
+ * @see CommandHandler#setShapeResolver(ShapeResolver)
+ * @author Eric Dubuis
+ */
+public interface ShapeResolver {
+
+	/**
+	 * Returns a stand-in of the given shape.
+	 *
+	 * @param s
+	 *            a shape
+	 * @return the stand-in, or null if the shape is to be kept in memory
+	 */
+	public Serializable replace(Shape s);
+
+	/**
+	 * Returns the shape for the given stand-in, its shapes being resolved.
+	 * The shape may be the one the stand-in was created for, if it can be
+	 * looked up, or a shape re-created from the stand-in.
+	 *
+	 * @param standIn
+	 *            a stand-in returned by {@link #replace(Shape)}
+	 * @return a shape
+	 * @throws IOException
+	 *             if the shape cannot be re-created
+	 */
+	public Shape resolve(Serializable standIn) throws IOException;
+}
@@ -9,6 +9,7 @@
 package ch.bfh.due1.jdt.framework;
 
 import java.awt.Graphics;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 
@@ -69,6 +70,144 @@ public interface Sheet {
 	 */
 	public List<Shape> getShapesByStackingOrder(Collection<Shape> shapes);
 
+	/**
+	 * Returns the topmost shape, with respect to the stacking order, that
+	 * contains the given coordinate point.
+	 * <p>
+	 * The default implementation visits all shapes in reverse stacking order.
+	 * Sheets managing many shapes should override it by means of a spatial
+	 * index.
+	 * 
+	 * @param c
+	 *            the coordinate point
+	 * @return the topmost shape containing the point, or null
+	 */
+	public default Shape getShapeAt(Coord c) {
+		return findShapeAt(getShapes(), c);
+	}
+
+	/**
+	 * Returns the topmost shape of the given list, ordered along the stacking
+	 * order, that contains the given coordinate point. Implements
+	 * {@link #getShapeAt(Coord)} for sheets, views, and editors without a
+	 * spatial index.
+	 * 
+	 * @param shapes
+	 *            the shapes ordered along the stacking order
+	 * @param c
+	 *            the coordinate point
+	 * @return the topmost shape containing the point, or null
+	 */
+	public static Shape findShapeAt(List<Shape> shapes, Coord c) {
+		for (int i = shapes.size() - 1; i >= 0; i--) {
+			Shape s = shapes.get(i);
+			if (s.mayContain(c) && s.contains(c)) {
+				return s;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the shapes whose bounding boxes intersect the given area,
+	 * ordered along the stacking order. Shapes without a bounding box are
+	 * always returned.
+	 * <p>
+	 * The default implementation visits all shapes. Sheets managing many
+	 * shapes should override it by means of a spatial index.
+	 * 
+	 * @param area
+	 *            the area
+	 * @return a list of the shapes intersecting the area, never null
+	 * @see BoundingBox#intersects(BoundingBox)
+	 */
+	public default List<Shape> getShapesIn(BoundingBox area) {
+		return findShapesIn(getShapes(), area);
+	}
+
+	/**
+	 * Returns the shapes of the given list whose bounding boxes intersect the
+	 * given area, and the shapes without a bounding box. Implements {@link #getShapesIn(BoundingBox)} for sheets,
+	 * views, and editors without a spatial index.
+	 * 
+	 * @param shapes
+	 *            the shapes ordered along the stacking order
+	 * @param area
+	 *            the area
+	 * @return a list of the shapes intersecting the area, never null
+	 */
+	public static List<Shape> findShapesIn(List<Shape> shapes,
+			BoundingBox area) {
+		List<Shape> result = new ArrayList<Shape>();
+		for (Shape s : shapes) {
+			BoundingBox b = s.getBoundingBox();
+			if (b == null || area.intersects(b)) {
+				result.add(s);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the stacking index of the given shape. The bottommost shape has
+	 * index 0, the topmost one index getShapes().size() - 1.
+	 * <p>
+	 * The default implementation searches the list of shapes.
+	 * 
+	 * @param s
+	 *            a shape
+	 * @return the stacking index of the shape, or -1 if the shape is not on
+	 *         this sheet
+	 */
+	public default int getStackingIndex(Shape s) {
+		return getShapes().indexOf(s);
+	}
+
+	/**
+	 * Moves the given shape to the given stacking index. The other shapes
+	 * keep their relative order.
+	 * <p>
+	 * The default implementation throws an UnsupportedOperationException.
+	 * 
+	 * @param s
+	 *            a shape of this sheet
+	 * @param index
+	 *            the new stacking index, from 0 to getShapes().size() - 1
+	 * @throws IllegalArgumentException
+	 *             if the shape is not on this sheet, or the index is out of
+	 *             range
+	 */
+	public default void setStackingIndex(Shape s, int index) {
+		throw new UnsupportedOperationException(
+				"Changing the stacking order is not supported.");
+	}
+
+	/**
+	 * Begins a batch of changes. Until the matching call of
+	 * {@link #commitBatch()}, the sheet does not notify its listeners of each
+	 * individual change. Instead, all changes are merged into one
+	 * {@link SheetChangedEvent} that carries the affected shapes and their
+	 * combined dirty area. Batches may be nested; only the outermost commit
+	 * notifies the listeners.
+	 * <p>
+	 * The default implementation does nothing, i.e., every change is
+	 * notified immediately.
+	 */
+	public default void beginBatch() {
+		// Intentionally left empty.
+	}
+
+	/**
+	 * Ends a batch of changes begun with {@link #beginBatch()}. Must be
+	 * called exactly once for each call of {@link #beginBatch()}, preferably
+	 * in a finally block.
+	 * <p>
+	 * The default implementation does nothing.
+	 */
+	public default void commitBatch() {
+		// Intentionally left empty.
+	}
+
 	/**
 	 * Draws all the shapes.
 	 * 
@@ -77,6 +216,19 @@ public interface Sheet {
 	 */
 	public void draw(Graphics g);
 
+	/**
+	 * Returns the number of shapes drawn by the last call of
+	 * {@link #draw(Graphics)}, i.e., of the shapes not being skipped as being
+	 * outside of the clip bounds.
+	 * <p>
+	 * The default implementation returns -1, i.e., unknown.
+	 * 
+	 * @return the number of shapes, or -1 if unknown
+	 */
+	public default int getDrawnShapeCount() {
+		return -1;
+	}
+
 	/**
 	 * Registers a SheetChangedListener instance at this view. The sheet's duty
 	 * is to inform this listener whenever the sheet changes its state (shape
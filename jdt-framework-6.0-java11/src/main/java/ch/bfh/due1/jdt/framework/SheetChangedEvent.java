@@ -8,7 +8,9 @@
  */
 package ch.bfh.due1.jdt.framework;
 
+import java.util.Collections;
 import java.util.EventObject;
+import java.util.Set;
 
 
 /**
@@ -16,6 +18,11 @@ import java.util.EventObject;
  * (new shape, etc.). The corresponding sheet can be obtained with method
  * getSheet().
  * <p>
+ * If known, the event carries the area of the sheet affected by the change,
+ * see {@link #getDirtyArea()}. An event signaling a batch of changes, see
+ * {@link Sheet#beginBatch()}, also carries the shapes affected by the batch,
+ * see {@link #getShapes()}.
+ * <p>
  * Listeners interested in receiving this event must implement the
  * SheetChangedListener interface.
  * 
@@ -30,6 +37,12 @@ public class SheetChangedEvent extends EventObject {
 	 */
 	private static final long serialVersionUID = -7671853298303781763L;
 
+	/** The affected area, or null. */
+	private final transient BoundingBox dirtyArea;
+
+	/** The affected shapes. */
+	private final transient Set<Shape> shapes;
+
 	/**
 	 * Creates an instance of this class.
 	 * 
@@ -37,7 +50,40 @@ public class SheetChangedEvent extends EventObject {
 	 *            The Sheet object that changed state.
 	 */
 	public SheetChangedEvent(Sheet source) {
+		this(source, null);
+	}
+
+	/**
+	 * Creates an instance of this class carrying the area of the sheet
+	 * affected by the change.
+	 * 
+	 * @param source
+	 *            The Sheet object that changed state.
+	 * @param dirtyArea
+	 *            The affected area, or null if the whole sheet may have
+	 *            changed.
+	 */
+	public SheetChangedEvent(Sheet source, BoundingBox dirtyArea) {
+		this(source, Collections.<Shape> emptySet(), dirtyArea);
+	}
+
+	/**
+	 * Creates an instance of this class carrying the shapes affected by the
+	 * change and their combined dirty area.
+	 * 
+	 * @param source
+	 *            The Sheet object that changed state.
+	 * @param shapes
+	 *            The affected shapes, must not be null.
+	 * @param dirtyArea
+	 *            The affected area, or null if the whole sheet may have
+	 *            changed.
+	 */
+	public SheetChangedEvent(Sheet source, Set<Shape> shapes,
+			BoundingBox dirtyArea) {
 		super(source);
+		this.shapes = Collections.unmodifiableSet(shapes);
+		this.dirtyArea = dirtyArea;
 	}
 
 	/**
@@ -48,4 +94,24 @@ public class SheetChangedEvent extends EventObject {
 	public Sheet getSheet() {
 		return (Sheet) getSource();
 	}
+
+	/**
+	 * Returns the area of the sheet affected by the change. Shapes drawn
+	 * outside this area are not affected.
+	 * 
+	 * @return The affected area, or null if the whole sheet may have changed.
+	 */
+	public BoundingBox getDirtyArea() {
+		return this.dirtyArea;
+	}
+
+	/**
+	 * Returns the shapes affected by the change, if known. Shapes that were
+	 * added, removed, or changed are contained.
+	 * 
+	 * @return An unmodifiable set of shapes, possibly empty.
+	 */
+	public Set<Shape> getShapes() {
+		return this.shapes;
+	}
 }
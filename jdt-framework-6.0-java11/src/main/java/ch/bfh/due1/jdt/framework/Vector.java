@@ -8,13 +8,17 @@
  */
 package ch.bfh.due1.jdt.framework;
 
+import java.io.Serializable;
+
 
 /**
  * This class represents a distance (vector) by the components c_x and c_y.
  * 
  * @author Eric Dubuis
  */
-public class Vector {
+public class Vector implements Serializable {
+	private static final long serialVersionUID = 7730938467621308011L;
+
 	private double xComponent;
 
 	private double yComponent;
@@ -34,6 +34,17 @@ public interface View {
 	 */
 	public void setSheet(Sheet s);
 
+	/**
+	 * Returns the sheet associated with this view.
+	 * <p>
+	 * The default implementation throws an UnsupportedOperationException.
+	 * 
+	 * @return the sheet, or null if none is associated
+	 */
+	public default Sheet getSheet() {
+		throw new UnsupportedOperationException("Method not implemented");
+	}
+
 	/**
 	 * Returns the associated editor.
 	 * 
@@ -128,6 +139,219 @@ public interface View {
 	 */
 	public List<Shape> getShapesByStackingOrder(Collection<Shape> shapes);
 
+	/**
+	 * Returns the topmost shape of the associated sheet that contains the given
+	 * coordinate point.
+	 * <p>
+	 * The default implementation visits all shapes in reverse stacking order.
+	 * 
+	 * @param c
+	 *            the coordinate point
+	 * @return the topmost shape containing the point, or null
+	 * @see Sheet#findShapeAt(List, Coord)
+	 */
+	public default Shape getShapeAt(Coord c) {
+		return Sheet.findShapeAt(getShapes(), c);
+	}
+
+	/**
+	 * Returns the shapes of the associated sheet whose bounding boxes intersect the
+	 * given area, ordered along the stacking order.
+	 * <p>
+	 * The default implementation visits all shapes.
+	 * 
+	 * @param area
+	 *            the area
+	 * @return a list of the shapes intersecting the area, never null
+	 * @see Sheet#findShapesIn(List, BoundingBox)
+	 */
+	public default List<Shape> getShapesIn(BoundingBox area) {
+		return Sheet.findShapesIn(getShapes(), area);
+	}
+
+	/**
+	 * Returns the stacking index of the given shape on the associated sheet.
+	 * <p>
+	 * The default implementation searches the list of shapes.
+	 * 
+	 * @param s
+	 *            a shape
+	 * @return the stacking index of the shape, or -1
+	 * @see Sheet#getStackingIndex(Shape)
+	 */
+	public default int getStackingIndex(Shape s) {
+		return getShapes().indexOf(s);
+	}
+
+	/**
+	 * Moves the given shape to the given stacking index on the associated sheet.
+	 * <p>
+	 * The default implementation throws an UnsupportedOperationException.
+	 * 
+	 * @param s
+	 *            a shape
+	 * @param index
+	 *            the new stacking index
+	 * @see Sheet#setStackingIndex(Shape, int)
+	 */
+	public default void setStackingIndex(Shape s, int index) {
+		throw new UnsupportedOperationException(
+				"Changing the stacking order is not supported.");
+	}
+
+	/**
+	 * Begins a batch of changes on the associated sheet.
+	 * <p>
+	 * The default implementation does nothing.
+	 * 
+	 * @see Sheet#beginBatch()
+	 */
+	public default void beginBatch() {
+		// Intentionally left empty.
+	}
+
+	/**
+	 * Ends a batch of changes on the associated sheet.
+	 * <p>
+	 * The default implementation does nothing.
+	 * 
+	 * @see Sheet#commitBatch()
+	 */
+	public default void commitBatch() {
+		// Intentionally left empty.
+	}
+
+	/**
+	 * Returns the zoom factor of this view. A zoom factor of 1.0 shows the
+	 * sheet at its actual size.
+	 * <p>
+	 * The default implementation returns 1.0.
+	 * 
+	 * @return the zoom factor
+	 */
+	public default double getZoom() {
+		return 1.0;
+	}
+
+	/**
+	 * Sets the zoom factor of this view. The center of the visible area of
+	 * the sheet is kept.
+	 * <p>
+	 * The default implementation throws an UnsupportedOperationException.
+	 * 
+	 * @param zoom
+	 *            the zoom factor, must be greater than 0
+	 * @throws IllegalArgumentException
+	 *             if the zoom factor is not greater than 0
+	 */
+	public default void setZoom(double zoom) {
+		throw new UnsupportedOperationException("Zooming not supported");
+	}
+
+	/**
+	 * Returns the point of the sheet shown at the upper left corner of this
+	 * view.
+	 * <p>
+	 * The default implementation returns (0, 0).
+	 * 
+	 * @return a coordinate point of the sheet
+	 */
+	public default Coord getViewOrigin() {
+		return new Coord(0, 0);
+	}
+
+	/**
+	 * Pans this view such that the given point of the sheet is shown at the
+	 * upper left corner of this view.
+	 * <p>
+	 * The default implementation throws an UnsupportedOperationException.
+	 * 
+	 * @param origin
+	 *            a coordinate point of the sheet
+	 */
+	public default void setViewOrigin(Coord origin) {
+		throw new UnsupportedOperationException("Panning not supported");
+	}
+
+	/**
+	 * Returns the area of the sheet being visible in this view, given in
+	 * sheet coordinates.
+	 * <p>
+	 * The default implementation returns null, i.e., the visible area is
+	 * unknown.
+	 * 
+	 * @return the visible area, or null if unknown
+	 */
+	public default BoundingBox getVisibleArea() {
+		return null;
+	}
+
+	/**
+	 * Sets the level-of-detail thresholds of this view. Shapes whose size on
+	 * the screen is below the detail threshold are drawn as a rectangle, and
+	 * shapes whose size is below the skip threshold are not drawn at all. A
+	 * detail threshold of 0 draws all shapes in full detail.
+	 * <p>
+	 * The default implementation does nothing.
+	 * 
+	 * @param detailThreshold
+	 *            the size (in pixels) below which shapes are drawn as a
+	 *            rectangle
+	 * @param skipThreshold
+	 *            the size (in pixels) below which shapes are not drawn
+	 * @see LevelOfDetail
+	 */
+	public default void setDetailThresholds(double detailThreshold,
+			double skipThreshold) {
+		// Intentionally left empty.
+	}
+
+	/**
+	 * Enables or disables the render cache of this view. While enabled, the
+	 * view may rasterize the shapes not being selected once, and draw only the
+	 * selected shapes on top of the rasterized image each time it is painted.
+	 * Tools enable the cache while the user is dragging the selection.
+	 * <p>
+	 * The default implementation does nothing.
+	 * 
+	 * @param enabled
+	 *            true to enable the render cache, false to disable it
+	 */
+	public default void setRenderCacheEnabled(boolean enabled) {
+		// Intentionally left empty.
+	}
+
+	/**
+	 * Enables or disables background rendering. While enabled, the view may
+	 * rasterize snapshots of its shapes by a background thread and only copy
+	 * the latest rasterized image when being painted. Hence, the event
+	 * dispatch thread does not wait for complex sheets being drawn.
+	 * <p>
+	 * The default implementation does nothing.
+	 * 
+	 * @param enabled
+	 *            true to enable background rendering, false to disable it
+	 */
+	public default void setBackgroundRenderingEnabled(boolean enabled) {
+		// Intentionally left empty.
+	}
+
+	/**
+	 * Enables or disables input coalescing. While enabled, the view may
+	 * collapse the mouse drag and mouse over events arriving faster than it
+	 * paints to the latest one per frame. Mouse down and mouse up events are
+	 * never collapsed, and the tools receive the last coordinate before
+	 * either.
+	 * <p>
+	 * The default implementation does nothing.
+	 * 
+	 * @param enabled
+	 *            true to enable input coalescing, false to disable it
+	 */
+	public default void setInputCoalescingEnabled(boolean enabled) {
+		// Intentionally left empty.
+	}
+
 	/**
 	 * Returns the handles of selected shapes.
 	 * 
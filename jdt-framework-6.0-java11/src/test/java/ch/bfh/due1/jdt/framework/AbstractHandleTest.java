@@ -1024,6 +1024,28 @@ public class AbstractHandleTest {
 		assertEquals(new Coord(40, 50), h.getPosition());
 	}
 
+	/**
+	 * Tests that the position of a handle without a location of its own
+	 * follows the bounding box of its owner.
+	 */
+	@Test
+	public void testPosition3() {
+		final BoundingBox[] bounds = { new BoundingBox(10, 20, 30, 40) };
+		Shape s = new DummyShape() {
+			@Override
+			public BoundingBox getBoundingBox() {
+				return bounds[0];
+			}
+		};
+		ShapeHandle h = new DummyHandle(s, null);
+		assertEquals(new Coord(10, 20), h.getPosition());
+		bounds[0] = new BoundingBox(50, 60, 30, 40);
+		assertEquals(new Coord(50, 60), h.getPosition());
+		assertTrue(h.contains(new Coord(50, 60)));
+		h.setPosition(new Coord(0, 0));
+		assertEquals(new Coord(0, 0), h.getPosition());
+	}
+
 	/**
 	 * Tests getBounds() and BoundingBox.contains().
 	 */
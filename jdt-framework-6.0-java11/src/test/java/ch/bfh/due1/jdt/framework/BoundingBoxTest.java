@@ -356,6 +356,77 @@ public class BoundingBoxTest {
 		assertEquals(y1 + height1 - y2, res1.getHeight());
 	}
 
+	/**
+	 * Tests the intersection of bounding boxes with positive and negative
+	 * extents.
+	 */
+	@Test
+	public void testIntersects1() {
+		BoundingBox bb = new BoundingBox(10, 10, 20, 20);
+		assertTrue(bb.intersects(new BoundingBox(25, 25, 20, 20)));
+		assertTrue(bb.intersects(new BoundingBox(45, 45, -20, -20)));
+		assertTrue(new BoundingBox(30, 30, -20, -20).intersects(bb));
+		assertFalse(bb.intersects(new BoundingBox(31, 10, 5, 5)));
+		assertFalse(bb.intersects(new BoundingBox(10, 5, 5, -1)));
+	}
+
+	/**
+	 * Tests that degenerated bounding boxes (width or height of 0) intersect
+	 * the boxes they touch.
+	 */
+	@Test
+	public void testIntersects2() {
+		BoundingBox bb = new BoundingBox(10, 10, 20, 20);
+		assertTrue(bb.intersects(new BoundingBox(0, 15, 50, 0)));
+		assertTrue(bb.intersects(new BoundingBox(30, 30, 0, 0)));
+		assertTrue(new BoundingBox(20, 0, 0, 50).intersects(bb));
+		assertFalse(bb.intersects(new BoundingBox(31, 31, 0, 0)));
+	}
+
+	/**
+	 * Tests that the normalized bounds are the ones of the AWT rectangle.
+	 */
+	@Test
+	public void testNormalizedBounds() {
+		BoundingBox bb = new BoundingBox(30, 10, -20, -5);
+		assertEquals(10, bb.getMinX());
+		assertEquals(5, bb.getMinY());
+		assertEquals(30, bb.getMaxX());
+		assertEquals(10, bb.getMaxY());
+		assertEquals(new Rectangle(10, 5, 20, 5), bb.getAWTRectangle());
+	}
+
+	/**
+	 * Tests that the primitive containment test agrees with the one of the
+	 * AWT rectangle, including the borders and empty boxes.
+	 */
+	@Test
+	public void testContains5() {
+		BoundingBox[] boxes = { new BoundingBox(10, 10, 5, 5),
+				new BoundingBox(15, 15, -5, -5), new BoundingBox(10, 15, 5, -5),
+				new BoundingBox(10, 10, 0, 5), new BoundingBox(10, 10, 0, 0) };
+		for (BoundingBox bb : boxes) {
+			Rectangle r = bb.getAWTRectangle();
+			for (int x = 5; x <= 20; x++) {
+				for (int y = 5; y <= 20; y++) {
+					assertEquals(r.contains(x, y), bb.contains(new Coord(x, y)));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Tests that the union of an enclosing normalized box is the box itself,
+	 * and that a union is always normalized.
+	 */
+	@Test
+	public void testUnion5() {
+		BoundingBox bb = new BoundingBox(0, 0, 20, 20);
+		assertSame(bb, bb.union(new BoundingBox(5, 5, 5, 5)));
+		BoundingBox negative = new BoundingBox(20, 20, -20, -20);
+		assertEquals(bb, negative.union(new BoundingBox(5, 5, 5, 5)));
+	}
+
 	/**
 	 * Tests the toString() method.
 	 */
@@ -0,0 +1,110 @@
+/*
+ * Eric Dubuis, Berner Fachhochschule,
+ * Biel, Switzerland.
+ * Copyright (c) 2007
+ *
+ * Distributable under LGPL license.
+ * See terms of license at gnu.org.
+ */
+package ch.bfh.due1.jdt.framework;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.Cursor;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import ch.bfh.due1.jdt.framework.util.HandleAdaptor;
+
+/**
+ * Tests the batched drawing of handles.
+ *
+ * @author Eric Dubuis
+ */
+public class HandleRendererTest {
+	/**
+	 * A handle drawn as a plain box.
+	 */
+	private static class PlainHandle extends AbstractHandle {
+		PlainHandle(int x, int y) {
+			super(null, new Coord(x, y));
+		}
+
+		@Override
+		public Cursor getCursor() {
+			return null;
+		}
+	}
+
+	/**
+	 * A handle drawing itself.
+	 */
+	private static class OwnHandle extends HandleAdaptor {
+		private boolean drawCalled = false;
+
+		OwnHandle() {
+			super(null, null);
+		}
+
+		@Override
+		public void draw(Graphics g) {
+			this.drawCalled = true;
+		}
+	}
+
+	/**
+	 * Tests that plain handles not overlapping each other are drawn with the
+	 * same pixels as when drawn one by one, and that other handles draw
+	 * themselves.
+	 */
+	@Test
+	public void testDraw() {
+		BufferedImage batched = new BufferedImage(40, 20,
+				BufferedImage.TYPE_INT_ARGB);
+		BufferedImage single = new BufferedImage(40, 20,
+				BufferedImage.TYPE_INT_ARGB);
+		PlainHandle h1 = new PlainHandle(10, 10);
+		PlainHandle h2 = new PlainHandle(30, 10);
+		OwnHandle h3 = new OwnHandle();
+		Graphics2D g = batched.createGraphics();
+		HandleRenderer.draw(g, Arrays.asList(h1, h3, h2));
+		g.dispose();
+		g = single.createGraphics();
+		h1.draw(g);
+		h2.draw(g);
+		g.dispose();
+		assertTrue(h3.drawCalled);
+		assertEquals(AbstractHandle.PEN_COLOR.getRGB(), batched.getRGB(6, 6));
+		assertEquals(AbstractHandle.FILL_COLOR.getRGB(), batched
+				.getRGB(10, 10));
+		assertEquals(AbstractHandle.FILL_COLOR.getRGB(), batched
+				.getRGB(30, 10));
+		assertEquals(0, batched.getRGB(20, 10));
+		for (int x = 0; x < 40; x++) {
+			for (int y = 0; y < 20; y++) {
+				assertEquals(single.getRGB(x, y), batched.getRGB(x, y));
+			}
+		}
+	}
+
+	/**
+	 * Tests the rendering hint deferring the drawing of handles.
+	 */
+	@Test
+	public void testIsDeferred() {
+		Graphics2D g = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB)
+				.createGraphics();
+		assertFalse(HandleRenderer.isDeferred(g));
+		assertFalse(HandleRenderer.isDeferred(null));
+		g.setRenderingHint(HandleRenderer.KEY_HANDLES,
+				HandleRenderer.VALUE_HANDLES_DEFERRED);
+		assertTrue(HandleRenderer.isDeferred(g));
+		g.dispose();
+	}
+}
@@ -0,0 +1,101 @@
+/*
+ * Eric Dubuis, Berner Fachhochschule,
+ * Biel, Switzerland.
+ * Copyright (c) 2007
+ *
+ * Distributable under LGPL license.
+ * See terms of license at gnu.org.
+ */
+package ch.bfh.due1.jdt.framework;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+import org.junit.Test;
+
+/**
+ * Tests the level-of-detail policy.
+ *
+ * @author Eric Dubuis
+ */
+public class LevelOfDetailTest {
+	/**
+	 * Tests the thresholds at a scale of 1:10.
+	 */
+	@Test
+	public void testThresholds() {
+		LevelOfDetail lod = new LevelOfDetail(0.1, 4.0, 1.0);
+		BufferedImage image = new BufferedImage(100, 100,
+				BufferedImage.TYPE_INT_ARGB);
+		Graphics2D g = image.createGraphics();
+		assertFalse(lod.drawReduced(g, new BoundingBox(0, 0, 40, 5),
+				Color.RED));
+		assertTrue(lod.drawReduced(g, new BoundingBox(0, 0, 39, 39),
+				Color.RED));
+		assertTrue(lod.drawReduced(g, new BoundingBox(20, 50, -10, 0),
+				Color.RED));
+		assertTrue(lod.drawReduced(g, new BoundingBox(60, 60, 9, 9),
+				Color.RED));
+		g.dispose();
+		assertEquals(Color.RED.getRGB(), image.getRGB(10, 50));
+		assertEquals(0, image.getRGB(60, 60));
+	}
+
+	/**
+	 * Tests that small shapes are drawn as a filled rectangle, that tiny
+	 * shapes are skipped, and that the color of the graphics context is
+	 * kept.
+	 */
+	@Test
+	public void testDrawReduced() {
+		LevelOfDetail lod = new LevelOfDetail(1.0, 10.0, 2.0);
+		BufferedImage image = new BufferedImage(20, 20,
+				BufferedImage.TYPE_INT_ARGB);
+		Graphics2D g = image.createGraphics();
+		g.setColor(Color.BLUE);
+		assertFalse(lod.drawReduced(g, new BoundingBox(0, 0, 10, 10),
+				Color.RED));
+		assertTrue(lod.drawReduced(g, new BoundingBox(5, 5, 4, 0), Color.RED));
+		assertEquals(Color.BLUE, g.getColor());
+		assertTrue(lod.drawReduced(g, 2, 12, 4, 12, Color.RED));
+		assertEquals(Color.BLUE, g.getColor());
+		assertTrue(lod.drawReduced(g, new BoundingBox(15, 15, 1, 1),
+				Color.RED));
+		g.dispose();
+		assertEquals(Color.RED.getRGB(), image.getRGB(5, 5));
+		assertEquals(Color.RED.getRGB(), image.getRGB(8, 5));
+		assertEquals(0, image.getRGB(5, 6));
+		assertEquals(Color.RED.getRGB(), image.getRGB(2, 12));
+		assertEquals(0, image.getRGB(15, 15));
+	}
+
+	/**
+	 * Tests that the policy is taken from the rendering hints.
+	 */
+	@Test
+	public void testGet() {
+		Graphics2D g = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB)
+				.createGraphics();
+		assertNull(LevelOfDetail.get(g));
+		assertNull(LevelOfDetail.get(null));
+		LevelOfDetail lod = new LevelOfDetail(1.0, 3.0, 0.0);
+		g.setRenderingHint(LevelOfDetail.KEY_LEVEL_OF_DETAIL, lod);
+		assertSame(lod, LevelOfDetail.get(g));
+		g.dispose();
+	}
+
+	/**
+	 * Tests that a non-positive scale is rejected.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testIllegalScale() {
+		new LevelOfDetail(0.0, 3.0, 0.0);
+	}
+}
@@ -0,0 +1,67 @@
+/*
+ * Eric Dubuis, Berner Fachhochschule,
+ * Biel, Switzerland.
+ * Copyright (c) 2007
+ *
+ * Distributable under LGPL license.
+ * See terms of license at gnu.org.
+ */
+package ch.bfh.due1.jdt.framework;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.awt.Color;
+import java.awt.Cursor;
+
+import org.junit.Test;
+
+/**
+ * Tests that the rendering resources are shared.
+ *
+ * @author Eric Dubuis
+ */
+public class RenderingResourcesTest {
+	/**
+	 * Tests that strokes of the same pen size are shared.
+	 */
+	@Test
+	public void testGetStroke() {
+		assertSame(RenderingResources.getStroke(1), RenderingResources
+				.getStroke(1));
+		assertSame(RenderingResources.getStroke(100), RenderingResources
+				.getStroke(100));
+		assertEquals(3.0f, RenderingResources.getStroke(3).getLineWidth(),
+				0.0f);
+		assertEquals(100.0f, RenderingResources.getStroke(100)
+				.getLineWidth(), 0.0f);
+	}
+
+	/**
+	 * Tests that a negative pen size is rejected.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testGetStrokeNegative() {
+		RenderingResources.getStroke(-1);
+	}
+
+	/**
+	 * Tests that cursors of the same type are shared.
+	 */
+	@Test
+	public void testGetCursor() {
+		Cursor c = RenderingResources.getCursor(Cursor.N_RESIZE_CURSOR);
+		assertSame(c, RenderingResources.getCursor(Cursor.N_RESIZE_CURSOR));
+		assertEquals(Cursor.N_RESIZE_CURSOR, c.getType());
+	}
+
+	/**
+	 * Tests that colors of the same value are shared.
+	 */
+	@Test
+	public void testGetColor() {
+		Color c = RenderingResources.getColor(0x80ff0000);
+		assertSame(c, RenderingResources.getColor(0x80ff0000));
+		assertEquals(new Color(255, 0, 0, 128), c);
+	}
+}
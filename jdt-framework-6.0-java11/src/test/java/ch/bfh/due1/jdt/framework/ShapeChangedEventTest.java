@@ -0,0 +1,53 @@
+/*
+ * Eric Dubuis, Berner Fachhochschule,
+ * Biel, Switzerland.
+ * Copyright (c) 2007
+ *
+ * Distributable under LGPL license.
+ * See terms of license at gnu.org.
+ */
+
+package ch.bfh.due1.jdt.framework;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+import ch.bfh.due1.jdt.framework.util.ShapeAdaptor;
+
+/**
+ * Tests the bounding boxes carried by a shape changed event.
+ *
+ * @author Eric Dubuis
+ */
+public class ShapeChangedEventTest {
+
+	/**
+	 * Tests that the dirty area is the union of the old and the new bounding
+	 * box.
+	 */
+	@Test
+	public void testGetDirtyArea1() {
+		Shape s = new ShapeAdaptor();
+		BoundingBox oldBounds = new BoundingBox(0, 0, 10, 10);
+		BoundingBox newBounds = new BoundingBox(20, 5, 10, 10);
+		ShapeChangedEvent e = new ShapeChangedEvent(s, oldBounds, newBounds);
+		assertSame(s, e.getShape());
+		assertSame(oldBounds, e.getOldBounds());
+		assertSame(newBounds, e.getNewBounds());
+		assertEquals(new BoundingBox(0, 0, 30, 15), e.getDirtyArea());
+	}
+
+	/**
+	 * Tests that the dirty area is unknown if the bounding boxes are unknown.
+	 */
+	@Test
+	public void testGetDirtyArea2() {
+		ShapeChangedEvent e = new ShapeChangedEvent(new ShapeAdaptor());
+		assertNull(e.getOldBounds());
+		assertNull(e.getNewBounds());
+		assertNull(e.getDirtyArea());
+	}
+}
@@ -15,22 +15,32 @@ import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 
+import ch.bfh.due1.jdt.framework.BoundingBox;
 import ch.bfh.due1.jdt.framework.Clipboard;
 import ch.bfh.due1.jdt.framework.CommandHandler;
 import ch.bfh.due1.jdt.framework.CommandHandlerEvent;
 import ch.bfh.due1.jdt.framework.CommandHandlerListener;
+import ch.bfh.due1.jdt.framework.Coord;
 import ch.bfh.due1.jdt.framework.Editor;
 import ch.bfh.due1.jdt.framework.Logger;
 import ch.bfh.due1.jdt.framework.Shape;
 import ch.bfh.due1.jdt.framework.ShapeHandle;
 import ch.bfh.due1.jdt.framework.Tool;
 import ch.bfh.due1.jdt.framework.View;
+import ch.bfh.due1.jdt.simple.impl.io.SheetFormatResolver;
 
 
 /**
  * A variant of an implementation of the editor interface. It can handle several
  * views, and it supports a clip board.
+ * <p>
+ * An editor without an environment is headless, e.g., when replaying a trace:
+ * status messages are logged, the tools and actions are not checked, and no
+ * views can be created by the editor.
+ *
+ * @see ch.bfh.due1.jdt.simple.trace.TraceReplayer
  */
 public final class DefaultEditor implements Editor {
 	/**
@@ -49,9 +59,9 @@ public final class DefaultEditor implements Editor {
 	private CommandHandler commandHandler;
 
 	/**
-	 * A map of log4j loggers.
+	 * A map of the adapted log4j loggers.
 	 */
-	private Map<Class<?>, org.apache.log4j.Logger> loggers = new HashMap<Class<?>, org.apache.log4j.Logger>();
+	private Map<Class<?>, Logger> loggers = new HashMap<Class<?>, Logger>();
 
 	/**
 	 * A clip board for shapes. Note that the editor supports only one clip
@@ -124,6 +134,42 @@ public final class DefaultEditor implements Editor {
 		public void info(String message) {
 			this.effectiveLogger.info(message);
 		}
+
+		/**
+		 * @inheritDoc
+		 */
+		@Override
+		public boolean isInfoEnabled() {
+			return this.effectiveLogger.isInfoEnabled();
+		}
+
+		/**
+		 * @inheritDoc
+		 */
+		@Override
+		public boolean isDebugEnabled() {
+			return this.effectiveLogger.isDebugEnabled();
+		}
+
+		/**
+		 * @inheritDoc
+		 */
+		@Override
+		public void info(Supplier<String> message) {
+			if (this.effectiveLogger.isInfoEnabled()) {
+				this.effectiveLogger.info(message.get());
+			}
+		}
+
+		/**
+		 * @inheritDoc
+		 */
+		@Override
+		public void debug(Supplier<String> message) {
+			if (this.effectiveLogger.isDebugEnabled()) {
+				this.effectiveLogger.debug(message.get());
+			}
+		}
 	}
 
 	/**
@@ -173,7 +219,8 @@ public final class DefaultEditor implements Editor {
 	 * Initializes the editor.
 	 * 
 	 * @param env
-	 *            callback parameter for the editor's environment.
+	 *            callback parameter for the editor's environment, or null for
+	 *            a headless editor
 	 */
 	public DefaultEditor(JdtEditor env) {
 		this.environment = env;
@@ -202,10 +249,16 @@ public final class DefaultEditor implements Editor {
 	 * 'Relay' method that creates and registers a view via this editor's
 	 * environment.
 	 *
+	 * @throws UnsupportedOperationException
+	 *             if this editor is headless
 	 * @see ch.bfh.due1.jdt.framework.Editor#createView()
 	 */
 	@Override
 	public void createView() {
+		if (this.environment == null) {
+			throw new UnsupportedOperationException(
+					"Cannot create a view without an environment.");
+		}
 		this.environment.createView();
 	}
 
@@ -273,6 +326,10 @@ public final class DefaultEditor implements Editor {
 	 */
 	@Override
 	public void showStatus(String s) {
+		if (this.environment == null) {
+			getLogger(this.getClass()).info(s);
+			return;
+		}
 		this.environment.showStatus(s);
 	}
 
@@ -295,26 +352,29 @@ public final class DefaultEditor implements Editor {
 	 */
 	@Override
 	public void checkEditorState() {
+		if (this.environment == null) {
+			return;
+		}
 		this.environment.checkTools();
 		this.environment.checkActions();
 	}
 
 	/**
 	 * Returns a JDT logger, based on a log4j logger. If the logger doen not
-	 * exist then it is created.
+	 * exist then it is created. Tools ask for their logger per mouse event;
+	 * hence, the logger is kept and returned again.
 	 * 
 	 * @see ch.bfh.due1.jdt.framework.Editor#getLogger(java.lang.Class)
 	 */
 	@Override
 	public Logger getLogger(Class<?> logFacility) {
-		org.apache.log4j.Logger logger = null;
-		if (this.loggers.containsKey(logFacility)) {
-			logger = this.loggers.get(logFacility);
-		} else {
-			logger = org.apache.log4j.Logger.getLogger(logFacility);
+		Logger logger = this.loggers.get(logFacility);
+		if (logger == null) {
+			logger = new LoggerAdapter(org.apache.log4j.Logger
+					.getLogger(logFacility));
 			this.loggers.put(logFacility, logger);
 		}
-		return new LoggerAdapter(logger);
+		return logger;
 	}
 
 	/**
@@ -387,6 +447,77 @@ public final class DefaultEditor implements Editor {
 		return getCurrentView().getShapes();
 	}
 
+	/**
+	 * @inheritDoc
+	 * 
+	 * @see ch.bfh.due1.jdt.framework.Editor#getShapeAt(ch.bfh.due1.jdt.framework.Coord)
+	 */
+	@Override
+	public Shape getShapeAt(Coord c) {
+		return getCurrentView().getShapeAt(c);
+	}
+
+	/**
+	 * @inheritDoc
+	 * 
+	 * @see ch.bfh.due1.jdt.framework.Editor#getShapesIn(ch.bfh.due1.jdt.framework.BoundingBox)
+	 */
+	@Override
+	public List<Shape> getShapesIn(BoundingBox area) {
+		return getCurrentView().getShapesIn(area);
+	}
+
+	/**
+	 * @inheritDoc
+	 * 
+	 * @see ch.bfh.due1.jdt.framework.Editor#getStackingIndex(ch.bfh.due1.jdt.framework.Shape)
+	 */
+	@Override
+	public int getStackingIndex(Shape s) {
+		return getCurrentView().getStackingIndex(s);
+	}
+
+	/**
+	 * @inheritDoc
+	 * 
+	 * @see ch.bfh.due1.jdt.framework.Editor#setStackingIndex(ch.bfh.due1.jdt.framework.Shape,
+	 *      int)
+	 */
+	@Override
+	public void setStackingIndex(Shape s, int index) {
+		getCurrentView().setStackingIndex(s, index);
+	}
+
+	/**
+	 * @inheritDoc
+	 * 
+	 * @see ch.bfh.due1.jdt.framework.Editor#beginBatch()
+	 */
+	@Override
+	public void beginBatch() {
+		getCurrentView().beginBatch();
+	}
+
+	/**
+	 * @inheritDoc
+	 * 
+	 * @see ch.bfh.due1.jdt.framework.Editor#commitBatch()
+	 */
+	@Override
+	public void commitBatch() {
+		getCurrentView().commitBatch();
+	}
+
+	/**
+	 * @inheritDoc
+	 * 
+	 * @see ch.bfh.due1.jdt.framework.Editor#setRenderCacheEnabled(boolean)
+	 */
+	@Override
+	public void setRenderCacheEnabled(boolean enabled) {
+		getCurrentView().setRenderCacheEnabled(enabled);
+	}
+
 	/**
 	 * @inheritDoc
 	 * 
@@ -440,7 +571,8 @@ public final class DefaultEditor implements Editor {
 	/**
 	 * Returns a command handler. Tries to instantiate a command handler as
 	 * specified with a property and returns it. If it cannot be instantiated,
-	 * returns a dummy command handler.
+	 * returns a dummy command handler. The command handler resolves shapes
+	 * by means of the sheet file format.
 	 * 
 	 * @return a dummy default handler.
 	 */
@@ -448,6 +580,7 @@ public final class DefaultEditor implements Editor {
 		if (this.commandHandler == null) {
 			this.commandHandler = loadCommandHandler();
 		}
+		this.commandHandler.setShapeResolver(new SheetFormatResolver());
 		this.commandHandler.addCommandHandlerListener(
 				new CommandHandlerListenerImpl());
 		return this.commandHandler;
@@ -468,9 +601,8 @@ public final class DefaultEditor implements Editor {
 		} catch (Exception e) {
 
 			getLogger(this.getClass()).info(e.getMessage());
-			this.environment
-					.showStatus("Cannot instantiate command handler specified with property "
-							+ CommandHandlerLoader.PROP_CLASSNAME);
+			showStatus("Cannot instantiate command handler specified with property "
+					+ CommandHandlerLoader.PROP_CLASSNAME);
 		}
 		return commandHandler;
 	}
@@ -11,24 +11,45 @@ package ch.bfh.due1.jdt.simple;
 import java.awt.Cursor;
 import java.awt.Dimension;
 import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Rectangle;
+import java.awt.Transparency;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
 import java.awt.event.KeyEvent;
 import java.awt.event.KeyListener;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseListener;
 import java.awt.event.MouseMotionListener;
+import java.awt.event.MouseWheelEvent;
+import java.awt.event.MouseWheelListener;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Iterator;
-import java.util.LinkedList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 
 import javax.swing.JComponent;
+import javax.swing.Timer;
 
 
 import org.apache.log4j.Logger;
 
+import ch.bfh.due1.jdt.framework.AbstractShape;
+import ch.bfh.due1.jdt.framework.BoundingBox;
 import ch.bfh.due1.jdt.framework.Coord;
 import ch.bfh.due1.jdt.framework.Editor;
+import ch.bfh.due1.jdt.framework.HandleRenderer;
 import ch.bfh.due1.jdt.framework.KeyModifier;
+import ch.bfh.due1.jdt.framework.LevelOfDetail;
 import ch.bfh.due1.jdt.framework.Memento;
 import ch.bfh.due1.jdt.framework.Shape;
 import ch.bfh.due1.jdt.framework.ShapeHandle;
@@ -37,10 +58,46 @@ import ch.bfh.due1.jdt.framework.SheetChangedEvent;
 import ch.bfh.due1.jdt.framework.SheetChangedListener;
 import ch.bfh.due1.jdt.framework.Tool;
 import ch.bfh.due1.jdt.framework.View;
+import ch.bfh.due1.jdt.simple.impl.SelectionModel;
+import ch.bfh.due1.jdt.simple.metrics.ViewMetrics;
+import ch.bfh.due1.jdt.simple.metrics.ViewMetrics.ToolEvent;
+import ch.bfh.due1.jdt.simple.trace.TraceRecorder;
 
 /**
  * The default view. Paints its content, i.e., a sheet with shapes etc.
  * Handles mouse and key events and delegates them to the respective clients.
+ * <p>
+ * The view shows a part of the sheet, as given by its zoom factor and its
+ * origin, i.e., the point of the sheet shown at the upper left corner of the
+ * view. Mouse coordinates are mapped to sheet coordinates before being passed
+ * to the current tool. Only the shapes intersecting the visible area are
+ * drawn. Turning the mouse wheel pans the view vertically, or horizontally if
+ * the shift key is pressed, and zooms the view around the mouse position if
+ * the control key is pressed.
+ * <p>
+ * While the render cache is enabled, see {@link #setRenderCacheEnabled(boolean)},
+ * the shapes not being selected are rasterized once into an offscreen image.
+ * Painting the view then copies the image and draws the selected shapes on
+ * top of it. The image is rebuilt after a shape not being selected has
+ * changed, or after the selection has changed.
+ * <p>
+ * While background rendering is enabled, see
+ * {@link #setBackgroundRenderingEnabled(boolean)}, the shapes are rasterized
+ * by a render thread. Painting the view takes a snapshot of the visible
+ * shapes, i.e., copies of the shapes changed since the last snapshot, if
+ * the sheet or the viewport has changed, and passes it to the render thread.
+ * Shapes which cannot be copied are drawn on top of the frame. Until the
+ * frame is done, the view shows the latest frame done, i.e., the event
+ * dispatch thread only copies an image and draws the handles. A frame is
+ * dropped if a newer snapshot has been taken before it is done. The render
+ * cache takes precedence over background rendering while both are enabled.
+ * <p>
+ * If metrics are set, see {@link #setMetrics(ViewMetrics)}, the view records
+ * the time taken by the tool to handle each mouse event, the time taken to
+ * paint, and the number of shapes drawn per frame.
+ * <p>
+ * If a trace recorder is set, see {@link #setTraceRecorder(TraceRecorder)},
+ * the view records the mouse events passed to the tools and the tools set.
  * 
  * @author Eric Dubuis
  */
@@ -53,14 +110,9 @@ public class DefaultView extends JComponent implements View {
 	private Logger log = Logger.getLogger(DefaultView.class);
 
 	/**
-	 * The list of selected shapes.
+	 * The selected shapes and their handles.
 	 */
-	private List<Shape> selection = new LinkedList<Shape>();
-
-	/**
-	 * The list of the handles of the selected shapes.
-	 */
-	private List<ShapeHandle> handles = new LinkedList<ShapeHandle>();
+	private SelectionModel selection = new SelectionModel();
 
 	/**
 	 * The listener being registered with the associated sheet(s) of this view.
@@ -82,6 +134,157 @@ public class DefaultView extends JComponent implements View {
 	 */
 	private Sheet sheet;
 
+	/** The smallest zoom factor. */
+	public static final double MIN_ZOOM = 0.05;
+
+	/** The largest zoom factor. */
+	public static final double MAX_ZOOM = 20.0;
+
+	/** The factor by which one step of the mouse wheel zooms. */
+	private static final double WHEEL_ZOOM_STEP = 1.1;
+
+	/** The distance (in pixels) by which one step of the mouse wheel pans. */
+	private static final int WHEEL_SCROLL_STEP = 40;
+
+	/**
+	 * The zoom factor.
+	 */
+	private double zoom = 1.0;
+
+	/**
+	 * The x-coordinate of the sheet shown at the left border of the view.
+	 */
+	private double originX = 0.0;
+
+	/**
+	 * The y-coordinate of the sheet shown at the top border of the view.
+	 */
+	private double originY = 0.0;
+
+	/**
+	 * The size (in pixels) below which shapes are drawn as a rectangle. If 0
+	 * then all shapes are drawn in full detail.
+	 */
+	private double detailThreshold = 0.0;
+
+	/**
+	 * The size (in pixels) below which shapes are not drawn.
+	 */
+	private double skipThreshold = 0.0;
+
+	/**
+	 * True if the render cache is enabled.
+	 */
+	private boolean renderCacheEnabled = false;
+
+	/**
+	 * The rasterized shapes not being selected, or null if to be rebuilt.
+	 */
+	private BufferedImage renderCache;
+
+	/**
+	 * The shapes being drawn on top of the render cache.
+	 */
+	private Set<Shape> liveShapes = new HashSet<Shape>();
+
+	/**
+	 * True if the shapes are rasterized by a background thread.
+	 */
+	private boolean backgroundRendering = false;
+
+	/**
+	 * The render thread, or null if background rendering is disabled.
+	 */
+	private ExecutorService renderer;
+
+	/**
+	 * The generation of the content, incremented whenever the sheet, the
+	 * selection, or the viewport changes.
+	 */
+	private long generation = 0;
+
+	/**
+	 * The latest frame requested, or null. Frames not being the latest one
+	 * requested are dropped.
+	 */
+	private volatile Frame requestedFrame;
+
+	/**
+	 * The latest frame done, or null.
+	 */
+	private volatile Frame frame;
+
+	/**
+	 * The metrics, or null if not recorded.
+	 */
+	private volatile ViewMetrics metrics;
+
+	/**
+	 * The trace recorder, or null if not recording.
+	 */
+	private TraceRecorder traceRecorder;
+
+	/**
+	 * The coalescer of the mouse drag and mouse over events, or null if the
+	 * events are passed one by one.
+	 */
+	private InputCoalescer coalescer;
+
+	/**
+	 * Ends the frame of the coalescer, or null if the events are passed one
+	 * by one.
+	 */
+	private Timer coalesceTimer;
+
+	/**
+	 * The snapshots of the shapes drawn by the render thread, by shape. A
+	 * snapshot is a copy having the state of its shape, see
+	 * {@link #snapshot(Shape)}, and is kept until its shape changes or is no
+	 * longer visible.
+	 */
+	private Map<Shape, Shape> snapshots = new IdentityHashMap<Shape, Shape>();
+
+	/**
+	 * The visible shapes which cannot be cloned, e.g., the selection area.
+	 * They are drawn on top of the latest frame.
+	 */
+	private List<Shape> unsnapshotted = Collections.emptyList();
+
+	/**
+	 * A frame rasterized by the render thread. Holds a snapshot of the
+	 * visible shapes and of the viewport. The snapshots of the shapes are
+	 * never changed, and they may be shared by several frames.
+	 */
+	private static final class Frame {
+		private final long generation;
+		private final int width;
+		private final int height;
+		private final double zoom;
+		private final double originX;
+		private final double originY;
+		private final double detailThreshold;
+		private final double skipThreshold;
+		private final GraphicsConfiguration gc;
+		private final List<Shape> shapes;
+
+		/** The rasterized shapes, set when done. */
+		private BufferedImage image;
+
+		private Frame(DefaultView view, int width, int height,
+				List<Shape> shapes) {
+			this.generation = view.generation;
+			this.width = width;
+			this.height = height;
+			this.zoom = view.zoom;
+			this.originX = view.originX;
+			this.originY = view.originY;
+			this.detailThreshold = view.detailThreshold;
+			this.skipThreshold = view.skipThreshold;
+			this.gc = view.getGraphicsConfiguration();
+			this.shapes = shapes;
+		}
+	}
+
 	/**
 	 * Mouse listener adapter.
 	 * 
@@ -95,7 +298,9 @@ public class DefaultView extends JComponent implements View {
 		 */
 		@Override
 		public void mouseClicked(MouseEvent e) {
-			log.debug("Mouse clicked: " + mouseInfo(e));
+			if (log.isDebugEnabled()) {
+				log.debug("Mouse clicked: " + mouseInfo(e));
+			}
 		}
 
 		/**
@@ -105,7 +310,9 @@ public class DefaultView extends JComponent implements View {
 		 */
 		@Override
 		public void mouseEntered(MouseEvent e) {
-			log.debug("Mouse entered: " + mouseInfo(e));
+			if (log.isDebugEnabled()) {
+				log.debug("Mouse entered: " + mouseInfo(e));
+			}
 		}
 
 		/**
@@ -115,7 +322,9 @@ public class DefaultView extends JComponent implements View {
 		 */
 		@Override
 		public void mouseExited(MouseEvent e) {
-			log.debug("Mouse exited: " + mouseInfo(e));
+			if (log.isDebugEnabled()) {
+				log.debug("Mouse exited: " + mouseInfo(e));
+			}
 		}
 
 		/**
@@ -125,9 +334,17 @@ public class DefaultView extends JComponent implements View {
 		 */
 		@Override
 		public void mousePressed(MouseEvent e) {
-			log.debug("Mouse pressed: " + mouseInfo(e));
-			getTool().mouseDown(new Coord(e.getX(), e.getY()),
-					getKeyModifier(e));
+			if (log.isDebugEnabled()) {
+				log.debug("Mouse pressed: " + mouseInfo(e));
+			}
+			Coord c = toSheetCoord(e);
+			KeyModifier k = getKeyModifier(e);
+			flushInput();
+			recordTrace(ToolEvent.MOUSE_DOWN, c, k);
+			Tool t = getTool();
+			long start = System.nanoTime();
+			t.mouseDown(c, k);
+			recordToolEvent(t, ToolEvent.MOUSE_DOWN, start);
 		}
 
 		/**
@@ -138,10 +355,22 @@ public class DefaultView extends JComponent implements View {
 		 */
 		@Override
 		public void mouseReleased(MouseEvent e) {
-			log.debug("Mouse released: " + mouseInfo(e));
-			getTool().mouseUp(new Coord(e.getX(), e.getY()), getKeyModifier(e));
-			getTool().mouseOver(new Coord(e.getX(), e.getY()),
-					getKeyModifier(e));
+			if (log.isDebugEnabled()) {
+				log.debug("Mouse released: " + mouseInfo(e));
+			}
+			Coord c = toSheetCoord(e);
+			KeyModifier k = getKeyModifier(e);
+			flushInput();
+			recordTrace(ToolEvent.MOUSE_UP, c, k);
+			Tool t = getTool();
+			long start = System.nanoTime();
+			t.mouseUp(c, k);
+			recordToolEvent(t, ToolEvent.MOUSE_UP, start);
+			recordTrace(ToolEvent.MOUSE_OVER, c, k);
+			t = getTool();
+			start = System.nanoTime();
+			t.mouseOver(c, k);
+			recordToolEvent(t, ToolEvent.MOUSE_OVER, start);
 		}
 	}
 
@@ -152,27 +381,68 @@ public class DefaultView extends JComponent implements View {
 	 */
 	private class ViewMouseMotionListener implements MouseMotionListener {
 		/**
-		 * Logs the event and calls mouseDrag() method on the current tool.
+		 * Logs the event and calls mouseDrag() method on the current tool, or
+		 * passes the event to the coalescer if input coalescing is enabled.
 		 * 
 		 * @see java.awt.event.MouseMotionListener#mouseDragged(java.awt.event.MouseEvent)
 		 */
 		@Override
 		public void mouseDragged(MouseEvent e) {
-			log.debug("Mouse dragged: " + mouseInfo(e));
-			getTool().mouseDrag(new Coord(e.getX(), e.getY()),
-					getKeyModifier(e));
+			if (log.isDebugEnabled()) {
+				log.debug("Mouse dragged: " + mouseInfo(e));
+			}
+			Coord c = toSheetCoord(e);
+			KeyModifier k = getKeyModifier(e);
+			recordTrace(ToolEvent.MOUSE_DRAG, c, k);
+			submitInput(ToolEvent.MOUSE_DRAG, c, k);
 		}
 
 		/**
-		 * Logs the event and calls mouseOver() method on the current tool.
+		 * Logs the event and calls mouseOver() method on the current tool, or
+		 * passes the event to the coalescer if input coalescing is enabled.
 		 * 
 		 * @see java.awt.event.MouseMotionListener#mouseMoved(java.awt.event.MouseEvent)
 		 */
 		@Override
 		public void mouseMoved(MouseEvent e) {
-			log.debug("Mouse moved: " + mouseInfo(e));
-			getTool().mouseOver(new Coord(e.getX(), e.getY()),
-					getKeyModifier(e));
+			if (log.isDebugEnabled()) {
+				log.debug("Mouse moved: " + mouseInfo(e));
+			}
+			Coord c = toSheetCoord(e);
+			KeyModifier k = getKeyModifier(e);
+			recordTrace(ToolEvent.MOUSE_OVER, c, k);
+			submitInput(ToolEvent.MOUSE_OVER, c, k);
+		}
+	}
+
+	/**
+	 * Mouse wheel listener adapter.
+	 * 
+	 * @author Eric Dubuis
+	 */
+	private class ViewMouseWheelListener implements MouseWheelListener {
+		/**
+		 * Logs the event and zooms or pans the view.
+		 * 
+		 * @see java.awt.event.MouseWheelListener#mouseWheelMoved(java.awt.event.MouseWheelEvent)
+		 */
+		@Override
+		public void mouseWheelMoved(MouseWheelEvent e) {
+			if (log.isDebugEnabled()) {
+				log.debug("Mouse wheel moved: " + mouseInfo(e));
+			}
+			double rotation = e.getPreciseWheelRotation();
+			if (e.isControlDown()) {
+				zoomAt(zoom * Math.pow(WHEEL_ZOOM_STEP, -rotation), e.getX(),
+						e.getY());
+			} else {
+				double d = rotation * WHEEL_SCROLL_STEP / zoom;
+				if (e.isShiftDown()) {
+					panBy(d, 0.0);
+				} else {
+					panBy(0.0, d);
+				}
+			}
 		}
 	}
 
@@ -190,7 +460,9 @@ public class DefaultView extends JComponent implements View {
 		 */
 		@Override
 		public void keyPressed(KeyEvent e) {
-			log.debug("Key pressed: " + e.getKeyCode());
+			if (log.isDebugEnabled()) {
+				log.debug("Key pressed: " + e.getKeyCode());
+			}
 		}
 
 		/**
@@ -200,7 +472,9 @@ public class DefaultView extends JComponent implements View {
 		 */
 		@Override
 		public void keyReleased(KeyEvent e) {
-			log.debug("Key released: " + e.getKeyCode());
+			if (log.isDebugEnabled()) {
+				log.debug("Key released: " + e.getKeyCode());
+			}
 		}
 
 		/**
@@ -210,7 +484,9 @@ public class DefaultView extends JComponent implements View {
 		 */
 		@Override
 		public void keyTyped(KeyEvent e) {
-			log.debug("Key typed: " + e.getKeyCode());
+			if (log.isDebugEnabled()) {
+				log.debug("Key typed: " + e.getKeyCode());
+			}
 		}
 	}
 
@@ -232,12 +508,11 @@ public class DefaultView extends JComponent implements View {
 	public DefaultView(Editor editor) {
 		super();
 
-		this.setMinimumSize(new Dimension(800, 500));
 		this.setPreferredSize(new Dimension(800, 500));
-		this.setMaximumSize(new Dimension(800, 500));
 
 		this.addMouseListener(new ViewMouseListener());
 		this.addMouseMotionListener(new ViewMouseMotionListener());
+		this.addMouseWheelListener(new ViewMouseWheelListener());
 
 		this.addKeyListener(new ViewKeyListener());
 
@@ -247,8 +522,19 @@ public class DefaultView extends JComponent implements View {
 
 			@Override
 			public void sheetChanged(SheetChangedEvent e) {
-				log.debug("Sheet changed: " + e.getSheet());
-				repaint();
+				if (log.isDebugEnabled()) {
+					log.debug("Sheet changed: " + e.getSheet());
+				}
+				if (e.getShapes().isEmpty()) {
+					snapshots.clear();
+				} else {
+					snapshots.keySet().removeAll(e.getShapes());
+				}
+				if (e.getShapes().isEmpty()
+						|| !liveShapes.containsAll(e.getShapes())) {
+					invalidateRenderCache();
+				}
+				repaintArea(e.getDirtyArea());
 			}
 		};
 	}
@@ -293,20 +579,78 @@ public class DefaultView extends JComponent implements View {
 		return getSheet().getShapesByStackingOrder(shapes);
 	}
 
+	/**
+	 * Returns the topmost shape of the associated sheet containing the given
+	 * point.
+	 * 
+	 * @see ch.bfh.due1.jdt.framework.View#getShapeAt(ch.bfh.due1.jdt.framework.Coord)
+	 */
+	@Override
+	public Shape getShapeAt(Coord c) {
+		return getSheet().getShapeAt(c);
+	}
+
+	/**
+	 * Returns the shapes of the associated sheet intersecting the given area.
+	 * 
+	 * @see ch.bfh.due1.jdt.framework.View#getShapesIn(ch.bfh.due1.jdt.framework.BoundingBox)
+	 */
+	@Override
+	public List<Shape> getShapesIn(BoundingBox area) {
+		return getSheet().getShapesIn(area);
+	}
+
+	/**
+	 * @inheritDoc
+	 * 
+	 * @see ch.bfh.due1.jdt.framework.View#getStackingIndex(ch.bfh.due1.jdt.framework.Shape)
+	 */
+	@Override
+	public int getStackingIndex(Shape s) {
+		return getSheet().getStackingIndex(s);
+	}
+
+	/**
+	 * @inheritDoc
+	 * 
+	 * @see ch.bfh.due1.jdt.framework.View#setStackingIndex(ch.bfh.due1.jdt.framework.Shape,
+	 *      int)
+	 */
+	@Override
+	public void setStackingIndex(Shape s, int index) {
+		getSheet().setStackingIndex(s, index);
+	}
+
+	/**
+	 * @inheritDoc
+	 * 
+	 * @see ch.bfh.due1.jdt.framework.View#beginBatch()
+	 */
+	@Override
+	public void beginBatch() {
+		getSheet().beginBatch();
+	}
+
+	/**
+	 * @inheritDoc
+	 * 
+	 * @see ch.bfh.due1.jdt.framework.View#commitBatch()
+	 */
+	@Override
+	public void commitBatch() {
+		getSheet().commitBatch();
+	}
+
 	/**
 	 * @inheritDoc
 	 */
 	@Override
 	public void addToSelection(Shape s) {
-		if (!this.selection.contains(s)) {
-			this.selection.add(s);
+		if (this.selection.add(s)) {
 			s.setSelected(true);
-			List<ShapeHandle> hList = s.getShapeHandles();
-			if (hList != null) {
-				this.handles.addAll(hList);
-			}
+			invalidateRenderCache();
 		}
-		repaint();
+		repaintArea(s.getBoundingBox());
 	}
 
 	/**
@@ -314,34 +658,33 @@ public class DefaultView extends JComponent implements View {
 	 */
 	@Override
 	public void removeFromSelection(Shape s) {
-		this.selection.remove(s);
-		s.setSelected(false);
-		for (Iterator<ShapeHandle> it = this.handles.iterator(); it.hasNext();) {
-			if (it.next().getOwner() == s) {
-				it.remove();
-			}
+		if (this.selection.remove(s)) {
+			invalidateRenderCache();
 		}
-		repaint();
+		s.setSelected(false);
+		repaintArea(s.getBoundingBox());
 	}
 
 	/**
-	 * Returns the list of selected shapes.
+	 * Returns the list of selected shapes. The list is a read-only view of
+	 * the selection; its contains() method runs in O(1).
 	 * 
 	 * @see ch.bfh.due1.jdt.framework.View#getSelection()
 	 */
 	@Override
 	public List<Shape> getSelection() {
-		return this.selection;
+		return this.selection.getShapes();
 	}
 
 	/**
-	 * Returns the handles of selected shapes.
+	 * Returns the handles of selected shapes. The list is a read-only view
+	 * of the selection.
 	 * 
 	 * @see ch.bfh.due1.jdt.framework.View#getSelectionHandles()
 	 */
 	@Override
 	public List<ShapeHandle> getSelectionHandles() {
-		return this.handles;
+		return this.selection.getHandles();
 	}
 
 	/**
@@ -349,13 +692,218 @@ public class DefaultView extends JComponent implements View {
 	 */
 	@Override
 	public void clearSelection() {
-		for (Shape s : this.selection) {
+		BoundingBox dirtyArea = null;
+		for (Shape s : this.selection.getShapes()) {
 			s.setSelected(false);
+			BoundingBox b = s.getBoundingBox();
+			dirtyArea = dirtyArea == null ? b : dirtyArea.union(b);
 		}
 		this.selection.clear();
-		this.handles.clear();
+		invalidateRenderCache();
 		setCursor(Cursor.getDefaultCursor());
-		repaint();
+		if (dirtyArea != null) {
+			repaintArea(dirtyArea);
+		}
+	}
+
+	/**
+	 * @inheritDoc
+	 * 
+	 * @see ch.bfh.due1.jdt.framework.View#getZoom()
+	 */
+	@Override
+	public double getZoom() {
+		return this.zoom;
+	}
+
+	/**
+	 * Sets the zoom factor, keeping the center of the view. The zoom factor
+	 * is limited to the range from {@link #MIN_ZOOM} to {@link #MAX_ZOOM}.
+	 * 
+	 * @see ch.bfh.due1.jdt.framework.View#setZoom(double)
+	 */
+	@Override
+	public void setZoom(double zoom) {
+		if (!(zoom > 0.0)) {
+			throw new IllegalArgumentException("Illegal zoom factor: " + zoom);
+		}
+		zoomAt(zoom, getWidth() / 2, getHeight() / 2);
+	}
+
+	/**
+	 * @inheritDoc
+	 * 
+	 * @see ch.bfh.due1.jdt.framework.View#getViewOrigin()
+	 */
+	@Override
+	public Coord getViewOrigin() {
+		return new Coord((int) Math.floor(this.originX), (int) Math
+				.floor(this.originY));
+	}
+
+	/**
+	 * @inheritDoc
+	 * 
+	 * @see ch.bfh.due1.jdt.framework.View#setViewOrigin(ch.bfh.due1.jdt.framework.Coord)
+	 */
+	@Override
+	public void setViewOrigin(Coord origin) {
+		this.originX = origin.getX0();
+		this.originY = origin.getY0();
+		viewportChanged();
+	}
+
+	/**
+	 * @inheritDoc
+	 * 
+	 * @see ch.bfh.due1.jdt.framework.View#getVisibleArea()
+	 */
+	@Override
+	public BoundingBox getVisibleArea() {
+		int x0 = (int) Math.floor(this.originX);
+		int y0 = (int) Math.floor(this.originY);
+		int x1 = (int) Math.ceil(this.originX + getWidth() / this.zoom);
+		int y1 = (int) Math.ceil(this.originY + getHeight() / this.zoom);
+		return new BoundingBox(x0, y0, x1 - x0, y1 - y0);
+	}
+
+	/**
+	 * @inheritDoc
+	 * 
+	 * @see ch.bfh.due1.jdt.framework.View#setDetailThresholds(double, double)
+	 */
+	@Override
+	public void setDetailThresholds(double detailThreshold,
+			double skipThreshold) {
+		if (!(detailThreshold >= 0.0) || !(skipThreshold >= 0.0)) {
+			throw new IllegalArgumentException("Illegal thresholds: "
+					+ detailThreshold + ", " + skipThreshold);
+		}
+		this.detailThreshold = detailThreshold;
+		this.skipThreshold = skipThreshold;
+		viewportChanged();
+	}
+
+	/**
+	 * Enables or disables the render cache. Disabling the render cache frees
+	 * the offscreen image.
+	 * 
+	 * @see ch.bfh.due1.jdt.framework.View#setRenderCacheEnabled(boolean)
+	 */
+	@Override
+	public void setRenderCacheEnabled(boolean enabled) {
+		if (this.renderCacheEnabled != enabled) {
+			this.renderCacheEnabled = enabled;
+			invalidateRenderCache();
+			if (log.isDebugEnabled()) {
+				log.debug("Render cache enabled: " + enabled);
+			}
+		}
+	}
+
+	/**
+	 * Enables or disables background rendering. Disabling background
+	 * rendering stops the render thread and frees the latest frame.
+	 * 
+	 * @see ch.bfh.due1.jdt.framework.View#setBackgroundRenderingEnabled(boolean)
+	 */
+	@Override
+	public void setBackgroundRenderingEnabled(boolean enabled) {
+		if (this.backgroundRendering != enabled) {
+			this.backgroundRendering = enabled;
+			if (enabled) {
+				this.renderer = Executors
+						.newSingleThreadExecutor(new ThreadFactory() {
+							@Override
+							public Thread newThread(Runnable r) {
+								Thread t = new Thread(r, "jdt-renderer");
+								t.setDaemon(true);
+								return t;
+							}
+						});
+			} else {
+				this.renderer.shutdownNow();
+				this.renderer = null;
+				this.requestedFrame = null;
+				this.frame = null;
+				this.snapshots.clear();
+				this.unsnapshotted = Collections.emptyList();
+			}
+			repaint();
+			if (log.isDebugEnabled()) {
+				log.debug("Background rendering enabled: " + enabled);
+			}
+		}
+	}
+
+	/**
+	 * Enables or disables input coalescing. If enabled, the mouse drag and
+	 * mouse over events arriving within a frame are collapsed to the latest
+	 * one, see {@link InputCoalescer}. Disabling input coalescing passes the
+	 * pending event, if any.
+	 * 
+	 * @see ch.bfh.due1.jdt.framework.View#setInputCoalescingEnabled(boolean)
+	 */
+	@Override
+	public void setInputCoalescingEnabled(boolean enabled) {
+		if ((this.coalescer != null) != enabled) {
+			if (enabled) {
+				this.coalescer = new InputCoalescer(new InputCoalescer.Target() {
+					@Override
+					public void deliver(ToolEvent event, Coord c, KeyModifier k) {
+						passInput(event, c, k);
+					}
+
+					@Override
+					public void dropped(ToolEvent event) {
+						ViewMetrics m = DefaultView.this.metrics;
+						if (m != null) {
+							m.recordDroppedEvent();
+						}
+					}
+				}, InputCoalescer.DEFAULT_FRAME_NANOS);
+				this.coalesceTimer = new Timer(0, new ActionListener() {
+					@Override
+					public void actionPerformed(ActionEvent e) {
+						if (DefaultView.this.coalescer != null) {
+							DefaultView.this.coalescer.flush(System.nanoTime());
+						}
+					}
+				});
+				this.coalesceTimer.setRepeats(false);
+			} else {
+				this.coalesceTimer.stop();
+				this.coalesceTimer = null;
+				this.coalescer.flushNow();
+				this.coalescer = null;
+			}
+			if (log.isDebugEnabled()) {
+				log.debug("Input coalescing enabled: " + enabled);
+			}
+		}
+	}
+
+	/**
+	 * Sets the metrics recorded by this view. The metrics may be shared by
+	 * several views.
+	 * 
+	 * @param metrics
+	 *            the metrics, or null to record none
+	 */
+	public void setMetrics(ViewMetrics metrics) {
+		this.metrics = metrics;
+	}
+
+	/**
+	 * Sets the recorder of the mouse events passed to the tools and of the
+	 * tools set. The recorder may be shared by several views and with the
+	 * actions of the editor.
+	 * 
+	 * @param recorder
+	 *            the recorder, or null to record none
+	 */
+	public void setTraceRecorder(TraceRecorder recorder) {
+		this.traceRecorder = recorder;
 	}
 
 	/**
@@ -383,11 +931,18 @@ public class DefaultView extends JComponent implements View {
 			throw new IllegalArgumentException("Tool must not be null.");
 
 		if (this.currentTool != tool) {
+			// The pending event belongs to the former tool.
+			flushInput();
 			if (this.currentTool != null)
 				this.currentTool.deactivate();
 			this.currentTool = tool;
+			if (this.traceRecorder != null) {
+				this.traceRecorder.recordTool(tool);
+			}
 			this.currentTool.activate();
-			log.debug("Tool set: " + this.currentTool);
+			if (log.isDebugEnabled()) {
+				log.debug("Tool set: " + this.currentTool);
+			}
 			repaint();
 		} else {
 			// (Re-) activate tool if given tool is the same
@@ -417,29 +972,37 @@ public class DefaultView extends JComponent implements View {
 			s.addSheetChangedListener(this.mySheetChangedListener);
 			this.sheet = s;
 
-			log.debug("Sheet set: " + this.sheet);
+			if (log.isDebugEnabled()) {
+				log.debug("Sheet set: " + this.sheet);
+			}
 			repaint();
 		}
 	}
 
 	/**
-	 * @inheritDoc
+	 * Returns a memento of the sheet of this view.
 	 * 
 	 * @see ch.bfh.due1.jdt.framework.View#createMemento()
 	 */
 	@Override
 	public Memento createMemento() {
-		throw new UnsupportedOperationException("Method not yet implemented");
+		return getSheet().createMemento();
 	}
 
 	/**
-	 * @inheritDoc
+	 * Restores the sheet of this view from the given memento. Shapes no
+	 * longer on the sheet are removed from the selection.
 	 * 
 	 * @see ch.bfh.due1.jdt.framework.View#setMemento(ch.bfh.due1.jdt.framework.Memento)
 	 */
 	@Override
 	public void setMemento(Memento m) {
-		throw new UnsupportedOperationException("Method not yet implemented");
+		getSheet().setMemento(m);
+		for (Shape s : new ArrayList<Shape>(this.selection.getShapes())) {
+			if (getSheet().getStackingIndex(s) < 0) {
+				removeFromSelection(s);
+			}
+		}
 	}
 
 	/**
@@ -449,12 +1012,34 @@ public class DefaultView extends JComponent implements View {
 	 */
 	@Override
 	public void paintComponent(Graphics g) {
-		// This view is being painted. Call the content's draw method.
-		this.sheet.draw(g);
-	
-		// Is this the way to provide the space of a sheet??
-		g.clearRect(800, 0, this.getWidth(), this.getHeight());
-		g.clearRect(0, 500, this.getWidth(), this.getHeight());
+		// This view is being painted. Call the content's draw method. The
+		// clip, transformed into sheet coordinates, limits the shapes drawn
+		// to the visible ones.
+		long start = System.nanoTime();
+		int drawn;
+		Graphics2D g2 = (Graphics2D) g.create();
+		try {
+			if (g2.getClip() == null) {
+				g2.clipRect(0, 0, getWidth(), getHeight());
+			}
+			if (this.renderCacheEnabled) {
+				drawn = paintCached(g2);
+			} else if (this.backgroundRendering) {
+				paintFrame(g2);
+				// The shapes are counted when the frame is rasterized.
+				drawn = -1;
+			} else {
+				applyViewport(g2);
+				this.sheet.draw(g2);
+				HandleRenderer.draw(g2, this.selection.getHandles());
+				drawn = this.sheet.getDrawnShapeCount();
+			}
+		} finally {
+			g2.dispose();
+		}
+		if (this.metrics != null) {
+			this.metrics.recordPaint(System.nanoTime() - start, drawn);
+		}
 	}
 
 	/**
@@ -468,28 +1053,403 @@ public class DefaultView extends JComponent implements View {
 	}
 
 	/**
-	 * Helper that returns the associated sheet. Used internally only.
+	 * Copies the render cache, rebuilding it if necessary, and draws the
+	 * shapes being selected on top of it.
+	 * 
+	 * @param g
+	 *            the graphics context
+	 * @return the number of shapes drawn
+	 */
+	private int paintCached(Graphics2D g) {
+		int drawn = 0;
+		if (this.renderCache == null
+				|| this.renderCache.getWidth() != Math.max(1, getWidth())
+				|| this.renderCache.getHeight() != Math.max(1, getHeight())) {
+			drawn = buildRenderCache();
+		}
+		g.drawImage(this.renderCache, 0, 0, null);
+		applyViewport(g);
+		Rectangle clip = g.getClipBounds();
+		int m = AbstractShape.DRAWING_MARGIN;
+		for (Shape s : getSheet().getShapesByStackingOrder(this.liveShapes)) {
+			BoundingBox b = s.getBoundingBox();
+			if (clip == null || b == null
+					|| clip.intersects(b.getMinX() - m, b.getMinY() - m, b
+							.getMaxX() - b.getMinX() + 2 * m + 1, b.getMaxY()
+							- b.getMinY() + 2 * m + 1)) {
+				s.draw(g);
+				drawn++;
+			}
+		}
+		HandleRenderer.draw(g, this.selection.getHandles());
+		return drawn;
+	}
+
+	/**
+	 * Rasterizes the shapes not being selected into the render cache.
+	 * 
+	 * @return the number of shapes drawn
+	 */
+	private int buildRenderCache() {
+		int drawn = 0;
+		int w = Math.max(1, getWidth());
+		int h = Math.max(1, getHeight());
+		GraphicsConfiguration gc = getGraphicsConfiguration();
+		if (gc != null) {
+			this.renderCache = gc.createCompatibleImage(w, h,
+					Transparency.TRANSLUCENT);
+		} else {
+			this.renderCache = new BufferedImage(w, h,
+					BufferedImage.TYPE_INT_ARGB);
+		}
+		this.liveShapes = new HashSet<Shape>(this.selection.getShapes());
+		Graphics2D g = this.renderCache.createGraphics();
+		try {
+			g.clipRect(0, 0, w, h);
+			applyViewport(g);
+			BoundingBox v = getVisibleArea();
+			int m = AbstractShape.DRAWING_MARGIN;
+			BoundingBox area = new BoundingBox(v.getX0() - m, v.getY0() - m,
+					v.getWidth() + 2 * m, v.getHeight() + 2 * m);
+			for (Shape s : getSheet().getShapesIn(area)) {
+				if (!this.liveShapes.contains(s)) {
+					s.draw(g);
+					drawn++;
+				}
+			}
+		} finally {
+			g.dispose();
+		}
+		if (log.isDebugEnabled()) {
+			log.debug("Render cache built for " + this.liveShapes.size()
+					+ " live shapes");
+		}
+		return drawn;
+	}
+
+	/**
+	 * Copies the latest frame done, requesting a new frame if the content
+	 * has changed, and draws the handles on top of it. A frame of a former
+	 * viewport is scaled and moved to the current one.
+	 * 
+	 * @param g
+	 *            the graphics context
+	 */
+	private void paintFrame(Graphics2D g) {
+		int w = Math.max(1, getWidth());
+		int h = Math.max(1, getHeight());
+		Frame r = this.requestedFrame;
+		if (r == null || r.generation != this.generation || r.width != w
+				|| r.height != h) {
+			requestFrame(w, h);
+		}
+		Frame f = this.frame;
+		if (f != null) {
+			Graphics2D g2 = (Graphics2D) g.create();
+			try {
+				g2.scale(this.zoom, this.zoom);
+				g2.translate(f.originX - this.originX, f.originY
+						- this.originY);
+				g2.scale(1.0 / f.zoom, 1.0 / f.zoom);
+				g2.drawImage(f.image, 0, 0, null);
+			} finally {
+				g2.dispose();
+			}
+		}
+		applyViewport(g);
+		for (Shape s : this.unsnapshotted) {
+			s.draw(g);
+		}
+		HandleRenderer.draw(g, this.selection.getHandles());
+	}
+
+	/**
+	 * Takes a snapshot of the visible shapes and passes it to the render
+	 * thread. The snapshots of the shapes not changed since the last frame
+	 * are reused.
+	 */
+	private void requestFrame(int w, int h) {
+		BoundingBox v = getVisibleArea();
+		int m = AbstractShape.DRAWING_MARGIN;
+		BoundingBox area = new BoundingBox(v.getX0() - m, v.getY0() - m, v
+				.getWidth() + 2 * m, v.getHeight() + 2 * m);
+		List<Shape> shapes = new ArrayList<Shape>();
+		List<Shape> unsnapshotted = new ArrayList<Shape>();
+		Map<Shape, Shape> snapshots = new IdentityHashMap<Shape, Shape>();
+		for (Shape s : getSheet().getShapesIn(area)) {
+			Shape snapshot = this.snapshots.get(s);
+			if (snapshot == null) {
+				snapshot = snapshot(s);
+			}
+			if (snapshot == null) {
+				unsnapshotted.add(s);
+			} else {
+				snapshots.put(s, snapshot);
+				shapes.add(snapshot);
+			}
+		}
+		this.snapshots = snapshots;
+		this.unsnapshotted = unsnapshotted;
+		final Frame f = new Frame(this, w, h, shapes);
+		this.requestedFrame = f;
+		this.renderer.execute(new Runnable() {
+			@Override
+			public void run() {
+				rasterize(f);
+			}
+		});
+	}
+
+	/**
+	 * Returns a snapshot of the given shape, i.e., a copy having the state of
+	 * the shape, e.g., its colors, which leaves the shape untouched. Returns
+	 * null if the shape cannot be copied.
+	 */
+	private static Shape snapshot(Shape s) {
+		try {
+			return s.snapshot();
+		} catch (UnsupportedOperationException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Rasterizes the shapes of the given frame unless a newer frame has been
+	 * requested meanwhile. Runs in the render thread.
+	 */
+	private void rasterize(Frame f) {
+		if (f != this.requestedFrame) {
+			return;
+		}
+		long start = System.nanoTime();
+		BufferedImage image;
+		if (f.gc != null) {
+			image = f.gc.createCompatibleImage(f.width, f.height,
+					Transparency.TRANSLUCENT);
+		} else {
+			image = new BufferedImage(f.width, f.height,
+					BufferedImage.TYPE_INT_ARGB);
+		}
+		Graphics2D g = image.createGraphics();
+		try {
+			g.clipRect(0, 0, f.width, f.height);
+			applyViewport(g, f.zoom, f.originX, f.originY,
+					f.detailThreshold, f.skipThreshold);
+			for (Shape s : f.shapes) {
+				if (f != this.requestedFrame) {
+					if (log.isDebugEnabled()) {
+						log.debug("Frame " + f.generation + " dropped");
+					}
+					return;
+				}
+				s.draw(g);
+			}
+		} finally {
+			g.dispose();
+		}
+		if (f == this.requestedFrame) {
+			f.image = image;
+			this.frame = f;
+			repaint();
+			ViewMetrics m = this.metrics;
+			if (m != null) {
+				m.recordRasterize(System.nanoTime() - start, f.shapes.size());
+			}
+		}
+	}
+
+	/**
+	 * Drops the render cache such that it gets rebuilt when painted next, and
+	 * makes the render thread rasterize a new frame.
+	 */
+	private void invalidateRenderCache() {
+		this.renderCache = null;
+		this.liveShapes.clear();
+		this.generation++;
+	}
+
+	/**
+	 * Repaints the given area of the sheet, grown by the margin shapes may
+	 * paint beyond their bounding boxes. Repaints the whole view if the area
+	 * is null, i.e., unknown.
+	 * 
+	 * @param area
+	 *            the area to repaint, or null
+	 */
+	private void repaintArea(BoundingBox area) {
+		if (area == null) {
+			repaint();
+		} else {
+			int m = AbstractShape.DRAWING_MARGIN;
+			int x0 = (int) Math.floor((area.getMinX() - m - this.originX)
+					* this.zoom);
+			int y0 = (int) Math.floor((area.getMinY() - m - this.originY)
+					* this.zoom);
+			int x1 = (int) Math.ceil((area.getMaxX() + m + 1 - this.originX)
+					* this.zoom);
+			int y1 = (int) Math.ceil((area.getMaxY() + m + 1 - this.originY)
+					* this.zoom);
+			repaint(x0, y0, x1 - x0, y1 - y0);
+		}
+	}
+
+	/**
+	 * Transforms the given graphics context from view into sheet coordinates
+	 * and installs the level-of-detail policy, if any. The handles of the
+	 * selected shapes are drawn by this view in one pass, not by the shapes.
+	 */
+	private void applyViewport(Graphics2D g) {
+		applyViewport(g, this.zoom, this.originX, this.originY,
+				this.detailThreshold, this.skipThreshold);
+	}
+
+	/**
+	 * Transforms the given graphics context by the given viewport and
+	 * installs the given level-of-detail policy, if any.
+	 */
+	private static void applyViewport(Graphics2D g, double zoom,
+			double originX, double originY, double detailThreshold,
+			double skipThreshold) {
+		g.scale(zoom, zoom);
+		g.translate(-originX, -originY);
+		g.setRenderingHint(HandleRenderer.KEY_HANDLES,
+				HandleRenderer.VALUE_HANDLES_DEFERRED);
+		if (detailThreshold > 0.0) {
+			g.setRenderingHint(LevelOfDetail.KEY_LEVEL_OF_DETAIL,
+					new LevelOfDetail(zoom, detailThreshold, skipThreshold));
+		}
+	}
+
+	/**
+	 * Records the time taken by the given tool since the given start, if
+	 * metrics are set.
+	 */
+	private void recordToolEvent(Tool t, ToolEvent event, long start) {
+		if (this.metrics != null && t != null) {
+			this.metrics.recordToolEvent(t, event, System.nanoTime() - start);
+		}
+	}
+
+	/**
+	 * Passes the given mouse drag or mouse over event to the coalescer, or to
+	 * the current tool if input coalescing is disabled.
 	 */
-	private Sheet getSheet() {
+	private void submitInput(ToolEvent event, Coord c, KeyModifier k) {
+		if (this.coalescer == null) {
+			passInput(event, c, k);
+			return;
+		}
+		long delay = this.coalescer.submit(event, c, k, System.nanoTime());
+		if (delay >= 0 && !this.coalesceTimer.isRunning()) {
+			this.coalesceTimer.setInitialDelay((int) ((delay + 999999) / 1000000));
+			this.coalesceTimer.start();
+		}
+	}
+
+	/**
+	 * Passes the pending mouse event of the coalescer, if any.
+	 */
+	private void flushInput() {
+		if (this.coalescer != null) {
+			this.coalescer.flushNow();
+		}
+	}
+
+	/**
+	 * Calls the mouseDrag() or mouseOver() method on the current tool.
+	 */
+	private void passInput(ToolEvent event, Coord c, KeyModifier k) {
+		Tool t = getTool();
+		long start = System.nanoTime();
+		if (event == ToolEvent.MOUSE_DRAG) {
+			t.mouseDrag(c, k);
+		} else {
+			t.mouseOver(c, k);
+		}
+		recordToolEvent(t, event, start);
+	}
+
+	/**
+	 * Records the given mouse event, if a trace recorder is set.
+	 */
+	private void recordTrace(ToolEvent event, Coord c, KeyModifier k) {
+		if (this.traceRecorder != null) {
+			this.traceRecorder.recordToolEvent(event, c, k);
+		}
+	}
+
+	/**
+	 * Maps the location of the given mouse event to sheet coordinates.
+	 */
+	private Coord toSheetCoord(MouseEvent e) {
+		return new Coord((int) Math.floor(e.getX() / this.zoom + this.originX),
+				(int) Math.floor(e.getY() / this.zoom + this.originY));
+	}
+
+	/**
+	 * Sets the zoom factor, limited to the range from MIN_ZOOM to MAX_ZOOM,
+	 * such that the point of the sheet at the given view location remains.
+	 */
+	private void zoomAt(double newZoom, int x, int y) {
+		newZoom = Math.max(MIN_ZOOM, Math.min(MAX_ZOOM, newZoom));
+		if (newZoom != this.zoom) {
+			double sheetX = x / this.zoom + this.originX;
+			double sheetY = y / this.zoom + this.originY;
+			this.zoom = newZoom;
+			this.originX = sheetX - x / newZoom;
+			this.originY = sheetY - y / newZoom;
+			viewportChanged();
+		}
+	}
+
+	/**
+	 * Pans the view by the given distance in sheet coordinates.
+	 */
+	private void panBy(double dx, double dy) {
+		this.originX += dx;
+		this.originY += dy;
+		viewportChanged();
+	}
+
+	/**
+	 * Repaints the view after the zoom factor or the origin has changed.
+	 */
+	private void viewportChanged() {
+		if (log.isDebugEnabled()) {
+			log.debug("Viewport changed: zoom " + this.zoom + ", origin ("
+					+ this.originX + ", " + this.originY + ")");
+		}
+		invalidateRenderCache();
+		repaint();
+	}
+
+	/**
+	 * @inheritDoc
+	 * 
+	 * @see ch.bfh.due1.jdt.framework.View#getSheet()
+	 */
+	@Override
+	public Sheet getSheet() {
 		return this.sheet;
 	}
 
 	/**
-	 * Helper method for printing mouse event information.
+	 * Helper method for printing mouse event information. To be called only
+	 * if debug messages are logged.
 	 * 
 	 * @param e
 	 *            the mouse event
 	 * @return a corresponding string
 	 */
 	private String mouseInfo(MouseEvent e) {
-		StringBuffer sb = new StringBuffer();
-		sb.append("x=" + e.getX() + ",");
-		sb.append("y=" + e.getY() + ",");
-		sb.append("AltDown=" + e.isAltDown() + ",");
-		sb.append("AltGraphDown=" + e.isAltGraphDown() + ",");
-		sb.append("ControlDown=" + e.isControlDown() + ",");
-		sb.append("ShiftDown=" + e.isShiftDown() + ",");
-		sb.append("MetaDown=" + e.isMetaDown() + ".");
+		StringBuilder sb = new StringBuilder(112);
+		sb.append("x=").append(e.getX()).append(',');
+		sb.append("y=").append(e.getY()).append(',');
+		sb.append("AltDown=").append(e.isAltDown()).append(',');
+		sb.append("AltGraphDown=").append(e.isAltGraphDown()).append(',');
+		sb.append("ControlDown=").append(e.isControlDown()).append(',');
+		sb.append("ShiftDown=").append(e.isShiftDown()).append(',');
+		sb.append("MetaDown=").append(e.isMetaDown()).append('.');
 		return sb.toString();
 	}
 
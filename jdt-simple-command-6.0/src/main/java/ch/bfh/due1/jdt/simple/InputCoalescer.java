@@ -0,0 +1,174 @@
+/*
+ * Eric Dubuis, Berner Fachhochschule,
+ * Biel, Switzerland.
+ * Copyright (c) 2007
+ *
+ * Distributable under LGPL license.
+ * See terms of license at gnu.org.
+ */
+package ch.bfh.due1.jdt.simple;
+
+import ch.bfh.due1.jdt.framework.Coord;
+import ch.bfh.due1.jdt.framework.KeyModifier;
+import ch.bfh.due1.jdt.simple.metrics.ViewMetrics.ToolEvent;
+
+/**
+ * Collapses the mouse drag and mouse over events arriving within a frame to
+ * the latest one. The first event of a frame is delivered at once. Events
+ * arriving later within the same frame are kept pending, each replacing the
+ * previous one, and the latest one is delivered when the frame is over, see
+ * {@link #flush(long)}. A pending event is delivered at once if an event of
+ * another kind or with another key modifier arrives, and it must be
+ * delivered by {@link #flushNow()} before passing a mouse down or mouse up
+ * event. Hence, the order of the events is kept, and a tool receives the
+ * last coordinate before the mouse button is released.
+ * <p>
+ * Tools moving shapes by the distance between successive coordinates move
+ * them by the same total distance, as the distances of the events dropped
+ * add up to the distance to the latest coordinate.
+ *
+ * @see DefaultView#setInputCoalescingEnabled(boolean)
+ * @author Eric Dubuis
+ */
+public final class InputCoalescer {
+	/**
+	 * Receives the events delivered.
+	 */
+	public interface Target {
+		/**
+		 * Called for an event delivered.
+		 *
+		 * @param event
+		 *            the event
+		 * @param c
+		 *            the coordinate
+		 * @param k
+		 *            the key modifier
+		 */
+		public void deliver(ToolEvent event, Coord c, KeyModifier k);
+
+		/**
+		 * Called for an event replaced by a later one.
+		 *
+		 * @param event
+		 *            the event
+		 */
+		public void dropped(ToolEvent event);
+	}
+
+	/** The default length of a frame, 1/60 s. */
+	public static final long DEFAULT_FRAME_NANOS = 1000000000L / 60;
+
+	private final Target target;
+
+	private final long frameNanos;
+
+	/** The start of the current frame in nanoseconds. */
+	private long frameStart;
+
+	/** True if a frame has been started. */
+	private boolean started;
+
+	/** The pending event, or null. */
+	private ToolEvent pending;
+
+	private Coord pendingCoord;
+
+	private KeyModifier pendingModifier;
+
+	/**
+	 * Creates a coalescer.
+	 *
+	 * @param target
+	 *            the target of the events
+	 * @param frameNanos
+	 *            the length of a frame in nanoseconds
+	 * @throws IllegalArgumentException
+	 *             if the length is not positive
+	 */
+	public InputCoalescer(Target target, long frameNanos) {
+		if (frameNanos <= 0) {
+			throw new IllegalArgumentException("Illegal frame length: "
+					+ frameNanos);
+		}
+		this.target = target;
+		this.frameNanos = frameNanos;
+	}
+
+	/**
+	 * Submits a mouse drag or mouse over event.
+	 *
+	 * @param event
+	 *            the event
+	 * @param c
+	 *            the coordinate
+	 * @param k
+	 *            the key modifier
+	 * @param now
+	 *            the current time in nanoseconds
+	 * @return the time in nanoseconds until {@link #flush(long)} is to be
+	 *         called, or -1 if no event is pending
+	 * @throws IllegalArgumentException
+	 *             if the event is neither a mouse drag nor a mouse over event
+	 */
+	public long submit(ToolEvent event, Coord c, KeyModifier k, long now) {
+		if (event != ToolEvent.MOUSE_DRAG && event != ToolEvent.MOUSE_OVER) {
+			throw new IllegalArgumentException("Cannot coalesce: " + event);
+		}
+		if (this.pending != null
+				&& (this.pending != event || this.pendingModifier != k)) {
+			flushNow();
+		}
+		if (this.pending == null
+				&& (!this.started || now - this.frameStart >= this.frameNanos)) {
+			this.frameStart = now;
+			this.started = true;
+			this.target.deliver(event, c, k);
+			return -1;
+		}
+		if (this.pending != null) {
+			this.target.dropped(this.pending);
+		}
+		this.pending = event;
+		this.pendingCoord = c;
+		this.pendingModifier = k;
+		return Math.max(0, this.frameStart + this.frameNanos - now);
+	}
+
+	/**
+	 * Ends the current frame. Delivers the pending event, if any, starting a
+	 * new frame.
+	 *
+	 * @param now
+	 *            the current time in nanoseconds
+	 */
+	public void flush(long now) {
+		if (this.pending != null) {
+			this.frameStart = now;
+			flushNow();
+		}
+	}
+
+	/**
+	 * Delivers the pending event, if any.
+	 */
+	public void flushNow() {
+		if (this.pending != null) {
+			ToolEvent event = this.pending;
+			this.pending = null;
+			this.target.deliver(event, this.pendingCoord,
+					this.pendingModifier);
+			this.pendingCoord = null;
+			this.pendingModifier = null;
+		}
+	}
+
+	/**
+	 * Tells if an event is pending.
+	 *
+	 * @return true if an event is pending
+	 */
+	public boolean isPending() {
+		return this.pending != null;
+	}
+}
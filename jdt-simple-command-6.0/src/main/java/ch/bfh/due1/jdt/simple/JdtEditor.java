@@ -15,13 +15,20 @@ import java.awt.event.ActionListener;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
 import java.awt.event.WindowListener;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
 
+import javax.management.JMException;
+import javax.management.ObjectName;
 import javax.swing.Icon;
 import javax.swing.JComponent;
 import javax.swing.JFrame;
+import javax.swing.JMenu;
 import javax.swing.JMenuBar;
+import javax.swing.JMenuItem;
 import javax.swing.JPanel;
 import javax.swing.JScrollPane;
 import javax.swing.JTabbedPane;
@@ -40,10 +47,15 @@ import ch.bfh.due1.jdt.framework.Tool;
 import ch.bfh.due1.jdt.framework.ToolFactory;
 import ch.bfh.due1.jdt.framework.View;
 import ch.bfh.due1.jdt.framework.ViewFactory;
+import ch.bfh.due1.jdt.simple.metrics.ViewMetrics;
+import ch.bfh.due1.jdt.simple.trace.TraceRecorder;
 
 
 /**
  * Main driver class for a simple drawing editor.
+ * <p>
+ * If the system property {@link TraceRecorder#PROP_TRACE_FILE} names a file,
+ * the interaction with the editor is recorded into this file.
  * 
  * @author Eric Dubuis
  */
@@ -78,6 +90,16 @@ public class JdtEditor {
 	 */
 	private ActionManager actionManager;
 
+	/**
+	 * The metrics recorded by the views, published through JMX.
+	 */
+	private ViewMetrics metrics = new ViewMetrics();
+
+	/**
+	 * The trace recorder, or null if not recording.
+	 */
+	private TraceRecorder traceRecorder;
+
 	/**
 	 * Initializes the editor.
 	 */
@@ -138,6 +160,9 @@ public class JdtEditor {
 		this.statusField = new JTextField();
 		this.statusField.setEditable(false);
 
+		registerMetrics();
+		createTraceRecorder();
+
 		// Create tools.
 		ToolFactory tfDefaultTool = null;
 		List<ToolFactory> tfOtherTools = null;
@@ -170,6 +195,7 @@ public class JdtEditor {
 		this.actionManager = new ActionManager(this.editor);
 		MenuBarBuilder mbBuilder = new MenuBarBuilder(this.actionManager);
 		JMenuBar menuBar = mbBuilder.getMenuBar();
+		recordActions(menuBar);
 
 //
 //		JMenu grid = new JMenu("Grid");
@@ -219,6 +245,72 @@ public class JdtEditor {
 		frame.setVisible(true);
 	}
 
+	/**
+	 * Registers the view metrics with the platform MBean server. If an
+	 * editor has registered its metrics already, e.g., in the same JVM, the
+	 * metrics of this editor are not published.
+	 */
+	private void registerMetrics() {
+		try {
+			ManagementFactory.getPlatformMBeanServer().registerMBean(
+					this.metrics, new ObjectName(ViewMetrics.OBJECT_NAME));
+			log.debug("Registered view metrics: " + ViewMetrics.OBJECT_NAME);
+		} catch (JMException e) {
+			log.warn("Cannot register view metrics: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Creates the trace recorder if the trace file is given. The trace is
+	 * completed when the program exits.
+	 */
+	private void createTraceRecorder() {
+		String file = System.getProperty(TraceRecorder.PROP_TRACE_FILE);
+		if (file == null) {
+			return;
+		}
+		try {
+			final TraceRecorder recorder = new TraceRecorder(Paths.get(file));
+			Runtime.getRuntime().addShutdownHook(new Thread() {
+				@Override
+				public void run() {
+					recorder.close();
+				}
+			});
+			this.traceRecorder = recorder;
+			log.debug("Recording trace: " + file);
+		} catch (IOException e) {
+			log.warn("Cannot record trace: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Records the actions invoked by the items of the given menu bar, if
+	 * recording.
+	 * 
+	 * @param menuBar
+	 *            the menu bar
+	 */
+	private void recordActions(JMenuBar menuBar) {
+		if (this.traceRecorder == null) {
+			return;
+		}
+		for (int i = 0; i < menuBar.getMenuCount(); i++) {
+			JMenu menu = menuBar.getMenu(i);
+			for (int k = 0; k < menu.getItemCount(); k++) {
+				final JMenuItem item = menu.getItem(k);
+				if (item != null && item.getAction() != null) {
+					item.addActionListener(new ActionListener() {
+						@Override
+						public void actionPerformed(ActionEvent e) {
+							traceRecorder.recordAction(item.getAction());
+						}
+					});
+				}
+			}
+		}
+	}
+
 	/**
 	 * Creates and returns a factory for tool factories.
 	 * 
@@ -414,6 +506,10 @@ public class JdtEditor {
 			this.statusField.setText("Fatal error: " + ex.getMessage());
 		}
 		currentView.setSheet(currentSheet);
+		if (currentView instanceof DefaultView) {
+			((DefaultView) currentView).setMetrics(this.metrics);
+			((DefaultView) currentView).setTraceRecorder(this.traceRecorder);
+		}
 
 		return currentView;
 	}
@@ -36,11 +36,53 @@ public class ViewFactoryImpl implements ViewFactory {
 	 */
 	public final static String PROP_VIEW_CLASSNAME = "jdt.view.classname";
 
+	/**
+	 * The property name of the size (in pixels) below which shapes are drawn
+	 * as a rectangle.
+	 */
+	public final static String PROP_DETAIL_THRESHOLD = "jdt.view.lod.detail";
+
+	/**
+	 * The property name of the size (in pixels) below which shapes are not
+	 * drawn.
+	 */
+	public final static String PROP_SKIP_THRESHOLD = "jdt.view.lod.skip";
+
+	/**
+	 * The property name of the flag enabling background rendering.
+	 */
+	public final static String PROP_BACKGROUND_RENDERING = "jdt.view.background";
+
+	/**
+	 * The property name of the flag enabling input coalescing.
+	 */
+	public final static String PROP_INPUT_COALESCING = "jdt.view.coalesce";
+
 	/**
 	 * The name of the view class.
 	 */
 	private String viewClassName = null;
 
+	/**
+	 * The level-of-detail threshold.
+	 */
+	private double detailThreshold = 0.0;
+
+	/**
+	 * The skip threshold.
+	 */
+	private double skipThreshold = 0.0;
+
+	/**
+	 * True if background rendering is enabled.
+	 */
+	private boolean backgroundRendering = false;
+
+	/**
+	 * True if input coalescing is enabled.
+	 */
+	private boolean inputCoalescing = false;
+
 	/**
 	 * The logger name "jdt.app.simple.ViewFactoryImpl".
 	 */
@@ -65,6 +107,11 @@ public class ViewFactoryImpl implements ViewFactory {
 		log.debug("Using properties from file: " + fileName);
 		Properties props = loadProperties(fileName);
 		retrieveClassName(props);
+		retrieveThresholds(props);
+		this.backgroundRendering = Boolean.parseBoolean(props.getProperty(
+				PROP_BACKGROUND_RENDERING, "false").trim());
+		this.inputCoalescing = Boolean.parseBoolean(props.getProperty(
+				PROP_INPUT_COALESCING, "false").trim());
 	}
 
 	/**
@@ -104,6 +151,36 @@ public class ViewFactoryImpl implements ViewFactory {
 		this.viewClassName = props.getProperty(PROP_VIEW_CLASSNAME);
 	}
 
+	/**
+	 * Retrieves the level-of-detail thresholds. Missing thresholds are 0.
+	 * 
+	 * @param props
+	 *            the given properties
+	 */
+	private void retrieveThresholds(Properties props)
+			throws IllegalArgumentException {
+		this.detailThreshold = parseThreshold(props, PROP_DETAIL_THRESHOLD);
+		this.skipThreshold = parseThreshold(props, PROP_SKIP_THRESHOLD);
+	}
+
+	/**
+	 * Parses the named threshold.
+	 */
+	private double parseThreshold(Properties props, String name)
+			throws IllegalArgumentException {
+		String value = props.getProperty(name);
+		if (value == null || value.trim().length() == 0) {
+			return 0.0;
+		}
+		try {
+			return Double.parseDouble(value.trim());
+		} catch (NumberFormatException e) {
+			log.error("Illegal value of property " + name + ": " + value);
+			throw new IllegalArgumentException("Illegal value of property "
+					+ name + ": " + value);
+		}
+	}
+
 	/**
 	 * Instantiates a View object. If the named class cannot be instantiated
 	 * then null is returned.
@@ -144,6 +221,9 @@ public class ViewFactoryImpl implements ViewFactory {
 		View view = instantiateView(this.viewClassName);
 		if (view != null) {
 			view.setEditor(e);
+			view.setDetailThresholds(this.detailThreshold, this.skipThreshold);
+			view.setBackgroundRenderingEnabled(this.backgroundRendering);
+			view.setInputCoalescingEnabled(this.inputCoalescing);
 		}
 		return view;
 	}
@@ -0,0 +1,54 @@
+/*
+ * Eric Dubuis, Berner Fachhochschule,
+ * Biel, Switzerland.
+ * Copyright (c) 2014
+ *
+ * Distributable under LGPL license.
+ * See terms of license at gnu.org.
+ */
+package ch.bfh.due1.jdt.simple.action;
+
+import java.awt.event.ActionEvent;
+
+import ch.bfh.due1.jdt.framework.BaseAction;
+import ch.bfh.due1.jdt.framework.View;
+
+
+/**
+ * Handles the 'actual size' action performed by the user.
+ *
+ * @author Eric Dubuis
+ */
+public class ActualSizeAction extends BaseAction {
+	/** The serial version UID. */
+	private static final long serialVersionUID = 3198550736212509844L;
+
+	/**
+	 * Creates an instance.
+	 */
+	public ActualSizeAction() {
+	}
+
+	/**
+	 * Shows the current view at its actual size.
+	 *
+	 * @see java.awt.event.ActionListener#actionPerformed(java.awt.event.ActionEvent)
+	 */
+	@Override
+	public void actionPerformed(ActionEvent ev) {
+		View v = getEditor().getCurrentView();
+		if (v != null) {
+			v.setZoom(1.0);
+		}
+	}
+
+	/**
+	 * Checks whether the actual size action is enabled or not.
+	 *
+	 * @see ch.bfh.due1.jdt.framework.BaseAction#checkAction()
+	 */
+	@Override
+	public void checkAction() {
+		setEnabled(true);
+	}
+}
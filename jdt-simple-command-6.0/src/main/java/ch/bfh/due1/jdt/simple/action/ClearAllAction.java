@@ -44,7 +44,7 @@ public class ClearAllAction extends BaseAction {
 		// Clear clip board for a new cut/paste cycle.
 		// This is the only place there the clip board is cleared.
 		e.getClipboard().clear();
-		Command mc = new ch.bfh.sed.commandpattern.command.MacroCommand();
+		Command mc = new ch.bfh.sed.commandpattern.command.MacroCommand(e);
 		for (Shape s : e.getShapes()) {
 			Command c = new ch.bfh.sed.commandpattern.command.CutCommand(e, s);
 			mc.addCommand(c);
@@ -0,0 +1,92 @@
+/*
+ * Eric Dubuis, Berner Fachhochschule,
+ * Biel, Switzerland.
+ * Copyright (c) 2014
+ *
+ * Distributable under LGPL license.
+ * See terms of license at gnu.org.
+ */
+package ch.bfh.due1.jdt.simple.action;
+
+import java.awt.Component;
+
+import javax.swing.JFileChooser;
+import javax.swing.JOptionPane;
+import javax.swing.filechooser.FileNameExtensionFilter;
+
+import ch.bfh.due1.jdt.framework.BaseAction;
+import ch.bfh.due1.jdt.framework.View;
+
+
+/**
+ * Base class of the actions opening and saving sheet files. Provides the file
+ * chooser, shared by all instances such that it remembers the last
+ * directory, and the reporting of errors.
+ *
+ * @see ch.bfh.due1.jdt.simple.impl.io.SheetFormat
+ * @author Eric Dubuis
+ */
+public abstract class FileAction extends BaseAction {
+	/** The serial version UID. */
+	private static final long serialVersionUID = -3387203311286470712L;
+
+	/** The extension of sheet files. */
+	public static final String EXTENSION = "jdt";
+
+	/** The file chooser, created once needed. */
+	private static JFileChooser chooser;
+
+	/**
+	 * Creates an instance.
+	 */
+	protected FileAction() {
+	}
+
+	/**
+	 * Returns the file chooser for sheet files.
+	 *
+	 * @return the file chooser
+	 */
+	protected static JFileChooser getFileChooser() {
+		if (chooser == null) {
+			chooser = new JFileChooser();
+			chooser.setFileFilter(new FileNameExtensionFilter(
+					"JDT sheets (*." + EXTENSION + ")", EXTENSION));
+		}
+		return chooser;
+	}
+
+	/**
+	 * Returns the parent component of dialogs, i.e., the current view if it
+	 * is a component.
+	 *
+	 * @return the parent component, or null
+	 */
+	protected Component getDialogParent() {
+		View v = getEditor().getCurrentView();
+		return v instanceof Component ? (Component) v : null;
+	}
+
+	/**
+	 * Reports the given error to the user.
+	 *
+	 * @param message
+	 *            the error message
+	 */
+	protected void showError(String message) {
+		getEditor().showStatus(message);
+		JOptionPane.showMessageDialog(getDialogParent(), message, getName(),
+				JOptionPane.ERROR_MESSAGE);
+	}
+
+	/**
+	 * Checks whether this action is enabled or not. File actions are always
+	 * enabled.
+	 *
+	 * @see ch.bfh.due1.jdt.framework.BaseAction#checkAction()
+	 */
+	@Override
+	public void checkAction() {
+		setEnabled(true);
+	}
+}
@@ -0,0 +1,54 @@
+/*
+ * Eric Dubuis, Berner Fachhochschule,
+ * Biel, Switzerland.
+ * Copyright (c) 2007
+ *
+ * Distributable under LGPL license.
+ * See terms of license at gnu.org.
+ */
+package ch.bfh.due1.jdt.simple.action;
+
+import java.util.List;
+
+import ch.bfh.due1.jdt.framework.Shape;
+import ch.bfh.due1.jdt.framework.View;
+
+
+/**
+ * Handles the 'move down' action performed by the user: each selected shape
+ * is moved one level down, unless it is blocked by a selected shape below.
+ *
+ * @author Eric Dubuis
+ */
+public class MoveDownAction extends StackingOrderAction {
+	/** The serial version UID. */
+	private static final long serialVersionUID = 7861568686074522602L;
+
+	/**
+	 * @inheritDoc
+	 *
+	 * @see ch.bfh.due1.jdt.simple.action.StackingOrderAction#computeNewIndexes(ch.bfh.due1.jdt.framework.View,
+	 *      java.util.List)
+	 */
+	@Override
+	protected int[] computeNewIndexes(View view, List<Shape> selected) {
+		int[] newIndexes = new int[selected.size()];
+		int limit = -1;
+		for (int i = 0; i < newIndexes.length; i++) {
+			int index = view.getStackingIndex(selected.get(i));
+			newIndexes[i] = Math.max(index - 1, limit + 1);
+			limit = newIndexes[i];
+		}
+		return newIndexes;
+	}
+
+	/**
+	 * @inheritDoc
+	 *
+	 * @see ch.bfh.due1.jdt.simple.action.StackingOrderAction#isTopmostFirst()
+	 */
+	@Override
+	protected boolean isTopmostFirst() {
+		return false;
+	}
+}
@@ -0,0 +1,54 @@
+/*
+ * Eric Dubuis, Berner Fachhochschule,
+ * Biel, Switzerland.
+ * Copyright (c) 2007
+ *
+ * Distributable under LGPL license.
+ * See terms of license at gnu.org.
+ */
+package ch.bfh.due1.jdt.simple.action;
+
+import java.util.List;
+
+import ch.bfh.due1.jdt.framework.Shape;
+import ch.bfh.due1.jdt.framework.View;
+
+
+/**
+ * Handles the 'move up' action performed by the user: each selected shape is
+ * moved one level up, unless it is blocked by a selected shape above.
+ *
+ * @author Eric Dubuis
+ */
+public class MoveUpAction extends StackingOrderAction {
+	/** The serial version UID. */
+	private static final long serialVersionUID = 6468248133177167415L;
+
+	/**
+	 * @inheritDoc
+	 *
+	 * @see ch.bfh.due1.jdt.simple.action.StackingOrderAction#computeNewIndexes(ch.bfh.due1.jdt.framework.View,
+	 *      java.util.List)
+	 */
+	@Override
+	protected int[] computeNewIndexes(View view, List<Shape> selected) {
+		int[] newIndexes = new int[selected.size()];
+		int limit = view.getShapes().size();
+		for (int i = newIndexes.length - 1; i >= 0; i--) {
+			int index = view.getStackingIndex(selected.get(i));
+			newIndexes[i] = Math.min(index + 1, limit - 1);
+			limit = newIndexes[i];
+		}
+		return newIndexes;
+	}
+
+	/**
+	 * @inheritDoc
+	 *
+	 * @see ch.bfh.due1.jdt.simple.action.StackingOrderAction#isTopmostFirst()
+	 */
+	@Override
+	protected boolean isTopmostFirst() {
+		return true;
+	}
+}
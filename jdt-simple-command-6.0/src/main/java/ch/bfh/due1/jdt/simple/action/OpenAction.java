@@ -0,0 +1,111 @@
+/*
+ * Eric Dubuis, Berner Fachhochschule,
+ * Biel, Switzerland.
+ * Copyright (c) 2014
+ *
+ * Distributable under LGPL license.
+ * See terms of license at gnu.org.
+ */
+package ch.bfh.due1.jdt.simple.action;
+
+import java.awt.event.ActionEvent;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.swing.JFileChooser;
+
+import org.apache.log4j.Logger;
+
+import ch.bfh.due1.jdt.framework.Editor;
+import ch.bfh.due1.jdt.framework.Shape;
+import ch.bfh.due1.jdt.framework.Sheet;
+import ch.bfh.due1.jdt.framework.View;
+import ch.bfh.due1.jdt.simple.impl.CompactSheet;
+import ch.bfh.due1.jdt.simple.impl.io.SheetFormat;
+
+
+/**
+ * Handles the 'open' action performed by the user. Replaces the content of
+ * the sheet of the current view by the shapes read from a sheet file. The
+ * commands done so far cannot be undone afterwards.
+ *
+ * @author Eric Dubuis
+ */
+public class OpenAction extends FileAction {
+	/** The serial version UID. */
+	private static final long serialVersionUID = 6102318532174463361L;
+
+	/**
+	 * The logger.
+	 */
+	private static Logger log = Logger.getLogger(OpenAction.class);
+
+	/**
+	 * Creates an instance.
+	 */
+	public OpenAction() {
+	}
+
+	/**
+	 * Lets the user choose a file and opens it.
+	 *
+	 * @see java.awt.event.ActionListener#actionPerformed(java.awt.event.ActionEvent)
+	 */
+	@Override
+	public void actionPerformed(ActionEvent ev) {
+		Editor e = getEditor();
+		View v = e.getCurrentView();
+		if (v == null) {
+			return;
+		}
+		JFileChooser fc = getFileChooser();
+		if (fc.showOpenDialog(getDialogParent()) != JFileChooser.APPROVE_OPTION) {
+			return;
+		}
+		Path file = fc.getSelectedFile().toPath();
+		try {
+			List<Shape> shapes = SheetFormat.read(file);
+			e.clearSelection();
+			replaceShapes(v.getSheet(), shapes);
+			e.getCommandHandler().clear();
+			e.showStatus("Opened " + file + " (" + shapes.size() + " shapes).");
+		} catch (IOException ex) {
+			log.error("Cannot open " + file, ex);
+			showError("Cannot open " + file + ": " + ex.getMessage());
+		}
+		e.checkEditorState();
+	}
+
+	/**
+	 * Replaces the shapes of the given sheet in one batch. The shapes are
+	 * removed from the top, and a compact sheet stores the new shapes in its
+	 * arrays, as they are not referred to elsewhere.
+	 *
+	 * @param sheet
+	 *            the sheet
+	 * @param shapes
+	 *            the new shapes
+	 */
+	static void replaceShapes(Sheet sheet, List<Shape> shapes) {
+		sheet.beginBatch();
+		try {
+			List<Shape> old = new ArrayList<Shape>(sheet.getShapes());
+			for (int i = old.size() - 1; i >= 0; i--) {
+				sheet.removeShape(old.get(i));
+			}
+			if (sheet instanceof CompactSheet) {
+				for (Shape s : shapes) {
+					((CompactSheet) sheet).addCompact(s);
+				}
+			} else {
+				for (Shape s : shapes) {
+					sheet.addShape(s);
+				}
+			}
+		} finally {
+			sheet.commitBatch();
+		}
+	}
+}
@@ -0,0 +1,71 @@
+/*
+ * Eric Dubuis, Berner Fachhochschule,
+ * Biel, Switzerland.
+ * Copyright (c) 2014
+ *
+ * Distributable under LGPL license.
+ * See terms of license at gnu.org.
+ */
+package ch.bfh.due1.jdt.simple.action;
+
+import java.awt.event.ActionEvent;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+
+import javax.swing.JFileChooser;
+
+import org.apache.log4j.Logger;
+
+import ch.bfh.due1.jdt.framework.Editor;
+import ch.bfh.due1.jdt.simple.impl.io.SheetFormat;
+
+
+/**
+ * Handles the 'save' action performed by the user. Writes the shapes of the
+ * sheet of the current view to a sheet file.
+ *
+ * @author Eric Dubuis
+ */
+public class SaveAction extends FileAction {
+	/** The serial version UID. */
+	private static final long serialVersionUID = -1496215337104623770L;
+
+	/**
+	 * The logger.
+	 */
+	private static Logger log = Logger.getLogger(SaveAction.class);
+
+	/**
+	 * Creates an instance.
+	 */
+	public SaveAction() {
+	}
+
+	/**
+	 * Lets the user choose a file and saves the shapes into it. Appends the
+	 * extension of sheet files to the name of the file if missing.
+	 *
+	 * @see java.awt.event.ActionListener#actionPerformed(java.awt.event.ActionEvent)
+	 */
+	@Override
+	public void actionPerformed(ActionEvent ev) {
+		Editor e = getEditor();
+		JFileChooser fc = getFileChooser();
+		if (fc.showSaveDialog(getDialogParent()) != JFileChooser.APPROVE_OPTION) {
+			return;
+		}
+		File f = fc.getSelectedFile();
+		if (!f.getName().contains(".")) {
+			f = new File(f.getParentFile(), f.getName() + "." + EXTENSION);
+		}
+		Path file = f.toPath();
+		try {
+			SheetFormat.write(e.getShapes(), file);
+			e.showStatus("Saved " + file + ".");
+		} catch (IOException | IllegalArgumentException ex) {
+			log.error("Cannot save " + file, ex);
+			showError("Cannot save " + file + ": " + ex.getMessage());
+		}
+	}
+}
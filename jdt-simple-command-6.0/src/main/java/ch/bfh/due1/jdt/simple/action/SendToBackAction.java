@@ -0,0 +1,51 @@
+/*
+ * Eric Dubuis, Berner Fachhochschule,
+ * Biel, Switzerland.
+ * Copyright (c) 2007
+ *
+ * Distributable under LGPL license.
+ * See terms of license at gnu.org.
+ */
+package ch.bfh.due1.jdt.simple.action;
+
+import java.util.List;
+
+import ch.bfh.due1.jdt.framework.Shape;
+import ch.bfh.due1.jdt.framework.View;
+
+
+/**
+ * Handles the 'send to back' action performed by the user: the selected
+ * shapes are moved below all other shapes.
+ *
+ * @author Eric Dubuis
+ */
+public class SendToBackAction extends StackingOrderAction {
+	/** The serial version UID. */
+	private static final long serialVersionUID = 3406906422018949273L;
+
+	/**
+	 * @inheritDoc
+	 *
+	 * @see ch.bfh.due1.jdt.simple.action.StackingOrderAction#computeNewIndexes(ch.bfh.due1.jdt.framework.View,
+	 *      java.util.List)
+	 */
+	@Override
+	protected int[] computeNewIndexes(View view, List<Shape> selected) {
+		int[] newIndexes = new int[selected.size()];
+		for (int i = 0; i < newIndexes.length; i++) {
+			newIndexes[i] = i;
+		}
+		return newIndexes;
+	}
+
+	/**
+	 * @inheritDoc
+	 *
+	 * @see ch.bfh.due1.jdt.simple.action.StackingOrderAction#isTopmostFirst()
+	 */
+	@Override
+	protected boolean isTopmostFirst() {
+		return false;
+	}
+}
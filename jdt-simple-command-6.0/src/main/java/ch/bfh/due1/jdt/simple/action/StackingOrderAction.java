@@ -0,0 +1,109 @@
+/*
+ * Eric Dubuis, Berner Fachhochschule,
+ * Biel, Switzerland.
+ * Copyright (c) 2007
+ *
+ * Distributable under LGPL license.
+ * See terms of license at gnu.org.
+ */
+package ch.bfh.due1.jdt.simple.action;
+
+import java.awt.event.ActionEvent;
+import java.util.List;
+
+import ch.bfh.due1.jdt.framework.BaseAction;
+import ch.bfh.due1.jdt.framework.Command;
+import ch.bfh.due1.jdt.framework.CommandHandler;
+import ch.bfh.due1.jdt.framework.Editor;
+import ch.bfh.due1.jdt.framework.Shape;
+import ch.bfh.due1.jdt.framework.View;
+import ch.bfh.due1.jdt.simple.impl.command.StackingOrderCommand;
+import ch.bfh.sed.commandpattern.command.MacroCommand;
+
+
+/**
+ * Base class of the actions changing the stacking order of the selected
+ * shapes. The selected shapes keep their relative stacking order. Each
+ * selected shape being moved is handled by a stacking order command; the
+ * commands are combined by a macro command which is executed and passed over
+ * to the command handler.
+ *
+ * @author Eric Dubuis
+ */
+public abstract class StackingOrderAction extends BaseAction {
+	/** The serial version UID. */
+	private static final long serialVersionUID = 2923614520388254812L;
+
+	/**
+	 * Creates an instance.
+	 */
+	protected StackingOrderAction() {
+		setEnabled(false);
+	}
+
+	/**
+	 * Reorders the selected shapes by making a macro command, executing it,
+	 * and passing it over to the command handler.
+	 *
+	 * @see java.awt.event.ActionListener#actionPerformed(java.awt.event.ActionEvent)
+	 */
+	@Override
+	public void actionPerformed(ActionEvent ev) {
+		Editor e = getEditor();
+		View view = e.getCurrentView();
+		List<Shape> selected = view.getShapesByStackingOrder(view
+				.getSelection());
+		Command mc = new MacroCommand(e);
+		int[] newIndexes = computeNewIndexes(view, selected);
+		// Apply the changes from the topmost or from the bottommost shape, as
+		// given by the subclass, such that each change leaves the stacking
+		// indexes of the shapes still to be moved intact.
+		boolean topmostFirst = isTopmostFirst();
+		int count = 0;
+		for (int k = 0; k < selected.size(); k++) {
+			int i = topmostFirst ? selected.size() - 1 - k : k;
+			Shape s = selected.get(i);
+			if (view.getStackingIndex(s) != newIndexes[i]) {
+				mc.addCommand(new StackingOrderCommand(view, s, newIndexes[i]));
+				count++;
+			}
+		}
+		if (count > 0) {
+			mc.execute();
+			CommandHandler h = e.getCommandHandler();
+			h.addCommand(mc);
+		}
+		e.checkEditorState();
+	}
+
+	/**
+	 * Checks whether this action is enabled or not.
+	 *
+	 * @see ch.bfh.due1.jdt.framework.BaseAction#checkAction()
+	 */
+	@Override
+	public void checkAction() {
+		setEnabled(getEditor().getSelection().size() > 0);
+	}
+
+	/**
+	 * Computes the new stacking indexes of the given shapes. The result
+	 * refers to the stacking order after all shapes have been moved.
+	 *
+	 * @param view
+	 *            the current view
+	 * @param selected
+	 *            the selected shapes along the stacking order
+	 * @return the new stacking index of each shape
+	 */
+	protected abstract int[] computeNewIndexes(View view, List<Shape> selected);
+
+	/**
+	 * Tells whether the shapes must be moved starting with the topmost one.
+	 * Shapes moving up must be moved starting with the topmost one, shapes
+	 * moving down starting with the bottommost one.
+	 *
+	 * @return true if the topmost shape must be moved first
+	 */
+	protected abstract boolean isTopmostFirst();
+}
@@ -0,0 +1,57 @@
+/*
+ * Eric Dubuis, Berner Fachhochschule,
+ * Biel, Switzerland.
+ * Copyright (c) 2014
+ *
+ * Distributable under LGPL license.
+ * See terms of license at gnu.org.
+ */
+package ch.bfh.due1.jdt.simple.action;
+
+import java.awt.event.ActionEvent;
+
+import ch.bfh.due1.jdt.framework.BaseAction;
+import ch.bfh.due1.jdt.framework.View;
+
+
+/**
+ * Handles the 'zoom in' action performed by the user.
+ *
+ * @author Eric Dubuis
+ */
+public class ZoomInAction extends BaseAction {
+	/** The serial version UID. */
+	private static final long serialVersionUID = -2906153479261840731L;
+
+	/** The factor by which the view is zoomed in or out. */
+	static final double ZOOM_STEP = 1.25;
+
+	/**
+	 * Creates an instance.
+	 */
+	public ZoomInAction() {
+	}
+
+	/**
+	 * Enlarges the current view by the zoom step.
+	 *
+	 * @see java.awt.event.ActionListener#actionPerformed(java.awt.event.ActionEvent)
+	 */
+	@Override
+	public void actionPerformed(ActionEvent ev) {
+		View v = getEditor().getCurrentView();
+		if (v != null) {
+			v.setZoom(v.getZoom() * ZOOM_STEP);
+		}
+	}
+
+	/**
+	 * Checks whether the zoom in action is enabled or not.
+	 *
+	 * @see ch.bfh.due1.jdt.framework.BaseAction#checkAction()
+	 */
+	@Override
+	public void checkAction() {
+		setEnabled(true);
+	}
+}
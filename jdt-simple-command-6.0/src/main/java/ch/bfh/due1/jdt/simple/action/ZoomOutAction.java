@@ -0,0 +1,54 @@
+/*
+ * Eric Dubuis, Berner Fachhochschule,
+ * Biel, Switzerland.
+ * Copyright (c) 2014
+ *
+ * Distributable under LGPL license.
+ * See terms of license at gnu.org.
+ */
+package ch.bfh.due1.jdt.simple.action;
+
+import java.awt.event.ActionEvent;
+
+import ch.bfh.due1.jdt.framework.BaseAction;
+import ch.bfh.due1.jdt.framework.View;
+
+
+/**
+ * Handles the 'zoom out' action performed by the user.
+ *
+ * @author Eric Dubuis
+ */
+public class ZoomOutAction extends BaseAction {
+	/** The serial version UID. */
+	private static final long serialVersionUID = 6417340028571153120L;
+
+	/**
+	 * Creates an instance.
+	 */
+	public ZoomOutAction() {
+	}
+
+	/**
+	 * Reduces the current view by the zoom step.
+	 *
+	 * @see java.awt.event.ActionListener#actionPerformed(java.awt.event.ActionEvent)
+	 */
+	@Override
+	public void actionPerformed(ActionEvent ev) {
+		View v = getEditor().getCurrentView();
+		if (v != null) {
+			v.setZoom(v.getZoom() / ZoomInAction.ZOOM_STEP);
+		}
+	}
+
+	/**
+	 * Checks whether the zoom out action is enabled or not.
+	 *
+	 * @see ch.bfh.due1.jdt.framework.BaseAction#checkAction()
+	 */
+	@Override
+	public void checkAction() {
+		setEnabled(true);
+	}
+}
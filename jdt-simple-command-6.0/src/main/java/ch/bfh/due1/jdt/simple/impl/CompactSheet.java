@@ -0,0 +1,1679 @@
+/*
+ * Eric Dubuis, Berner Fachhochschule,
+ * Biel, Switzerland.
+ * Copyright (c) 2007
+ *
+ * Distributable under LGPL license.
+ * See terms of license at gnu.org.
+ */
+package ch.bfh.due1.jdt.simple.impl;
+
+import java.awt.Color;
+import java.awt.Cursor;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.log4j.Logger;
+
+import ch.bfh.due1.jdt.framework.AbstractHandle;
+import ch.bfh.due1.jdt.framework.AbstractShape;
+import ch.bfh.due1.jdt.framework.BoundingBox;
+import ch.bfh.due1.jdt.framework.Coord;
+import ch.bfh.due1.jdt.framework.HandleRenderer;
+import ch.bfh.due1.jdt.framework.KeyModifier;
+import ch.bfh.due1.jdt.framework.LevelOfDetail;
+import ch.bfh.due1.jdt.framework.Memento;
+import ch.bfh.due1.jdt.framework.RenderingResources;
+import ch.bfh.due1.jdt.framework.Shape;
+import ch.bfh.due1.jdt.framework.ShapeChangedEvent;
+import ch.bfh.due1.jdt.framework.ShapeChangedListener;
+import ch.bfh.due1.jdt.framework.ShapeHandle;
+import ch.bfh.due1.jdt.framework.Sheet;
+import ch.bfh.due1.jdt.framework.SheetChangedEvent;
+import ch.bfh.due1.jdt.framework.SheetChangedListener;
+import ch.bfh.due1.jdt.framework.Vector;
+import ch.bfh.due1.jdt.simple.impl.shape.DefaultEHandle;
+import ch.bfh.due1.jdt.simple.impl.shape.DefaultNEHandle;
+import ch.bfh.due1.jdt.simple.impl.shape.DefaultNHandle;
+import ch.bfh.due1.jdt.simple.impl.shape.DefaultNWHandle;
+import ch.bfh.due1.jdt.simple.impl.shape.DefaultSEHandle;
+import ch.bfh.due1.jdt.simple.impl.shape.DefaultSHandle;
+import ch.bfh.due1.jdt.simple.impl.shape.DefaultSWHandle;
+import ch.bfh.due1.jdt.simple.impl.shape.DefaultWHandle;
+import ch.bfh.due1.jdt.simple.impl.shape.SimpleBox;
+import ch.bfh.due1.jdt.simple.impl.shape.SimpleEllipse;
+import ch.bfh.due1.jdt.simple.impl.shape.SimpleLine;
+
+/**
+ * A sheet keeping boxes, ellipses, and lines in parallel arrays of
+ * primitives instead of shape objects: the bounding box as four ints, the
+ * fill and pen colors as packed ARGB values, the pen size, the kind of the
+ * shape, and an identifier, i.e., 30 bytes per shape plus 4 bytes mapping
+ * the identifier to the stacking index. Drawing and hit testing run over the
+ * arrays.
+ * <p>
+ * Shape objects for the primitives, see {@link CompactShape}, are created
+ * when asked for only, e.g., by {@link #getShapeAt(Coord)} or by iterating
+ * {@link #getShapes()}. They are flyweights reading and writing the arrays.
+ * While referenced, a primitive has one flyweight only; hence, flyweights
+ * can be compared by their identity, e.g., when selected. Objects keeping a
+ * primitive without referencing its flyweight, e.g., a command written to a
+ * file, refer to it by its identifier, see {@link #getFlyweight(int)}. A
+ * flyweight removed from the sheet keeps a copy of its state, such that it
+ * can be added again, e.g., by undoing a command.
+ * <p>
+ * Primitives are added by {@link #addBox(int, int, int, int)} and its
+ * siblings, or by {@link #addCompact(Shape)} for shapes the caller does not
+ * refer to any more. Other shapes added by {@link #addShape(Shape)} are kept
+ * as objects along with the primitives. Adding a shape on top takes O(1)
+ * amortized, removing it or changing its stacking index O(n). A memento of
+ * the sheet copies the arrays in O(n).
+ * <p>
+ * This sheet can be selected with the <code>jdt.sheet.classname</code>
+ * property of the file <code>jdt/sheet/sheet.properties</code>.
+ *
+ * @author Eric Dubuis
+ */
+public class CompactSheet implements Sheet {
+	/** The kind of a box. */
+	public static final byte BOX = 1;
+
+	/** The kind of an ellipse. */
+	public static final byte ELLIPSE = 2;
+
+	/** The kind of a line. */
+	public static final byte LINE = 3;
+
+	/** The kind of a shape kept as an object. */
+	private static final byte OBJECT = 0;
+
+	/** The kind of a shape kept as an object without a bounding box. */
+	private static final byte UNBOUNDED = 4;
+
+	/** The default fill color, as of AbstractShape. */
+	private static final int DEFAULT_FILL = Color.LIGHT_GRAY.getRGB();
+
+	/** The default pen color, as of AbstractShape. */
+	private static final int DEFAULT_PEN = Color.RED.getRGB();
+
+	/** The default and smallest pen size, as of AbstractShape. */
+	private static final int MIN_PEN_SIZE = 2;
+
+	/** The initial capacity of the arrays. */
+	private static final int INITIAL_CAPACITY = 16;
+
+	/**
+	 * A flyweight of a primitive shape of a sheet. While the primitive is on
+	 * the sheet, the flyweight reads and writes the arrays of the sheet;
+	 * otherwise, it keeps the state by itself.
+	 */
+	public final class CompactShape implements Shape {
+		/** The identifier of the primitive, or -1 if never added. */
+		private int id;
+
+		/** True if this flyweight keeps the state by itself. */
+		private boolean detached;
+
+		private byte kind;
+
+		private int x;
+
+		private int y;
+
+		private int width;
+
+		private int height;
+
+		private int fill;
+
+		private int pen;
+
+		private byte penSize;
+
+		private boolean selected = false;
+
+		/** The handles, or null if not created yet. */
+		private List<ShapeHandle> handles;
+
+		/** The listeners, or null if none has been added. */
+		private Set<ShapeChangedListener> listeners;
+
+		private CompactShape(int id) {
+			this.id = id;
+		}
+
+		/**
+		 * Returns the kind of this shape.
+		 *
+		 * @return {@link CompactSheet#BOX}, {@link CompactSheet#ELLIPSE}, or
+		 *         {@link CompactSheet#LINE}
+		 */
+		public byte getKind() {
+			int i = slot();
+			return i < 0 ? this.kind : CompactSheet.this.kinds[i];
+		}
+
+		/**
+		 * Returns the fill color.
+		 *
+		 * @return the ARGB value of the color
+		 */
+		public int getFillARGB() {
+			int i = slot();
+			return i < 0 ? this.fill : CompactSheet.this.fills[i];
+		}
+
+		/**
+		 * Returns the pen color.
+		 *
+		 * @return the ARGB value of the color
+		 */
+		public int getPenARGB() {
+			int i = slot();
+			return i < 0 ? this.pen : CompactSheet.this.pens[i];
+		}
+
+		/**
+		 * Returns the pen size.
+		 *
+		 * @return a size
+		 */
+		public int getPenSize() {
+			int i = slot();
+			return i < 0 ? this.penSize : CompactSheet.this.penSizes[i];
+		}
+
+		/**
+		 * Draws this shape and, if selected, its handles.
+		 *
+		 * @see ch.bfh.due1.jdt.framework.Shape#draw(java.awt.Graphics)
+		 */
+		@Override
+		public void draw(Graphics g) {
+			BoundingBox b = getBoundingBox();
+			Color penColor = RenderingResources.getColor(getPenARGB());
+			LevelOfDetail lod = LevelOfDetail.get(g);
+			if (lod == null || !lod.drawReduced(g, b, penColor)) {
+				Graphics2D g2 = (Graphics2D) g;
+				Color current = g2.getColor();
+				drawPrimitive(g2, getKind(), b.getX0(), b.getY0(),
+						b.getWidth(), b.getHeight(), RenderingResources
+								.getColor(getFillARGB()), penColor,
+						getPenSize());
+				g2.setColor(current);
+			}
+			if (this.selected && !HandleRenderer.isDeferred(g)) {
+				HandleRenderer.draw(g, getShapeHandles());
+			}
+		}
+
+		/**
+		 * @inheritDoc
+		 */
+		@Override
+		public BoundingBox getBoundingBox() {
+			int i = slot();
+			if (i < 0) {
+				return new BoundingBox(this.x, this.y, this.width, this.height);
+			}
+			return new BoundingBox(CompactSheet.this.xs[i],
+					CompactSheet.this.ys[i], CompactSheet.this.widths[i],
+					CompactSheet.this.heights[i]);
+		}
+
+		/**
+		 * @inheritDoc
+		 */
+		@Override
+		public void setBoundingBox(BoundingBox r) {
+			BoundingBox old = getBoundingBox();
+			if (!old.equals(r)) {
+				int i = slot();
+				if (i < 0) {
+					this.x = r.getX0();
+					this.y = r.getY0();
+					this.width = r.getWidth();
+					this.height = r.getHeight();
+				} else {
+					CompactSheet.this.xs[i] = r.getX0();
+					CompactSheet.this.ys[i] = r.getY0();
+					CompactSheet.this.widths[i] = r.getWidth();
+					CompactSheet.this.heights[i] = r.getHeight();
+				}
+				changed(old);
+			}
+		}
+
+		/**
+		 * @inheritDoc
+		 */
+		@Override
+		public void move(Vector delta) {
+			BoundingBox r = getBoundingBox();
+			setBoundingBox(new BoundingBox(r.getX0() + delta.getXComponent(),
+					r.getY0() + delta.getYComponent(), r.getWidth(), r
+							.getHeight()));
+		}
+
+		/**
+		 * @inheritDoc
+		 */
+		@Override
+		public boolean contains(Coord c) {
+			BoundingBox r = getBoundingBox();
+			return containsPrimitive(getKind(), r.getX0(), r.getY0(), r
+					.getWidth(), r.getHeight(), c.getX0(), c.getY0());
+		}
+
+		/**
+		 * Returns {@link AbstractShape#HIT_TOLERANCE}, the tolerance of the
+		 * containment test of the primitives.
+		 *
+		 * @see ch.bfh.due1.jdt.framework.Shape#getHitTolerance()
+		 */
+		@Override
+		public int getHitTolerance() {
+			return AbstractShape.HIT_TOLERANCE;
+		}
+
+		/**
+		 * @inheritDoc
+		 */
+		@Override
+		public void setFillColor(Color fillColor) {
+			int argb = fillColor == null ? 0 : fillColor.getRGB();
+			int i = slot();
+			if (i < 0) {
+				this.fill = argb;
+			} else {
+				CompactSheet.this.fills[i] = argb;
+			}
+		}
+
+		/**
+		 * @inheritDoc
+		 */
+		@Override
+		public void setPenColor(Color penColor) {
+			int argb = penColor == null ? 0 : penColor.getRGB();
+			int i = slot();
+			if (i < 0) {
+				this.pen = argb;
+			} else {
+				CompactSheet.this.pens[i] = argb;
+			}
+		}
+
+		/**
+		 * Sets the pen size. If the value given is less than 2 then a value
+		 * of 2 is set.
+		 *
+		 * @see ch.bfh.due1.jdt.framework.Shape#setPenSize(int)
+		 */
+		@Override
+		public void setPenSize(int penSize) {
+			byte size = toPenSize(penSize);
+			int i = slot();
+			if (i < 0) {
+				this.penSize = size;
+			} else {
+				CompactSheet.this.penSizes[i] = size;
+			}
+		}
+
+		/**
+		 * Returns the handles of this shape, being created upon the first
+		 * call: eight handles for a box, four for an ellipse, and the end
+		 * points of a line.
+		 *
+		 * @see ch.bfh.due1.jdt.framework.Shape#getShapeHandles()
+		 */
+		@Override
+		public List<ShapeHandle> getShapeHandles() {
+			if (this.handles == null) {
+				List<ShapeHandle> h = new ArrayList<ShapeHandle>(8);
+				switch (getKind()) {
+				case BOX:
+					h.add(new DefaultNWHandle(this));
+					h.add(new DefaultNHandle(this));
+					h.add(new DefaultNEHandle(this));
+					h.add(new DefaultEHandle(this));
+					h.add(new DefaultSEHandle(this));
+					h.add(new DefaultSHandle(this));
+					h.add(new DefaultSWHandle(this));
+					h.add(new DefaultWHandle(this));
+					break;
+				case ELLIPSE:
+					h.add(new DefaultNHandle(this));
+					h.add(new DefaultEHandle(this));
+					h.add(new DefaultSHandle(this));
+					h.add(new DefaultWHandle(this));
+					break;
+				default:
+					h.add(new LinePointHandle(this, false));
+					h.add(new LinePointHandle(this, true));
+					break;
+				}
+				this.handles = h;
+			}
+			return this.handles;
+		}
+
+		/**
+		 * @inheritDoc
+		 */
+		@Override
+		public void addShapeChangedListener(ShapeChangedListener listener) {
+			if (this.listeners == null) {
+				this.listeners = new HashSet<ShapeChangedListener>();
+			}
+			this.listeners.add(listener);
+		}
+
+		/**
+		 * @inheritDoc
+		 */
+		@Override
+		public boolean removeShapeChangedListener(ShapeChangedListener listener) {
+			return this.listeners != null && this.listeners.remove(listener);
+		}
+
+		/**
+		 * A primitive shape is not a container.
+		 *
+		 * @return Always false.
+		 * @see ch.bfh.due1.jdt.framework.Shape#isContainer()
+		 */
+		@Override
+		public boolean isContainer() {
+			return false;
+		}
+
+		/**
+		 * A primitive shape is not a container.
+		 *
+		 * @throws UnsupportedOperationException
+		 *             always
+		 * @see ch.bfh.due1.jdt.framework.Shape#add(ch.bfh.due1.jdt.framework.Shape)
+		 */
+		@Override
+		public void add(Shape shape) {
+			throw new UnsupportedOperationException();
+		}
+
+		/**
+		 * A primitive shape is not a container.
+		 *
+		 * @throws UnsupportedOperationException
+		 *             always
+		 * @see ch.bfh.due1.jdt.framework.Shape#remove(ch.bfh.due1.jdt.framework.Shape)
+		 */
+		@Override
+		public boolean remove(Shape shape) {
+			throw new UnsupportedOperationException();
+		}
+
+		/**
+		 * A primitive shape is not a container.
+		 *
+		 * @throws UnsupportedOperationException
+		 *             always
+		 * @see ch.bfh.due1.jdt.framework.Shape#getShapes()
+		 */
+		@Override
+		public List<Shape> getShapes() {
+			throw new UnsupportedOperationException();
+		}
+
+		/**
+		 * Creates a memento storing the bounding box, the colors, and the
+		 * pen size of this shape.
+		 *
+		 * @see ch.bfh.due1.jdt.framework.Shape#createMemento()
+		 */
+		@Override
+		public Memento createMemento() {
+			BoundingBox r = getBoundingBox();
+			return new PrimitiveMemento(r, getFillARGB(), getPenARGB(),
+					getPenSize());
+		}
+
+		/**
+		 * @inheritDoc
+		 */
+		@Override
+		public void setMemento(Memento m) {
+			PrimitiveMemento pm = (PrimitiveMemento) m;
+			int i = slot();
+			if (i < 0) {
+				this.fill = pm.fill;
+				this.pen = pm.pen;
+				this.penSize = pm.penSize;
+			} else {
+				CompactSheet.this.fills[i] = pm.fill;
+				CompactSheet.this.pens[i] = pm.pen;
+				CompactSheet.this.penSizes[i] = pm.penSize;
+			}
+			setBoundingBox(pm.bb);
+		}
+
+		/**
+		 * Returns a clone of this shape, not being on any sheet, with the
+		 * state of this shape. Adding the clone to this sheet stores it in
+		 * the arrays again. This instance has no listeners.
+		 *
+		 * @see ch.bfh.due1.jdt.framework.Shape#cloneMe()
+		 */
+		@Override
+		public Shape cloneMe() {
+			CompactShape s = new CompactShape(-1);
+			s.detached = true;
+			s.kind = getKind();
+			BoundingBox r = getBoundingBox();
+			s.x = r.getX0();
+			s.y = r.getY0();
+			s.width = r.getWidth();
+			s.height = r.getHeight();
+			s.fill = getFillARGB();
+			s.pen = getPenARGB();
+			s.penSize = (byte) getPenSize();
+			return s;
+		}
+
+		/**
+		 * @inheritDoc
+		 */
+		@Override
+		public void setSelected(boolean value) {
+			this.selected = value;
+			if (!value) {
+				// Handles are needed while being selected only.
+				this.handles = null;
+			}
+		}
+
+		/**
+		 * @inheritDoc
+		 */
+		@Override
+		public boolean isSelected() {
+			return this.selected;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 *
+		 * @see java.lang.Object#toString()
+		 */
+		@Override
+		public String toString() {
+			BoundingBox r = getBoundingBox();
+			String name = getKind() == BOX ? "Box"
+					: getKind() == ELLIPSE ? "Ellipse" : "Line";
+			return "CompactShape." + name + "[" + r.getX0() + "," + r.getY0()
+					+ "," + r.getWidth() + "," + r.getHeight() + "]";
+		}
+
+		/**
+		 * Returns the sheet of this flyweight.
+		 *
+		 * @return the sheet
+		 */
+		public CompactSheet getSheet() {
+			return CompactSheet.this;
+		}
+
+		/**
+		 * Returns the identifier of the primitive, see
+		 * {@link CompactSheet#getFlyweight(int)}.
+		 *
+		 * @return the identifier, or -1 if this flyweight has never been on
+		 *         the sheet
+		 */
+		public int getId() {
+			return this.id;
+		}
+
+		/**
+		 * Returns the stacking index of this primitive, or -1 if this
+		 * flyweight keeps the state by itself.
+		 */
+		private int slot() {
+			return this.detached ? -1 : CompactSheet.this.slots[this.id];
+		}
+
+		/**
+		 * Copies the state of the primitive from the arrays.
+		 */
+		private void detach() {
+			int i = slot();
+			this.kind = CompactSheet.this.kinds[i];
+			this.x = CompactSheet.this.xs[i];
+			this.y = CompactSheet.this.ys[i];
+			this.width = CompactSheet.this.widths[i];
+			this.height = CompactSheet.this.heights[i];
+			this.fill = CompactSheet.this.fills[i];
+			this.pen = CompactSheet.this.pens[i];
+			this.penSize = CompactSheet.this.penSizes[i];
+			this.detached = true;
+		}
+
+		/**
+		 * Notifies the listeners of this shape and, if on the sheet, the
+		 * listeners of the sheet about a change of the bounding box.
+		 */
+		private void changed(BoundingBox oldBounds) {
+			ShapeChangedEvent e = new ShapeChangedEvent(this, oldBounds,
+					getBoundingBox());
+			if (this.listeners != null) {
+				for (ShapeChangedListener l : new ArrayList<ShapeChangedListener>(
+						this.listeners)) {
+					l.shapeChanged(e);
+				}
+			}
+			if (!this.detached) {
+				if (log.isDebugEnabled()) {
+					log.debug("Shape changed: " + this);
+				}
+				notifySheetChangedListeners(this, e.getDirtyArea());
+			}
+		}
+	}
+
+	/**
+	 * The state of a primitive shape. Instances of this class are value
+	 * objects.
+	 */
+	private static final class PrimitiveMemento implements Memento {
+		private static final long serialVersionUID = 2710853452137049381L;
+		private final BoundingBox bb;
+		private final int fill;
+		private final int pen;
+		private final byte penSize;
+
+		PrimitiveMemento(BoundingBox bb, int fill, int pen, int penSize) {
+			this.bb = bb;
+			this.fill = fill;
+			this.pen = pen;
+			this.penSize = (byte) penSize;
+		}
+	}
+
+	/**
+	 * A memento of a sheet, i.e., a copy of its arrays and the states of the
+	 * shapes kept as objects. It refers to the sheet and to these shapes,
+	 * hence, it can be serialized along with them only.
+	 */
+	private static final class SheetMemento implements Memento {
+		private static final long serialVersionUID = -4191535468705712246L;
+		private final CompactSheet sheet;
+		private final int[] ids;
+		private final byte[] kinds;
+		private final int[] xs;
+		private final int[] ys;
+		private final int[] widths;
+		private final int[] heights;
+		private final int[] fills;
+		private final int[] pens;
+		private final byte[] penSizes;
+		private final Map<Integer, Shape> objects;
+		private final Map<Integer, Memento> states;
+
+		private SheetMemento(CompactSheet sheet) {
+			int n = sheet.size;
+			this.sheet = sheet;
+			this.ids = Arrays.copyOf(sheet.ids, n);
+			this.kinds = Arrays.copyOf(sheet.kinds, n);
+			this.xs = Arrays.copyOf(sheet.xs, n);
+			this.ys = Arrays.copyOf(sheet.ys, n);
+			this.widths = Arrays.copyOf(sheet.widths, n);
+			this.heights = Arrays.copyOf(sheet.heights, n);
+			this.fills = Arrays.copyOf(sheet.fills, n);
+			this.pens = Arrays.copyOf(sheet.pens, n);
+			this.penSizes = Arrays.copyOf(sheet.penSizes, n);
+			this.objects = new HashMap<Integer, Shape>(sheet.objects);
+			this.states = new HashMap<Integer, Memento>();
+			for (Map.Entry<Integer, Shape> e : this.objects.entrySet()) {
+				this.states.put(e.getKey(), e.getValue().createMemento());
+			}
+		}
+	}
+
+	/**
+	 * A weak reference to the flyweight of a primitive.
+	 */
+	private static final class FlyweightReference extends
+			WeakReference<CompactShape> {
+		private final int id;
+
+		FlyweightReference(CompactShape referent,
+				ReferenceQueue<CompactShape> queue) {
+			super(referent, queue);
+			this.id = referent.id;
+		}
+	}
+
+	/**
+	 * Handle for an end point of a line.
+	 */
+	private static final class LinePointHandle extends AbstractHandle {
+		/** True for the final point, false for the origin. */
+		private final boolean end;
+
+		LinePointHandle(Shape owner, boolean end) {
+			super(owner);
+			this.end = end;
+		}
+
+		/**
+		 * Returns the origin or the final point of the line.
+		 *
+		 * @see ch.bfh.due1.jdt.framework.AbstractHandle#locate(ch.bfh.due1.jdt.framework.BoundingBox)
+		 */
+		@Override
+		protected Coord locate(BoundingBox r) {
+			if (this.end) {
+				return new Coord(r.getX0() + r.getWidth(), r.getY0()
+						+ r.getHeight());
+			}
+			return super.locate(r);
+		}
+
+		/**
+		 * @see ch.bfh.due1.jdt.framework.AbstractHandle#getCursor()
+		 */
+		@Override
+		public Cursor getCursor() {
+			return RenderingResources.getCursor(Cursor.HAND_CURSOR);
+		}
+
+		/**
+		 * Moves the end point, keeping the other one.
+		 *
+		 * @see ch.bfh.due1.jdt.framework.AbstractHandle#dragInteraction(ch.bfh.due1.jdt.framework.Coord,
+		 *      ch.bfh.due1.jdt.framework.KeyModifier)
+		 */
+		@Override
+		public void dragInteraction(Coord c, KeyModifier k) {
+			BoundingBox r = getOwner().getBoundingBox();
+			BoundingBox modified;
+			if (this.end) {
+				modified = new BoundingBox(r.getX0(), r.getY0(), c.getX0()
+						- r.getX0(), c.getY0() - r.getY0());
+			} else {
+				modified = new BoundingBox(c.getX0(), c.getY0(), r.getWidth()
+						- (c.getX0() - r.getX0()), r.getHeight()
+						- (c.getY0() - r.getY0()));
+			}
+			getOwner().setBoundingBox(modified);
+		}
+	}
+
+	/** The logger. */
+	private Logger log = Logger.getLogger(CompactSheet.class);
+
+	/** The number of shapes. */
+	private int size = 0;
+
+	/** The identifiers of the shapes along the stacking order. */
+	private int[] ids = new int[INITIAL_CAPACITY];
+
+	/** The kinds of the shapes. */
+	private byte[] kinds = new byte[INITIAL_CAPACITY];
+
+	/** The x-origins of the bounding boxes. */
+	private int[] xs = new int[INITIAL_CAPACITY];
+
+	/** The y-origins of the bounding boxes. */
+	private int[] ys = new int[INITIAL_CAPACITY];
+
+	/** The widths of the bounding boxes. */
+	private int[] widths = new int[INITIAL_CAPACITY];
+
+	/** The heights of the bounding boxes. */
+	private int[] heights = new int[INITIAL_CAPACITY];
+
+	/** The fill colors as ARGB values. */
+	private int[] fills = new int[INITIAL_CAPACITY];
+
+	/** The pen colors as ARGB values. */
+	private int[] pens = new int[INITIAL_CAPACITY];
+
+	/** The pen sizes. */
+	private byte[] penSizes = new byte[INITIAL_CAPACITY];
+
+	/** The stacking indexes by identifier, -1 if not on the sheet. */
+	private int[] slots = new int[INITIAL_CAPACITY];
+
+	/** The next identifier to be given. */
+	private int nextId = 0;
+
+	/** The shapes kept as objects by their identifiers. */
+	private Map<Integer, Shape> objects = new HashMap<Integer, Shape>();
+
+	/** The identifiers of the shapes kept as objects. */
+	private Map<Shape, Integer> objectIds = new IdentityHashMap<Shape, Integer>();
+
+	/** My listener for the shapes kept as objects. */
+	private ShapeChangedListener myShapeListener;
+
+	/** The flyweights handed out by the identifiers of their primitives. */
+	private Map<Integer, FlyweightReference> flyweights = new HashMap<Integer, FlyweightReference>();
+
+	/** The queue of the flyweights no longer referenced. */
+	private ReferenceQueue<CompactShape> flyweightQueue = new ReferenceQueue<CompactShape>();
+
+	/** The listeners for me. */
+	private Set<SheetChangedListener> sheetChangedListeners = new HashSet<SheetChangedListener>();
+
+	/** The nesting depth of the current batch, 0 if no batch is open. */
+	private int batchDepth = 0;
+
+	/** The shapes affected by the current batch. */
+	private Set<Shape> batchShapes = new LinkedHashSet<Shape>();
+
+	/** The combined dirty area of the current batch, or null. */
+	private BoundingBox batchArea;
+
+	/** True if the dirty area of some change of the current batch is unknown. */
+	private boolean batchAreaUnknown = false;
+
+	/** The number of shapes drawn by the last call of draw(). */
+	private int drawnShapeCount = 0;
+
+	/**
+	 * Creates an empty sheet.
+	 */
+	public CompactSheet() {
+		Arrays.fill(this.slots, -1);
+		this.myShapeListener = new ShapeChangedListener() {
+			@Override
+			public void shapeChanged(ShapeChangedEvent e) {
+				if (log.isDebugEnabled()) {
+					log.debug("Shape changed: " + e.getShape());
+				}
+				Integer id = CompactSheet.this.objectIds.get(e.getShape());
+				if (id != null) {
+					storeBounds(CompactSheet.this.slots[id], e.getShape());
+				}
+				notifySheetChangedListeners(e.getShape(), e.getDirtyArea());
+			}
+		};
+	}
+
+	/**
+	 * Adds a box with the default colors and pen size on top of the other
+	 * shapes of this sheet. No shape object is created.
+	 *
+	 * @param x0
+	 *            the x-origin of the box
+	 * @param y0
+	 *            the y-origin of the box
+	 * @param width
+	 *            the width of the box
+	 * @param height
+	 *            the height of the box
+	 */
+	public void addBox(int x0, int y0, int width, int height) {
+		add(BOX, x0, y0, width, height, DEFAULT_FILL, DEFAULT_PEN,
+				MIN_PEN_SIZE);
+	}
+
+	/**
+	 * Adds an ellipse with the default colors and pen size on top of the
+	 * other shapes of this sheet. No shape object is created.
+	 *
+	 * @param x0
+	 *            the x-origin of the bounding box
+	 * @param y0
+	 *            the y-origin of the bounding box
+	 * @param width
+	 *            the width of the bounding box
+	 * @param height
+	 *            the height of the bounding box
+	 */
+	public void addEllipse(int x0, int y0, int width, int height) {
+		add(ELLIPSE, x0, y0, width, height, DEFAULT_FILL, DEFAULT_PEN,
+				MIN_PEN_SIZE);
+	}
+
+	/**
+	 * Adds a line with the default colors and pen size on top of the other
+	 * shapes of this sheet. No shape object is created.
+	 *
+	 * @param x0
+	 *            the x-origin of the line's first point
+	 * @param y0
+	 *            the y-origin of the line's first point
+	 * @param width
+	 *            the width of the line
+	 * @param height
+	 *            the height of the line
+	 */
+	public void addLine(int x0, int y0, int width, int height) {
+		add(LINE, x0, y0, width, height, DEFAULT_FILL, DEFAULT_PEN,
+				MIN_PEN_SIZE);
+	}
+
+	/**
+	 * Adds a primitive shape on top of the other shapes of this sheet. No
+	 * shape object is created.
+	 *
+	 * @param kind
+	 *            {@link #BOX}, {@link #ELLIPSE}, or {@link #LINE}
+	 * @param x0
+	 *            the x-origin of the bounding box
+	 * @param y0
+	 *            the y-origin of the bounding box
+	 * @param width
+	 *            the width of the bounding box
+	 * @param height
+	 *            the height of the bounding box
+	 * @param fillARGB
+	 *            the fill color
+	 * @param penARGB
+	 *            the pen color
+	 * @param penSize
+	 *            the pen size; if less than 2, a value of 2 is set
+	 * @throws IllegalArgumentException
+	 *             if the kind is unknown
+	 */
+	public void add(byte kind, int x0, int y0, int width, int height,
+			int fillARGB, int penARGB, int penSize) {
+		if (kind != BOX && kind != ELLIPSE && kind != LINE) {
+			throw new IllegalArgumentException("Unknown kind: " + kind);
+		}
+		int i = append(newId(), kind);
+		this.xs[i] = x0;
+		this.ys[i] = y0;
+		this.widths[i] = width;
+		this.heights[i] = height;
+		this.fills[i] = fillARGB;
+		this.pens[i] = penARGB;
+		this.penSizes[i] = toPenSize(penSize);
+		notifySheetChangedListeners(null, bounds(i));
+	}
+
+	/**
+	 * Adds the given shape on top of the other shapes of this sheet, storing
+	 * a plain box, ellipse, or line in the arrays. Hence, the caller must not
+	 * refer to the shape any more. Other shapes are added as by
+	 * {@link #addShape(Shape)}.
+	 *
+	 * @param s
+	 *            the shape
+	 * @return true if the shape has been stored in the arrays
+	 */
+	public boolean addCompact(Shape s) {
+		Class<?> c = s.getClass();
+		byte kind = c == SimpleBox.class ? BOX : c == SimpleEllipse.class ? ELLIPSE
+				: c == SimpleLine.class ? LINE : OBJECT;
+		if (kind == OBJECT) {
+			addShape(s);
+			return false;
+		}
+		AbstractShape a = (AbstractShape) s;
+		BoundingBox r = a.getBoundingBox();
+		add(kind, r.getX0(), r.getY0(), r.getWidth(), r.getHeight(),
+				toARGB(a.getFillColor()), toARGB(a.getPenColor()), a
+						.getPenSize());
+		return true;
+	}
+
+	/**
+	 * Adds a shape on top of the other shapes of this sheet. A flyweight of
+	 * this sheet is stored in the arrays again; other shapes are kept as
+	 * objects.
+	 *
+	 * @throws IllegalArgumentException
+	 *             if the shape has been added already
+	 * @see ch.bfh.due1.jdt.framework.Sheet#addShape(ch.bfh.due1.jdt.framework.Shape)
+	 */
+	@Override
+	public void addShape(Shape s) {
+		if (getStackingIndex(s) >= 0) {
+			throw new IllegalArgumentException("Shape already on sheet: " + s);
+		}
+		if (isFlyweight(s)) {
+			CompactShape f = (CompactShape) s;
+			if (f.id < 0) {
+				f.id = newId();
+				this.flyweights.put(f.id, new FlyweightReference(f,
+						this.flyweightQueue));
+			}
+			int i = append(f.id, f.kind);
+			this.xs[i] = f.x;
+			this.ys[i] = f.y;
+			this.widths[i] = f.width;
+			this.heights[i] = f.height;
+			this.fills[i] = f.fill;
+			this.pens[i] = f.pen;
+			this.penSizes[i] = f.penSize;
+			f.detached = false;
+			notifySheetChangedListeners(f, bounds(i));
+		} else {
+			int id = newId();
+			this.objects.put(id, s);
+			this.objectIds.put(s, id);
+			int i = append(id, OBJECT);
+			storeBounds(i, s);
+			s.addShapeChangedListener(this.myShapeListener);
+			notifySheetChangedListeners(s, s.getBoundingBox());
+		}
+	}
+
+	/**
+	 * Removes the given shape in O(n). A flyweight keeps a copy of the state
+	 * of its primitive.
+	 *
+	 * @see ch.bfh.due1.jdt.framework.Sheet#removeShape(ch.bfh.due1.jdt.framework.Shape)
+	 */
+	@Override
+	public boolean removeShape(Shape s) {
+		int i = getStackingIndex(s);
+		if (i < 0) {
+			return false;
+		}
+		BoundingBox area = s.getBoundingBox();
+		if (isFlyweight(s)) {
+			((CompactShape) s).detach();
+		} else {
+			s.removeShapeChangedListener(this.myShapeListener);
+			this.objects.remove(this.ids[i]);
+			this.objectIds.remove(s);
+		}
+		delete(i);
+		notifySheetChangedListeners(s, area);
+		return true;
+	}
+
+	/**
+	 * Returns an unmodifiable list of the shapes. Flyweights of the
+	 * primitives are created when the list is read.
+	 *
+	 * @see ch.bfh.due1.jdt.framework.Sheet#getShapes()
+	 */
+	@Override
+	public List<Shape> getShapes() {
+		return new AbstractList<Shape>() {
+			@Override
+			public Shape get(int index) {
+				if (index < 0 || index >= CompactSheet.this.size) {
+					throw new IndexOutOfBoundsException("Index: " + index);
+				}
+				return shapeAt(index);
+			}
+
+			@Override
+			public int size() {
+				return CompactSheet.this.size;
+			}
+
+			@Override
+			public int indexOf(Object o) {
+				return o instanceof Shape ? getStackingIndex((Shape) o) : -1;
+			}
+
+			@Override
+			public boolean contains(Object o) {
+				return indexOf(o) >= 0;
+			}
+		};
+	}
+
+	/**
+	 * Returns the given shapes of this sheet along the stacking order. Takes
+	 * O(k log k) for k given shapes.
+	 *
+	 * @see ch.bfh.due1.jdt.framework.Sheet#getShapesByStackingOrder(java.util.Collection)
+	 */
+	@Override
+	public List<Shape> getShapesByStackingOrder(Collection<Shape> shapes) {
+		int[] indexes = new int[shapes.size()];
+		int n = 0;
+		for (Shape s : shapes) {
+			int index = getStackingIndex(s);
+			if (index >= 0) {
+				indexes[n++] = index;
+			}
+		}
+		Arrays.sort(indexes, 0, n);
+		List<Shape> sublist = new ArrayList<Shape>(n);
+		for (int i = 0; i < n; i++) {
+			// Skip duplicates of the given collection.
+			if (i == 0 || indexes[i] != indexes[i - 1]) {
+				sublist.add(shapeAt(indexes[i]));
+			}
+		}
+		return sublist;
+	}
+
+	/**
+	 * Returns the topmost shape containing the given point. The primitives
+	 * are tested on the arrays; a flyweight is created for the shape found
+	 * only.
+	 *
+	 * @see ch.bfh.due1.jdt.framework.Sheet#getShapeAt(ch.bfh.due1.jdt.framework.Coord)
+	 */
+	@Override
+	public Shape getShapeAt(Coord c) {
+		int px = c.getX0();
+		int py = c.getY0();
+		int t = AbstractShape.HIT_TOLERANCE;
+		for (int i = this.size - 1; i >= 0; i--) {
+			byte kind = this.kinds[i];
+			if (kind == OBJECT || kind == UNBOUNDED) {
+				Shape s = this.objects.get(this.ids[i]);
+				if (s.mayContain(c) && s.contains(c)) {
+					return s;
+				}
+				continue;
+			}
+			int x = this.xs[i];
+			int y = this.ys[i];
+			int w = this.widths[i];
+			int h = this.heights[i];
+			if (Math.min(x, x + w) - t <= px && px <= Math.max(x, x + w) + t
+					&& Math.min(y, y + h) - t <= py
+					&& py <= Math.max(y, y + h) + t
+					&& containsPrimitive(kind, x, y, w, h, px, py)) {
+				return shapeAt(i);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the shapes intersecting the given area. The bounding boxes of
+	 * the primitives are tested on the arrays. Shapes without a bounding box
+	 * are always returned.
+	 *
+	 * @see ch.bfh.due1.jdt.framework.Sheet#getShapesIn(ch.bfh.due1.jdt.framework.BoundingBox)
+	 */
+	@Override
+	public List<Shape> getShapesIn(BoundingBox area) {
+		List<Shape> result = new ArrayList<Shape>();
+		for (int i = 0; i < this.size; i++) {
+			if (this.kinds[i] == UNBOUNDED
+					|| intersects(i, area.getMinX(), area.getMinY(), area
+							.getMaxX(), area.getMaxY())) {
+				result.add(shapeAt(i));
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the stacking index of the given shape in O(1).
+	 *
+	 * @see ch.bfh.due1.jdt.framework.Sheet#getStackingIndex(ch.bfh.due1.jdt.framework.Shape)
+	 */
+	@Override
+	public int getStackingIndex(Shape s) {
+		if (isFlyweight(s)) {
+			CompactShape f = (CompactShape) s;
+			return f.id < 0 ? -1 : f.slot();
+		}
+		Integer id = this.objectIds.get(s);
+		return id == null ? -1 : this.slots[id];
+	}
+
+	/**
+	 * Moves the given shape to the given stacking index in O(n).
+	 *
+	 * @see ch.bfh.due1.jdt.framework.Sheet#setStackingIndex(ch.bfh.due1.jdt.framework.Shape,
+	 *      int)
+	 */
+	@Override
+	public void setStackingIndex(Shape s, int index) {
+		int from = getStackingIndex(s);
+		if (from < 0) {
+			throw new IllegalArgumentException("Shape not on sheet: " + s);
+		}
+		if (index < 0 || index >= this.size) {
+			throw new IllegalArgumentException("Illegal stacking index: "
+					+ index);
+		}
+		if (from != index) {
+			int id = this.ids[from];
+			byte kind = this.kinds[from];
+			int x = this.xs[from];
+			int y = this.ys[from];
+			int w = this.widths[from];
+			int h = this.heights[from];
+			int fill = this.fills[from];
+			int pen = this.pens[from];
+			byte penSize = this.penSizes[from];
+			int lo = Math.min(from, index);
+			int hi = Math.max(from, index);
+			int src = from < index ? from + 1 : index;
+			int dst = from < index ? from : index + 1;
+			shift(src, dst, hi - lo);
+			this.ids[index] = id;
+			this.kinds[index] = kind;
+			this.xs[index] = x;
+			this.ys[index] = y;
+			this.widths[index] = w;
+			this.heights[index] = h;
+			this.fills[index] = fill;
+			this.pens[index] = pen;
+			this.penSizes[index] = penSize;
+			renumber(lo, hi + 1);
+			notifySheetChangedListeners(s, s.getBoundingBox());
+		}
+	}
+
+	/**
+	 * Draws the shapes intersecting the clip bounds of the given graphics
+	 * context. The primitives are drawn from the arrays, without creating
+	 * shape objects. The handles of selected flyweights are drawn on top of
+	 * all shapes, unless the view draws them itself.
+	 *
+	 * @see ch.bfh.due1.jdt.framework.Sheet#draw(java.awt.Graphics)
+	 */
+	@Override
+	public void draw(Graphics g) {
+		Graphics2D g2 = (Graphics2D) g;
+		Color current = g2.getColor();
+		Rectangle clip = g.getClipBounds();
+		LevelOfDetail lod = LevelOfDetail.get(g);
+		int m = AbstractShape.DRAWING_MARGIN;
+		int minX = clip == null ? 0 : clip.x - m;
+		int minY = clip == null ? 0 : clip.y - m;
+		int maxX = clip == null ? 0 : clip.x + clip.width + m;
+		int maxY = clip == null ? 0 : clip.y + clip.height + m;
+		// Subsequent shapes share their colors mostly.
+		int fillARGB = 0;
+		Color fill = RenderingResources.getColor(fillARGB);
+		int penARGB = 0;
+		Color pen = fill;
+		int drawn = 0;
+		for (int i = 0; i < this.size; i++) {
+			byte kind = this.kinds[i];
+			if (clip != null && kind != UNBOUNDED
+					&& !intersects(i, minX, minY, maxX, maxY)) {
+				continue;
+			}
+			drawn++;
+			if (kind == OBJECT || kind == UNBOUNDED) {
+				this.objects.get(this.ids[i]).draw(g);
+				continue;
+			}
+			if (this.pens[i] != penARGB) {
+				penARGB = this.pens[i];
+				pen = RenderingResources.getColor(penARGB);
+			}
+			int x = this.xs[i];
+			int y = this.ys[i];
+			int w = this.widths[i];
+			int h = this.heights[i];
+			if (lod != null
+					&& lod.drawReduced(g, Math.min(x, x + w), Math.min(y, y
+							+ h), Math.max(x, x + w), Math.max(y, y + h), pen)) {
+				continue;
+			}
+			if (this.fills[i] != fillARGB) {
+				fillARGB = this.fills[i];
+				fill = RenderingResources.getColor(fillARGB);
+			}
+			drawPrimitive(g2, kind, x, y, w, h, fill, pen, this.penSizes[i]);
+		}
+		g2.setColor(current);
+		if (!HandleRenderer.isDeferred(g)) {
+			for (FlyweightReference r : this.flyweights.values()) {
+				CompactShape f = r.get();
+				if (f != null && f.selected && !f.detached) {
+					HandleRenderer.draw(g, f.getShapeHandles());
+				}
+			}
+		}
+		this.drawnShapeCount = drawn;
+	}
+
+	/**
+	 * @inheritDoc
+	 *
+	 * @see ch.bfh.due1.jdt.framework.Sheet#getDrawnShapeCount()
+	 */
+	@Override
+	public int getDrawnShapeCount() {
+		return this.drawnShapeCount;
+	}
+
+	/**
+	 * @inheritDoc
+	 */
+	@Override
+	public void beginBatch() {
+		this.batchDepth++;
+	}
+
+	/**
+	 * @inheritDoc
+	 *
+	 * @throws IllegalStateException
+	 *             if no batch has been begun
+	 */
+	@Override
+	public void commitBatch() {
+		if (this.batchDepth == 0) {
+			throw new IllegalStateException("No batch has been begun.");
+		}
+		this.batchDepth--;
+		if (this.batchDepth == 0
+				&& (!this.batchShapes.isEmpty() || this.batchArea != null || this.batchAreaUnknown)) {
+			Set<Shape> affected = this.batchShapes;
+			BoundingBox area = this.batchAreaUnknown ? null : this.batchArea;
+			this.batchShapes = new LinkedHashSet<Shape>();
+			this.batchArea = null;
+			this.batchAreaUnknown = false;
+			fireSheetChanged(new SheetChangedEvent(this, affected, area));
+		}
+	}
+
+	/**
+	 * @inheritDoc
+	 */
+	@Override
+	public void addSheetChangedListener(SheetChangedListener listener) {
+		this.sheetChangedListeners.add(listener);
+	}
+
+	/**
+	 * @inheritDoc
+	 */
+	@Override
+	public boolean removeSheetChangedListener(SheetChangedListener listener) {
+		return this.sheetChangedListeners.remove(listener);
+	}
+
+	/**
+	 * Creates a memento copying the arrays in O(n).
+	 *
+	 * @see ch.bfh.due1.jdt.framework.Sheet#createMemento()
+	 */
+	@Override
+	public Memento createMemento() {
+		return new SheetMemento(this);
+	}
+
+	/**
+	 * @inheritDoc
+	 *
+	 * @see ch.bfh.due1.jdt.framework.Sheet#setMemento(ch.bfh.due1.jdt.framework.Memento)
+	 */
+	@Override
+	public void setMemento(Memento m) {
+		if (!(m instanceof SheetMemento) || ((SheetMemento) m).sheet != this) {
+			throw new IllegalArgumentException("Not a memento of this sheet: "
+					+ m);
+		}
+		SheetMemento sm = (SheetMemento) m;
+		// The flyweights keep their state while the arrays are replaced.
+		expungeFlyweights();
+		List<CompactShape> handedOut = new ArrayList<CompactShape>();
+		for (FlyweightReference r : this.flyweights.values()) {
+			CompactShape f = r.get();
+			if (f != null) {
+				if (!f.detached) {
+					f.detach();
+				}
+				handedOut.add(f);
+			}
+		}
+		for (Shape s : this.objects.values()) {
+			s.removeShapeChangedListener(this.myShapeListener);
+		}
+		int n = sm.ids.length;
+		int capacity = Math.max(INITIAL_CAPACITY, n);
+		this.size = n;
+		this.ids = Arrays.copyOf(sm.ids, capacity);
+		this.kinds = Arrays.copyOf(sm.kinds, capacity);
+		this.xs = Arrays.copyOf(sm.xs, capacity);
+		this.ys = Arrays.copyOf(sm.ys, capacity);
+		this.widths = Arrays.copyOf(sm.widths, capacity);
+		this.heights = Arrays.copyOf(sm.heights, capacity);
+		this.fills = Arrays.copyOf(sm.fills, capacity);
+		this.pens = Arrays.copyOf(sm.pens, capacity);
+		this.penSizes = Arrays.copyOf(sm.penSizes, capacity);
+		Arrays.fill(this.slots, -1);
+		renumber(0, n);
+		this.objects = new HashMap<Integer, Shape>(sm.objects);
+		this.objectIds.clear();
+		for (Map.Entry<Integer, Shape> e : this.objects.entrySet()) {
+			Shape s = e.getValue();
+			s.setMemento(sm.states.get(e.getKey()));
+			s.addShapeChangedListener(this.myShapeListener);
+			this.objectIds.put(s, e.getKey());
+		}
+		for (CompactShape f : handedOut) {
+			if (this.slots[f.id] >= 0) {
+				f.detached = false;
+			}
+		}
+		notifySheetChangedListeners(null, null);
+	}
+
+	/**
+	 * Returns the class name of this sheet implementation.
+	 *
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return this.getClass().getName();
+	}
+
+	/**
+	 * Returns the flyweight of the primitive having the given identifier,
+	 * creating it if needed, e.g., for a command referring to the primitive
+	 * by its identifier. A flyweight removed from the sheet is returned as
+	 * long as it is referenced.
+	 *
+	 * @param id
+	 *            the identifier of a primitive, see {@link CompactShape#getId()}
+	 * @return the flyweight, or null if the primitive is neither on this
+	 *         sheet nor referenced
+	 */
+	public Shape getFlyweight(int id) {
+		if (id < 0 || id >= this.nextId) {
+			return null;
+		}
+		FlyweightReference r = this.flyweights.get(id);
+		CompactShape f = r == null ? null : r.get();
+		if (f != null) {
+			return f;
+		}
+		int i = this.slots[id];
+		return i < 0 ? null : shapeAt(i);
+	}
+
+	/**
+	 * Returns the shape at the given stacking index, creating its flyweight
+	 * if needed.
+	 */
+	private Shape shapeAt(int i) {
+		int id = this.ids[i];
+		byte kind = this.kinds[i];
+		if (kind == OBJECT || kind == UNBOUNDED) {
+			return this.objects.get(id);
+		}
+		FlyweightReference r = this.flyweights.get(id);
+		CompactShape f = r == null ? null : r.get();
+		if (f == null) {
+			expungeFlyweights();
+			f = new CompactShape(id);
+			this.flyweights.put(id, new FlyweightReference(f,
+					this.flyweightQueue));
+		}
+		return f;
+	}
+
+	/**
+	 * Drops the entries of the flyweights no longer referenced.
+	 */
+	private void expungeFlyweights() {
+		Reference<? extends CompactShape> r;
+		while ((r = this.flyweightQueue.poll()) != null) {
+			int id = ((FlyweightReference) r).id;
+			if (this.flyweights.get(id) == r) {
+				this.flyweights.remove(id);
+			}
+		}
+	}
+
+	/**
+	 * Tells if the given shape is a flyweight of this sheet.
+	 */
+	private boolean isFlyweight(Shape s) {
+		return s instanceof CompactShape
+				&& ((CompactShape) s).getSheet() == this;
+	}
+
+	/**
+	 * Returns a new identifier, growing the map of the stacking indexes.
+	 */
+	private int newId() {
+		int id = this.nextId++;
+		if (id == this.slots.length) {
+			int n = this.slots.length;
+			this.slots = Arrays.copyOf(this.slots, n + (n >> 1));
+			Arrays.fill(this.slots, n, this.slots.length, -1);
+		}
+		return id;
+	}
+
+	/**
+	 * Appends a shape of the given identifier and kind, growing the arrays
+	 * if needed.
+	 *
+	 * @return the stacking index of the shape
+	 */
+	private int append(int id, byte kind) {
+		if (this.size == this.ids.length) {
+			int n = this.size + (this.size >> 1);
+			this.ids = Arrays.copyOf(this.ids, n);
+			this.kinds = Arrays.copyOf(this.kinds, n);
+			this.xs = Arrays.copyOf(this.xs, n);
+			this.ys = Arrays.copyOf(this.ys, n);
+			this.widths = Arrays.copyOf(this.widths, n);
+			this.heights = Arrays.copyOf(this.heights, n);
+			this.fills = Arrays.copyOf(this.fills, n);
+			this.pens = Arrays.copyOf(this.pens, n);
+			this.penSizes = Arrays.copyOf(this.penSizes, n);
+		}
+		int i = this.size++;
+		this.ids[i] = id;
+		this.kinds[i] = kind;
+		this.slots[id] = i;
+		return i;
+	}
+
+	/**
+	 * Deletes the shape at the given stacking index.
+	 */
+	private void delete(int i) {
+		this.slots[this.ids[i]] = -1;
+		shift(i + 1, i, this.size - i - 1);
+		this.size--;
+		renumber(i, this.size);
+	}
+
+	/**
+	 * Copies the given range of all arrays.
+	 */
+	private void shift(int src, int dst, int length) {
+		System.arraycopy(this.ids, src, this.ids, dst, length);
+		System.arraycopy(this.kinds, src, this.kinds, dst, length);
+		System.arraycopy(this.xs, src, this.xs, dst, length);
+		System.arraycopy(this.ys, src, this.ys, dst, length);
+		System.arraycopy(this.widths, src, this.widths, dst, length);
+		System.arraycopy(this.heights, src, this.heights, dst, length);
+		System.arraycopy(this.fills, src, this.fills, dst, length);
+		System.arraycopy(this.pens, src, this.pens, dst, length);
+		System.arraycopy(this.penSizes, src, this.penSizes, dst, length);
+	}
+
+	/**
+	 * Updates the stacking indexes of the shapes in the given range.
+	 */
+	private void renumber(int from, int to) {
+		for (int i = from; i < to; i++) {
+			this.slots[this.ids[i]] = i;
+		}
+	}
+
+	/**
+	 * Copies the bounding box of the given shape kept as an object into the
+	 * arrays.
+	 */
+	private void storeBounds(int i, Shape s) {
+		BoundingBox b = s.getBoundingBox();
+		if (b == null) {
+			this.kinds[i] = UNBOUNDED;
+		} else {
+			this.kinds[i] = OBJECT;
+			this.xs[i] = b.getX0();
+			this.ys[i] = b.getY0();
+			this.widths[i] = b.getWidth();
+			this.heights[i] = b.getHeight();
+		}
+	}
+
+	/**
+	 * Returns the bounding box of the shape at the given stacking index.
+	 */
+	private BoundingBox bounds(int i) {
+		return new BoundingBox(this.xs[i], this.ys[i], this.widths[i],
+				this.heights[i]);
+	}
+
+	/**
+	 * Tests whether the bounding box of the shape at the given stacking
+	 * index intersects the given area, as of
+	 * {@link BoundingBox#intersects(BoundingBox)}.
+	 */
+	private boolean intersects(int i, int minX, int minY, int maxX, int maxY) {
+		int x = this.xs[i];
+		int y = this.ys[i];
+		int w = this.widths[i];
+		int h = this.heights[i];
+		return Math.min(x, x + w) <= maxX && minX <= Math.max(x, x + w)
+				&& Math.min(y, y + h) <= maxY && minY <= Math.max(y, y + h);
+	}
+
+	/**
+	 * Tests whether a primitive contains the given point, as the tests of
+	 * SimpleBox, SimpleEllipse, and SimpleLine do.
+	 */
+	private static boolean containsPrimitive(byte kind, int x, int y, int w,
+			int h, int px, int py) {
+		switch (kind) {
+		case BOX:
+			return Math.min(x, x + w) <= px && px < Math.max(x, x + w)
+					&& Math.min(y, y + h) <= py && py < Math.max(y, y + h);
+		case ELLIPSE:
+			if (w <= 0 || h <= 0) {
+				return false;
+			}
+			double nx = (double) (px - x) / w - 0.5;
+			double ny = (double) (py - y) / h - 0.5;
+			return nx * nx + ny * ny < 0.25;
+		default:
+			int t = AbstractShape.HIT_TOLERANCE;
+			if (!(Math.min(x, x + w) - t <= px && px <= Math.max(x, x + w) + t
+					&& Math.min(y, y + h) - t <= py && py <= Math.max(y, y + h)
+					+ t)) {
+				return false;
+			}
+			double abX = w;
+			double abY = h;
+			double acX = px - x;
+			double acY = py - y;
+			double d = abX * abX + abY * abY;
+			double alpha = (acX * abX + acY * abY) / d;
+			if (!(alpha >= 0.0 && alpha <= 1.0)) {
+				// Beyond the end points, or a line of length 0.
+				return false;
+			}
+			double cross = abX * acY - abY * acX;
+			return cross * cross <= (double) t * t * d;
+		}
+	}
+
+	/**
+	 * Draws a primitive, as SimpleBox, SimpleEllipse, and SimpleLine do.
+	 */
+	private static void drawPrimitive(Graphics2D g2, byte kind, int x, int y,
+			int w, int h, Color fill, Color pen, int penSize) {
+		g2.setStroke(RenderingResources.getStroke(penSize));
+		g2.setColor(pen);
+		if (kind == LINE) {
+			g2.drawLine(x, y, x + w, y + h);
+			return;
+		}
+		int x0 = Math.min(x, x + w);
+		int y0 = Math.min(y, y + h);
+		int width = Math.abs(w);
+		int height = Math.abs(h);
+		if (kind == BOX) {
+			g2.drawRect(x0, y0, width, height);
+			g2.setColor(fill);
+			g2.fillRect(x0, y0, width, height);
+		} else {
+			g2.drawOval(x0, y0, width, height);
+			g2.setColor(fill);
+			g2.fillOval(x0, y0, width, height);
+		}
+	}
+
+	/**
+	 * Returns the pen size to be stored for the given one.
+	 */
+	private static byte toPenSize(int penSize) {
+		return (byte) Math.min(Byte.MAX_VALUE, Math.max(MIN_PEN_SIZE, penSize));
+	}
+
+	/**
+	 * Returns the ARGB value of the given color, or 0 if null.
+	 */
+	private static int toARGB(Color c) {
+		return c == null ? 0 : c.getRGB();
+	}
+
+	/**
+	 * Notifies in turn each of the registered listeners, or, within a batch,
+	 * merges the change into the batch.
+	 *
+	 * @param s
+	 *            the affected shape, or null if no shape object is involved
+	 * @param dirtyArea
+	 *            the area affected by the change, or null if unknown
+	 */
+	private void notifySheetChangedListeners(Shape s, BoundingBox dirtyArea) {
+		if (this.batchDepth > 0) {
+			if (s != null) {
+				this.batchShapes.add(s);
+			}
+			if (dirtyArea == null) {
+				this.batchAreaUnknown = true;
+			} else if (this.batchArea == null) {
+				this.batchArea = dirtyArea;
+			} else {
+				this.batchArea = this.batchArea.union(dirtyArea);
+			}
+		} else {
+			Set<Shape> affected = s == null ? Collections.<Shape> emptySet()
+					: Collections.singleton(s);
+			fireSheetChanged(new SheetChangedEvent(this, affected, dirtyArea));
+		}
+	}
+
+	/**
+	 * Notifies in turn each of the registered listeners.
+	 *
+	 * @param e
+	 *            the event
+	 */
+	private void fireSheetChanged(SheetChangedEvent e) {
+		for (SheetChangedListener l : this.sheetChangedListeners) {
+			l.sheetChanged(e);
+		}
+	}
+}
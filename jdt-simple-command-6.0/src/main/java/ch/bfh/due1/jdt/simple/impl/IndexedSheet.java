@@ -0,0 +1,163 @@
+/*
+ * Eric Dubuis, Berner Fachhochschule,
+ * Biel, Switzerland.
+ * Copyright (c) 2007
+ *
+ * Distributable under LGPL license.
+ * See terms of license at gnu.org.
+ */
+package ch.bfh.due1.jdt.simple.impl;
+
+import java.awt.Graphics;
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+import ch.bfh.due1.jdt.framework.AbstractShape;
+import ch.bfh.due1.jdt.framework.BoundingBox;
+import ch.bfh.due1.jdt.framework.Coord;
+import ch.bfh.due1.jdt.framework.Shape;
+
+/**
+ * A sheet that keeps its shapes in a spatial index (an R-tree). Finding the
+ * topmost shape under a coordinate point or the shapes within a rectangular
+ * area takes O(log n) instead of visiting all shapes of the sheet.
+ * <p>
+ * The bounding box of a shape is indexed grown by the hit tolerance of the
+ * shape. Shapes without a bounding box, or with an unknown hit tolerance, are
+ * not indexed; they are kept aside and are always found, returned, and drawn.
+ * <p>
+ * The index is kept up to date by means of the shape changed events the sheet
+ * receives from its shapes. This sheet can be selected with the
+ * <code>jdt.sheet.classname</code> property of the file
+ * <code>jdt/sheet/sheet.properties</code>.
+ *
+ * @author Eric Dubuis
+ */
+public class IndexedSheet extends SimpleSheet {
+	/** The spatial index. */
+	private RTree<Shape> index = new RTree<Shape>();
+
+	/** The shapes which are not indexed. */
+	private Set<Shape> unindexed = Collections
+			.newSetFromMap(new IdentityHashMap<Shape, Boolean>());
+
+	/**
+	 * Returns the topmost shape containing the given point. Only the shapes
+	 * whose indexed bounding boxes contain the point are tested.
+	 *
+	 * @see ch.bfh.due1.jdt.framework.Sheet#getShapeAt(ch.bfh.due1.jdt.framework.Coord)
+	 */
+	@Override
+	public Shape getShapeAt(Coord c) {
+		List<Shape> candidates = new ArrayList<Shape>(this.unindexed);
+		this.index.search(c.getX0(), c.getY0(), candidates);
+		candidates = getShapesByStackingOrder(candidates);
+		for (int i = candidates.size() - 1; i >= 0; i--) {
+			Shape s = candidates.get(i);
+			if (s.mayContain(c) && s.contains(c)) {
+				return s;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the shapes intersecting the given area by means of a rectangle
+	 * query on the index.
+	 *
+	 * @see ch.bfh.due1.jdt.framework.Sheet#getShapesIn(ch.bfh.due1.jdt.framework.BoundingBox)
+	 */
+	@Override
+	public List<Shape> getShapesIn(BoundingBox area) {
+		List<Shape> result = new ArrayList<Shape>();
+		this.index.search(area.getMinX(), area.getMinY(), area.getMaxX(), area
+				.getMaxY(), result);
+		// The indexed boxes are grown by the tolerance: drop false positives.
+		for (int i = result.size() - 1; i >= 0; i--) {
+			if (!area.intersects(result.get(i).getBoundingBox())) {
+				result.remove(i);
+			}
+		}
+		result.addAll(this.unindexed);
+		return getShapesByStackingOrder(result);
+	}
+
+	/**
+	 * Draws the shapes intersecting the clip bounds of the given graphics
+	 * context. The shapes to be drawn are found by a rectangle query on the
+	 * index, plus the shapes not indexed.
+	 *
+	 * @see ch.bfh.due1.jdt.simple.impl.SimpleSheet#draw(java.awt.Graphics)
+	 */
+	@Override
+	public void draw(Graphics g) {
+		Rectangle clip = g.getClipBounds();
+		if (clip == null) {
+			super.draw(g);
+		} else {
+			int m = AbstractShape.DRAWING_MARGIN;
+			List<Shape> visible = new ArrayList<Shape>(this.unindexed);
+			this.index.search(clip.x - m, clip.y - m, clip.x + clip.width + m,
+					clip.y + clip.height + m, visible);
+			for (Shape s : getShapesByStackingOrder(visible)) {
+				s.draw(g);
+			}
+			setDrawnShapeCount(visible.size());
+		}
+	}
+
+	/**
+	 * Indexes the added shape.
+	 *
+	 * @see ch.bfh.due1.jdt.simple.impl.SimpleSheet#shapeAdded(ch.bfh.due1.jdt.framework.Shape)
+	 */
+	@Override
+	protected void shapeAdded(Shape s) {
+		index(s);
+	}
+
+	/**
+	 * Removes the shape from the index.
+	 *
+	 * @see ch.bfh.due1.jdt.simple.impl.SimpleSheet#shapeRemoved(ch.bfh.due1.jdt.framework.Shape)
+	 */
+	@Override
+	protected void shapeRemoved(Shape s) {
+		if (!this.index.remove(s)) {
+			this.unindexed.remove(s);
+		}
+	}
+
+	/**
+	 * Moves the shape within the index.
+	 *
+	 * @see ch.bfh.due1.jdt.simple.impl.SimpleSheet#shapeChanged(ch.bfh.due1.jdt.framework.Shape)
+	 */
+	@Override
+	protected void shapeChanged(Shape s) {
+		if (this.index.contains(s) || this.unindexed.contains(s)) {
+			index(s);
+		}
+	}
+
+	/**
+	 * Inserts or updates the index entry of the given shape, or keeps the
+	 * shape aside if it cannot be indexed.
+	 */
+	private void index(Shape s) {
+		BoundingBox b = s.getBoundingBox();
+		int t = s.getHitTolerance();
+		if (b == null || t < 0) {
+			this.index.remove(s);
+			this.unindexed.add(s);
+		} else {
+			this.unindexed.remove(s);
+			this.index.insert(s, b.getMinX() - t, b.getMinY() - t,
+					b.getMaxX() + t, b.getMaxY() + t);
+		}
+	}
+}
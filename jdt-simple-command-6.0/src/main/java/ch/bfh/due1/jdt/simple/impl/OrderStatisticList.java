@@ -0,0 +1,349 @@
+/*
+ * Eric Dubuis, Berner Fachhochschule,
+ * Biel, Switzerland.
+ * Copyright (c) 2007
+ *
+ * Distributable under LGPL license.
+ * See terms of license at gnu.org.
+ */
+package ch.bfh.due1.jdt.simple.impl;
+
+import java.util.AbstractList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * A list of distinct items kept in an order-statistic tree (a treap keyed by
+ * position). Inserting and removing an item at any position, as well as
+ * finding the position of an item, run in O(log n). The list is used to keep
+ * the shapes of a sheet along their stacking order.
+ * <p>
+ * Indexed access runs in O(log n) right after a modification. Once the list
+ * has been read often enough to pay for it, the items are copied into an
+ * array; from then on until the next modification, indexed access and
+ * iteration, in both directions, run in O(1) per item. Iterators are
+ * fail-fast, as the ones of the lists of the collection framework.
+ * <p>
+ * Each item can be stored at most once. Items are identified by means of
+ * their equals() and hashCode() methods. Null items are not permitted.
+ *
+ * @param <E>
+ *            the type of the items
+ * @author Eric Dubuis
+ */
+public class OrderStatisticList<E> extends AbstractList<E> {
+	/**
+	 * A node of the tree.
+	 */
+	private static final class Node<E> {
+		final E item;
+		final int priority;
+		int size = 1;
+		Node<E> left;
+		Node<E> right;
+		Node<E> parent;
+
+		Node(E item, int priority) {
+			this.item = item;
+			this.priority = priority;
+		}
+	}
+
+	/** The root of the tree, or null if the list is empty. */
+	private Node<E> root;
+
+	/** The node of each item. */
+	private Map<E, Node<E>> nodes = new HashMap<E, Node<E>>();
+
+	/** The source of the node priorities. */
+	private Random random = new Random();
+
+	/** The items along the list order, or null if outdated. */
+	private Object[] items;
+
+	/** The number of reads since the item array became outdated. */
+	private int uncachedReads = 0;
+
+	/**
+	 * @inheritDoc
+	 */
+	@Override
+	public int size() {
+		return this.nodes.size();
+	}
+
+	/**
+	 * Returns the item at the given position. Walks down the tree, or takes
+	 * the item from the item array if it is up to date. The array is rebuilt
+	 * after about n / log n reads, making a full iteration O(n).
+	 *
+	 * @see java.util.AbstractList#get(int)
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public E get(int index) {
+		if (index < 0 || index >= size()) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: "
+					+ size());
+		}
+		if (this.items == null) {
+			int depth = 32 - Integer.numberOfLeadingZeros(size());
+			if (++this.uncachedReads < size() / depth) {
+				return nodeAt(index).item;
+			}
+			this.items = new Object[size()];
+			collect(this.root, 0);
+		}
+		return (E) this.items[index];
+	}
+
+	/**
+	 * Inserts the given item at the given position.
+	 *
+	 * @throws IllegalArgumentException
+	 *             if the item is contained already
+	 * @see java.util.AbstractList#add(int, java.lang.Object)
+	 */
+	@Override
+	public void add(int index, E item) {
+		if (item == null) {
+			throw new NullPointerException("Null items are not permitted.");
+		}
+		if (index < 0 || index > size()) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: "
+					+ size());
+		}
+		if (this.nodes.containsKey(item)) {
+			throw new IllegalArgumentException("Item already contained: "
+					+ item);
+		}
+		Node<E> n = new Node<E>(item, this.random.nextInt());
+		this.nodes.put(item, n);
+		Node<E>[] parts = split(this.root, index);
+		setRoot(merge(merge(parts[0], n), parts[1]));
+		modified();
+	}
+
+	/**
+	 * @inheritDoc
+	 */
+	@Override
+	public E remove(int index) {
+		if (index < 0 || index >= size()) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: "
+					+ size());
+		}
+		Node<E> n = nodeAt(index);
+		remove(n);
+		return n.item;
+	}
+
+	/**
+	 * Removes the given item in O(log n).
+	 *
+	 * @see java.util.AbstractCollection#remove(java.lang.Object)
+	 */
+	@Override
+	public boolean remove(Object o) {
+		Node<E> n = this.nodes.get(o);
+		if (n == null) {
+			return false;
+		}
+		remove(n);
+		return true;
+	}
+
+	/**
+	 * Returns true if the given item is contained, in O(1).
+	 *
+	 * @see java.util.AbstractCollection#contains(java.lang.Object)
+	 */
+	@Override
+	public boolean contains(Object o) {
+		return this.nodes.containsKey(o);
+	}
+
+	/**
+	 * Returns the position of the given item in O(log n).
+	 *
+	 * @see java.util.AbstractList#indexOf(java.lang.Object)
+	 */
+	@Override
+	public int indexOf(Object o) {
+		Node<E> n = this.nodes.get(o);
+		if (n == null) {
+			return -1;
+		}
+		int rank = size(n.left);
+		while (n.parent != null) {
+			if (n == n.parent.right) {
+				rank += size(n.parent.left) + 1;
+			}
+			n = n.parent;
+		}
+		return rank;
+	}
+
+	/**
+	 * Items are distinct; thus, the same as {@link #indexOf(Object)}.
+	 *
+	 * @see java.util.AbstractList#lastIndexOf(java.lang.Object)
+	 */
+	@Override
+	public int lastIndexOf(Object o) {
+		return indexOf(o);
+	}
+
+	/**
+	 * Moves the given item to the given position in O(log n). The position
+	 * refers to the list after the move; thus, it ranges from 0 to size() - 1.
+	 *
+	 * @param item
+	 *            a contained item
+	 * @param index
+	 *            the new position of the item
+	 * @throws IllegalArgumentException
+	 *             if the item is not contained
+	 */
+	public void move(E item, int index) {
+		if (!remove(item)) {
+			throw new IllegalArgumentException("Item not contained: " + item);
+		}
+		add(index, item);
+	}
+
+	/**
+	 * @inheritDoc
+	 */
+	@Override
+	public void clear() {
+		this.root = null;
+		this.nodes.clear();
+		modified();
+	}
+
+	/**
+	 * Returns the node at the given position, which must be valid.
+	 */
+	private Node<E> nodeAt(int index) {
+		Node<E> n = this.root;
+		while (size(n.left) != index) {
+			if (index < size(n.left)) {
+				n = n.left;
+			} else {
+				index -= size(n.left) + 1;
+				n = n.right;
+			}
+		}
+		return n;
+	}
+
+	/**
+	 * Removes the given node by replacing it with the merger of its subtrees.
+	 */
+	private void remove(Node<E> n) {
+		this.nodes.remove(n.item);
+		Node<E> parent = n.parent;
+		Node<E> m = merge(n.left, n.right);
+		if (parent == null) {
+			setRoot(m);
+		} else {
+			if (parent.left == n) {
+				parent.left = m;
+			} else {
+				parent.right = m;
+			}
+			if (m != null) {
+				m.parent = parent;
+			}
+			for (Node<E> p = parent; p != null; p = p.parent) {
+				p.size--;
+			}
+		}
+		modified();
+	}
+
+	/**
+	 * Splits the given tree into the first k nodes and the remaining ones.
+	 */
+	@SuppressWarnings("unchecked")
+	private Node<E>[] split(Node<E> n, int k) {
+		if (n == null) {
+			return new Node[2];
+		}
+		Node<E>[] parts;
+		if (size(n.left) < k) {
+			parts = split(n.right, k - size(n.left) - 1);
+			n.right = parts[0];
+			parts[0] = n;
+		} else {
+			parts = split(n.left, k);
+			n.left = parts[1];
+			parts[1] = n;
+		}
+		update(n);
+		return parts;
+	}
+
+	/**
+	 * Concatenates the given trees.
+	 */
+	private Node<E> merge(Node<E> a, Node<E> b) {
+		if (a == null) {
+			return b;
+		}
+		if (b == null) {
+			return a;
+		}
+		if (a.priority > b.priority) {
+			a.right = merge(a.right, b);
+			update(a);
+			return a;
+		} else {
+			b.left = merge(a, b.left);
+			update(b);
+			return b;
+		}
+	}
+
+	private void update(Node<E> n) {
+		n.size = 1 + size(n.left) + size(n.right);
+		if (n.left != null) {
+			n.left.parent = n;
+		}
+		if (n.right != null) {
+			n.right.parent = n;
+		}
+	}
+
+	private void setRoot(Node<E> n) {
+		this.root = n;
+		if (n != null) {
+			n.parent = null;
+		}
+	}
+
+	private static int size(Node<?> n) {
+		return n == null ? 0 : n.size;
+	}
+
+	/**
+	 * Copies the items of the given subtree into the item array, starting at
+	 * the given position, and returns the position following the subtree.
+	 */
+	private int collect(Node<E> n, int pos) {
+		while (n != null) {
+			pos = collect(n.left, pos);
+			this.items[pos++] = n.item;
+			n = n.right;
+		}
+		return pos;
+	}
+
+	private void modified() {
+		this.items = null;
+		this.uncachedReads = 0;
+		this.modCount++;
+	}
+}
@@ -0,0 +1,250 @@
+/*
+ * Eric Dubuis, Berner Fachhochschule,
+ * Biel, Switzerland.
+ * Copyright (c) 2007
+ *
+ * Distributable under LGPL license.
+ * See terms of license at gnu.org.
+ */
+package ch.bfh.due1.jdt.simple.impl;
+
+import java.io.Serializable;
+
+/**
+ * An immutable map of non-negative integer keys to values, kept in a trie of
+ * 32-way nodes. Putting and removing a value return a new map in
+ * O(log<sub>32</sub> n), sharing all but the nodes along the path of the key
+ * with this map. Hence, keeping a former version of the map costs O(1).
+ * <p>
+ * As the nodes of two versions of a map are shared wherever the versions do
+ * not differ, the differences of two versions can be found without visiting
+ * the keys they have in common, see {@link #diff(PersistentIntMap,
+ * PersistentIntMap, Visitor)}.
+ * <p>
+ * Maps are serializable if their values are. Values are compared by their
+ * identity.
+ *
+ * @param <V>
+ *            the type of the values
+ * @author Eric Dubuis
+ */
+public final class PersistentIntMap<V> implements Serializable {
+	private static final long serialVersionUID = 3617302839421054461L;
+
+	/**
+	 * Receives the differences of two versions of a map.
+	 *
+	 * @param <V>
+	 *            the type of the values
+	 */
+	public interface Visitor<V> {
+		/**
+		 * Called for a key whose value differs.
+		 *
+		 * @param key
+		 *            the key
+		 * @param before
+		 *            the value of the first map, or null
+		 * @param after
+		 *            the value of the second map, or null
+		 */
+		public void visit(int key, V before, V after);
+	}
+
+	/** The number of key bits per level. */
+	private static final int BITS = 5;
+
+	/** The number of children of a node. */
+	private static final int WIDTH = 1 << BITS;
+
+	/** The mask of the key bits of a level. */
+	private static final int MASK = WIDTH - 1;
+
+	/** The empty map. */
+	@SuppressWarnings("rawtypes")
+	private static final PersistentIntMap EMPTY = new PersistentIntMap<Object>(
+			null, 0, 0);
+
+	/** The root node, or null if the map is empty. */
+	private final Object[] root;
+
+	/** The shift of the key bits of the root level. */
+	private final int shift;
+
+	/** The number of keys. */
+	private final int size;
+
+	private PersistentIntMap(Object[] root, int shift, int size) {
+		this.root = root;
+		this.shift = shift;
+		this.size = size;
+	}
+
+	/**
+	 * Returns the empty map.
+	 *
+	 * @param <V>
+	 *            the type of the values
+	 * @return the empty map
+	 */
+	@SuppressWarnings("unchecked")
+	public static <V> PersistentIntMap<V> empty() {
+		return EMPTY;
+	}
+
+	/**
+	 * Returns the number of keys.
+	 *
+	 * @return the size of this map
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * Returns the value of the given key.
+	 *
+	 * @param key
+	 *            a key
+	 * @return the value, or null if the key is not in this map
+	 */
+	@SuppressWarnings("unchecked")
+	public V get(int key) {
+		if (key < 0 || (this.shift + BITS < 31 && key >>> (this.shift + BITS) != 0)) {
+			return null;
+		}
+		Object[] node = this.root;
+		for (int s = this.shift; node != null && s > 0; s -= BITS) {
+			node = (Object[]) node[(key >>> s) & MASK];
+		}
+		return node == null ? null : (V) node[key & MASK];
+	}
+
+	/**
+	 * Returns a map with the given value for the given key.
+	 *
+	 * @param key
+	 *            a non-negative key
+	 * @param value
+	 *            the value, not null
+	 * @return the new map
+	 * @throws IllegalArgumentException
+	 *             if the key is negative or the value is null
+	 */
+	public PersistentIntMap<V> with(int key, V value) {
+		if (key < 0 || value == null) {
+			throw new IllegalArgumentException("Illegal key or value: " + key
+					+ ", " + value);
+		}
+		Object[] r = this.root;
+		int s = this.shift;
+		while (s + BITS < 31 && key >>> (s + BITS) != 0) {
+			// Grow by one level, the old root becoming the first child.
+			Object[] grown = new Object[WIDTH];
+			grown[0] = r;
+			r = grown;
+			s += BITS;
+		}
+		int n = get(key) == null ? this.size + 1 : this.size;
+		return new PersistentIntMap<V>(put(r, s, key, value), s, n);
+	}
+
+	/**
+	 * Returns a map without the given key.
+	 *
+	 * @param key
+	 *            a key
+	 * @return the new map, or this map if the key is not in it
+	 */
+	public PersistentIntMap<V> without(int key) {
+		if (get(key) == null) {
+			return this;
+		}
+		return new PersistentIntMap<V>(put(this.root, this.shift, key, null),
+				this.shift, this.size - 1);
+	}
+
+	/**
+	 * Reports the keys whose values differ in the given maps. Subtrees shared
+	 * by the maps are skipped; hence, the time taken depends on the number of
+	 * differences, not on the size of the maps.
+	 *
+	 * @param <V>
+	 *            the type of the values
+	 * @param before
+	 *            a map
+	 * @param after
+	 *            another map
+	 * @param visitor
+	 *            receives the differences along the order of the keys
+	 */
+	public static <V> void diff(PersistentIntMap<V> before,
+			PersistentIntMap<V> after, Visitor<V> visitor) {
+		Object[] a = before.root;
+		Object[] b = after.root;
+		int s = Math.max(before.shift, after.shift);
+		for (int t = before.shift; t < s; t += BITS) {
+			a = lift(a);
+		}
+		for (int t = after.shift; t < s; t += BITS) {
+			b = lift(b);
+		}
+		diff(a, b, s, 0, visitor);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <V> void diff(Object[] a, Object[] b, int shift, int base,
+			Visitor<V> visitor) {
+		if (a == b) {
+			return;
+		}
+		for (int i = 0; i < WIDTH; i++) {
+			Object x = a == null ? null : a[i];
+			Object y = b == null ? null : b[i];
+			if (x != y) {
+				int key = base | (i << shift);
+				if (shift == 0) {
+					visitor.visit(key, (V) x, (V) y);
+				} else {
+					diff((Object[]) x, (Object[]) y, shift - BITS, key,
+							visitor);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns a node having the given node as its first child.
+	 */
+	private static Object[] lift(Object[] node) {
+		if (node == null) {
+			return null;
+		}
+		Object[] lifted = new Object[WIDTH];
+		lifted[0] = node;
+		return lifted;
+	}
+
+	/**
+	 * Returns a copy of the given node with the given value for the given
+	 * key, or null if the copy would be empty.
+	 */
+	private static Object[] put(Object[] node, int shift, int key, Object value) {
+		Object[] copy = node == null ? new Object[WIDTH] : node.clone();
+		int i = (key >>> shift) & MASK;
+		if (shift == 0) {
+			copy[i] = value;
+		} else {
+			copy[i] = put((Object[]) copy[i], shift - BITS, key, value);
+		}
+		if (value == null) {
+			for (Object o : copy) {
+				if (o != null) {
+					return copy;
+				}
+			}
+			return null;
+		}
+		return copy;
+	}
+}
@@ -0,0 +1,281 @@
+/*
+ * Eric Dubuis, Berner Fachhochschule,
+ * Biel, Switzerland.
+ * Copyright (c) 2007
+ *
+ * Distributable under LGPL license.
+ * See terms of license at gnu.org.
+ */
+package ch.bfh.due1.jdt.simple.impl;
+
+import java.io.Serializable;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * An immutable list kept in a treap keyed by position. Inserting and removing
+ * an item return a new list in O(log n), sharing all but O(log n) nodes with
+ * this list. Hence, keeping a former version of the list costs O(1).
+ * <p>
+ * Lists are serializable if their items are.
+ *
+ * @param <E>
+ *            the type of the items
+ * @see OrderStatisticList
+ * @author Eric Dubuis
+ */
+public final class PersistentList<E> implements Iterable<E>, Serializable {
+	private static final long serialVersionUID = -8017365437264410592L;
+
+	/**
+	 * A node of the tree.
+	 */
+	private static final class Node<E> implements Serializable {
+		private static final long serialVersionUID = 5528405623146380472L;
+		final E item;
+		final int priority;
+		final int size;
+		final Node<E> left;
+		final Node<E> right;
+
+		Node(E item, int priority, Node<E> left, Node<E> right) {
+			this.item = item;
+			this.priority = priority;
+			this.left = left;
+			this.right = right;
+			this.size = 1 + size(left) + size(right);
+		}
+	}
+
+	/** The empty list. */
+	@SuppressWarnings("rawtypes")
+	private static final PersistentList EMPTY = new PersistentList<Object>(
+			null);
+
+	/** The root of the tree, or null if the list is empty. */
+	private final Node<E> root;
+
+	private PersistentList(Node<E> root) {
+		this.root = root;
+	}
+
+	/**
+	 * Returns the empty list.
+	 *
+	 * @param <E>
+	 *            the type of the items
+	 * @return the empty list
+	 */
+	@SuppressWarnings("unchecked")
+	public static <E> PersistentList<E> empty() {
+		return EMPTY;
+	}
+
+	/**
+	 * Returns a list of the given items in O(n).
+	 *
+	 * @param <E>
+	 *            the type of the items
+	 * @param items
+	 *            the items
+	 * @return a list of the items in the given order
+	 */
+	public static <E> PersistentList<E> of(List<E> items) {
+		int n = items.size();
+		if (n == 0) {
+			return empty();
+		}
+		// Build the Cartesian tree of random priorities along the items by
+		// means of the right spine, then create the nodes bottom up.
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		int[] priorities = new int[n];
+		int[] left = new int[n];
+		int[] right = new int[n];
+		int[] spine = new int[n];
+		int top = -1;
+		for (int i = 0; i < n; i++) {
+			priorities[i] = random.nextInt();
+			left[i] = -1;
+			right[i] = -1;
+			int last = -1;
+			while (top >= 0 && priorities[spine[top]] < priorities[i]) {
+				last = spine[top--];
+			}
+			left[i] = last;
+			if (top >= 0) {
+				right[spine[top]] = i;
+			}
+			spine[++top] = i;
+		}
+		return new PersistentList<E>(build(items, spine[0], priorities, left,
+				right));
+	}
+
+	private static <E> Node<E> build(List<E> items, int i, int[] priorities,
+			int[] left, int[] right) {
+		if (i < 0) {
+			return null;
+		}
+		return new Node<E>(items.get(i), priorities[i], build(items, left[i],
+				priorities, left, right), build(items, right[i], priorities,
+				left, right));
+	}
+
+	/**
+	 * Returns the number of items.
+	 *
+	 * @return the size of this list
+	 */
+	public int size() {
+		return size(this.root);
+	}
+
+	/**
+	 * Returns the item at the given position in O(log n).
+	 *
+	 * @param index
+	 *            a position
+	 * @return the item
+	 * @throws IndexOutOfBoundsException
+	 *             if the position is out of range
+	 */
+	public E get(int index) {
+		checkIndex(index, size());
+		Node<E> n = this.root;
+		while (true) {
+			int l = size(n.left);
+			if (index < l) {
+				n = n.left;
+			} else if (index == l) {
+				return n.item;
+			} else {
+				index -= l + 1;
+				n = n.right;
+			}
+		}
+	}
+
+	/**
+	 * Returns a list with the given item inserted at the given position.
+	 *
+	 * @param index
+	 *            the position, between 0 and size() inclusive
+	 * @param item
+	 *            the item
+	 * @return the new list
+	 * @throws IndexOutOfBoundsException
+	 *             if the position is out of range
+	 */
+	public PersistentList<E> insert(int index, E item) {
+		checkIndex(index, size() + 1);
+		Node<E>[] parts = split(this.root, index);
+		Node<E> n = new Node<E>(item, ThreadLocalRandom.current().nextInt(),
+				null, null);
+		return new PersistentList<E>(merge(merge(parts[0], n), parts[1]));
+	}
+
+	/**
+	 * Returns a list without the item at the given position.
+	 *
+	 * @param index
+	 *            the position
+	 * @return the new list
+	 * @throws IndexOutOfBoundsException
+	 *             if the position is out of range
+	 */
+	public PersistentList<E> remove(int index) {
+		checkIndex(index, size());
+		Node<E>[] parts = split(this.root, index);
+		Node<E>[] rest = split(parts[1], 1);
+		return new PersistentList<E>(merge(parts[0], rest[1]));
+	}
+
+	/**
+	 * Returns an iterator over the items, taking O(1) per item amortized.
+	 *
+	 * @see java.lang.Iterable#iterator()
+	 */
+	@Override
+	public Iterator<E> iterator() {
+		return new Iterator<E>() {
+			private final Deque<Node<E>> path = new ArrayDeque<Node<E>>();
+			{
+				descend(PersistentList.this.root);
+			}
+
+			private void descend(Node<E> n) {
+				while (n != null) {
+					this.path.push(n);
+					n = n.left;
+				}
+			}
+
+			@Override
+			public boolean hasNext() {
+				return !this.path.isEmpty();
+			}
+
+			@Override
+			public E next() {
+				if (this.path.isEmpty()) {
+					throw new NoSuchElementException();
+				}
+				Node<E> n = this.path.pop();
+				descend(n.right);
+				return n.item;
+			}
+		};
+	}
+
+	/**
+	 * Splits the given tree into the first k items and the rest.
+	 */
+	@SuppressWarnings("unchecked")
+	private static <E> Node<E>[] split(Node<E> n, int k) {
+		Node<E>[] parts = new Node[2];
+		if (n == null) {
+			return parts;
+		}
+		int l = size(n.left);
+		if (k <= l) {
+			Node<E>[] sub = split(n.left, k);
+			parts[0] = sub[0];
+			parts[1] = new Node<E>(n.item, n.priority, sub[1], n.right);
+		} else {
+			Node<E>[] sub = split(n.right, k - l - 1);
+			parts[0] = new Node<E>(n.item, n.priority, n.left, sub[0]);
+			parts[1] = sub[1];
+		}
+		return parts;
+	}
+
+	/**
+	 * Concatenates the given trees.
+	 */
+	private static <E> Node<E> merge(Node<E> a, Node<E> b) {
+		if (a == null) {
+			return b;
+		}
+		if (b == null) {
+			return a;
+		}
+		if (a.priority > b.priority) {
+			return new Node<E>(a.item, a.priority, a.left, merge(a.right, b));
+		}
+		return new Node<E>(b.item, b.priority, merge(a, b.left), b.right);
+	}
+
+	private static int size(Node<?> n) {
+		return n == null ? 0 : n.size;
+	}
+
+	private static void checkIndex(int index, int bound) {
+		if (index < 0 || index >= bound) {
+			throw new IndexOutOfBoundsException("Index: " + index);
+		}
+	}
+}
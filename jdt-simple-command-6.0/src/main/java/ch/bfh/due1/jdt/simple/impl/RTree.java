@@ -0,0 +1,505 @@
+/*
+ * Eric Dubuis, Berner Fachhochschule,
+ * Biel, Switzerland.
+ * Copyright (c) 2007
+ *
+ * Distributable under LGPL license.
+ * See terms of license at gnu.org.
+ */
+package ch.bfh.due1.jdt.simple.impl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A dynamic R-tree storing items together with axis-parallel rectangles. The
+ * tree follows Guttman's original proposal with the quadratic split
+ * algorithm. Rectangles are given by their inclusive minimum and maximum
+ * coordinates; thus, a rectangle may well have an extent of 0.
+ * <p>
+ * Each item can be stored at most once. Items are identified by means of
+ * their equals() and hashCode() methods.
+ * <p>
+ * Point and rectangle queries run in O(log n) for evenly distributed
+ * rectangles; insertions, removals, and updates run in O(log n) as well.
+ *
+ * @param <E>
+ *            the type of the items
+ * @author Eric Dubuis
+ */
+public class RTree<E> {
+	/** The maximum number of children of a node. */
+	private static final int MAX_ENTRIES = 16;
+
+	/** The minimum number of children of a node other than the root. */
+	private static final int MIN_ENTRIES = 6;
+
+	/**
+	 * An axis-parallel rectangle, the common base of nodes and entries.
+	 */
+	private static abstract class Rect {
+		int minX;
+		int minY;
+		int maxX;
+		int maxY;
+
+		final long area() {
+			return ((long) this.maxX - this.minX) * ((long) this.maxY - this.minY);
+		}
+
+		final long enlargedArea(Rect r) {
+			long w = (long) Math.max(this.maxX, r.maxX) - Math.min(this.minX, r.minX);
+			long h = (long) Math.max(this.maxY, r.maxY) - Math.min(this.minY, r.minY);
+			return w * h;
+		}
+
+		final boolean encloses(Rect r) {
+			return this.minX <= r.minX && this.minY <= r.minY
+					&& this.maxX >= r.maxX && this.maxY >= r.maxY;
+		}
+
+		final boolean contains(int x, int y) {
+			return this.minX <= x && x <= this.maxX && this.minY <= y
+					&& y <= this.maxY;
+		}
+
+		final boolean intersects(int x0, int y0, int x1, int y1) {
+			return this.minX <= x1 && x0 <= this.maxX && this.minY <= y1
+					&& y0 <= this.maxY;
+		}
+	}
+
+	/**
+	 * A leaf entry, i.e., a stored item and its rectangle.
+	 */
+	private static final class Entry<E> extends Rect {
+		final E item;
+
+		Node leaf;
+
+		Entry(E item) {
+			this.item = item;
+		}
+	}
+
+	/**
+	 * An inner or a leaf node. The children of a leaf node are entries; the
+	 * children of an inner node are nodes.
+	 */
+	private static final class Node extends Rect {
+		final boolean leaf;
+
+		Node parent;
+
+		/** One extra slot holds the overflowing child prior to a split. */
+		final Rect[] children = new Rect[MAX_ENTRIES + 1];
+
+		int size;
+
+		Node(boolean leaf) {
+			this.leaf = leaf;
+		}
+
+		void add(Rect r) {
+			this.children[this.size++] = r;
+			if (this.leaf) {
+				((Entry<?>) r).leaf = this;
+			} else {
+				((Node) r).parent = this;
+			}
+		}
+
+		void remove(Rect r) {
+			for (int i = 0; i < this.size; i++) {
+				if (this.children[i] == r) {
+					this.children[i] = this.children[--this.size];
+					this.children[this.size] = null;
+					return;
+				}
+			}
+		}
+
+		/**
+		 * Recomputes the rectangle of this node from its children.
+		 *
+		 * @return true if the rectangle has changed
+		 */
+		boolean refit() {
+			int x0 = Integer.MAX_VALUE;
+			int y0 = Integer.MAX_VALUE;
+			int x1 = Integer.MIN_VALUE;
+			int y1 = Integer.MIN_VALUE;
+			for (int i = 0; i < this.size; i++) {
+				Rect r = this.children[i];
+				x0 = Math.min(x0, r.minX);
+				y0 = Math.min(y0, r.minY);
+				x1 = Math.max(x1, r.maxX);
+				y1 = Math.max(y1, r.maxY);
+			}
+			boolean changed = x0 != this.minX || y0 != this.minY
+					|| x1 != this.maxX || y1 != this.maxY;
+			this.minX = x0;
+			this.minY = y0;
+			this.maxX = x1;
+			this.maxY = y1;
+			return changed;
+		}
+	}
+
+	/** The root node. */
+	private Node root = new Node(true);
+
+	/** The entries, by item. */
+	private Map<E, Entry<E>> entries = new HashMap<E, Entry<E>>();
+
+	/**
+	 * Returns the number of items stored in this tree.
+	 *
+	 * @return the number of items
+	 */
+	public int size() {
+		return this.entries.size();
+	}
+
+	/**
+	 * Tests whether the given item is stored in this tree.
+	 *
+	 * @param item
+	 *            the item
+	 * @return true if the item is stored, false otherwise
+	 */
+	public boolean contains(E item) {
+		return this.entries.containsKey(item);
+	}
+
+	/**
+	 * Stores the given item together with its rectangle. If the item is
+	 * already stored then its rectangle gets updated.
+	 *
+	 * @param item
+	 *            the item
+	 * @param minX
+	 *            the minimum X coordinate
+	 * @param minY
+	 *            the minimum Y coordinate
+	 * @param maxX
+	 *            the maximum X coordinate
+	 * @param maxY
+	 *            the maximum Y coordinate
+	 */
+	public void insert(E item, int minX, int minY, int maxX, int maxY) {
+		Entry<E> e = this.entries.get(item);
+		if (e != null) {
+			update(e, minX, minY, maxX, maxY);
+		} else {
+			e = new Entry<E>(item);
+			setBounds(e, minX, minY, maxX, maxY);
+			this.entries.put(item, e);
+			insert(e);
+		}
+	}
+
+	/**
+	 * Removes the given item from this tree.
+	 *
+	 * @param item
+	 *            the item
+	 * @return true if the item was stored, false otherwise
+	 */
+	public boolean remove(E item) {
+		Entry<E> e = this.entries.remove(item);
+		if (e == null) {
+			return false;
+		}
+		Node leaf = e.leaf;
+		leaf.remove(e);
+		e.leaf = null;
+		condense(leaf);
+		return true;
+	}
+
+	/**
+	 * Removes all items from this tree.
+	 */
+	public void clear() {
+		this.root = new Node(true);
+		this.entries.clear();
+	}
+
+	/**
+	 * Collects all items whose rectangles contain the given point.
+	 *
+	 * @param x
+	 *            the X coordinate
+	 * @param y
+	 *            the Y coordinate
+	 * @param result
+	 *            the collection receiving the items
+	 */
+	public void search(int x, int y, Collection<? super E> result) {
+		if (this.root.size > 0) {
+			search(this.root, x, y, result);
+		}
+	}
+
+	/**
+	 * Collects all items whose rectangles intersect the given rectangle.
+	 *
+	 * @param minX
+	 *            the minimum X coordinate
+	 * @param minY
+	 *            the minimum Y coordinate
+	 * @param maxX
+	 *            the maximum X coordinate
+	 * @param maxY
+	 *            the maximum Y coordinate
+	 * @param result
+	 *            the collection receiving the items
+	 */
+	public void search(int minX, int minY, int maxX, int maxY,
+			Collection<? super E> result) {
+		if (this.root.size > 0) {
+			search(this.root, minX, minY, maxX, maxY, result);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private void search(Node n, int x, int y, Collection<? super E> result) {
+		for (int i = 0; i < n.size; i++) {
+			Rect r = n.children[i];
+			if (r.contains(x, y)) {
+				if (n.leaf) {
+					result.add(((Entry<E>) r).item);
+				} else {
+					search((Node) r, x, y, result);
+				}
+			}
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private void search(Node n, int x0, int y0, int x1, int y1,
+			Collection<? super E> result) {
+		for (int i = 0; i < n.size; i++) {
+			Rect r = n.children[i];
+			if (r.intersects(x0, y0, x1, y1)) {
+				if (n.leaf) {
+					result.add(((Entry<E>) r).item);
+				} else {
+					search((Node) r, x0, y0, x1, y1, result);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Moves an entry to a new rectangle. If the new rectangle still lies
+	 * within the entry's leaf then the tree is refitted only; otherwise the
+	 * entry is reinserted.
+	 */
+	private void update(Entry<E> e, int minX, int minY, int maxX, int maxY) {
+		Node leaf = e.leaf;
+		setBounds(e, minX, minY, maxX, maxY);
+		if (leaf.encloses(e)) {
+			for (Node n = leaf; n != null && n.refit(); n = n.parent) {
+				// Tighten the rectangles up to the root.
+			}
+		} else {
+			leaf.remove(e);
+			condense(leaf);
+			insert(e);
+		}
+	}
+
+	private void insert(Entry<E> e) {
+		Node leaf = chooseLeaf(e);
+		leaf.add(e);
+		adjust(leaf);
+	}
+
+	/**
+	 * Descends from the root to the leaf needing the least enlargement for
+	 * the given rectangle.
+	 */
+	private Node chooseLeaf(Rect r) {
+		Node n = this.root;
+		while (!n.leaf) {
+			Rect best = null;
+			long bestEnlargement = Long.MAX_VALUE;
+			long bestArea = Long.MAX_VALUE;
+			for (int i = 0; i < n.size; i++) {
+				Rect c = n.children[i];
+				long area = c.area();
+				long enlargement = c.enlargedArea(r) - area;
+				if (enlargement < bestEnlargement
+						|| (enlargement == bestEnlargement && area < bestArea)) {
+					best = c;
+					bestEnlargement = enlargement;
+					bestArea = area;
+				}
+			}
+			n = (Node) best;
+		}
+		return n;
+	}
+
+	/**
+	 * Walks up from the given node to the root, splitting overflowing nodes
+	 * and refitting the rectangles.
+	 */
+	private void adjust(Node n) {
+		while (n != null) {
+			if (n.size > MAX_ENTRIES) {
+				Node sibling = split(n);
+				if (n == this.root) {
+					Node newRoot = new Node(false);
+					newRoot.add(n);
+					newRoot.add(sibling);
+					newRoot.refit();
+					this.root = newRoot;
+					return;
+				}
+				n.parent.add(sibling);
+			} else {
+				n.refit();
+			}
+			n = n.parent;
+		}
+	}
+
+	/**
+	 * Handles an underflow of the given node after a removal: underfull nodes
+	 * are detached, and the entries below them are reinserted.
+	 */
+	private void condense(Node n) {
+		List<Node> eliminated = new ArrayList<Node>();
+		while (n != this.root) {
+			Node parent = n.parent;
+			if (n.size < MIN_ENTRIES) {
+				parent.remove(n);
+				eliminated.add(n);
+			} else {
+				n.refit();
+			}
+			n = parent;
+		}
+		this.root.refit();
+		if (!this.root.leaf && this.root.size == 1) {
+			this.root = (Node) this.root.children[0];
+			this.root.parent = null;
+		} else if (!this.root.leaf && this.root.size == 0) {
+			this.root = new Node(true);
+		}
+		for (Node orphan : eliminated) {
+			reinsert(orphan);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private void reinsert(Node n) {
+		for (int i = 0; i < n.size; i++) {
+			if (n.leaf) {
+				insert((Entry<E>) n.children[i]);
+			} else {
+				reinsert((Node) n.children[i]);
+			}
+		}
+	}
+
+	/**
+	 * Splits an overflowing node by means of the quadratic split algorithm.
+	 * The given node keeps one group; the other group is returned as a new
+	 * node.
+	 */
+	private Node split(Node n) {
+		int count = n.size;
+		Rect[] rects = new Rect[count];
+		System.arraycopy(n.children, 0, rects, 0, count);
+		for (int i = 0; i < count; i++) {
+			n.children[i] = null;
+		}
+		n.size = 0;
+
+		// Pick the two seeds that would waste the most area if grouped.
+		int seed1 = 0;
+		int seed2 = 1;
+		long worst = Long.MIN_VALUE;
+		for (int i = 0; i < count - 1; i++) {
+			for (int j = i + 1; j < count; j++) {
+				long waste = rects[i].enlargedArea(rects[j]) - rects[i].area()
+						- rects[j].area();
+				if (waste > worst) {
+					worst = waste;
+					seed1 = i;
+					seed2 = j;
+				}
+			}
+		}
+
+		Node sibling = new Node(n.leaf);
+		n.add(rects[seed1]);
+		n.refit();
+		sibling.add(rects[seed2]);
+		sibling.refit();
+		rects[seed1] = null;
+		rects[seed2] = null;
+		int remaining = count - 2;
+
+		while (remaining > 0) {
+			if (n.size + remaining == MIN_ENTRIES
+					|| sibling.size + remaining == MIN_ENTRIES) {
+				Node target = n.size + remaining == MIN_ENTRIES ? n : sibling;
+				for (int i = 0; i < count; i++) {
+					if (rects[i] != null) {
+						target.add(rects[i]);
+						rects[i] = null;
+					}
+				}
+				target.refit();
+				break;
+			}
+			// Pick the rectangle with the strongest preference for a group.
+			int next = -1;
+			long maxDiff = -1;
+			long nextD1 = 0;
+			long nextD2 = 0;
+			for (int i = 0; i < count; i++) {
+				if (rects[i] != null) {
+					long d1 = n.enlargedArea(rects[i]) - n.area();
+					long d2 = sibling.enlargedArea(rects[i]) - sibling.area();
+					long diff = Math.abs(d1 - d2);
+					if (diff > maxDiff) {
+						maxDiff = diff;
+						next = i;
+						nextD1 = d1;
+						nextD2 = d2;
+					}
+				}
+			}
+			Node target;
+			if (nextD1 != nextD2) {
+				target = nextD1 < nextD2 ? n : sibling;
+			} else if (n.area() != sibling.area()) {
+				target = n.area() < sibling.area() ? n : sibling;
+			} else {
+				target = n.size <= sibling.size ? n : sibling;
+			}
+			target.add(rects[next]);
+			target.refit();
+			rects[next] = null;
+			remaining--;
+		}
+		return sibling;
+	}
+
+	private static void setBounds(Rect r, int minX, int minY, int maxX,
+			int maxY) {
+		r.minX = minX;
+		r.minY = minY;
+		r.maxX = maxX;
+		r.maxY = maxY;
+	}
+}
@@ -0,0 +1,214 @@
+/*
+ * Eric Dubuis, Berner Fachhochschule,
+ * Biel, Switzerland.
+ * Copyright (c) 2007
+ *
+ * Distributable under LGPL license.
+ * See terms of license at gnu.org.
+ */
+package ch.bfh.due1.jdt.simple.impl;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import ch.bfh.due1.jdt.framework.Shape;
+import ch.bfh.due1.jdt.framework.ShapeHandle;
+
+/**
+ * The selected shapes of a view, along the order of their selection, together
+ * with their handles. Adding, removing, and testing the membership of a shape
+ * run in O(1).
+ * <p>
+ * The shapes and the handles are also provided as read-only lists, see
+ * {@link #getShapes()} and {@link #getHandles()}. These lists are views: they
+ * reflect the later changes of the selection. Indexed access to the lists
+ * runs in O(1) once the lists have been read after a change.
+ *
+ * @author Eric Dubuis
+ */
+public class SelectionModel {
+	/**
+	 * The selected shapes and their handles.
+	 */
+	private Map<Shape, List<ShapeHandle>> selection = new LinkedHashMap<Shape, List<ShapeHandle>>();
+
+	/**
+	 * The number of handles of the selected shapes.
+	 */
+	private int handleCount = 0;
+
+	/**
+	 * The number of changes of the selection.
+	 */
+	private int modCount = 0;
+
+	/**
+	 * The selected shapes as a list.
+	 */
+	private final List<Shape> shapes = new ShapeList();
+
+	/**
+	 * The handles of the selected shapes as a list.
+	 */
+	private final List<ShapeHandle> handles = new HandleList();
+
+	/**
+	 * The list of the selected shapes.
+	 */
+	private class ShapeList extends AbstractList<Shape> {
+		private Shape[] cache;
+
+		private int cacheModCount = -1;
+
+		@Override
+		public Shape get(int index) {
+			if (this.cacheModCount != SelectionModel.this.modCount) {
+				this.cache = selection.keySet().toArray(new Shape[size()]);
+				this.cacheModCount = SelectionModel.this.modCount;
+			}
+			return this.cache[index];
+		}
+
+		@Override
+		public int size() {
+			return selection.size();
+		}
+
+		@Override
+		public boolean contains(Object o) {
+			return selection.containsKey(o);
+		}
+
+		@Override
+		public Iterator<Shape> iterator() {
+			return Collections.unmodifiableSet(selection.keySet()).iterator();
+		}
+	}
+
+	/**
+	 * The list of the handles of the selected shapes.
+	 */
+	private class HandleList extends AbstractList<ShapeHandle> {
+		private List<ShapeHandle> cache;
+
+		private int cacheModCount = -1;
+
+		@Override
+		public ShapeHandle get(int index) {
+			if (this.cacheModCount != SelectionModel.this.modCount) {
+				this.cache = new ArrayList<ShapeHandle>(handleCount);
+				for (List<ShapeHandle> l : selection.values()) {
+					this.cache.addAll(l);
+				}
+				this.cacheModCount = SelectionModel.this.modCount;
+			}
+			return this.cache.get(index);
+		}
+
+		@Override
+		public int size() {
+			return handleCount;
+		}
+	}
+
+	/**
+	 * Adds the given shape and its handles to the selection.
+	 *
+	 * @param s
+	 *            a shape
+	 * @return true if the shape was not selected yet
+	 */
+	public boolean add(Shape s) {
+		if (this.selection.containsKey(s)) {
+			return false;
+		}
+		List<ShapeHandle> hList = s.getShapeHandles();
+		if (hList == null) {
+			hList = Collections.emptyList();
+		}
+		this.selection.put(s, hList);
+		this.handleCount += hList.size();
+		this.modCount++;
+		return true;
+	}
+
+	/**
+	 * Removes the given shape and its handles from the selection.
+	 *
+	 * @param s
+	 *            a shape
+	 * @return true if the shape was selected
+	 */
+	public boolean remove(Shape s) {
+		List<ShapeHandle> hList = this.selection.remove(s);
+		if (hList == null) {
+			return false;
+		}
+		this.handleCount -= hList.size();
+		this.modCount++;
+		return true;
+	}
+
+	/**
+	 * Returns true if the given shape is selected.
+	 *
+	 * @param s
+	 *            a shape
+	 * @return true if the shape is selected
+	 */
+	public boolean contains(Shape s) {
+		return this.selection.containsKey(s);
+	}
+
+	/**
+	 * Returns true if no shape is selected.
+	 *
+	 * @return true if the selection is empty
+	 */
+	public boolean isEmpty() {
+		return this.selection.isEmpty();
+	}
+
+	/**
+	 * Removes all shapes from the selection.
+	 */
+	public void clear() {
+		this.selection.clear();
+		this.handleCount = 0;
+		this.modCount++;
+	}
+
+	/**
+	 * Returns the handles of the given shape, if selected.
+	 *
+	 * @param s
+	 *            a shape
+	 * @return the handles of the shape, or null if the shape is not selected
+	 */
+	public List<ShapeHandle> getHandles(Shape s) {
+		return this.selection.get(s);
+	}
+
+	/**
+	 * Returns the selected shapes along the order of their selection.
+	 *
+	 * @return a read-only view of the selected shapes
+	 */
+	public List<Shape> getShapes() {
+		return this.shapes;
+	}
+
+	/**
+	 * Returns the handles of the selected shapes.
+	 *
+	 * @return a read-only view of the handles of the selected shapes
+	 */
+	public List<ShapeHandle> getHandles() {
+		return this.handles;
+	}
+}
@@ -9,16 +9,25 @@
 package ch.bfh.due1.jdt.simple.impl;
 
 import java.awt.Graphics;
+import java.awt.Rectangle;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
-import java.util.LinkedList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.WeakHashMap;
 
 
 import org.apache.log4j.Logger;
 
+import ch.bfh.due1.jdt.framework.AbstractShape;
+import ch.bfh.due1.jdt.framework.BoundingBox;
 import ch.bfh.due1.jdt.framework.Memento;
 import ch.bfh.due1.jdt.framework.Shape;
 import ch.bfh.due1.jdt.framework.ShapeChangedEvent;
@@ -30,15 +39,75 @@ import ch.bfh.due1.jdt.framework.SheetChangedListener;
 /**
  * A first-cut implementation of a model of a sheet. A sheet manages zero or
  * more shapes represented by Shape objects.
+ * <p>
+ * The shapes are kept along their stacking order in an order-statistic list.
+ * Thus, adding and removing a shape, finding its stacking index, and moving
+ * it to another stacking index take O(log n).
+ * <p>
+ * Within a batch of changes, see {@link #beginBatch()}, the sheet collects
+ * the affected shapes and the union of their dirty areas, and notifies its
+ * listeners by a single event when the outermost batch is committed.
+ * <p>
+ * Mementos of a sheet are snapshots sharing their structure with the sheet:
+ * the stacking order is kept in a {@link PersistentList}, and the states of
+ * the shapes, i.e., their mementos, in a {@link PersistentIntMap}. Once the
+ * first memento has been created, which takes O(n), the sheet maintains the
+ * stacking order in O(log n) per change and records the state of the shapes
+ * changed since the previous memento when creating the next one. Hence, a
+ * memento costs O(1) plus O(log n) per changed shape. Restoring a memento
+ * sets the state of the shapes whose state differs only, and re-orders the
+ * shapes if the stacking order differs.
  * 
  * @author Eric Dubuis
  */
 public class SimpleSheet implements Sheet {
+	/**
+	 * The state of a shape as recorded by a memento of the sheet.
+	 */
+	private static final class ShapeState implements Serializable {
+		private static final long serialVersionUID = -1739104622630848573L;
+
+		/** The shape. */
+		private final Shape shape;
+
+		/** The memento of the shape. */
+		private final Memento state;
+
+		private ShapeState(Shape shape, Memento state) {
+			this.shape = shape;
+			this.state = state;
+		}
+	}
+
+	/**
+	 * A memento of a sheet. It refers to the shapes of the sheet, hence, it
+	 * can be serialized along with them only.
+	 */
+	private static final class SheetMemento implements Memento {
+		private static final long serialVersionUID = 6935104869183617292L;
+
+		/** The sheet. */
+		private final SimpleSheet sheet;
+
+		/** The stacking order. */
+		private final PersistentList<Shape> order;
+
+		/** The states of the shapes by their identifiers. */
+		private final PersistentIntMap<ShapeState> states;
+
+		private SheetMemento(SimpleSheet sheet, PersistentList<Shape> order,
+				PersistentIntMap<ShapeState> states) {
+			this.sheet = sheet;
+			this.order = order;
+			this.states = states;
+		}
+	}
+
 	/** The logger. */
 	private Logger log = Logger.getLogger(SimpleSheet.class);
 
 	/** The list of shapes of this sheet. */
-	private List<Shape> shapes = new LinkedList<Shape>();
+	private OrderStatisticList<Shape> shapes = new OrderStatisticList<Shape>();
 
 	/** My shape listener. */
 	private ShapeChangedListener myShapeListener;
@@ -46,6 +115,43 @@ public class SimpleSheet implements Sheet {
 	/** The listeners for me. */
 	private Set<SheetChangedListener> sheetChangedListeners = new HashSet<SheetChangedListener>();
 
+	/** The nesting depth of the current batch, 0 if no batch is open. */
+	private int batchDepth = 0;
+
+	/** The shapes affected by the current batch. */
+	private Set<Shape> batchShapes = new LinkedHashSet<Shape>();
+
+	/** The combined dirty area of the current batch, or null. */
+	private BoundingBox batchArea;
+
+	/** True if the dirty area of some change of the current batch is unknown. */
+	private boolean batchAreaUnknown = false;
+
+	/** True once a memento has been created. */
+	private boolean snapshots = false;
+
+	/** The stacking order, maintained once a memento has been created. */
+	private PersistentList<Shape> order = PersistentList.empty();
+
+	/** The states of the shapes as of the last memento created or set. */
+	private PersistentIntMap<ShapeState> states = PersistentIntMap.empty();
+
+	/** The shapes added, removed, or changed since the last memento. */
+	private Set<Shape> changedShapes = Collections
+			.newSetFromMap(new IdentityHashMap<Shape, Boolean>());
+
+	/** The identifiers of the shapes within the mementos. */
+	private Map<Shape, Integer> shapeIds = new WeakHashMap<Shape, Integer>();
+
+	/** The last identifier given to a shape. */
+	private int lastShapeId = -1;
+
+	/** True while a memento is being set. */
+	private boolean restoring = false;
+
+	/** The number of shapes drawn by the last call of draw(). */
+	private int drawnShapeCount = 0;
+
 	/**
 	 * Creates a sheet. Creates a shape changed listener that can be registered
 	 * with a shape.
@@ -56,22 +162,37 @@ public class SimpleSheet implements Sheet {
 
 			@Override
 			public void shapeChanged(ShapeChangedEvent e) {
-				log.debug("Shape changed: " + e.getShape());
+				if (log.isDebugEnabled()) {
+					log.debug("Shape changed: " + e.getShape());
+				}
+				if (SimpleSheet.this.snapshots && !SimpleSheet.this.restoring) {
+					SimpleSheet.this.changedShapes.add(e.getShape());
+				}
+				SimpleSheet.this.shapeChanged(e.getShape());
 				// So far, for each shape that sends us an event we notify our
 				// sheet listeners.
-				notifySheetChangedListeners();
+				notifySheetChangedListeners(e.getShape(), e.getDirtyArea());
 			}
 		};
 	}
 
 	/**
-	 * @inheritDoc
+	 * Adds a shape on top of the other shapes of this sheet.
+	 * 
+	 * @throws IllegalArgumentException
+	 *             if the shape has been added already
+	 * @see ch.bfh.due1.jdt.framework.Sheet#addShape(ch.bfh.due1.jdt.framework.Shape)
 	 */
 	@Override
 	public void addShape(Shape s) {
-		s.addShapeChangedListener(this.myShapeListener);
 		this.shapes.add(s);
-		notifySheetChangedListeners();
+		s.addShapeChangedListener(this.myShapeListener);
+		if (this.snapshots) {
+			this.order = this.order.insert(this.order.size(), s);
+			this.changedShapes.add(s);
+		}
+		shapeAdded(s);
+		notifySheetChangedListeners(s, s.getBoundingBox());
 	}
 
 	/**
@@ -80,8 +201,16 @@ public class SimpleSheet implements Sheet {
 	@Override
 	public boolean removeShape(Shape s) {
 		s.removeShapeChangedListener(this.myShapeListener);
+		int index = this.snapshots ? this.shapes.indexOf(s) : -1;
 		boolean rval = this.shapes.remove(s);
-		notifySheetChangedListeners();
+		if (rval) {
+			if (this.snapshots) {
+				this.order = this.order.remove(index);
+				this.changedShapes.add(s);
+			}
+			shapeRemoved(s);
+		}
+		notifySheetChangedListeners(s, s.getBoundingBox());
 		return rval;
 	}
 
@@ -94,26 +223,152 @@ public class SimpleSheet implements Sheet {
 	}
 
 	/**
-	 * @inheritDoc
+	 * Returns the given shapes of this sheet along the stacking order. Takes
+	 * O(k log n) for k given shapes.
+	 * 
+	 * @see ch.bfh.due1.jdt.framework.Sheet#getShapesByStackingOrder(java.util.Collection)
 	 */
 	@Override
 	public List<Shape> getShapesByStackingOrder(Collection<Shape> shapes) {
-		List<Shape> sublist = new LinkedList<Shape>();
-		for (Shape s: this.shapes) {
-			if (shapes.contains(s)) {
-				sublist.add(s);
+		// Sort the positions of the given shapes by their stacking index,
+		// both packed into one long.
+		Shape[] given = shapes.toArray(new Shape[shapes.size()]);
+		long[] keys = new long[given.length];
+		int n = 0;
+		for (int i = 0; i < given.length; i++) {
+			int index = this.shapes.indexOf(given[i]);
+			if (index >= 0) {
+				keys[n++] = ((long) index << 32) | i;
+			}
+		}
+		Arrays.sort(keys, 0, n);
+		List<Shape> sublist = new ArrayList<Shape>(n);
+		long previous = -1;
+		for (int i = 0; i < n; i++) {
+			// Skip duplicates of the given collection.
+			if (keys[i] >>> 32 != previous) {
+				previous = keys[i] >>> 32;
+				sublist.add(given[(int) keys[i]]);
 			}
 		}
 		return sublist;
 	}
 
 	/**
-	 * @inheritDoc
+	 * Returns the stacking index of the given shape in O(log n).
+	 * 
+	 * @see ch.bfh.due1.jdt.framework.Sheet#getStackingIndex(ch.bfh.due1.jdt.framework.Shape)
+	 */
+	@Override
+	public int getStackingIndex(Shape s) {
+		return this.shapes.indexOf(s);
+	}
+
+	/**
+	 * Moves the given shape to the given stacking index in O(log n).
+	 * 
+	 * @see ch.bfh.due1.jdt.framework.Sheet#setStackingIndex(ch.bfh.due1.jdt.framework.Shape,
+	 *      int)
+	 */
+	@Override
+	public void setStackingIndex(Shape s, int index) {
+		if (!this.shapes.contains(s)) {
+			throw new IllegalArgumentException("Shape not on sheet: " + s);
+		}
+		if (index < 0 || index >= this.shapes.size()) {
+			throw new IllegalArgumentException("Illegal stacking index: "
+					+ index);
+		}
+		int oldIndex = this.shapes.indexOf(s);
+		if (oldIndex != index) {
+			this.shapes.move(s, index);
+			if (this.snapshots) {
+				this.order = this.order.remove(oldIndex).insert(index, s);
+			}
+			notifySheetChangedListeners(s, s.getBoundingBox());
+		}
+	}
+
+	/**
+	 * Draws the shapes intersecting the clip bounds of the given graphics
+	 * context. Shapes outside the clip bounds are skipped.
+	 * 
+	 * @see ch.bfh.due1.jdt.framework.Sheet#draw(java.awt.Graphics)
 	 */
 	@Override
 	public void draw(Graphics g) {
-		for (Shape s : this.shapes) {
-			s.draw(g);
+		Rectangle clip = g.getClipBounds();
+		int drawn = 0;
+		if (clip == null) {
+			for (Shape s : this.shapes) {
+				s.draw(g);
+			}
+			drawn = this.shapes.size();
+		} else {
+			BoundingBox area = new BoundingBox(clip.x
+					- AbstractShape.DRAWING_MARGIN, clip.y
+					- AbstractShape.DRAWING_MARGIN, clip.width + 2
+					* AbstractShape.DRAWING_MARGIN, clip.height + 2
+					* AbstractShape.DRAWING_MARGIN);
+			for (Shape s : this.shapes) {
+				BoundingBox b = s.getBoundingBox();
+				if (b == null || area.intersects(b)) {
+					s.draw(g);
+					drawn++;
+				}
+			}
+		}
+		this.drawnShapeCount = drawn;
+	}
+
+	/**
+	 * @inheritDoc
+	 * 
+	 * @see ch.bfh.due1.jdt.framework.Sheet#getDrawnShapeCount()
+	 */
+	@Override
+	public int getDrawnShapeCount() {
+		return this.drawnShapeCount;
+	}
+
+	/**
+	 * Sets the number of shapes drawn, for subclasses drawing the shapes by
+	 * themselves.
+	 * 
+	 * @param count
+	 *            the number of shapes drawn by the last call of draw()
+	 */
+	protected void setDrawnShapeCount(int count) {
+		this.drawnShapeCount = count;
+	}
+
+	/**
+	 * @inheritDoc
+	 */
+	@Override
+	public void beginBatch() {
+		this.batchDepth++;
+	}
+
+	/**
+	 * @inheritDoc
+	 * 
+	 * @throws IllegalStateException
+	 *             if no batch has been begun
+	 */
+	@Override
+	public void commitBatch() {
+		if (this.batchDepth == 0) {
+			throw new IllegalStateException("No batch has been begun.");
+		}
+		this.batchDepth--;
+		if (this.batchDepth == 0 && !this.batchShapes.isEmpty()) {
+			Set<Shape> affected = this.batchShapes;
+			BoundingBox area = this.batchAreaUnknown ? null : this.batchArea;
+			this.batchShapes = new LinkedHashSet<Shape>();
+			this.batchArea = null;
+			this.batchAreaUnknown = false;
+			fireSheetChanged(new SheetChangedEvent(this, affected, area));
 		}
 	}
 
@@ -140,7 +395,13 @@ public class SimpleSheet implements Sheet {
 	 */
 	@Override
 	public Memento createMemento() {
-		throw new UnsupportedOperationException("Method not yet implemented");
+		if (!this.snapshots) {
+			this.snapshots = true;
+			this.order = PersistentList.of(this.shapes);
+			this.changedShapes.addAll(this.shapes);
+		}
+		recordChangedShapes();
+		return new SheetMemento(this, this.order, this.states);
 	}
 
 	/**
@@ -150,7 +411,59 @@ public class SimpleSheet implements Sheet {
 	 */
 	@Override
 	public void setMemento(Memento m) {
-		throw new UnsupportedOperationException("Method not yet implemented");
+		if (!(m instanceof SheetMemento) || ((SheetMemento) m).sheet != this) {
+			throw new IllegalArgumentException("Not a memento of this sheet: "
+					+ m);
+		}
+		SheetMemento target = (SheetMemento) m;
+		recordChangedShapes();
+		if (target.order == this.order && target.states == this.states) {
+			return;
+		}
+		final List<Shape> removed = new ArrayList<Shape>();
+		final List<ShapeState> changed = new ArrayList<ShapeState>();
+		PersistentIntMap.diff(this.states, target.states,
+				new PersistentIntMap.Visitor<ShapeState>() {
+					@Override
+					public void visit(int key, ShapeState before,
+							ShapeState after) {
+						if (after == null) {
+							removed.add(before.shape);
+						} else {
+							changed.add(after);
+						}
+					}
+				});
+		this.restoring = true;
+		beginBatch();
+		try {
+			for (Shape s : removed) {
+				s.removeShapeChangedListener(this.myShapeListener);
+				this.shapes.remove(s);
+				shapeRemoved(s);
+				notifySheetChangedListeners(s, s.getBoundingBox());
+			}
+			// Set the state of the shapes not on the sheet before adding them.
+			for (ShapeState st : changed) {
+				if (!this.shapes.contains(st.shape)) {
+					st.shape.setMemento(st.state);
+				}
+			}
+			if (target.order != this.order) {
+				reorder(target.order);
+			}
+			// Shapes on the sheet notify us when their state is set.
+			for (ShapeState st : changed) {
+				if (this.shapes.contains(st.shape)) {
+					st.shape.setMemento(st.state);
+				}
+			}
+			this.order = target.order;
+			this.states = target.states;
+		} finally {
+			this.restoring = false;
+			commitBatch();
+		}
 	}
 
 	/**
@@ -163,11 +476,161 @@ public class SimpleSheet implements Sheet {
 		return this.getClass().getName();
 	}
 
+	/**
+	 * Called after the given shape has been added to this sheet, but before
+	 * the sheet listeners are notified. Subclasses may override this method,
+	 * e.g., for maintaining an index. The default implementation does nothing.
+	 * 
+	 * @param s
+	 *            the added shape
+	 */
+	protected void shapeAdded(Shape s) {
+		// Intentionally left empty.
+	}
+
+	/**
+	 * Called after the given shape has been removed from this sheet, but
+	 * before the sheet listeners are notified. The default implementation
+	 * does nothing.
+	 * 
+	 * @param s
+	 *            the removed shape
+	 */
+	protected void shapeRemoved(Shape s) {
+		// Intentionally left empty.
+	}
+
+	/**
+	 * Called whenever a shape of this sheet has changed its state, but before
+	 * the sheet listeners are notified. The default implementation does
+	 * nothing.
+	 * 
+	 * @param s
+	 *            the changed shape
+	 */
+	protected void shapeChanged(Shape s) {
+		// Intentionally left empty.
+	}
+
+	/**
+	 * Puts the shapes along the given stacking order, adding the shapes not
+	 * yet on this sheet. Moves as few shapes as possible: the shapes of a
+	 * longest sequence of shapes already in the given relative order stay,
+	 * the others are removed and inserted again. Takes O(n log n).
+	 * 
+	 * @param target
+	 *            the stacking order, containing all shapes of this sheet
+	 */
+	private void reorder(PersistentList<Shape> target) {
+		Map<Shape, Integer> targetIndexes = new IdentityHashMap<Shape, Integer>(
+				target.size());
+		int i = 0;
+		for (Shape s : target) {
+			targetIndexes.put(s, i++);
+		}
+		// Find a longest increasing sequence of the target indexes along the
+		// current order by patience sorting.
+		int n = this.shapes.size();
+		Shape[] current = this.shapes.toArray(new Shape[n]);
+		int[] tails = new int[n];
+		int[] previous = new int[n];
+		int length = 0;
+		for (int k = 0; k < n; k++) {
+			int t = targetIndexes.get(current[k]);
+			int lo = 0;
+			int hi = length;
+			while (lo < hi) {
+				int mid = (lo + hi) >>> 1;
+				if (targetIndexes.get(current[tails[mid]]) < t) {
+					lo = mid + 1;
+				} else {
+					hi = mid;
+				}
+			}
+			previous[k] = lo > 0 ? tails[lo - 1] : -1;
+			tails[lo] = k;
+			if (lo == length) {
+				length++;
+			}
+		}
+		boolean[] stays = new boolean[n];
+		for (int k = length > 0 ? tails[length - 1] : -1; k >= 0; k = previous[k]) {
+			stays[k] = true;
+		}
+		Set<Shape> moved = Collections
+				.newSetFromMap(new IdentityHashMap<Shape, Boolean>());
+		for (int k = 0; k < n; k++) {
+			if (!stays[k]) {
+				moved.add(current[k]);
+				this.shapes.remove(current[k]);
+			}
+		}
+		i = 0;
+		for (Shape s : target) {
+			if (i >= this.shapes.size() || this.shapes.get(i) != s) {
+				this.shapes.add(i, s);
+				if (!moved.contains(s)) {
+					s.addShapeChangedListener(this.myShapeListener);
+					shapeAdded(s);
+				}
+				notifySheetChangedListeners(s, s.getBoundingBox());
+			}
+			i++;
+		}
+	}
+
+	/**
+	 * Records the state of the shapes changed since the last memento.
+	 */
+	private void recordChangedShapes() {
+		for (Shape s : this.changedShapes) {
+			Integer id = this.shapeIds.get(s);
+			if (id == null) {
+				id = ++this.lastShapeId;
+				this.shapeIds.put(s, id);
+			}
+			if (this.shapes.contains(s)) {
+				this.states = this.states.with(id, new ShapeState(s, s
+						.createMemento()));
+			} else {
+				this.states = this.states.without(id);
+			}
+		}
+		this.changedShapes.clear();
+	}
+
+	/**
+	 * Notifies in turn each of the registered listeners, or, within a batch,
+	 * merges the change into the batch.
+	 * 
+	 * @param s
+	 *            the affected shape
+	 * @param dirtyArea
+	 *            the area affected by the change, or null if unknown
+	 */
+	private void notifySheetChangedListeners(Shape s, BoundingBox dirtyArea) {
+		if (this.batchDepth > 0) {
+			this.batchShapes.add(s);
+			if (dirtyArea == null) {
+				this.batchAreaUnknown = true;
+			} else if (this.batchArea == null) {
+				this.batchArea = dirtyArea;
+			} else {
+				this.batchArea = this.batchArea.union(dirtyArea);
+			}
+		} else {
+			fireSheetChanged(new SheetChangedEvent(this, Collections
+					.singleton(s), dirtyArea));
+		}
+	}
+
 	/**
 	 * Notifies in turn each of the registered listeners.
+	 * 
+	 * @param e
+	 *            the event
 	 */
-	private void notifySheetChangedListeners() {
-		SheetChangedEvent e = new SheetChangedEvent(this);
+	private void fireSheetChanged(SheetChangedEvent e) {
 		for (SheetChangedListener l : this.sheetChangedListeners) {
 			l.sheetChanged(e);
 		}
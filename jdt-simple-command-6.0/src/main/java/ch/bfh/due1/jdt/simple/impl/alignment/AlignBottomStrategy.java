@@ -48,7 +48,8 @@ public class AlignBottomStrategy implements AlignStrategy {
 			Rectangle r = reference.getBoundingBox().getAWTRectangle();
 			int yBottom = r.y + r.height;
 			logger.debug("Align to bottom: " + yBottom);
-			Command mc = new ch.bfh.sed.commandpattern.command.MacroCommand();
+			Command mc = new ch.bfh.sed.commandpattern.command.MacroCommand(
+					tool.getEditor());
 			for (int i = 1; i < selectedShapes.size(); i++) {
 				Command c = alignShape(yBottom, selectedShapes.get(i));
 				mc.addCommand(c);
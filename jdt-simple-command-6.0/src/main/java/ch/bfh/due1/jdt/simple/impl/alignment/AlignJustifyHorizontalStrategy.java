@@ -47,7 +47,8 @@ public class AlignJustifyHorizontalStrategy implements AlignStrategy {
 			Rectangle r = reference.getBoundingBox().getAWTRectangle();
 			int yCenter = r.y + (r.height / 2);
 			logger.debug("Align to center: " + yCenter);
-			Command mc = new ch.bfh.sed.commandpattern.command.MacroCommand();
+			Command mc = new ch.bfh.sed.commandpattern.command.MacroCommand(
+					tool.getEditor());
 			for (int i = 1; i < selectedShapes.size(); i++) {
 				Command c = alignShape(yCenter, selectedShapes.get(i));
 				mc.addCommand(c);
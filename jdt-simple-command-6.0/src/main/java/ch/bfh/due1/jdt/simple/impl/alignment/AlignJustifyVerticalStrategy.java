@@ -47,7 +47,8 @@ public class AlignJustifyVerticalStrategy implements AlignStrategy {
 			Rectangle r = reference.getBoundingBox().getAWTRectangle();
 			int xCenter = r.x + (r.width / 2);
 			logger.debug("Align to center: " + xCenter);
-			Command mc = new ch.bfh.sed.commandpattern.command.MacroCommand();
+			Command mc = new ch.bfh.sed.commandpattern.command.MacroCommand(
+					tool.getEditor());
 			for (int i = 1; i < selectedShapes.size(); i++) {
 				Command c = alignShape(xCenter, selectedShapes.get(i));
 				mc.addCommand(c);
@@ -48,7 +48,8 @@ public class AlignLeftStrategy implements AlignStrategy {
 			Rectangle r = reference.getBoundingBox().getAWTRectangle();
 			int xLeft = r.x;
 			logger.debug("Align to left: " + xLeft);
-			Command mc = new ch.bfh.sed.commandpattern.command.MacroCommand();
+			Command mc = new ch.bfh.sed.commandpattern.command.MacroCommand(
+					tool.getEditor());
 			for (int i = 1; i < selectedShapes.size(); i++) {
 				Command c = alignShape(xLeft, selectedShapes.get(i));
 				mc.addCommand(c);
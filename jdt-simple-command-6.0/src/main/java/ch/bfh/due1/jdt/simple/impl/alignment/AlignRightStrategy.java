@@ -48,7 +48,8 @@ public class AlignRightStrategy implements AlignStrategy {
 			Rectangle r = reference.getBoundingBox().getAWTRectangle();
 			int xRight = r.x + r.width;
 			logger.debug("Align to right: " + xRight);
-			Command mc = new ch.bfh.sed.commandpattern.command.MacroCommand();
+			Command mc = new ch.bfh.sed.commandpattern.command.MacroCommand(
+					tool.getEditor());
 			for (int i = 1; i < selectedShapes.size(); i++) {
 				Command c = alignShape(xRight, selectedShapes.get(i));
 				mc.addCommand(c);
@@ -48,7 +48,8 @@ public class AlignTopStrategy implements AlignStrategy {
 			Rectangle r = reference.getBoundingBox().getAWTRectangle();
 			int yTop = r.y;
 			logger.debug("Align to top: " + yTop);
-			Command mc = new ch.bfh.sed.commandpattern.command.MacroCommand();
+			Command mc = new ch.bfh.sed.commandpattern.command.MacroCommand(
+					tool.getEditor());
 			for (int i = 1; i < selectedShapes.size(); i++) {
 				Command c = alignShape(yTop, selectedShapes.get(i));
 				mc.addCommand(c);
@@ -21,6 +21,10 @@ import ch.bfh.due1.jdt.framework.Shape;
  * clip board. This command does not support the undo() method, i.e., the undo()
  * method is empty.
  * <p>
+ * The clip board gets a clone of the shape, i.e., the state of the shape when
+ * copied. Cloning a group copies none of its children: the clone refers to
+ * them along with their mementos, and copies them when it is pasted first.
+ * <p>
  * To support a list of shapes to be copied, use a macro command, and
  * put a copy command for each individual shape into the macro command.
  * 
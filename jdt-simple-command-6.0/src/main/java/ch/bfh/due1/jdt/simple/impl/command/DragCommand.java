@@ -9,6 +9,7 @@
 package ch.bfh.due1.jdt.simple.impl.command;
 
 import ch.bfh.due1.jdt.framework.AbstractCommand;
+import ch.bfh.due1.jdt.framework.Command;
 import ch.bfh.due1.jdt.framework.Coord;
 import ch.bfh.due1.jdt.framework.KeyModifier;
 import ch.bfh.due1.jdt.framework.ShapeHandle;
@@ -79,4 +80,37 @@ public class DragCommand extends AbstractCommand {
 	public void undo() {
 		h.dragInteraction(origin, k);
 	}
+
+	/**
+	 * Tells whether the given command is a drag of the same handle of the
+	 * same shape, with the same key modifier. Handles are compared by their
+	 * kind and owner since a shape may create new handles when selected
+	 * again.
+	 *
+	 * @see ch.bfh.due1.jdt.framework.Command#canCoalesceWith(ch.bfh.due1.jdt.framework.Command)
+	 */
+	@Override
+	public boolean canCoalesceWith(Command cmd) {
+		if (!(cmd instanceof DragCommand)) {
+			return false;
+		}
+		DragCommand other = (DragCommand) cmd;
+		return other.h.getClass() == h.getClass()
+				&& other.h.getOwner() == h.getOwner() && other.k == k;
+	}
+
+	/**
+	 * Takes the final position of the given drag as the final position of
+	 * this drag.
+	 *
+	 * @see ch.bfh.due1.jdt.framework.Command#coalesceWith(ch.bfh.due1.jdt.framework.Command)
+	 */
+	@Override
+	public void coalesceWith(Command cmd) {
+		if (!canCoalesceWith(cmd)) {
+			throw new UnsupportedOperationException(
+					"Not a drag of the same handle: " + cmd);
+		}
+		c = ((DragCommand) cmd).c;
+	}
 }
@@ -0,0 +1,77 @@
+/*
+ * Eric Dubuis, Berner Fachhochschule,
+ * Biel, Switzerland.
+ * Copyright (c) 2007
+ *
+ * Distributable under LGPL license.
+ * See terms of license at gnu.org.
+ */
+package ch.bfh.due1.jdt.simple.impl.command;
+
+import ch.bfh.due1.jdt.framework.AbstractCommand;
+import ch.bfh.due1.jdt.framework.Shape;
+import ch.bfh.due1.jdt.framework.View;
+
+
+/**
+ * This command moves a shape of the current view's sheet to another stacking
+ * index. The former stacking index is recorded when the command is executed.
+ * <p>
+ * To reorder several shapes, use a macro command, and put a stacking order
+ * command for each individual shape into the macro command.
+ * 
+ * @see ch.bfh.due1.jdt.framework.Sheet#setStackingIndex(Shape, int)
+ * @author Eric Dubuis
+ */
+public class StackingOrderCommand extends AbstractCommand {
+	/** The associated view. */
+	private View view;
+
+	/** The shape being reordered. */
+	private Shape shape;
+
+	/** The new stacking index of the shape. */
+	private int newIndex;
+
+	/** The former stacking index of the shape. */
+	private int oldIndex = -1;
+
+	/**
+	 * Constructs an instance which moves the given shape to the given
+	 * stacking index.
+	 * 
+	 * @param view
+	 *            the current view
+	 * @param shape
+	 *            a shape of the view's sheet
+	 * @param newIndex
+	 *            the new stacking index
+	 */
+	public StackingOrderCommand(View view, Shape shape, int newIndex) {
+		this.view = view;
+		this.shape = shape;
+		this.newIndex = newIndex;
+	}
+
+	/**
+	 * Records the current stacking index of the shape and moves the shape to
+	 * the new one.
+	 * 
+	 * @see ch.bfh.due1.jdt.framework.Command#execute()
+	 */
+	@Override
+	public void execute() {
+		this.oldIndex = this.view.getStackingIndex(this.shape);
+		this.view.setStackingIndex(this.shape, this.newIndex);
+	}
+
+	/**
+	 * Moves the shape back to its former stacking index.
+	 * 
+	 * @see ch.bfh.due1.jdt.framework.Command#undo()
+	 */
+	@Override
+	public void undo() {
+		this.view.setStackingIndex(this.shape, this.oldIndex);
+	}
+}
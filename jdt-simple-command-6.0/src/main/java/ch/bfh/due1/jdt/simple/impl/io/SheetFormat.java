@@ -0,0 +1,379 @@
+/*
+ * Eric Dubuis, Berner Fachhochschule,
+ * Biel, Switzerland.
+ * Copyright (c) 2007
+ *
+ * Distributable under LGPL license.
+ * See terms of license at gnu.org.
+ */
+package ch.bfh.due1.jdt.simple.impl.io;
+
+import java.awt.Color;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.log4j.Logger;
+
+import ch.bfh.due1.jdt.framework.AbstractShape;
+import ch.bfh.due1.jdt.framework.BoundingBox;
+import ch.bfh.due1.jdt.framework.RenderingResources;
+import ch.bfh.due1.jdt.framework.Shape;
+import ch.bfh.due1.jdt.simple.impl.CompactSheet;
+import ch.bfh.due1.jdt.simple.impl.shape.ShapeGroup;
+import ch.bfh.due1.jdt.simple.impl.shape.SimpleBox;
+import ch.bfh.due1.jdt.simple.impl.shape.SimpleEllipse;
+import ch.bfh.due1.jdt.simple.impl.shape.SimpleLine;
+
+/**
+ * The binary file format of the content of a sheet. A file is written as a
+ * stream and read from a memory-mapped buffer, without any object
+ * serialization.
+ * <p>
+ * All numbers are big-endian. A file starts with the header:
+ * <ul>
+ * <li>the magic number {@link #MAGIC} (int),</li>
+ * <li>the format version {@link #VERSION} (short),</li>
+ * <li>reserved flags, currently 0 (short),</li>
+ * <li>the number of shapes on the sheet (int).</li>
+ * </ul>
+ * The header is followed by the shapes along their stacking order. Each
+ * shape starts with its kind (byte). Boxes, ellipses, and lines continue with
+ * the origin, the width, and the height of their bounding box (4 ints), their
+ * pen color and fill color as ARGB values (2 ints, where a missing color is
+ * written as 0, i.e., transparent), and their pen size (short), making 27
+ * bytes per shape. Groups continue with the number of their children (int),
+ * followed by the children.
+ * <p>
+ * A group read from a file takes the current sizes of its children as their
+ * original sizes.
+ *
+ * @author Eric Dubuis
+ */
+public final class SheetFormat {
+	/** The magic number of sheet files, "JDTS". */
+	public static final int MAGIC = 0x4a445453;
+
+	/** The current version of the format. */
+	public static final short VERSION = 1;
+
+	/** The kind of a box. */
+	static final byte BOX = 1;
+
+	/** The kind of an ellipse. */
+	static final byte ELLIPSE = 2;
+
+	/** The kind of a line. */
+	static final byte LINE = 3;
+
+	/** The kind of a group. */
+	static final byte GROUP = 4;
+
+	/** The size of the output buffer. */
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	/** The size of the largest record, i.e., of a box, ellipse, or line. */
+	private static final int MAX_RECORD_SIZE = 27;
+
+	/**
+	 * The logger.
+	 */
+	private static Logger log = Logger.getLogger(SheetFormat.class);
+
+	/**
+	 * Not to be instantiated.
+	 */
+	private SheetFormat() {
+	}
+
+	/**
+	 * Writes the given shapes to the given file. The shapes are written to a
+	 * temporary file in the same directory first, which then replaces the
+	 * given file in one step. Hence, the given file is left as it was if the
+	 * shapes cannot be written.
+	 *
+	 * @param shapes
+	 *            the shapes of a sheet, along their stacking order
+	 * @param file
+	 *            the file, being created or overwritten
+	 * @throws IOException
+	 *             if the file cannot be written
+	 * @throws IllegalArgumentException
+	 *             if a shape is of a kind the format does not support
+	 */
+	public static void write(List<Shape> shapes, Path file) throws IOException {
+		long start = System.nanoTime();
+		Path temp = Files.createTempFile(file.toAbsolutePath().getParent(),
+				file.getFileName().toString(), ".tmp");
+		boolean written = false;
+		try {
+			try (FileChannel channel = FileChannel.open(temp,
+					StandardOpenOption.WRITE)) {
+				ByteBuffer out = ByteBuffer.allocateDirect(BUFFER_SIZE);
+				out.putInt(MAGIC);
+				out.putShort(VERSION);
+				out.putShort((short) 0);
+				out.putInt(shapes.size());
+				for (Shape s : shapes) {
+					writeShape(channel, out, s);
+				}
+				flush(channel, out);
+			}
+			try {
+				Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+			}
+			written = true;
+		} finally {
+			if (!written) {
+				Files.deleteIfExists(temp);
+			}
+		}
+		log.debug("Wrote " + shapes.size() + " shapes to " + file + " in "
+				+ (System.nanoTime() - start) / 1000000 + " ms");
+	}
+
+	/**
+	 * Reads the shapes of a sheet from the given file.
+	 *
+	 * @param file
+	 *            the file
+	 * @return the shapes along their stacking order
+	 * @throws IOException
+	 *             if the file cannot be read or is not a valid sheet file
+	 */
+	public static List<Shape> read(Path file) throws IOException {
+		long start = System.nanoTime();
+		List<Shape> shapes;
+		try (FileChannel channel = FileChannel.open(file,
+				StandardOpenOption.READ)) {
+			long size = channel.size();
+			if (size > Integer.MAX_VALUE) {
+				throw new IOException("Sheet file too large: " + file);
+			}
+			MappedByteBuffer buffer = channel.map(
+					FileChannel.MapMode.READ_ONLY, 0, size);
+			shapes = read(buffer);
+		}
+		log.debug("Read " + shapes.size() + " shapes from " + file + " in "
+				+ (System.nanoTime() - start) / 1000000 + " ms");
+		return shapes;
+	}
+
+	/**
+	 * Reads the shapes of a sheet from the given buffer.
+	 *
+	 * @param buffer
+	 *            the buffer, positioned at the header
+	 * @return the shapes along their stacking order
+	 * @throws IOException
+	 *             if the buffer does not hold a valid sheet
+	 */
+	public static List<Shape> read(ByteBuffer buffer) throws IOException {
+		try {
+			if (buffer.getInt() != MAGIC) {
+				throw new IOException("Not a sheet file.");
+			}
+			short version = buffer.getShort();
+			if (version < 1 || version > VERSION) {
+				throw new IOException("Unsupported sheet file version: "
+						+ version);
+			}
+			buffer.getShort();
+			return readShapes(buffer, buffer.getInt());
+		} catch (BufferUnderflowException e) {
+			throw new IOException("Truncated sheet file.");
+		}
+	}
+
+	/**
+	 * Encodes a single shape, and the children of a group, the way it is
+	 * stored in a sheet file.
+	 *
+	 * @param s
+	 *            a shape
+	 * @return the bytes of the shape
+	 * @throws IllegalArgumentException
+	 *             if the shape is of a kind the format does not support
+	 */
+	public static byte[] encode(Shape s) {
+		ByteBuffer out = ByteBuffer.allocate(sizeOf(s));
+		try {
+			writeShape(null, out, s);
+		} catch (IOException e) {
+			// Cannot happen, nothing is written to a channel.
+			throw new IllegalStateException(e);
+		}
+		return out.array();
+	}
+
+	/**
+	 * Decodes a single shape encoded by {@link #encode(Shape)}.
+	 *
+	 * @param bytes
+	 *            the bytes of the shape
+	 * @return a new shape
+	 * @throws IOException
+	 *             if the bytes do not hold a valid shape
+	 */
+	public static Shape decode(byte[] bytes) throws IOException {
+		try {
+			return readShape(ByteBuffer.wrap(bytes));
+		} catch (BufferUnderflowException e) {
+			throw new IOException("Truncated shape.");
+		}
+	}
+
+	/**
+	 * Returns the number of bytes of a shape, and the children of a group.
+	 */
+	private static int sizeOf(Shape s) {
+		if (s.getClass() != ShapeGroup.class) {
+			return MAX_RECORD_SIZE;
+		}
+		int size = 5;
+		for (Shape child : ((ShapeGroup) s).getChildShapes()) {
+			size += sizeOf(child);
+		}
+		return size;
+	}
+
+	/**
+	 * Writes a shape, and the children of a group, into the buffer. Flushes
+	 * the buffer into the channel, if any, before it overflows.
+	 */
+	private static void writeShape(FileChannel channel, ByteBuffer out,
+			Shape s) throws IOException {
+		if (channel != null && out.remaining() < MAX_RECORD_SIZE) {
+			flush(channel, out);
+		}
+		Class<?> c = s.getClass();
+		if (c == ShapeGroup.class) {
+			List<Shape> children = ((ShapeGroup) s).getChildShapes();
+			out.put(GROUP);
+			out.putInt(children.size());
+			for (Shape child : children) {
+				writeShape(channel, out, child);
+			}
+			return;
+		}
+		if (c == CompactSheet.CompactShape.class) {
+			// The kinds of the compact sheet are the ones of this format.
+			CompactSheet.CompactShape p = (CompactSheet.CompactShape) s;
+			out.put(p.getKind());
+			writeBounds(out, p.getBoundingBox());
+			out.putInt(p.getPenARGB());
+			out.putInt(p.getFillARGB());
+			out.putShort((short) p.getPenSize());
+			return;
+		}
+		if (c == SimpleBox.class) {
+			out.put(BOX);
+		} else if (c == SimpleEllipse.class) {
+			out.put(ELLIPSE);
+		} else if (c == SimpleLine.class) {
+			out.put(LINE);
+		} else {
+			throw new IllegalArgumentException("Unsupported shape: " + c);
+		}
+		AbstractShape a = (AbstractShape) s;
+		writeBounds(out, a.getBoundingBox());
+		out.putInt(toARGB(a.getPenColor()));
+		out.putInt(toARGB(a.getFillColor()));
+		out.putShort((short) a.getPenSize());
+	}
+
+	/**
+	 * Writes the origin and the size of a bounding box into the buffer.
+	 */
+	private static void writeBounds(ByteBuffer out, BoundingBox r) {
+		out.putInt(r.getX0());
+		out.putInt(r.getY0());
+		out.putInt(r.getWidth());
+		out.putInt(r.getHeight());
+	}
+
+	/**
+	 * Writes the content of the buffer into the channel and clears the
+	 * buffer.
+	 */
+	private static void flush(FileChannel channel, ByteBuffer out)
+			throws IOException {
+		out.flip();
+		while (out.hasRemaining()) {
+			channel.write(out);
+		}
+		out.clear();
+	}
+
+	/**
+	 * Reads the given number of shapes.
+	 */
+	private static List<Shape> readShapes(ByteBuffer buffer, int count)
+			throws IOException {
+		if (count < 0 || count > buffer.remaining()) {
+			throw new IOException("Illegal shape count: " + count);
+		}
+		List<Shape> shapes = new ArrayList<Shape>(count);
+		for (int i = 0; i < count; i++) {
+			shapes.add(readShape(buffer));
+		}
+		return shapes;
+	}
+
+	/**
+	 * Reads a shape, and the children of a group.
+	 */
+	private static Shape readShape(ByteBuffer buffer) throws IOException {
+		byte kind = buffer.get();
+		if (kind == GROUP) {
+			return new ShapeGroup(readShapes(buffer, buffer.getInt()));
+		}
+		int x0 = buffer.getInt();
+		int y0 = buffer.getInt();
+		int width = buffer.getInt();
+		int height = buffer.getInt();
+		AbstractShape s;
+		switch (kind) {
+		case BOX:
+			s = new SimpleBox(x0, y0, width, height);
+			break;
+		case ELLIPSE:
+			s = new SimpleEllipse(x0, y0, width, height);
+			break;
+		case LINE:
+			s = new SimpleLine(x0, y0, width, height);
+			break;
+		default:
+			throw new IOException("Unknown shape kind: " + kind);
+		}
+		s.setPenColor(toColor(buffer.getInt()));
+		s.setFillColor(toColor(buffer.getInt()));
+		s.setPenSize(buffer.getShort());
+		return s;
+	}
+
+	/**
+	 * Returns the ARGB value of the given color, or 0 if null.
+	 */
+	private static int toARGB(Color c) {
+		return c == null ? 0 : c.getRGB();
+	}
+
+	/**
+	 * Returns the shared color of the given ARGB value.
+	 */
+	private static Color toColor(int argb) {
+		return RenderingResources.getColor(argb);
+	}
+}
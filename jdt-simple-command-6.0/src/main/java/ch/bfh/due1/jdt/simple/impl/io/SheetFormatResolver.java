@@ -0,0 +1,100 @@
+/*
+ * Eric Dubuis, Berner Fachhochschule,
+ * Biel, Switzerland.
+ * Copyright (c) 2007
+ *
+ * Distributable under LGPL license.
+ * See terms of license at gnu.org.
+ */
+package ch.bfh.due1.jdt.simple.impl.io;
+
+import java.io.IOException;
+import java.io.Serializable;
+
+import ch.bfh.due1.jdt.framework.Shape;
+import ch.bfh.due1.jdt.framework.ShapeResolver;
+import ch.bfh.due1.jdt.simple.impl.CompactSheet;
+import ch.bfh.due1.jdt.simple.impl.shape.ShapeGroup;
+
+/**
+ * Replaces shapes by their encoding in the sheet file format, see
+ * {@link SheetFormat#encode(Shape)}. The stand-in of a flyweight of a compact
+ * sheet refers to its sheet and to its primitive, and the flyweight is looked
+ * up on the sheet when resolved; the primitive is re-created from the
+ * encoding only if it has been removed meanwhile. A group is replaced by the
+ * stand-in it creates, see {@link ShapeGroup#createStandIn()}, referring to
+ * its children. Shapes of a kind the sheet file format does not support are
+ * kept in memory.
+ *
+ * @author Eric Dubuis
+ */
+public class SheetFormatResolver implements ShapeResolver {
+	/**
+	 * Stands in for an encoded shape.
+	 */
+	private static final class Encoded implements Serializable {
+		private static final long serialVersionUID = 4725306118827390155L;
+
+		/** The encoded shape. */
+		private final byte[] bytes;
+
+		/** The sheet of a flyweight, or null. */
+		private final CompactSheet sheet;
+
+		/** The identifier of a flyweight on its sheet. */
+		private final int primitive;
+
+		private Encoded(byte[] bytes, CompactSheet sheet, int primitive) {
+			this.bytes = bytes;
+			this.sheet = sheet;
+			this.primitive = primitive;
+		}
+	}
+
+	/**
+	 * @inheritDoc
+	 */
+	@Override
+	public Serializable replace(Shape s) {
+		if (s.getClass() == ShapeGroup.class) {
+			return ((ShapeGroup) s).createStandIn();
+		}
+		CompactSheet sheet = null;
+		int primitive = -1;
+		if (s instanceof CompactSheet.CompactShape) {
+			CompactSheet.CompactShape f = (CompactSheet.CompactShape) s;
+			if (f.getId() >= 0) {
+				sheet = f.getSheet();
+				primitive = f.getId();
+			}
+		}
+		try {
+			return new Encoded(SheetFormat.encode(s), sheet, primitive);
+		} catch (IllegalArgumentException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * @inheritDoc
+	 */
+	@Override
+	public Shape resolve(Serializable standIn) throws IOException {
+		if (!(standIn instanceof Encoded)) {
+			try {
+				return ShapeGroup.resolve(standIn);
+			} catch (IllegalArgumentException e) {
+				throw new IOException("Cannot resolve shape.", e);
+			}
+		}
+		Encoded e = (Encoded) standIn;
+		Shape s = null;
+		if (e.sheet != null) {
+			s = e.sheet.getFlyweight(e.primitive);
+		}
+		if (s == null) {
+			s = SheetFormat.decode(e.bytes);
+		}
+		return s;
+	}
+}
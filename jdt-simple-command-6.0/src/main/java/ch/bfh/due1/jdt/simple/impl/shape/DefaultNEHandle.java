@@ -14,6 +14,7 @@ import ch.bfh.due1.jdt.framework.AbstractHandle;
 import ch.bfh.due1.jdt.framework.BoundingBox;
 import ch.bfh.due1.jdt.framework.Coord;
 import ch.bfh.due1.jdt.framework.KeyModifier;
+import ch.bfh.due1.jdt.framework.RenderingResources;
 import ch.bfh.due1.jdt.framework.Shape;
 
 
@@ -35,13 +36,33 @@ public class DefaultNEHandle extends AbstractHandle {
 		super(owner, location);
 	}
 
+	/**
+	 * Creates a handle at the north-east position of a shape. The location of
+	 * the handle follows the bounding box of the shape.
+	 * 
+	 * @param owner
+	 *            The shape that owns this handle.
+	 */
+	public DefaultNEHandle(Shape owner) {
+		super(owner);
+	}
+
+	/**
+	 * Returns the north-east position of the given bounding box.
+	 * 
+	 * @see ch.bfh.due1.jdt.framework.AbstractHandle#locate(ch.bfh.due1.jdt.framework.BoundingBox)
+	 */
+	@Override
+	protected Coord locate(BoundingBox r) {
+		return new Coord(r.getX0() + r.getWidth(), r.getY0());
+	}
+
 	/**
 	 * @inheritDoc
 	 */
 	@Override
 	public Cursor getCursor() {
-		Cursor c = new Cursor(Cursor.NE_RESIZE_CURSOR);
-		return c;
+		return RenderingResources.getCursor(Cursor.NE_RESIZE_CURSOR);
 	}
 
 	/**
@@ -13,6 +13,7 @@ import java.awt.Cursor;
 import ch.bfh.due1.jdt.framework.BoundingBox;
 import ch.bfh.due1.jdt.framework.Coord;
 import ch.bfh.due1.jdt.framework.KeyModifier;
+import ch.bfh.due1.jdt.framework.RenderingResources;
 import ch.bfh.due1.jdt.framework.Shape;
 
 
@@ -34,13 +35,33 @@ public class DefaultNHandle extends ch.bfh.due1.jdt.framework.AbstractHandle {
 		super(owner, location);
 	}
 
+	/**
+	 * Creates a handle at the north position of a shape. The location of
+	 * the handle follows the bounding box of the shape.
+	 * 
+	 * @param owner
+	 *            The shape that owns this handle.
+	 */
+	public DefaultNHandle(Shape owner) {
+		super(owner);
+	}
+
+	/**
+	 * Returns the north position of the given bounding box.
+	 * 
+	 * @see ch.bfh.due1.jdt.framework.AbstractHandle#locate(ch.bfh.due1.jdt.framework.BoundingBox)
+	 */
+	@Override
+	protected Coord locate(BoundingBox r) {
+		return new Coord(r.getX0() + r.getWidth() / 2, r.getY0());
+	}
+
 	/**
 	 * @inheritDoc
 	 */
 	@Override
 	public Cursor getCursor() {
-		Cursor c = new Cursor(Cursor.N_RESIZE_CURSOR);
-		return c;
+		return RenderingResources.getCursor(Cursor.N_RESIZE_CURSOR);
 	}
 
 	/**
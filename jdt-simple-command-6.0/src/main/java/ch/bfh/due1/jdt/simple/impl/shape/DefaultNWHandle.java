@@ -14,6 +14,7 @@ import ch.bfh.due1.jdt.framework.AbstractHandle;
 import ch.bfh.due1.jdt.framework.BoundingBox;
 import ch.bfh.due1.jdt.framework.Coord;
 import ch.bfh.due1.jdt.framework.KeyModifier;
+import ch.bfh.due1.jdt.framework.RenderingResources;
 import ch.bfh.due1.jdt.framework.Shape;
 
 
@@ -35,13 +36,23 @@ public class DefaultNWHandle extends AbstractHandle {
 		super(owner, location);
 	}
 
+	/**
+	 * Creates a handle at the north-west position of a shape. The location of
+	 * the handle follows the bounding box of the shape.
+	 * 
+	 * @param owner
+	 *            The shape that owns this handle.
+	 */
+	public DefaultNWHandle(Shape owner) {
+		super(owner);
+	}
+
 	/**
 	 * @inheritDoc
 	 */
 	@Override
 	public Cursor getCursor() {
-		Cursor c = new Cursor(Cursor.NW_RESIZE_CURSOR);
-		return c;
+		return RenderingResources.getCursor(Cursor.NW_RESIZE_CURSOR);
 	}
 
 	/**
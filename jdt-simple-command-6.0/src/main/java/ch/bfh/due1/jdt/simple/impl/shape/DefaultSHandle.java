@@ -14,6 +14,7 @@ import ch.bfh.due1.jdt.framework.AbstractHandle;
 import ch.bfh.due1.jdt.framework.BoundingBox;
 import ch.bfh.due1.jdt.framework.Coord;
 import ch.bfh.due1.jdt.framework.KeyModifier;
+import ch.bfh.due1.jdt.framework.RenderingResources;
 import ch.bfh.due1.jdt.framework.Shape;
 
 
@@ -35,13 +36,33 @@ public class DefaultSHandle extends AbstractHandle {
 		super(owner, location);
 	}
 
+	/**
+	 * Creates a handle at the south position of a shape. The location of
+	 * the handle follows the bounding box of the shape.
+	 * 
+	 * @param owner
+	 *            The shape that owns this handle.
+	 */
+	public DefaultSHandle(Shape owner) {
+		super(owner);
+	}
+
+	/**
+	 * Returns the south position of the given bounding box.
+	 * 
+	 * @see ch.bfh.due1.jdt.framework.AbstractHandle#locate(ch.bfh.due1.jdt.framework.BoundingBox)
+	 */
+	@Override
+	protected Coord locate(BoundingBox r) {
+		return new Coord(r.getX0() + r.getWidth() / 2, r.getY0() + r.getHeight());
+	}
+
 	/**
 	 * @inheritDoc
 	 */
 	@Override
 	public Cursor getCursor() {
-		Cursor c = new Cursor(Cursor.S_RESIZE_CURSOR);
-		return c;
+		return RenderingResources.getCursor(Cursor.S_RESIZE_CURSOR);
 	}
 
 	/**
@@ -8,8 +8,9 @@
  */
 package ch.bfh.due1.jdt.simple.impl.shape;
 
-import java.awt.Cursor;
 import java.awt.Graphics;
+import java.awt.Rectangle;
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
@@ -17,7 +18,6 @@ import java.util.List;
 
 import org.apache.log4j.Logger;
 
-import ch.bfh.due1.jdt.framework.AbstractHandle;
 import ch.bfh.due1.jdt.framework.AbstractShape;
 import ch.bfh.due1.jdt.framework.BoundingBox;
 import ch.bfh.due1.jdt.framework.Coord;
@@ -32,6 +32,28 @@ import ch.bfh.due1.jdt.framework.Vector;
 /**
  * A shape group groups together a list of shapes that can be manipulated as a
  * whole.
+ * <p>
+ * The current and the original bounding box of the group are cached. The
+ * current one is kept up to date by means of the shape changed events of the
+ * children: it is grown by the new bounds of a changed child, or recomputed
+ * lazily if the child may have defined an edge of the group. While the group
+ * itself changes its children, e.g., when being moved or resized, the events
+ * of the children are not passed on; the listeners of the group are notified
+ * once instead.
+ * <p>
+ * Clones are copied on write. The children of a group created by the public
+ * constructor, or handed out by {@link #getShapes()}, may be changed by
+ * others; hence, a clone of such a group refers to them along with their
+ * mementos, i.e., their state when cloned, and copies them in that state when
+ * it is used first. The children of a clone are known to the clone only, so a
+ * clone of a clone shares them. A group sharing its children copies them
+ * before it changes, or before it hands them out by {@link #getShapes()},
+ * whichever group is changed first. Nobody else may change shared children;
+ * doing so throws an {@link IllegalStateException}. Hence, copying a group
+ * onto the clip board copies none of its children, pasting it many times
+ * copies them once, plus once for each pasted group being changed.
+ * Serializers read the children by {@link #getChildShapes()}, which does not
+ * copy them.
  *
  * @author Eric Dubuis
  */
@@ -39,26 +61,15 @@ public class ShapeGroup extends AbstractShape {
 	/** The logger. */
 	private Logger log = Logger.getLogger(ShapeGroup.class);
 
-	private class NWHandle extends AbstractHandle {
+	private class NWHandle extends DefaultNWHandle {
 		/**
 		 * Creates a handle at the north-west position of a shape.
 		 *
 		 * @param owner
 		 *            The shape that owns this handle.
-		 * @param location
-		 *            There this handle is located (the center).
 		 */
-		public NWHandle(Shape owner, Coord location) {
-			super(owner, location);
-		}
-
-		/**
-		 * @inheritDoc
-		 */
-		@Override
-		public Cursor getCursor() {
-			Cursor c = new Cursor(Cursor.NW_RESIZE_CURSOR);
-			return c;
+		public NWHandle(Shape owner) {
+			super(owner);
 		}
 
 		/**
@@ -82,26 +93,15 @@ public class ShapeGroup extends AbstractShape {
 		}
 	}
 
-	private class NHandle extends ch.bfh.due1.jdt.framework.AbstractHandle {
+	private class NHandle extends DefaultNHandle {
 		/**
 		 * Creates a handle at the north position of a shape.
 		 *
 		 * @param owner
 		 *            The shape that owns this handle.
-		 * @param location
-		 *            There this handle is located (the center).
 		 */
-		public NHandle(Shape owner, Coord location) {
-			super(owner, location);
-		}
-
-		/**
-		 * @inheritDoc
-		 */
-		@Override
-		public Cursor getCursor() {
-			Cursor c = new Cursor(Cursor.N_RESIZE_CURSOR);
-			return c;
+		public NHandle(Shape owner) {
+			super(owner);
 		}
 
 		/**
@@ -128,26 +128,15 @@ public class ShapeGroup extends AbstractShape {
 		}
 	}
 
-	private class NEHandle extends AbstractHandle {
+	private class NEHandle extends DefaultNEHandle {
 		/**
 		 * Creates a handle at the north-east position of a shape.
 		 *
 		 * @param owner
 		 *            The shape that owns this handle.
-		 * @param location
-		 *            There this handle is located (the center).
 		 */
-		public NEHandle(Shape owner, Coord location) {
-			super(owner, location);
-		}
-
-		/**
-		 * @inheritDoc
-		 */
-		@Override
-		public Cursor getCursor() {
-			Cursor c = new Cursor(Cursor.NE_RESIZE_CURSOR);
-			return c;
+		public NEHandle(Shape owner) {
+			super(owner);
 		}
 
 		/**
@@ -174,26 +163,15 @@ public class ShapeGroup extends AbstractShape {
 		}
 	}
 
-	private class EHandle extends AbstractHandle {
+	private class EHandle extends DefaultEHandle {
 		/**
 		 * Creates a handle at the east position of a shape.
 		 *
 		 * @param owner
 		 *            The shape that owns this handle.
-		 * @param location
-		 *            There this handle is located (the center).
 		 */
-		public EHandle(Shape owner, Coord location) {
-			super(owner, location);
-		}
-
-		/**
-		 * @inheritDoc
-		 */
-		@Override
-		public Cursor getCursor() {
-			Cursor c = new Cursor(Cursor.E_RESIZE_CURSOR);
-			return c;
+		public EHandle(Shape owner) {
+			super(owner);
 		}
 
 		/**
@@ -217,27 +195,16 @@ public class ShapeGroup extends AbstractShape {
 		}
 	}
 
-	private class SEHandle extends AbstractHandle {
+	private class SEHandle extends DefaultSEHandle {
 
 		/**
 		 * Creates a handle at the south-east position of a shape.
 		 *
 		 * @param owner
 		 *            The shape that owns this handle.
-		 * @param location
-		 *            There this handle is located (the center).
 		 */
-		public SEHandle(Shape owner, Coord location) {
-			super(owner, location);
-		}
-
-		/**
-		 * @inheritDoc
-		 */
-		@Override
-		public Cursor getCursor() {
-			Cursor c = new Cursor(Cursor.SE_RESIZE_CURSOR);
-			return c;
+		public SEHandle(Shape owner) {
+			super(owner);
 		}
 
 		/**
@@ -261,26 +228,15 @@ public class ShapeGroup extends AbstractShape {
 		}
 	}
 
-	private class SHandle extends AbstractHandle {
+	private class SHandle extends DefaultSHandle {
 		/**
 		 * Creates a handle at the south position of a shape.
 		 *
 		 * @param owner
 		 *            The shape that owns this handle.
-		 * @param location
-		 *            There this handle is located (the center).
 		 */
-		public SHandle(Shape owner, Coord location) {
-			super(owner, location);
-		}
-
-		/**
-		 * @inheritDoc
-		 */
-		@Override
-		public Cursor getCursor() {
-			Cursor c = new Cursor(Cursor.S_RESIZE_CURSOR);
-			return c;
+		public SHandle(Shape owner) {
+			super(owner);
 		}
 
 		/**
@@ -304,26 +260,15 @@ public class ShapeGroup extends AbstractShape {
 		}
 	}
 
-	private class SWHandle extends AbstractHandle {
+	private class SWHandle extends DefaultSWHandle {
 		/**
 		 * Creates a handle at the south-west position of a shape.
 		 *
 		 * @param owner
 		 *            The shape that owns this handle.
-		 * @param location
-		 *            There this handle is located (the center).
 		 */
-		public SWHandle(Shape owner, Coord location) {
-			super(owner, location);
-		}
-
-		/**
-		 * @inheritDoc
-		 */
-		@Override
-		public Cursor getCursor() {
-			Cursor c = new Cursor(Cursor.SW_RESIZE_CURSOR);
-			return c;
+		public SWHandle(Shape owner) {
+			super(owner);
 		}
 
 		/**
@@ -348,26 +293,15 @@ public class ShapeGroup extends AbstractShape {
 		}
 	}
 
-	private class WHandle extends AbstractHandle {
+	private class WHandle extends DefaultWHandle {
 		/**
 		 * Creates a handle at the west position of a shape.
 		 *
 		 * @param owner
 		 *            The shape that owns this handle.
-		 * @param location
-		 *            There this handle is located (the center).
 		 */
-		public WHandle(Shape owner, Coord location) {
-			super(owner, location);
-		}
-
-		/**
-		 * @inheritDoc
-		 */
-		@Override
-		public Cursor getCursor() {
-			Cursor c = new Cursor(Cursor.W_RESIZE_CURSOR);
-			return c;
+		public WHandle(Shape owner) {
+			super(owner);
 		}
 
 		/**
@@ -417,15 +351,67 @@ public class ShapeGroup extends AbstractShape {
 	}
 
 	/**
-	 * The handles of the group.
+	 * The stand-in of a group.
+	 *
+	 * @see ShapeGroup#createStandIn()
 	 */
-	private List<ShapeHandle> handles;
+	private static class StandIn implements Serializable {
+		/** Serial version UID. */
+		private static final long serialVersionUID = -6231947014578620213L;
+		private final List<Shape> children;
+		private final boolean shared;
+		private StandIn(List<Shape> children, boolean shared) {
+			this.children = children;
+			this.shared = shared;
+		}
+	}
 
 	/**
 	 * The listeners being registered at members of the group.
 	 */
 	private ShapeChangedListener myShapeListener;
 
+	/**
+	 * The cached bounding box of the group, or null if to be recomputed.
+	 */
+	private BoundingBox boundingBox;
+
+	/**
+	 * The cached original bounding box of the group, or null if to be
+	 * recomputed.
+	 */
+	private BoundingBox originalBoundingBox;
+
+	/**
+	 * True while the group changes its children by itself.
+	 */
+	private boolean updating = false;
+
+	/**
+	 * Listens to the changes of the children of the group.
+	 */
+	private class ChildListener implements ShapeChangedListener {
+		/**
+		 * Updates the cached bounding box and, unless the group changes its
+		 * children by itself, notifies the listeners of the group. Only the
+		 * area of the child has changed.
+		 *
+		 * @see ch.bfh.due1.jdt.framework.ShapeChangedListener#shapeChanged(ch.bfh.due1.jdt.framework.ShapeChangedEvent)
+		 */
+		@Override
+		public void shapeChanged(ShapeChangedEvent e) {
+			if (ShapeGroup.this.updating) {
+				return;
+			}
+			if (log.isDebugEnabled()) {
+				log.debug("Shape changed: " + e.getShape());
+			}
+			childChanged(e.getOldBounds(), e.getNewBounds());
+			ShapeGroup.this.notifyShapeChangedListeners(e.getOldBounds(),
+					e.getNewBounds());
+		}
+	}
+
 	/**
 	 * Container for holding a child shape and its original
 	 * size (needed for scaling, even if current shape width
@@ -448,6 +434,37 @@ public class ShapeGroup extends AbstractShape {
 	 */
 	private List<ChildShape> children = new ArrayList<>();
 
+	/**
+	 * True if the children are shared with other groups, i.e., never changed.
+	 */
+	private boolean shared = false;
+
+	/**
+	 * True if the children may be referred to by others, i.e., if they must
+	 * be copied before being shared.
+	 */
+	private boolean exposed = false;
+
+	/**
+	 * The mementos of the children when this group was cloned, or null. A
+	 * group having them refers to the children of the group it was cloned
+	 * from, and copies them in the state given by the mementos before it is
+	 * used.
+	 */
+	private List<Memento> frozen;
+
+	/**
+	 * Rejects the changes of shared children: the groups sharing them copy
+	 * them before changing them, and nobody else may change them.
+	 */
+	private static final ShapeChangedListener SHARED_CHILD_GUARD = new ShapeChangedListener() {
+		@Override
+		public void shapeChanged(ShapeChangedEvent e) {
+			throw new IllegalStateException("Shared shape changed: "
+					+ e.getShape());
+		}
+	};
+
 	/**
 	 * Creates a group of shapes.
 	 *
@@ -456,34 +473,16 @@ public class ShapeGroup extends AbstractShape {
 	 *            not change the list after the call.
 	 */
 	public ShapeGroup(List<Shape> currentShapes) {
+		this.exposed = true;
 		for (Shape s : currentShapes) {
 			// Add shape to list of children. Record orginal
 			// size of each shape.
 			this.children.add(new ChildShape(s, s.getBoundingBox()));
 		}
-		this.myShapeListener = new ShapeChangedListener() {
-			@Override
-			public void shapeChanged(ShapeChangedEvent e) {
-				log.debug("Shape changed: " + e.getShape());
-				// So far, for each shape that sends us an event we notify our
-				// sheet listeners.
-				ShapeGroup.this.notifyShapeChangedListeners();
-			}
-		};
+		this.myShapeListener = new ChildListener();
 		for (Shape s : currentShapes) {
 			s.addShapeChangedListener(this.myShapeListener);
 		}
-		this.handles = new ArrayList<ShapeHandle>();
-		// Set handler; handles are adjusted via adjustHandles() helper.
-		this.handles.add(new NWHandle(this, new Coord(0, 0)));
-		this.handles.add(new NHandle(this, new Coord(0, 0)));
-		this.handles.add(new NEHandle(this, new Coord(0, 0)));
-		this.handles.add(new EHandle(this, new Coord(0, 0)));
-		this.handles.add(new SEHandle(this, new Coord(0, 0)));
-		this.handles.add(new SHandle(this, new Coord(0, 0)));
-		this.handles.add(new SWHandle(this, new Coord(0, 0)));
-		this.handles.add(new WHandle(this, new Coord(0, 0)));
-		adjustHandles();
 	}
 
 	/**
@@ -491,46 +490,82 @@ public class ShapeGroup extends AbstractShape {
 	 * group. The special thing is that the given clone child
 	 * shapes contain the original size of the child shapes.
 	 *
-	 * @param childClones a list of child shape clones including
-	 * 			the child's bounding box
-	 * @param x dummy parameter, not used
-	 */
-	private ShapeGroup(List<ChildShape> childClones, boolean x) {
-		this.children = childClones;
-		this.myShapeListener = new ShapeChangedListener() {
-			@Override
-			public void shapeChanged(ShapeChangedEvent e) {
-				log.debug("Shape changed: " + e.getShape());
-				// So far, for each shape that sends us an event we notify our
-				// sheet listeners.
-				ShapeGroup.this.notifyShapeChangedListeners();
+	 * @param children a list of child shape clones
+	 * 			including the child's bounding box
+	 * @param shared true if the children are shared with other
+	 * 			groups until this group changes
+	 */
+	private ShapeGroup(List<ChildShape> children, boolean shared) {
+		this.children = children;
+		this.shared = shared;
+		this.myShapeListener = new ChildListener();
+		if (!shared) {
+			for (ChildShape cs : children) {
+				cs.shape.addShapeChangedListener(this.myShapeListener);
 			}
-		};
-		for (ChildShape cs : childClones) {
-			cs.shape.addShapeChangedListener(this.myShapeListener);
 		}
-		this.handles = new ArrayList<ShapeHandle>();
-		// Set handler; handles are adjusted via adjustHandles() helper.
-		this.handles.add(new NWHandle(this, new Coord(0, 0)));
-		this.handles.add(new NHandle(this, new Coord(0, 0)));
-		this.handles.add(new NEHandle(this, new Coord(0, 0)));
-		this.handles.add(new EHandle(this, new Coord(0, 0)));
-		this.handles.add(new SEHandle(this, new Coord(0, 0)));
-		this.handles.add(new SHandle(this, new Coord(0, 0)));
-		this.handles.add(new SWHandle(this, new Coord(0, 0)));
-		this.handles.add(new WHandle(this, new Coord(0, 0)));
-		adjustHandles();
 	}
 
 	/**
-	 * Returns true if coordinate is on one of the shapes of this group.
+	 * Private constructor used for building a clone of a group
+	 * whose children may be referred to by others. The clone
+	 * copies the children in the state given by the mementos
+	 * before it is used.
+	 *
+	 * @param children the children of the group being cloned
+	 * @param frozen the mementos of the children
+	 */
+	private ShapeGroup(List<ChildShape> children, List<Memento> frozen) {
+		this.children = children;
+		this.frozen = frozen;
+		this.shared = true;
+		this.myShapeListener = new ChildListener();
+	}
+
+	/**
+	 * Returns a group for the given stand-in, e.g., a group read back. The
+	 * group has the children of the stand-in, and shares them with other
+	 * groups if the group the stand-in was created for did.
+	 *
+	 * @param standIn
+	 *            a stand-in created by {@link #createStandIn()}, its children
+	 *            being resolved
+	 * @return a group
+	 * @throws IllegalArgumentException
+	 *             if the object is not the stand-in of a group
+	 */
+	public static ShapeGroup resolve(Serializable standIn) {
+		if (!(standIn instanceof StandIn)) {
+			throw new IllegalArgumentException("Not a group: " + standIn);
+		}
+		StandIn in = (StandIn) standIn;
+		if (!in.shared) {
+			return new ShapeGroup(in.children);
+		}
+		List<ChildShape> children = new ArrayList<>(in.children.size());
+		for (Shape s : in.children) {
+			children.add(new ChildShape(s, s.getBoundingBox()));
+			s.addShapeChangedListener(SHARED_CHILD_GUARD);
+		}
+		return new ShapeGroup(children, true);
+	}
+
+	/**
+	 * Returns true if coordinate is on one of the shapes of this group. The
+	 * coordinate is tested against the bounding box of the group first, and
+	 * against the one of each child before the exact test of the child.
+	 * Children are assumed to hit within the hit tolerance of the group.
 	 *
 	 * @see ch.bfh.due1.jdt.framework.Shape#contains(Coord)
 	 */
 	@Override
 	public boolean contains(Coord c) {
+		materialize();
+		if (!mayContain(c)) {
+			return false;
+		}
 		for (ChildShape cs : this.children) {
-			if (cs.shape.contains(c)) {
+			if (cs.shape.mayContain(c) && cs.shape.contains(c)) {
 				// Point (x, y) is on a shape of this group; break and return
 				// true;
 				return true;
@@ -540,14 +575,30 @@ public class ShapeGroup extends AbstractShape {
 	}
 
 	/**
-	 * Draws each child of the group.
+	 * Draws each child of the group intersecting the clip of the graphics
+	 * context. Each child applies the level-of-detail policy on its own; a
+	 * group small enough to be drawn in reduced detail does not get here.
 	 *
 	 * @see ch.bfh.due1.jdt.framework.AbstractShape#doDrawShape(java.awt.Graphics)
 	 */
 	@Override
 	protected void doDrawShape(Graphics g) {
-		for (ChildShape cs : this.children) {
-			cs.shape.draw(g);
+		materialize();
+		Rectangle clip = g.getClipBounds();
+		if (clip == null) {
+			for (ChildShape cs : this.children) {
+				cs.shape.draw(g);
+			}
+		} else {
+			int m = AbstractShape.DRAWING_MARGIN;
+			BoundingBox area = new BoundingBox(clip.x - m, clip.y - m,
+					clip.width + 2 * m, clip.height + 2 * m);
+			for (ChildShape cs : this.children) {
+				BoundingBox b = cs.shape.getBoundingBox();
+				if (b == null || area.intersects(b)) {
+					cs.shape.draw(g);
+				}
+			}
 		}
 	}
 
@@ -558,30 +609,46 @@ public class ShapeGroup extends AbstractShape {
 	 */
 	@Override
 	public void move(Vector delta) {
-		for (ChildShape cs : this.children) {
-			cs.shape.move(delta);
+		unshare();
+		BoundingBox old = getBoundingBox();
+		this.updating = true;
+		try {
+			for (ChildShape cs : this.children) {
+				cs.shape.move(delta);
+			}
+		} finally {
+			this.updating = false;
+		}
+		if (old != null) {
+			this.boundingBox = new BoundingBox(old.getX0()
+					+ delta.getXComponent(), old.getY0()
+					+ delta.getYComponent(), old.getWidth(), old.getHeight());
 		}
-		adjustHandles();
-		notifyShapeChangedListeners();
+		notifyShapeChangedListeners(old);
 	}
 
 	/**
 	 * Returns the smallest bounding box enclosing all children of the group.
+	 * The bounding box is computed only if it is not cached.
 	 *
 	 * @see ch.bfh.due1.jdt.framework.Shape#getBoundingBox()
 	 */
 	@Override
 	public BoundingBox getBoundingBox() {
-		BoundingBox res = null;
-		for (ChildShape cs : this.children) {
-			BoundingBox r = cs.shape.getBoundingBox();
-			if (res == null) {
-				res = r;
-			} else {
-				res = res.union(r);
+		materialize();
+		if (this.boundingBox == null) {
+			BoundingBox res = null;
+			for (ChildShape cs : this.children) {
+				BoundingBox r = cs.shape.getBoundingBox();
+				if (res == null) {
+					res = r;
+				} else {
+					res = res.union(r);
+				}
 			}
+			this.boundingBox = res;
 		}
-		return res;
+		return this.boundingBox;
 	}
 
 	/**
@@ -591,14 +658,30 @@ public class ShapeGroup extends AbstractShape {
 	 */
 	@Override
 	public void setBoundingBox(BoundingBox r) {
-		// Perform calculations relative to the size of the original bounding
-		// box.
-		BoundingBox orig = getOriginalBoundingBox();
-
-		if (getBoundingBox().equals(r)) {
+		BoundingBox old = getBoundingBox();
+		if (old.equals(r)) {
 			// There is nothing to change, return.
 			return;
 		}
+		unshare();
+		this.updating = true;
+		try {
+			scaleChildren(r);
+		} finally {
+			this.updating = false;
+			this.boundingBox = null;
+		}
+		notifyShapeChangedListeners(old);
+	}
+
+	/**
+	 * Scales and moves the children such that the group fits the given
+	 * bounding box.
+	 */
+	private void scaleChildren(BoundingBox r) {
+		// Perform calculations relative to the size of the original bounding
+		// box.
+		BoundingBox orig = getOriginalBoundingBox();
 		// If the width of the original group is then it remains 0 all the time.
 		// Only the height can be changed.
 		if (orig.getWidth() == 0) {
@@ -617,8 +700,6 @@ public class ShapeGroup extends AbstractShape {
 						getScaledHeight(rs, factorY));
 				cs.shape.setBoundingBox(newRs);
 			}
-			adjustHandles();
-			notifyShapeChangedListeners();
 			return;
 		}
 		// If the height of the original group is then it remains 0 all the time.
@@ -639,8 +720,6 @@ public class ShapeGroup extends AbstractShape {
 						0);
 				cs.shape.setBoundingBox(newRs);
 			}
-			adjustHandles();
-			notifyShapeChangedListeners();
 			return;
 		}
 		// handle both, width and height...
@@ -657,9 +736,6 @@ public class ShapeGroup extends AbstractShape {
 					getScaledHeight(rs, factorY));
 			cs.shape.setBoundingBox(newRs);
 		}
-
-		adjustHandles();
-		notifyShapeChangedListeners();
 	}
 
 	/**
@@ -670,11 +746,19 @@ public class ShapeGroup extends AbstractShape {
 	 */
 	@Override
 	public void add(Shape s) {
+		unshare();
+		BoundingBox old = getBoundingBox();
 		ChildShape sc = new ChildShape(s, s.getBoundingBox());
 		this.children.add(sc);
 		s.addShapeChangedListener(this.myShapeListener);
-		adjustHandles();
-		notifyShapeChangedListeners();
+		if (old != null) {
+			this.boundingBox = old.union(sc.origSize);
+		}
+		if (this.originalBoundingBox != null) {
+			this.originalBoundingBox = this.originalBoundingBox
+					.union(sc.origSize);
+		}
+		notifyShapeChangedListeners(old);
 	}
 
 	/**
@@ -688,6 +772,8 @@ public class ShapeGroup extends AbstractShape {
 	 */
 	@Override
 	public boolean remove(Shape s) {
+		unshare();
+		BoundingBox old = getBoundingBox();
 		boolean listChanged = false;
 		for (Iterator<ChildShape> it = this.children.iterator(); it.hasNext();) {
 			ChildShape current = it.next();
@@ -700,22 +786,38 @@ public class ShapeGroup extends AbstractShape {
 		}
 		if (listChanged) {
 			// The shape was in the list.
-			adjustHandles();
-			notifyShapeChangedListeners();
+			this.boundingBox = null;
+			this.originalBoundingBox = null;
+			notifyShapeChangedListeners(old);
 		}
 		return listChanged;
 	}
 
 	/**
 	 * Returns the list of child shapes. Clients must use add(Shape) or
-	 * remove(Shape) to modify the list.
+	 * remove(Shape) to modify the list. As clients may change the child
+	 * shapes, a group sharing them copies them first.
 	 *
 	 * @return The list of child shapes of this group.
 	 * @see ch.bfh.due1.jdt.framework.AbstractShape#getShapes()
 	 */
 	@Override
 	public List<Shape> getShapes() {
-		List<Shape> shapes = new ArrayList<>();
+		unshare();
+		this.exposed = true;
+		return getChildShapes();
+	}
+
+	/**
+	 * Returns the list of child shapes without copying the ones being shared,
+	 * e.g., for writing them. Clients must not change the child shapes; a
+	 * shared child throws an {@link IllegalStateException} when changed.
+	 *
+	 * @return The list of child shapes of this group.
+	 */
+	public List<Shape> getChildShapes() {
+		materialize();
+		List<Shape> shapes = new ArrayList<>(this.children.size());
 		for (ChildShape c : this.children) {
 			shapes.add(c.shape);
 		}
@@ -723,12 +825,36 @@ public class ShapeGroup extends AbstractShape {
 	}
 
 	/**
+	 * Returns a serializable stand-in of this group, e.g., for writing it
+	 * along with a command. The stand-in refers to the children, which are
+	 * to be written as shapes in turn; the children being shared are not
+	 * copied.
+	 *
+	 * @return the stand-in
+	 * @see #resolve(Serializable)
+	 */
+	public Serializable createStandIn() {
+		return new StandIn(new ArrayList<>(getChildShapes()), this.shared);
+	}
+
+	/**
+	 * Creates the eight handles of the group. Their locations follow the
+	 * bounding box of the group.
 	 *
-	 * @see ch.bfh.due1.jdt.framework.AbstractShape#getShapeHandles()
+	 * @see ch.bfh.due1.jdt.framework.AbstractShape#createShapeHandles()
 	 */
 	@Override
-	public List<ShapeHandle> getShapeHandles() {
-		return Collections.unmodifiableList(this.handles);
+	protected List<ShapeHandle> createShapeHandles() {
+		List<ShapeHandle> handles = new ArrayList<ShapeHandle>(8);
+		handles.add(new NWHandle(this));
+		handles.add(new NHandle(this));
+		handles.add(new NEHandle(this));
+		handles.add(new EHandle(this));
+		handles.add(new SEHandle(this));
+		handles.add(new SHandle(this));
+		handles.add(new SWHandle(this));
+		handles.add(new WHandle(this));
+		return Collections.unmodifiableList(handles);
 	}
 
 	/**
@@ -744,21 +870,49 @@ public class ShapeGroup extends AbstractShape {
 	}
 
 	/**
-	 * Returns a clone of this group by cloning all its
-	 * children. The clone contains also a clone of the
-	 * map with the original shapes of each group member.
+	 * Returns a clone of this group. If others may refer to
+	 * the children, the clone gets them along with their
+	 * mementos, and copies them when it is used first;
+	 * otherwise, it shares the children with this group. The
+	 * children contain also the original size of each group
+	 * member.
 	 *
 	 * @see ch.bfh.due1.jdt.framework.Shape#cloneMe()
 	 */
 	@Override
 	public Shape cloneMe() {
-		List<ChildShape> childClones = new ArrayList<>();
+		if (this.exposed) {
+			List<Memento> mementos = new ArrayList<>(this.children.size());
+			for (ChildShape cs : this.children) {
+				mementos.add(cs.shape.createMemento());
+			}
+			return new ShapeGroup(new ArrayList<>(this.children), mementos);
+		}
+		materialize();
+		if (!this.shared) {
+			for (ChildShape cs : this.children) {
+				cs.shape.addShapeChangedListener(SHARED_CHILD_GUARD);
+			}
+			this.shared = true;
+		}
+		return new ShapeGroup(this.children, true);
+	}
+
+	/**
+	 * Returns a copy of this group having copies of the children, each
+	 * being a snapshot of its child. Unlike cloning, neither shares nor
+	 * marks the children of this group.
+	 *
+	 * @see ch.bfh.due1.jdt.framework.Shape#snapshot()
+	 */
+	@Override
+	public Shape snapshot() {
+		materialize();
+		List<ChildShape> copies = new ArrayList<>(this.children.size());
 		for (ChildShape cs : this.children) {
-			ChildShape clone =
-					new ChildShape(cs.shape.cloneMe(), cs.origSize);
-			childClones.add(clone);
+			copies.add(new ChildShape(cs.shape.snapshot(), cs.origSize));
 		}
-		return new ShapeGroup(childClones, true);
+		return new ShapeGroup(copies, false);
 	}
 
 	/**
@@ -770,6 +924,7 @@ public class ShapeGroup extends AbstractShape {
 	 */
 	@Override
 	public Memento createMemento() {
+		materialize();
 		List<Memento> childMementos =
 				new ArrayList<>();
 		for (ChildShape cs : this.children) {
@@ -782,19 +937,30 @@ public class ShapeGroup extends AbstractShape {
 	 * Resets the shape according to the memento given. It does so by taking the
 	 * child mementos contained in the given memento to reset the group's children,
 	 * and by setting the current bounding box by the bounding box contained in the
-	 * memento.
-	 * <p>
-	 * FIXME Add mechanism that avoids shape listener storms.
+	 * memento. The listeners of the group are notified once.
 	 *
 	 * @see ch.bfh.due1.jdt.framework.Shape#setMemento(Memento)
 	 */
 	@Override
 	public void setMemento(Memento m) {
 		ShapeGroupMemento sm = (ShapeGroupMemento) m;
-		for (int i = 0; i < this.children.size(); i++) {
-			this.children.get(i).shape.setMemento(sm.getChildMementos().get(i));
+		unshare();
+		BoundingBox old = getBoundingBox();
+		this.updating = true;
+		try {
+			for (int i = 0; i < this.children.size(); i++) {
+				this.children.get(i).shape.setMemento(sm.getChildMementos()
+						.get(i));
+			}
+			this.boundingBox = null;
+			if (!getBoundingBox().equals(sm.getBoundingBox())) {
+				scaleChildren(sm.getBoundingBox());
+			}
+		} finally {
+			this.updating = false;
+			this.boundingBox = null;
 		}
-		setBoundingBox(sm.getBoundingBox());
+		notifyShapeChangedListeners(old);
 	}
 
 	/**
@@ -804,6 +970,7 @@ public class ShapeGroup extends AbstractShape {
 	 */
 	@Override
 	public String toString() {
+		materialize();
 		StringBuffer buf = new StringBuffer("ShapeGroup[");
 		for (ChildShape cs : this.children) {
 			buf.append(cs.shape.toString());
@@ -813,28 +980,57 @@ public class ShapeGroup extends AbstractShape {
 	}
 
 	/**
-	 * Adjusts handles according to the current size of the
-	 * group.
+	 * Returns clones of the children, keeping the original
+	 * size of each child.
+	 */
+	private List<ChildShape> cloneChildren() {
+		List<ChildShape> childClones = new ArrayList<>(this.children.size());
+		for (ChildShape cs : this.children) {
+			childClones.add(new ChildShape(cs.shape.cloneMe(), cs.origSize));
+		}
+		return childClones;
+	}
+
+	/**
+	 * Replaces the shared children by clones of them, such that this group
+	 * may change them.
 	 */
-	private final void adjustHandles() {
-		BoundingBox r = getBoundingBox();
-		this.handles.get(0).setPosition(new Coord(r.getX0(), r.getY0()));
-		this.handles.get(1).setPosition(
-				new Coord(r.getX0() + r.getWidth() / 2, r.getY0()));
-		this.handles.get(2).setPosition(
-				new Coord(r.getX0() + r.getWidth(), r.getY0()));
-		this.handles.get(3).setPosition(
-				new Coord(r.getX0() + r.getWidth(), r.getY0()
-						+ r.getHeight() / 2));
-		this.handles.get(4).setPosition(
-				new Coord(r.getX0() + r.getWidth(), r.getY0() + r.getHeight()));
-		this.handles.get(5).setPosition(
-				new Coord(r.getX0() + r.getWidth() / 2, r.getY0()
-						+ r.getHeight()));
-		this.handles.get(6).setPosition(
-				new Coord(r.getX0(), r.getY0() + r.getHeight()));
-		this.handles.get(7).setPosition(
-				new Coord(r.getX0(), r.getY0() + r.getHeight() / 2));
+	private void unshare() {
+		materialize();
+		if (this.shared) {
+			for (ChildShape cs : this.children) {
+				cs.shape.removeShapeChangedListener(this.myShapeListener);
+			}
+			this.children = cloneChildren();
+			this.shared = false;
+			for (ChildShape cs : this.children) {
+				cs.shape.addShapeChangedListener(this.myShapeListener);
+			}
+		}
+	}
+
+	/**
+	 * Replaces the children of the group this group was cloned from by
+	 * clones of them in the state they had when cloned, such that this
+	 * group may use them.
+	 */
+	private void materialize() {
+		if (this.frozen != null) {
+			List<ChildShape> childClones = new ArrayList<>(this.children.size());
+			for (int i = 0; i < this.children.size(); i++) {
+				ChildShape cs = this.children.get(i);
+				Shape clone = cs.shape.cloneMe();
+				clone.setMemento(this.frozen.get(i));
+				childClones.add(new ChildShape(clone, cs.origSize));
+			}
+			this.children = childClones;
+			this.frozen = null;
+			this.shared = false;
+			this.boundingBox = null;
+			for (ChildShape cs : this.children) {
+				cs.shape.addShapeChangedListener(this.myShapeListener);
+			}
+		}
 	}
 
 	/**
@@ -880,19 +1076,45 @@ public class ShapeGroup extends AbstractShape {
 	/**
 	 * Computes and returns the original size of the
 	 * smallest bounding box encompassing all shapes
-	 * of this group.
+	 * of this group. The bounding box is computed only
+	 * if it is not cached.
 	 *
 	 * @return the bounding box of the group
 	 */
 	private BoundingBox getOriginalBoundingBox() {
-		BoundingBox res = null;
-		for (ChildShape c : this.children) {
-			if (res == null) {
-				res = c.origSize;
-			} else {
-				res = res.union(c.origSize);
+		if (this.originalBoundingBox == null) {
+			BoundingBox res = null;
+			for (ChildShape c : this.children) {
+				if (res == null) {
+					res = c.origSize;
+				} else {
+					res = res.union(c.origSize);
+				}
 			}
+			this.originalBoundingBox = res;
+		}
+		return this.originalBoundingBox;
+	}
+
+	/**
+	 * Updates the cached bounding box after a child has changed from the
+	 * given old to the given new bounds. The cache is grown by the new bounds
+	 * if the old bounds lie strictly inside of it; otherwise, the child may
+	 * have defined an edge of the group, and the cache is dropped.
+	 */
+	private void childChanged(BoundingBox oldBounds, BoundingBox newBounds) {
+		BoundingBox b = this.boundingBox;
+		if (b == null) {
+			return;
+		}
+		if (oldBounds == null || newBounds == null
+				|| oldBounds.getMinX() <= b.getMinX()
+				|| oldBounds.getMinY() <= b.getMinY()
+				|| oldBounds.getMaxX() >= b.getMaxX()
+				|| oldBounds.getMaxY() >= b.getMaxY()) {
+			this.boundingBox = null;
+		} else {
+			this.boundingBox = b.union(newBounds);
 		}
-		return res;
 	}
 }
@@ -8,11 +8,9 @@
  */
 package ch.bfh.due1.jdt.simple.impl.shape;
 
-import java.awt.BasicStroke;
 import java.awt.Color;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
-import java.awt.Stroke;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -20,6 +18,7 @@ import ch.bfh.due1.jdt.framework.AbstractShape;
 import ch.bfh.due1.jdt.framework.BoundingBox;
 import ch.bfh.due1.jdt.framework.Coord;
 import ch.bfh.due1.jdt.framework.Memento;
+import ch.bfh.due1.jdt.framework.RenderingResources;
 import ch.bfh.due1.jdt.framework.Shape;
 import ch.bfh.due1.jdt.framework.ShapeHandle;
 import ch.bfh.due1.jdt.framework.Vector;
@@ -34,8 +33,6 @@ public class SimpleBox extends AbstractShape {
 
 	private BoundingBox r;
 
-	private List<ShapeHandle> handles;
-
 	/**
 	 * Private memento that stores the current (drawing) state of this box.
 	 * Instances of this class are value objects.
@@ -73,8 +70,7 @@ public class SimpleBox extends AbstractShape {
 
 	/**
 	 * Creates an arbitrary rotated box with given location and size parameters.
-	 * Notice the the box's handles are created, too. If the box changes its
-	 * shape then the handles are updated correspondingly.
+	 * The handles of the box are created once needed.
 	 * 
 	 * @param x0
 	 *            The x-origin of the upper left corner.
@@ -87,24 +83,7 @@ public class SimpleBox extends AbstractShape {
 	 */
 	public SimpleBox(double x0, double y0, double width, double height) {
 		super();
-		this.handles = new ArrayList<ShapeHandle>();
 		this.r = new BoundingBox((int) x0, (int) y0, (int) width, (int) height);
-		this.handles.add(new DefaultNWHandle(this, new Coord(r.getX0(), r
-				.getY0())));
-		this.handles.add(new DefaultNHandle(this, new Coord(r.getX0()
-				+ (int) (width / 2), r.getY0())));
-		this.handles.add(new DefaultNEHandle(this, new Coord(r.getX0()
-				+ (int) width, r.getY0())));
-		this.handles.add(new DefaultEHandle(this, new Coord(r.getX0()
-				+ (int) width, r.getY0() + (int) (height / 2))));
-		this.handles.add(new DefaultSEHandle(this, new Coord(r.getX0()
-				+ (int) width, r.getY0() + (int) height)));
-		this.handles.add(new DefaultSHandle(this, new Coord(r.getX0()
-				+ (int) (width / 2), r.getY0() + (int) height)));
-		this.handles.add(new DefaultSWHandle(this, new Coord(r.getX0(), r
-				.getY0() + (int) height)));
-		this.handles.add(new DefaultWHandle(this, new Coord(r.getX0(), r
-				.getY0() + (int) (height / 2))));
 	}
 
 	/**
@@ -117,12 +96,15 @@ public class SimpleBox extends AbstractShape {
 	protected void doDrawShape(Graphics g) {
 		Graphics2D g2 = (Graphics2D) g;
 		Color current = g2.getColor();
-		Stroke stroke = new BasicStroke(this.penSize);
-		g2.setStroke(stroke);
+		int x0 = this.r.getMinX();
+		int y0 = this.r.getMinY();
+		int w = this.r.getMaxX() - x0;
+		int h = this.r.getMaxY() - y0;
+		g2.setStroke(RenderingResources.getStroke(this.penSize));
 		g2.setColor(this.penColor);
-		g2.draw(this.r.getAWTRectangle());
+		g2.drawRect(x0, y0, w, h);
 		g2.setColor(this.fillColor);
-		g2.fill(this.r.getAWTRectangle());
+		g2.fillRect(x0, y0, w, h);
 		g2.setColor(current);
 	}
 
@@ -145,11 +127,23 @@ public class SimpleBox extends AbstractShape {
 	}
 
 	/**
-	 * @inheritDoc
+	 * Creates the eight handles of the box. Their locations follow the
+	 * bounding box.
+	 * 
+	 * @see ch.bfh.due1.jdt.framework.AbstractShape#createShapeHandles()
 	 */
 	@Override
-	public List<ShapeHandle> getShapeHandles() {
-		return this.handles;
+	protected List<ShapeHandle> createShapeHandles() {
+		List<ShapeHandle> handles = new ArrayList<ShapeHandle>(8);
+		handles.add(new DefaultNWHandle(this));
+		handles.add(new DefaultNHandle(this));
+		handles.add(new DefaultNEHandle(this));
+		handles.add(new DefaultEHandle(this));
+		handles.add(new DefaultSEHandle(this));
+		handles.add(new DefaultSHandle(this));
+		handles.add(new DefaultSWHandle(this));
+		handles.add(new DefaultWHandle(this));
+		return handles;
 	}
 
 	/**
@@ -166,31 +160,9 @@ public class SimpleBox extends AbstractShape {
 	@Override
 	public void setBoundingBox(BoundingBox r) {
 		if (!this.r.equals(r)) {
+			BoundingBox old = this.r;
 			this.r = r;
-			if (this.handles != null) {
-				this.handles.get(0)
-						.setPosition(new Coord(r.getX0(), r.getY0()));
-				this.handles.get(1).setPosition(
-						new Coord(r.getX0() + (int) (r.getWidth() / 2), r
-								.getY0()));
-				this.handles.get(2).setPosition(
-						new Coord(r.getX0() + r.getWidth(), r.getY0()));
-				this.handles.get(3).setPosition(
-						new Coord(r.getX0() + r.getWidth(), r.getY0()
-								+ (int) (r.getHeight() / 2)));
-				this.handles.get(4).setPosition(
-						new Coord(r.getX0() + r.getWidth(), r.getY0()
-								+ r.getHeight()));
-				this.handles.get(5).setPosition(
-						new Coord(r.getX0() + (int) (r.getWidth() / 2), r
-								.getY0() + r.getHeight()));
-				this.handles.get(6).setPosition(
-						new Coord(r.getX0(), r.getY0() + r.getHeight()));
-				this.handles.get(7).setPosition(
-						new Coord(r.getX0(), r.getY0()
-								+ (int) (r.getHeight() / 2)));
-			}
-			notifyShapeChangedListeners();
+			notifyShapeChangedListeners(old);
 		}
 	}
 
@@ -8,13 +8,9 @@
  */
 package ch.bfh.due1.jdt.simple.impl.shape;
 
-import java.awt.BasicStroke;
 import java.awt.Color;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
-import java.awt.Rectangle;
-import java.awt.Stroke;
-import java.awt.geom.Ellipse2D;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -22,6 +18,7 @@ import ch.bfh.due1.jdt.framework.AbstractShape;
 import ch.bfh.due1.jdt.framework.BoundingBox;
 import ch.bfh.due1.jdt.framework.Coord;
 import ch.bfh.due1.jdt.framework.Memento;
+import ch.bfh.due1.jdt.framework.RenderingResources;
 import ch.bfh.due1.jdt.framework.Shape;
 import ch.bfh.due1.jdt.framework.ShapeHandle;
 import ch.bfh.due1.jdt.framework.Vector;
@@ -36,8 +33,6 @@ public class SimpleEllipse extends AbstractShape {
 
 	private BoundingBox r;
 
-	private List<ShapeHandle> handles;
-
 	/**
 	 * Private memento that stores the current (drawing) state of this box.
 	 * Instances of this class are value objects.
@@ -90,15 +85,6 @@ public class SimpleEllipse extends AbstractShape {
 	public SimpleEllipse(double x0, double y0, double width, double height) {
 		super(Color.YELLOW, Color.BLUE, 2);
 		this.r = new BoundingBox((int) x0, (int) y0, (int) width, (int) height);
-		this.handles = new ArrayList<ShapeHandle>();
-		this.handles.add(new DefaultNHandle(this, new Coord(r.getX0()
-				+ (int) (width / 2), r.getY0())));
-		this.handles.add(new DefaultEHandle(this, new Coord(r.getX0()
-				+ (int) width, r.getY0() + (int) (height / 2))));
-		this.handles.add(new DefaultSHandle(this, new Coord(r.getX0()
-				+ (int) (width / 2), r.getY0() + (int) height)));
-		this.handles.add(new DefaultWHandle(this, new Coord(r.getX0(), r
-				.getY0() + (int) (height / 2))));
 	}
 
 	/**
@@ -111,15 +97,15 @@ public class SimpleEllipse extends AbstractShape {
 	protected void doDrawShape(Graphics g) {
 		Graphics2D g2 = (Graphics2D) g;
 		Color current = g2.getColor();
-		Stroke stroke = new BasicStroke(this.penSize);
-		g2.setStroke(stroke);
+		int x0 = this.r.getMinX();
+		int y0 = this.r.getMinY();
+		int w = this.r.getMaxX() - x0;
+		int h = this.r.getMaxY() - y0;
+		g2.setStroke(RenderingResources.getStroke(this.penSize));
 		g2.setColor(this.penColor);
-		Rectangle rr = this.r.getAWTRectangle();
-		g2.draw(new Ellipse2D.Double(rr.getX(), rr.getY(), rr.getWidth(), rr
-				.getHeight()));
+		g2.drawOval(x0, y0, w, h);
 		g2.setColor(this.fillColor);
-		g2.fill(new Ellipse2D.Double(rr.getX(), rr.getY(), rr.getWidth(), rr
-				.getHeight()));
+		g2.fillOval(x0, y0, w, h);
 		g2.setColor(current);
 	}
 
@@ -138,16 +124,31 @@ public class SimpleEllipse extends AbstractShape {
 	 */
 	@Override
 	public boolean contains(Coord c) {
-		return new Ellipse2D.Double(r.getX0(), r.getY0(), r.getWidth(),
-				r.getHeight()).contains(c.getAWTPoint());
+		// Same test as Ellipse2D.contains(), without allocating objects.
+		double w = this.r.getWidth();
+		double h = this.r.getHeight();
+		if (w <= 0.0 || h <= 0.0) {
+			return false;
+		}
+		double nx = (c.getX0() - this.r.getX0()) / w - 0.5;
+		double ny = (c.getY0() - this.r.getY0()) / h - 0.5;
+		return nx * nx + ny * ny < 0.25;
 	}
 
 	/**
-	 * @inheritDoc
+	 * Creates the four handles of the ellipse. Their locations follow the
+	 * bounding box.
+	 * 
+	 * @see ch.bfh.due1.jdt.framework.AbstractShape#createShapeHandles()
 	 */
 	@Override
-	public List<ShapeHandle> getShapeHandles() {
-		return this.handles;
+	protected List<ShapeHandle> createShapeHandles() {
+		List<ShapeHandle> handles = new ArrayList<ShapeHandle>(4);
+		handles.add(new DefaultNHandle(this));
+		handles.add(new DefaultEHandle(this));
+		handles.add(new DefaultSHandle(this));
+		handles.add(new DefaultWHandle(this));
+		return handles;
 	}
 
 	/**
@@ -164,23 +165,9 @@ public class SimpleEllipse extends AbstractShape {
 	@Override
 	public void setBoundingBox(BoundingBox r) {
 		if (!this.r.equals(r)) {
+			BoundingBox old = this.r;
 			this.r = r;
-			// Not very safe, indeed!
-			if (this.handles != null) {
-				this.handles.get(0).setPosition(
-						new Coord(r.getX0() + (int) (r.getWidth() / 2), r
-								.getY0()));
-				this.handles.get(1).setPosition(
-						new Coord(r.getX0() + r.getWidth(), r.getY0()
-								+ (int) (r.getHeight() / 2)));
-				this.handles.get(2).setPosition(
-						new Coord(r.getX0() + (int) (r.getWidth() / 2), r
-								.getY0() + r.getHeight()));
-				this.handles.get(3).setPosition(
-						new Coord(r.getX0(), r.getY0()
-								+ (int) (r.getHeight() / 2)));
-			}
-			notifyShapeChangedListeners();
+			notifyShapeChangedListeners(old);
 		}
 	}
 
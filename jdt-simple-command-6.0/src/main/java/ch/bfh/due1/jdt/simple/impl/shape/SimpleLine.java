@@ -8,12 +8,10 @@
  */
 package ch.bfh.due1.jdt.simple.impl.shape;
 
-import java.awt.BasicStroke;
 import java.awt.Color;
 import java.awt.Cursor;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
-import java.awt.Stroke;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -23,6 +21,7 @@ import ch.bfh.due1.jdt.framework.BoundingBox;
 import ch.bfh.due1.jdt.framework.Coord;
 import ch.bfh.due1.jdt.framework.KeyModifier;
 import ch.bfh.due1.jdt.framework.Memento;
+import ch.bfh.due1.jdt.framework.RenderingResources;
 import ch.bfh.due1.jdt.framework.Shape;
 import ch.bfh.due1.jdt.framework.ShapeHandle;
 import ch.bfh.due1.jdt.framework.Vector;
@@ -42,12 +41,6 @@ public class SimpleLine extends AbstractShape {
 	 */
 	private BoundingBox r;
 
-	/**
-	 * Contains the handles. Notice that the handles' location is maintained by
-	 * the line itself.
-	 */
-	private List<ShapeHandle> handles;
-
 	/**
 	 * Handle for the point at which the line starts.
 	 * 
@@ -60,11 +53,9 @@ public class SimpleLine extends AbstractShape {
 		 * 
 		 * @param owner
 		 *            The owner, i.e., this line.
-		 * @param location
-		 *            The location of the handle.
 		 */
-		protected OriginPointHandle(Shape owner, Coord location) {
-			super(owner, location);
+		protected OriginPointHandle(Shape owner) {
+			super(owner);
 		}
 
 		/**
@@ -72,8 +63,7 @@ public class SimpleLine extends AbstractShape {
 		 */
 		@Override
 		public Cursor getCursor() {
-			Cursor c = Cursor.getPredefinedCursor(Cursor.HAND_CURSOR);
-			return c;
+			return RenderingResources.getCursor(Cursor.HAND_CURSOR);
 		}
 
 		/**
@@ -104,11 +94,20 @@ public class SimpleLine extends AbstractShape {
 		 * 
 		 * @param owner
 		 *            The owner, i.e., this line.
-		 * @param location
-		 *            The location of the handle.
 		 */
-		protected FinalPointHandle(Shape owner, Coord location) {
-			super(owner, location);
+		protected FinalPointHandle(Shape owner) {
+			super(owner);
+		}
+
+		/**
+		 * Returns the final point of the line.
+		 * 
+		 * @see ch.bfh.due1.jdt.framework.AbstractHandle#locate(ch.bfh.due1.jdt.framework.BoundingBox)
+		 */
+		@Override
+		protected Coord locate(BoundingBox r) {
+			return new Coord(r.getX0() + r.getWidth(), r.getY0()
+					+ r.getHeight());
 		}
 
 		/**
@@ -116,8 +115,7 @@ public class SimpleLine extends AbstractShape {
 		 */
 		@Override
 		public Cursor getCursor() {
-			Cursor c = Cursor.getPredefinedCursor(Cursor.HAND_CURSOR);
-			return c;
+			return RenderingResources.getCursor(Cursor.HAND_CURSOR);
 		}
 
 		/**
@@ -169,9 +167,8 @@ public class SimpleLine extends AbstractShape {
 	}
 
 	/**
-	 * Creates a line with given location and size parameters. Notice the the
-	 * box's handles are created, too. If the line changes its position then the
-	 * handles are updated correspondingly.
+	 * Creates a line with given location and size parameters. The handles of
+	 * the line are created once needed.
 	 * 
 	 * @param x0
 	 *            The x-origin of the line's first point.
@@ -185,11 +182,6 @@ public class SimpleLine extends AbstractShape {
 	public SimpleLine(int x0, int y0, int width, int height) {
 		super();
 		this.r = new BoundingBox(x0, y0, width, height);
-		this.handles = new ArrayList<ShapeHandle>();
-		this.handles.add(new OriginPointHandle(this, new Coord(r.getX0(), r
-				.getY0())));
-		this.handles.add(new FinalPointHandle(this, new Coord(r.getX0()
-				+ r.getWidth(), r.getY0() + r.getHeight())));
 	}
 
 	/**
@@ -202,8 +194,7 @@ public class SimpleLine extends AbstractShape {
 	protected void doDrawShape(Graphics g) {
 		Graphics2D g2 = (Graphics2D) g;
 		Color current = g2.getColor();
-		Stroke stroke = new BasicStroke(this.penSize);
-		g2.setStroke(stroke);
+		g2.setStroke(RenderingResources.getStroke(this.penSize));
 		g2.setColor(this.penColor);
 		g2.drawLine(r.getX0(), r.getY0(), r.getX0() + r.getWidth(), r.getY0()
 				+ r.getHeight());
@@ -225,17 +216,20 @@ public class SimpleLine extends AbstractShape {
 	 */
 	@Override
 	public boolean contains(Coord c) {
-		boolean rval = false;
-		rval = isCloseToLine(c, 2);
-		return rval;
+		return mayContain(c) && isCloseToLine(c, HIT_TOLERANCE);
 	}
 
 	/**
-	 * @inheritDoc
+	 * Creates the handles of the origin and the final point of the line.
+	 * 
+	 * @see ch.bfh.due1.jdt.framework.AbstractShape#createShapeHandles()
 	 */
 	@Override
-	public List<ShapeHandle> getShapeHandles() {
-		return this.handles;
+	protected List<ShapeHandle> createShapeHandles() {
+		List<ShapeHandle> handles = new ArrayList<ShapeHandle>(2);
+		handles.add(new OriginPointHandle(this));
+		handles.add(new FinalPointHandle(this));
+		return handles;
 	}
 
 	/**
@@ -252,15 +246,9 @@ public class SimpleLine extends AbstractShape {
 	@Override
 	public void setBoundingBox(BoundingBox r) {
 		if (!this.r.equals(r)) {
+			BoundingBox old = this.r;
 			this.r = r;
-			if (this.handles != null) {
-				this.handles.get(0)
-						.setPosition(new Coord(r.getX0(), r.getY0()));
-				this.handles.get(1).setPosition(
-						new Coord(r.getX0() + r.getWidth(), r.getY0()
-								+ r.getHeight()));
-			}
-			notifyShapeChangedListeners();
+			notifyShapeChangedListeners(old);
 		}
 	}
 
@@ -328,28 +316,19 @@ public class SimpleLine extends AbstractShape {
 	 * @return true if the distance is smaller than epsilon, false otherwise
 	 */
 	private boolean isCloseToLine(Coord c, int epsilon) {
-		boolean rval;
-		Coord a = this.r.getOrigin();
-		Coord b = new Coord(a.getX0() + this.r.getWidth(), a.getY0()
-				+ this.r.getHeight());
-		Vector oa = new Vector(a); // place vector of a
-		Vector ob = new Vector(b); // place vector of b
-		Vector oc = new Vector(c); // place vector of c
-		Vector ab = ob.minus(oa); // distance vector ab
-		Vector ac = oc.minus(oa); // distance vector ac
-		Vector ab_n = ab.getNormalVector(); // norm vector of ab
-		double D = ab.getDeterminantBy(ab_n);
-		double D_alpha = ac.getDeterminantBy(ab_n);
-		double D_beta = ab.getDeterminantBy(ac);
-		double alpha = D_alpha / D;
-		double distance = 0.0;
-		if (alpha < 0.0 || alpha > 1.0) {
-			rval = false;
-		} else {
-			double beta = D_beta / D;
-			distance = Math.abs(beta * ab_n.magnitude());
-			rval = distance <= epsilon;
+		double abX = this.r.getWidth();
+		double abY = this.r.getHeight();
+		double acX = c.getX0() - this.r.getX0();
+		double acY = c.getY0() - this.r.getY0();
+		// alpha: the projection of ac onto ab, relative to the length of ab.
+		double d = abX * abX + abY * abY;
+		double alpha = (acX * abX + acY * abY) / d;
+		if (!(alpha >= 0.0 && alpha <= 1.0)) {
+			// Beyond the end points, or a line of length 0.
+			return false;
 		}
-		return rval;
+		// The distance from the line is |ab x ac| / |ab|.
+		double cross = abX * acY - abY * acX;
+		return cross * cross <= (double) epsilon * epsilon * d;
 	}
 }
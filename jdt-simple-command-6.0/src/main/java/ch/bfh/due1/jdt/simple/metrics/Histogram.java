@@ -0,0 +1,150 @@
+/*
+ * Eric Dubuis, Berner Fachhochschule,
+ * Biel, Switzerland.
+ * Copyright (c) 2007
+ *
+ * Distributable under LGPL license.
+ * See terms of license at gnu.org.
+ */
+package ch.bfh.due1.jdt.simple.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A histogram of non-negative values, e.g., latencies in nanoseconds. The
+ * values are counted in buckets of logarithmic size: each power of two is
+ * split into four buckets. Hence, the percentiles reported are off by at most
+ * 25 percent. Recording a value takes a few atomic operations and does not
+ * allocate; it may be called by several threads at a time.
+ *
+ * @author Eric Dubuis
+ */
+public final class Histogram {
+	/** The number of buckets per power of two, as a power of two. */
+	private static final int SUB_BITS = 2;
+
+	/** The number of buckets per power of two. */
+	private static final int SUB_BUCKETS = 1 << SUB_BITS;
+
+	/** The number of buckets covering all non-negative long values. */
+	private static final int BUCKETS = SUB_BUCKETS * (64 - SUB_BITS);
+
+	/** The number of values per bucket. */
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+	/** The number of values. */
+	private final AtomicLong count = new AtomicLong();
+
+	/** The sum of the values. */
+	private final AtomicLong sum = new AtomicLong();
+
+	/** The largest value. */
+	private final AtomicLong max = new AtomicLong();
+
+	/**
+	 * Records the given value. Negative values are recorded as 0.
+	 *
+	 * @param value
+	 *            a value
+	 */
+	public void record(long value) {
+		if (value < 0) {
+			value = 0;
+		}
+		this.counts.incrementAndGet(bucketOf(value));
+		this.count.incrementAndGet();
+		this.sum.addAndGet(value);
+		long m = this.max.get();
+		while (value > m && !this.max.compareAndSet(m, value)) {
+			m = this.max.get();
+		}
+	}
+
+	/**
+	 * Returns the number of values recorded.
+	 *
+	 * @return the number of values
+	 */
+	public long getCount() {
+		return this.count.get();
+	}
+
+	/**
+	 * Returns the summary of the values recorded, scaled by the given factor,
+	 * e.g., 1e-3 to report nanoseconds in microseconds. As values may be
+	 * recorded meanwhile, the summary is approximate.
+	 *
+	 * @param scale
+	 *            the factor applied to the values
+	 * @return the summary
+	 */
+	public HistogramSummary summarize(double scale) {
+		long n = this.count.get();
+		double mean = n == 0 ? 0.0 : (double) this.sum.get() / n;
+		long m = this.max.get();
+		return new HistogramSummary(n, mean * scale, percentile(0.5, m)
+				* scale, percentile(0.9, m) * scale, percentile(0.99, m)
+				* scale, m * scale);
+	}
+
+	/**
+	 * Forgets all values recorded.
+	 */
+	public void reset() {
+		for (int i = 0; i < BUCKETS; i++) {
+			this.counts.set(i, 0);
+		}
+		this.count.set(0);
+		this.sum.set(0);
+		this.max.set(0);
+	}
+
+	/**
+	 * Returns the upper bound of the bucket holding the given fraction of
+	 * the values, but at most the given maximum.
+	 */
+	private long percentile(double fraction, long m) {
+		long total = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			total += this.counts.get(i);
+		}
+		if (total == 0) {
+			return 0;
+		}
+		long rank = (long) Math.ceil(fraction * total);
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += this.counts.get(i);
+			if (seen >= rank) {
+				return Math.min(upperBoundOf(i), m);
+			}
+		}
+		return m;
+	}
+
+	/**
+	 * Returns the bucket of the given value.
+	 */
+	static int bucketOf(long value) {
+		if (value < SUB_BUCKETS) {
+			return (int) value;
+		}
+		int exp = 63 - Long.numberOfLeadingZeros(value);
+		int sub = (int) (value >>> (exp - SUB_BITS)) & (SUB_BUCKETS - 1);
+		return SUB_BUCKETS * (exp - SUB_BITS + 1) + sub;
+	}
+
+	/**
+	 * Returns the largest value of the given bucket.
+	 */
+	static long upperBoundOf(int bucket) {
+		if (bucket < SUB_BUCKETS) {
+			return bucket;
+		}
+		int exp = bucket / SUB_BUCKETS + SUB_BITS - 1;
+		int sub = bucket % SUB_BUCKETS;
+		long next = (long) (SUB_BUCKETS + sub + 1) << (exp - SUB_BITS);
+		return next < 0 ? Long.MAX_VALUE : next - 1;
+	}
+}
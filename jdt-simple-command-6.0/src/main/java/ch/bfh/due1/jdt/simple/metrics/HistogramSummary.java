@@ -0,0 +1,107 @@
+/*
+ * Eric Dubuis, Berner Fachhochschule,
+ * Biel, Switzerland.
+ * Copyright (c) 2007
+ *
+ * Distributable under LGPL license.
+ * See terms of license at gnu.org.
+ */
+package ch.bfh.due1.jdt.simple.metrics;
+
+import java.beans.ConstructorProperties;
+
+/**
+ * The summary of a histogram. JMX clients see it as composite data.
+ *
+ * @see Histogram#summarize(double)
+ * @author Eric Dubuis
+ */
+public final class HistogramSummary {
+	private final long count;
+	private final double mean;
+	private final double p50;
+	private final double p90;
+	private final double p99;
+	private final double max;
+
+	/**
+	 * Creates a summary.
+	 *
+	 * @param count
+	 *            the number of values
+	 * @param mean
+	 *            the mean value
+	 * @param p50
+	 *            the median
+	 * @param p90
+	 *            the 90th percentile
+	 * @param p99
+	 *            the 99th percentile
+	 * @param max
+	 *            the largest value
+	 */
+	@ConstructorProperties({ "count", "mean", "p50", "p90", "p99", "max" })
+	public HistogramSummary(long count, double mean, double p50, double p90,
+			double p99, double max) {
+		this.count = count;
+		this.mean = mean;
+		this.p50 = p50;
+		this.p90 = p90;
+		this.p99 = p99;
+		this.max = max;
+	}
+
+	/**
+	 * @return the number of values
+	 */
+	public long getCount() {
+		return this.count;
+	}
+
+	/**
+	 * @return the mean value
+	 */
+	public double getMean() {
+		return this.mean;
+	}
+
+	/**
+	 * @return the median
+	 */
+	public double getP50() {
+		return this.p50;
+	}
+
+	/**
+	 * @return the 90th percentile
+	 */
+	public double getP90() {
+		return this.p90;
+	}
+
+	/**
+	 * @return the 99th percentile
+	 */
+	public double getP99() {
+		return this.p99;
+	}
+
+	/**
+	 * @return the largest value
+	 */
+	public double getMax() {
+		return this.max;
+	}
+
+	/**
+	 * Returns the values of this summary.
+	 *
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return "HistogramSummary[count=" + this.count + ", mean=" + this.mean
+				+ ", p50=" + this.p50 + ", p90=" + this.p90 + ", p99="
+				+ this.p99 + ", max=" + this.max + "]";
+	}
+}
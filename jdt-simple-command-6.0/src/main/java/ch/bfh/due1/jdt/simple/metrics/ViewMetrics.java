@@ -0,0 +1,259 @@
+/*
+ * Eric Dubuis, Berner Fachhochschule,
+ * Biel, Switzerland.
+ * Copyright (c) 2007
+ *
+ * Distributable under LGPL license.
+ * See terms of license at gnu.org.
+ */
+package ch.bfh.due1.jdt.simple.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import ch.bfh.due1.jdt.framework.Tool;
+
+/**
+ * Records the latencies of the tools handling mouse events, the time taken
+ * to paint the views, the number of shapes drawn per frame, the frames
+ * painted per second, and the mouse events dropped by input coalescing. An
+ * instance is shared by the views of an editor and published as an MXBean
+ * under the name {@link #OBJECT_NAME}; it can be watched by the JDK tools,
+ * e.g., jconsole.
+ *
+ * @see ch.bfh.due1.jdt.simple.DefaultView#setMetrics(ViewMetrics)
+ * @author Eric Dubuis
+ */
+public class ViewMetrics implements ViewMetricsMXBean {
+	/**
+	 * The name under which the metrics are registered with the platform
+	 * MBean server.
+	 */
+	public static final String OBJECT_NAME = "ch.bfh.due1.jdt:type=ViewMetrics";
+
+	/** Scales nanoseconds to microseconds. */
+	private static final double MICROS = 1e-3;
+
+	/** The nanoseconds of a second. */
+	private static final long SECOND = 1000000000L;
+
+	/**
+	 * The mouse events passed to a tool.
+	 */
+	public enum ToolEvent {
+		/** The mouse button was pressed. */
+		MOUSE_DOWN("mouseDown"),
+		/** The mouse was dragged. */
+		MOUSE_DRAG("mouseDrag"),
+		/** The mouse button was released. */
+		MOUSE_UP("mouseUp"),
+		/** The mouse was moved. */
+		MOUSE_OVER("mouseOver");
+
+		private final String methodName;
+
+		private ToolEvent(String methodName) {
+			this.methodName = methodName;
+		}
+	}
+
+	/** The latencies by tool class and event. */
+	private final ConcurrentMap<Class<?>, Histogram[]> toolLatencies = new ConcurrentHashMap<Class<?>, Histogram[]>();
+
+	/** The paint latency. */
+	private final Histogram paintLatency = new Histogram();
+
+	/** The rasterize latency. */
+	private final Histogram rasterizeLatency = new Histogram();
+
+	/** The number of shapes drawn per frame. */
+	private final Histogram shapesDrawn = new Histogram();
+
+	/** The number of mouse events dropped by input coalescing. */
+	private final AtomicLong droppedEvents = new AtomicLong();
+
+	/** The second the frames are counted of. */
+	private long frameSecond;
+
+	/** The frames painted in the current second. */
+	private int framesCounted;
+
+	/** The frames painted in the second before, if it was counted. */
+	private int framesBefore;
+
+	/**
+	 * Records the time taken by the given tool to handle the given event.
+	 *
+	 * @param tool
+	 *            the tool
+	 * @param event
+	 *            the event
+	 * @param nanos
+	 *            the time in nanoseconds
+	 */
+	public void recordToolEvent(Tool tool, ToolEvent event, long nanos) {
+		Class<?> c = tool.getClass();
+		Histogram[] h = this.toolLatencies.get(c);
+		if (h == null) {
+			h = new Histogram[ToolEvent.values().length];
+			for (int i = 0; i < h.length; i++) {
+				h[i] = new Histogram();
+			}
+			Histogram[] other = this.toolLatencies.putIfAbsent(c, h);
+			if (other != null) {
+				h = other;
+			}
+		}
+		h[event.ordinal()].record(nanos);
+	}
+
+	/**
+	 * Records the time taken to paint a view, and the number of shapes
+	 * drawn.
+	 *
+	 * @param nanos
+	 *            the time in nanoseconds
+	 * @param shapes
+	 *            the number of shapes drawn, or -1 if unknown
+	 */
+	public void recordPaint(long nanos, int shapes) {
+		this.paintLatency.record(nanos);
+		if (shapes >= 0) {
+			this.shapesDrawn.record(shapes);
+		}
+		countFrame(System.nanoTime());
+	}
+
+	/**
+	 * Records a mouse event dropped by input coalescing.
+	 *
+	 * @see ch.bfh.due1.jdt.simple.InputCoalescer
+	 */
+	public void recordDroppedEvent() {
+		this.droppedEvents.incrementAndGet();
+	}
+
+	/**
+	 * Counts a frame painted at the given time.
+	 */
+	private synchronized void countFrame(long now) {
+		long second = now / SECOND;
+		if (second != this.frameSecond) {
+			this.framesBefore = second == this.frameSecond + 1 ? this.framesCounted
+					: 0;
+			this.frameSecond = second;
+			this.framesCounted = 0;
+		}
+		this.framesCounted++;
+	}
+
+	/**
+	 * Records the time taken to rasterize a frame in the background, and the
+	 * number of shapes drawn.
+	 *
+	 * @param nanos
+	 *            the time in nanoseconds
+	 * @param shapes
+	 *            the number of shapes drawn
+	 */
+	public void recordRasterize(long nanos, int shapes) {
+		this.rasterizeLatency.record(nanos);
+		this.shapesDrawn.record(shapes);
+	}
+
+	/**
+	 * @inheritDoc
+	 */
+	@Override
+	public Map<String, HistogramSummary> getToolLatencies() {
+		Map<String, HistogramSummary> result = new TreeMap<String, HistogramSummary>();
+		for (Map.Entry<Class<?>, Histogram[]> e : this.toolLatencies
+				.entrySet()) {
+			for (ToolEvent event : ToolEvent.values()) {
+				Histogram h = e.getValue()[event.ordinal()];
+				if (h.getCount() > 0) {
+					result.put(e.getKey().getName() + "." + event.methodName,
+							h.summarize(MICROS));
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * @inheritDoc
+	 */
+	@Override
+	public HistogramSummary getPaintLatency() {
+		return this.paintLatency.summarize(MICROS);
+	}
+
+	/**
+	 * @inheritDoc
+	 */
+	@Override
+	public HistogramSummary getRasterizeLatency() {
+		return this.rasterizeLatency.summarize(MICROS);
+	}
+
+	/**
+	 * @inheritDoc
+	 */
+	@Override
+	public HistogramSummary getShapesDrawn() {
+		return this.shapesDrawn.summarize(1.0);
+	}
+
+	/**
+	 * @inheritDoc
+	 */
+	@Override
+	public synchronized int getFramesPerSecond() {
+		long second = System.nanoTime() / SECOND;
+		if (second == this.frameSecond) {
+			return this.framesBefore;
+		}
+		return second == this.frameSecond + 1 ? this.framesCounted : 0;
+	}
+
+	/**
+	 * @inheritDoc
+	 */
+	@Override
+	public long getDroppedEvents() {
+		return this.droppedEvents.get();
+	}
+
+	/**
+	 * @inheritDoc
+	 */
+	@Override
+	public void reset() {
+		for (Histogram[] h : this.toolLatencies.values()) {
+			for (Histogram x : h) {
+				x.reset();
+			}
+		}
+		this.paintLatency.reset();
+		this.rasterizeLatency.reset();
+		this.shapesDrawn.reset();
+		this.droppedEvents.set(0);
+		synchronized (this) {
+			this.framesCounted = 0;
+			this.framesBefore = 0;
+		}
+	}
+
+	/**
+	 * Returns the class name of this implementation.
+	 *
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return this.getClass().getName();
+	}
+}
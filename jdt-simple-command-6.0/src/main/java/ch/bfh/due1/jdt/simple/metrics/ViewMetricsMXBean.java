@@ -0,0 +1,70 @@
+/*
+ * Eric Dubuis, Berner Fachhochschule,
+ * Biel, Switzerland.
+ * Copyright (c) 2007
+ *
+ * Distributable under LGPL license.
+ * See terms of license at gnu.org.
+ */
+package ch.bfh.due1.jdt.simple.metrics;
+
+import java.util.Map;
+
+/**
+ * The management interface of the view metrics. Latencies are given in
+ * microseconds.
+ *
+ * @see ViewMetrics
+ * @author Eric Dubuis
+ */
+public interface ViewMetricsMXBean {
+	/**
+	 * Returns the latencies of the tools handling mouse events, by tool and
+	 * event, e.g., "ch.bfh.due1.jdt.simple.selection.SelectionTool.mouseDrag".
+	 *
+	 * @return the latencies in microseconds
+	 */
+	public Map<String, HistogramSummary> getToolLatencies();
+
+	/**
+	 * Returns the time taken by the event dispatch thread to paint a view.
+	 *
+	 * @return the latency in microseconds
+	 */
+	public HistogramSummary getPaintLatency();
+
+	/**
+	 * Returns the time taken by the render thread to rasterize a frame.
+	 *
+	 * @return the latency in microseconds
+	 */
+	public HistogramSummary getRasterizeLatency();
+
+	/**
+	 * Returns the number of shapes drawn per frame.
+	 *
+	 * @return the number of shapes
+	 */
+	public HistogramSummary getShapesDrawn();
+
+	/**
+	 * Returns the number of frames painted in the last full second by all
+	 * views.
+	 *
+	 * @return the frames per second
+	 */
+	public int getFramesPerSecond();
+
+	/**
+	 * Returns the number of mouse events dropped by input coalescing, i.e.,
+	 * replaced by a later event within the same frame.
+	 *
+	 * @return the number of events
+	 */
+	public long getDroppedEvents();
+
+	/**
+	 * Forgets all values recorded.
+	 */
+	public void reset();
+}
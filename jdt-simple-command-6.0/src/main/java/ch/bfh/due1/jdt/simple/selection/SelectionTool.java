@@ -9,12 +9,11 @@
 
 package ch.bfh.due1.jdt.simple.selection;
 
-import java.awt.BasicStroke;
 import java.awt.Color;
 import java.awt.Cursor;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
-import java.awt.Stroke;
+import java.util.ArrayList;
 import java.util.List;
 
 import ch.bfh.due1.jdt.framework.AbstractShape;
@@ -24,6 +23,7 @@ import ch.bfh.due1.jdt.framework.DefaultTool;
 import ch.bfh.due1.jdt.framework.Editor;
 import ch.bfh.due1.jdt.framework.KeyModifier;
 import ch.bfh.due1.jdt.framework.Memento;
+import ch.bfh.due1.jdt.framework.RenderingResources;
 import ch.bfh.due1.jdt.framework.Shape;
 import ch.bfh.due1.jdt.framework.ShapeHandle;
 import ch.bfh.due1.jdt.framework.Vector;
@@ -43,7 +43,8 @@ public final class SelectionTool extends DefaultTool {
 	/**
 	 * The default cursor for moving shapes.
 	 */
-	public static final Cursor MOVE_CURSOR = new Cursor(Cursor.MOVE_CURSOR);
+	public static final Cursor MOVE_CURSOR = RenderingResources
+			.getCursor(Cursor.MOVE_CURSOR);
 
 	/**
 	 * The factory for creating state objects.
@@ -118,10 +119,10 @@ public final class SelectionTool extends DefaultTool {
 		protected void doDrawShape(Graphics g) {
 			Graphics2D g2 = (Graphics2D) g;
 			Color current = g2.getColor();
-			Stroke stroke = new BasicStroke(1);
-			g2.setStroke(stroke);
+			g2.setStroke(RenderingResources.getStroke(1));
 			g2.setColor(this.penColor);
-			g2.draw(this.r.getAWTRectangle());
+			g2.drawRect(this.r.getMinX(), this.r.getMinY(), this.r.getMaxX()
+					- this.r.getMinX(), this.r.getMaxY() - this.r.getMinY());
 			g2.setColor(current);
 		}
 
@@ -153,8 +154,9 @@ public final class SelectionTool extends DefaultTool {
 		@Override
 		public void setBoundingBox(BoundingBox r) {
 			if (!this.r.equals(r)) {
+				BoundingBox old = this.r;
 				this.r = r;
-				notifyShapeChangedListeners();
+				notifyShapeChangedListeners(old);
 			}
 		}
 
@@ -316,21 +318,14 @@ public final class SelectionTool extends DefaultTool {
 	}
 
 	/**
-	 * Returns the shape under a given location, if any.
+	 * Returns the topmost shape under a given location, if any.
 	 *
 	 * @param c
 	 *            a location
 	 * @return a shape if there exists one at the given location, null otherwise
 	 */
 	final Shape getShapeByCoord(Coord c) {
-		// iterate over reverse stacking order
-		for (int i = getShapes().size() - 1; i >= 0; i--) {
-			Shape s = getShapes().get(i);
-			if (s.contains(c)) {
-				return s;
-			}
-		}
-		return null;
+		return getEditor().getShapeAt(c);
 	}
 
 	/**
@@ -358,12 +353,7 @@ public final class SelectionTool extends DefaultTool {
 	 * @return true if the mouse is on the empty area, false otherwise
 	 */
 	final boolean isOnEmptyArea(Coord c) {
-		for (Shape s : getShapes()) {
-			if (s.contains(c)) {
-				return false;
-			}
-		}
-		return true;
+		return getShapeByCoord(c) == null;
 	}
 
 	/**
@@ -374,18 +364,8 @@ public final class SelectionTool extends DefaultTool {
 	 * @return true if the mouse is on an unselected shape, false otherwise
 	 */
 	final boolean isOnUnselectedShape(Coord c) {
-		// iterate over reverse stacking order
-		for (int i = getShapes().size() - 1; i >= 0; i--) {
-			Shape s = getShapes().get(i);
-			if (s.contains(c)) {
-				if (getSelection().contains(s)) {
-					return false;
-				} else {
-					return true;
-				}
-			}
-		}
-		return false;
+		Shape s = getShapeByCoord(c);
+		return s != null && !getSelection().contains(s);
 	}
 
 	/**
@@ -397,7 +377,7 @@ public final class SelectionTool extends DefaultTool {
 	 */
 	final boolean isOnSelectedShape(Coord c) {
 		for (Shape s : getSelection()) {
-			if (s.contains(c)) {
+			if (s.mayContain(c) && s.contains(c)) {
 				return true;
 			}
 		}
@@ -462,7 +442,8 @@ public final class SelectionTool extends DefaultTool {
 
 	/**
 	 * Calculates the vector of the prior recorded location of the mouse and the
-	 * new location, and moves every selected shape along this vector.
+	 * new location, and moves every selected shape along this vector. The
+	 * shapes are moved within one batch of changes of the sheet.
 	 *
 	 * @param c
 	 *            the new location of the mouse
@@ -474,8 +455,13 @@ public final class SelectionTool extends DefaultTool {
 		}
 		Vector delta = new Vector(c.getX0() - cPrevious.getX0(),
 				c.getY0() - cPrevious.getY0());
-		for (Shape s : getSelection()) {
-			s.move(delta);
+		getEditor().beginBatch();
+		try {
+			for (Shape s : getSelection()) {
+				s.move(delta);
+			}
+		} finally {
+			getEditor().commitBatch();
 		}
 	}
 
@@ -577,18 +563,23 @@ public final class SelectionTool extends DefaultTool {
 	 * shapes.
 	 */
 	final void doAdjustSelections() {
-		for (Shape s : getShapes()) {
-			if (s != this.selectionArea) { // we have to exclude the selection
-				// area...
-				if (isSeletionAreaContainsShape(s)) {
-					if (!getSelection().contains(s)) {
-						doAddToSelection(s);
-					}
-				} else {
-					if (getSelection().contains(s)) {
-						doRemoveFromSelection(s);
-					}
-				}
+		if (this.selectionArea == null) {
+			return;
+		}
+		// Only shapes intersecting the selection area can be contained in it.
+		List<Shape> candidates = getEditor().getShapesIn(
+				this.selectionArea.getBoundingBox());
+		for (Shape s : candidates) {
+			if (s != this.selectionArea // we have to exclude the selection
+					// area...
+					&& isSeletionAreaContainsShape(s)
+					&& !getSelection().contains(s)) {
+				doAddToSelection(s);
+			}
+		}
+		for (Shape s : new ArrayList<Shape>(getSelection())) {
+			if (!isSeletionAreaContainsShape(s)) {
+				doRemoveFromSelection(s);
 			}
 		}
 	}
@@ -278,6 +278,18 @@ public abstract class SelectionToolState {
 		return getContext().getEditor().getCurrentView();
 	}
 
+	/**
+	 * Enables or disables the render cache of the editor while shapes are
+	 * being dragged.
+	 * 
+	 * @param enabled
+	 *            true to enable the render cache
+	 * @see Editor#setRenderCacheEnabled(boolean)
+	 */
+	final protected void setRenderCacheEnabled(boolean enabled) {
+		getEditor().setRenderCacheEnabled(enabled);
+	}
+
 	/**
 	 * Returns the shapes.
 	 * 
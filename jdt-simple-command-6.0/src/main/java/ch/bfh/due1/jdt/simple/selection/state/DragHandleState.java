@@ -42,6 +42,7 @@ public class DragHandleState extends SelectionToolState {
 	 */
 	@Override
 	protected void mouseDragEvent(Coord c, KeyModifier k) {
+		setRenderCacheEnabled(true);
 		getCurrentHandle().dragInteraction(c, k);
 		setToolState(getNewDragHandleState());
 	}
@@ -59,6 +60,7 @@ public class DragHandleState extends SelectionToolState {
 		Coord origin = getMouseDownCoord();
 		Command cmd = new DragCommand(getCurrentHandle(), origin, c, k);
 		registerCommand(cmd);
+		setRenderCacheEnabled(false);
 		setToolState(getNewInitState());
 	}
 }
@@ -40,6 +40,7 @@ public class MovingState extends SelectionToolState {
 	 */
 	@Override
 	protected void mouseDragEvent(Coord c, KeyModifier k) {
+		setRenderCacheEnabled(true);
 		moveSelectedShapes(c);
 		setToolState(getNewMovingState());
 	}
@@ -56,7 +57,8 @@ public class MovingState extends SelectionToolState {
 		Coord origin = getMouseDownCoord();
 		Vector delta = new Vector(c.getX0() - origin.getX0(),
 				c.getY0() - origin.getY0());
-		Command macroCommand = new ch.bfh.sed.commandpattern.command.MacroCommand();
+		Command macroCommand = new ch.bfh.sed.commandpattern.command.MacroCommand(
+				getEditor());
 		for (Shape s : getSelection()) {
 			// Make a move command object for every selected shape and add it to
 			// the macro command object.
@@ -64,6 +66,7 @@ public class MovingState extends SelectionToolState {
 			macroCommand.addCommand(moveCommand);
 		}
 		registerCommand(macroCommand);
+		setRenderCacheEnabled(false);
 		setToolState(getNewInitState());
 	}
 }
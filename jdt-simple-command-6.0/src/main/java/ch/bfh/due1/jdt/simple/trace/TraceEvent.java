@@ -0,0 +1,168 @@
+/*
+ * Eric Dubuis, Berner Fachhochschule,
+ * Biel, Switzerland.
+ * Copyright (c) 2007
+ *
+ * Distributable under LGPL license.
+ * See terms of license at gnu.org.
+ */
+package ch.bfh.due1.jdt.simple.trace;
+
+import ch.bfh.due1.jdt.framework.Coord;
+import ch.bfh.due1.jdt.framework.KeyModifier;
+import ch.bfh.due1.jdt.simple.metrics.ViewMetrics.ToolEvent;
+
+/**
+ * An event of a trace, i.e., a mouse event passed to the current tool, the
+ * current tool being set, or an action being invoked.
+ *
+ * @see TraceReader
+ * @author Eric Dubuis
+ */
+public final class TraceEvent {
+	/**
+	 * The kinds of events.
+	 */
+	public enum Kind {
+		/** A mouse event passed to the current tool. */
+		TOOL_EVENT,
+		/** The current tool set. */
+		TOOL,
+		/** An action invoked. */
+		ACTION
+	}
+
+	private final Kind kind;
+
+	private final long time;
+
+	private final ToolEvent toolEvent;
+
+	private final Coord coord;
+
+	private final KeyModifier modifier;
+
+	private final String className;
+
+	private TraceEvent(Kind kind, long time, ToolEvent toolEvent,
+			Coord coord, KeyModifier modifier, String className) {
+		this.kind = kind;
+		this.time = time;
+		this.toolEvent = toolEvent;
+		this.coord = coord;
+		this.modifier = modifier;
+		this.className = className;
+	}
+
+	/**
+	 * Creates a mouse event passed to the current tool.
+	 *
+	 * @param time
+	 *            the time since the start of the trace in microseconds
+	 * @param event
+	 *            the event
+	 * @param c
+	 *            the sheet coordinate
+	 * @param k
+	 *            the key modifier
+	 * @return the event
+	 */
+	public static TraceEvent toolEvent(long time, ToolEvent event, Coord c,
+			KeyModifier k) {
+		return new TraceEvent(Kind.TOOL_EVENT, time, event, c, k, null);
+	}
+
+	/**
+	 * Creates an event of the current tool being set.
+	 *
+	 * @param time
+	 *            the time since the start of the trace in microseconds
+	 * @param className
+	 *            the class name of the tool
+	 * @return the event
+	 */
+	public static TraceEvent tool(long time, String className) {
+		return new TraceEvent(Kind.TOOL, time, null, null, null, className);
+	}
+
+	/**
+	 * Creates an event of an action being invoked.
+	 *
+	 * @param time
+	 *            the time since the start of the trace in microseconds
+	 * @param className
+	 *            the class name of the action
+	 * @return the event
+	 */
+	public static TraceEvent action(long time, String className) {
+		return new TraceEvent(Kind.ACTION, time, null, null, null, className);
+	}
+
+	/**
+	 * Returns the kind of this event.
+	 *
+	 * @return the kind
+	 */
+	public Kind getKind() {
+		return this.kind;
+	}
+
+	/**
+	 * Returns the time of this event.
+	 *
+	 * @return the time since the start of the trace in microseconds
+	 */
+	public long getTime() {
+		return this.time;
+	}
+
+	/**
+	 * Returns the mouse event passed to the tool.
+	 *
+	 * @return the mouse event, or null if this is not a tool event
+	 */
+	public ToolEvent getToolEvent() {
+		return this.toolEvent;
+	}
+
+	/**
+	 * Returns the sheet coordinate of the mouse event.
+	 *
+	 * @return the coordinate, or null if this is not a tool event
+	 */
+	public Coord getCoord() {
+		return this.coord;
+	}
+
+	/**
+	 * Returns the key modifier of the mouse event.
+	 *
+	 * @return the key modifier, or null if this is not a tool event
+	 */
+	public KeyModifier getKeyModifier() {
+		return this.modifier;
+	}
+
+	/**
+	 * Returns the class name of the tool set or of the action invoked.
+	 *
+	 * @return the class name, or null if this is a tool event
+	 */
+	public String getClassName() {
+		return this.className;
+	}
+
+	/**
+	 * Returns a description of this event.
+	 *
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		if (this.kind == Kind.TOOL_EVENT) {
+			return this.time + " " + this.toolEvent + " " + this.coord + " "
+					+ this.modifier;
+		}
+		return this.time + " " + this.kind + " " + this.className;
+	}
+}
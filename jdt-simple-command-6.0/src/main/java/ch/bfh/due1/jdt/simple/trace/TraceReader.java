@@ -0,0 +1,127 @@
+/*
+ * Eric Dubuis, Berner Fachhochschule,
+ * Biel, Switzerland.
+ * Copyright (c) 2007
+ *
+ * Distributable under LGPL license.
+ * See terms of license at gnu.org.
+ */
+package ch.bfh.due1.jdt.simple.trace;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import ch.bfh.due1.jdt.framework.Coord;
+import ch.bfh.due1.jdt.framework.KeyModifier;
+import ch.bfh.due1.jdt.simple.metrics.ViewMetrics.ToolEvent;
+
+/**
+ * Reads the events of a trace written by a {@link TraceRecorder}.
+ *
+ * @author Eric Dubuis
+ */
+public class TraceReader implements Closeable {
+	private static final ToolEvent[] TOOL_EVENTS = ToolEvent.values();
+
+	private static final KeyModifier[] MODIFIERS = KeyModifier.values();
+
+	private final DataInputStream in;
+
+	/** The time of the previous event in microseconds. */
+	private long time;
+
+	/**
+	 * Creates a reader of the given stream.
+	 *
+	 * @param in
+	 *            the stream
+	 * @throws IOException
+	 *             if the stream is not a trace
+	 */
+	public TraceReader(InputStream in) throws IOException {
+		this.in = new DataInputStream(new BufferedInputStream(in));
+		if (this.in.readInt() != TraceRecorder.MAGIC) {
+			throw new IOException("Not a trace.");
+		}
+		byte version = this.in.readByte();
+		if (version != TraceRecorder.VERSION) {
+			throw new IOException("Unsupported trace version: " + version);
+		}
+	}
+
+	/**
+	 * Creates a reader of the given file.
+	 *
+	 * @param file
+	 *            the file
+	 * @throws IOException
+	 *             if the file cannot be opened or is not a trace
+	 */
+	public TraceReader(Path file) throws IOException {
+		this(Files.newInputStream(file));
+	}
+
+	/**
+	 * Reads the next event.
+	 *
+	 * @return the event, or null at the end of the trace
+	 * @throws IOException
+	 *             if the trace cannot be read or is corrupt
+	 */
+	public TraceEvent next() throws IOException {
+		int tag = this.in.read();
+		if (tag < 0) {
+			return null;
+		}
+		try {
+			this.time += readVarLong();
+			int kind = tag >>> TraceRecorder.MODIFIER_BITS;
+			if (kind == TraceRecorder.TAG_TOOL) {
+				return TraceEvent.tool(this.time, this.in.readUTF());
+			}
+			if (kind == TraceRecorder.TAG_ACTION) {
+				return TraceEvent.action(this.time, this.in.readUTF());
+			}
+			int modifier = tag & ((1 << TraceRecorder.MODIFIER_BITS) - 1);
+			if (kind >= TOOL_EVENTS.length || modifier >= MODIFIERS.length) {
+				throw new IOException("Corrupt trace, illegal tag: " + tag);
+			}
+			int x = unZigZag(readVarLong());
+			int y = unZigZag(readVarLong());
+			return TraceEvent.toolEvent(this.time, TOOL_EVENTS[kind],
+					new Coord(x, y), MODIFIERS[modifier]);
+		} catch (EOFException e) {
+			throw new IOException("Truncated trace.", e);
+		}
+	}
+
+	/**
+	 * @inheritDoc
+	 */
+	@Override
+	public void close() throws IOException {
+		this.in.close();
+	}
+
+	private long readVarLong() throws IOException {
+		long value = 0;
+		for (int shift = 0; shift < 64; shift += 7) {
+			int b = this.in.readUnsignedByte();
+			value |= (long) (b & 0x7f) << shift;
+			if ((b & 0x80) == 0) {
+				return value;
+			}
+		}
+		throw new IOException("Corrupt trace, illegal number.");
+	}
+
+	private static int unZigZag(long value) {
+		return (int) ((value >>> 1) ^ -(value & 1));
+	}
+}
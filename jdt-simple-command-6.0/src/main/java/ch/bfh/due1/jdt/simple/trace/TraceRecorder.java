@@ -0,0 +1,223 @@
+/*
+ * Eric Dubuis, Berner Fachhochschule,
+ * Biel, Switzerland.
+ * Copyright (c) 2007
+ *
+ * Distributable under LGPL license.
+ * See terms of license at gnu.org.
+ */
+package ch.bfh.due1.jdt.simple.trace;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.apache.log4j.Logger;
+
+import ch.bfh.due1.jdt.framework.Coord;
+import ch.bfh.due1.jdt.framework.KeyModifier;
+import ch.bfh.due1.jdt.framework.Tool;
+import ch.bfh.due1.jdt.simple.metrics.ViewMetrics.ToolEvent;
+
+/**
+ * Records the interaction with an editor into a trace file, i.e., the mouse
+ * events passed to the tools, the tools set, and the actions invoked. The
+ * trace can be replayed without a display by the {@link TraceReplayer}.
+ * <p>
+ * A trace file starts with the magic number {@link #MAGIC} and the version
+ * {@link #VERSION}. Each event follows as a tag byte, giving the kind of the
+ * event and the key modifier, and the time elapsed since the previous event
+ * in microseconds. A mouse event continues with its sheet coordinate, a tool
+ * or an action with its class name. Times and coordinates are written as
+ * variable-length integers; hence, a mouse event takes about seven bytes.
+ * <p>
+ * The editor records a trace if the system property
+ * {@link #PROP_TRACE_FILE} names the file. If the file cannot be written,
+ * the recorder logs the error and records no more events.
+ *
+ * @see ch.bfh.due1.jdt.simple.DefaultView#setTraceRecorder(TraceRecorder)
+ * @author Eric Dubuis
+ */
+public class TraceRecorder {
+	/**
+	 * The name of the system property defining the trace file.
+	 */
+	public static final String PROP_TRACE_FILE = "jdt.trace.file";
+
+	/** The magic number of a trace file, "JDTR". */
+	public static final int MAGIC = 0x4a445452;
+
+	/** The version of the trace file format. */
+	public static final byte VERSION = 1;
+
+	/** The kind of a tool being set, in the upper bits of a tag. */
+	static final int TAG_TOOL = 4;
+
+	/** The kind of an action being invoked, in the upper bits of a tag. */
+	static final int TAG_ACTION = 5;
+
+	/** The number of bits of the key modifier in a tag. */
+	static final int MODIFIER_BITS = 4;
+
+	/**
+	 * The logger.
+	 */
+	private static Logger log = Logger.getLogger(TraceRecorder.class);
+
+	/** The stream, or null if closed or failed. */
+	private DataOutputStream out;
+
+	/** The time of the previous event in nanoseconds. */
+	private long last = System.nanoTime();
+
+	/** The number of events recorded. */
+	private long count;
+
+	/**
+	 * Creates a recorder writing to the given stream.
+	 *
+	 * @param out
+	 *            the stream
+	 * @throws IOException
+	 *             if the header cannot be written
+	 */
+	public TraceRecorder(OutputStream out) throws IOException {
+		this.out = new DataOutputStream(new BufferedOutputStream(out));
+		this.out.writeInt(MAGIC);
+		this.out.writeByte(VERSION);
+	}
+
+	/**
+	 * Creates a recorder writing to the given file.
+	 *
+	 * @param file
+	 *            the file, replaced if it exists
+	 * @throws IOException
+	 *             if the file cannot be created
+	 */
+	public TraceRecorder(Path file) throws IOException {
+		this(Files.newOutputStream(file));
+	}
+
+	/**
+	 * Records a mouse event passed to the current tool.
+	 *
+	 * @param event
+	 *            the event
+	 * @param c
+	 *            the sheet coordinate
+	 * @param k
+	 *            the key modifier
+	 */
+	public synchronized void recordToolEvent(ToolEvent event, Coord c,
+			KeyModifier k) {
+		if (this.out == null) {
+			return;
+		}
+		try {
+			writeHeader((event.ordinal() << MODIFIER_BITS) | k.ordinal());
+			writeVarLong(this.out, zigZag(c.getX0()));
+			writeVarLong(this.out, zigZag(c.getY0()));
+		} catch (IOException e) {
+			fail(e);
+		}
+	}
+
+	/**
+	 * Records the given tool being set.
+	 *
+	 * @param tool
+	 *            the tool
+	 */
+	public synchronized void recordTool(Tool tool) {
+		recordName(TAG_TOOL, tool.getClass().getName());
+	}
+
+	/**
+	 * Records an action being invoked.
+	 *
+	 * @param action
+	 *            the action
+	 */
+	public synchronized void recordAction(Object action) {
+		recordName(TAG_ACTION, action.getClass().getName());
+	}
+
+	/**
+	 * Returns the number of events recorded.
+	 *
+	 * @return the number of events
+	 */
+	public synchronized long getEventCount() {
+		return this.count;
+	}
+
+	/**
+	 * Writes the pending events and closes the stream. Events recorded
+	 * afterwards are ignored.
+	 */
+	public synchronized void close() {
+		if (this.out != null) {
+			try {
+				this.out.close();
+			} catch (IOException e) {
+				log.error("Cannot close trace.", e);
+			}
+			this.out = null;
+			log.debug("Recorded " + this.count + " events.");
+		}
+	}
+
+	private void recordName(int kind, String name) {
+		if (this.out == null) {
+			return;
+		}
+		try {
+			writeHeader(kind << MODIFIER_BITS);
+			this.out.writeUTF(name);
+		} catch (IOException e) {
+			fail(e);
+		}
+	}
+
+	private void writeHeader(int tag) throws IOException {
+		long now = System.nanoTime();
+		this.out.writeByte(tag);
+		writeVarLong(this.out, (now - this.last) / 1000);
+		this.last = now;
+		this.count++;
+	}
+
+	private void fail(IOException e) {
+		log.error("Cannot write trace, recording stopped.", e);
+		try {
+			this.out.close();
+		} catch (IOException ex) {
+			// Ignore, the first error has been logged.
+		}
+		this.out = null;
+	}
+
+	/**
+	 * Writes the given non-negative value, seven bits per byte.
+	 */
+	static void writeVarLong(DataOutputStream out, long value)
+			throws IOException {
+		while ((value & ~0x7fL) != 0) {
+			out.writeByte((int) (value & 0x7f) | 0x80);
+			value >>>= 7;
+		}
+		out.writeByte((int) value);
+	}
+
+	/**
+	 * Maps signed values to non-negative ones, small magnitudes to small
+	 * values.
+	 */
+	static long zigZag(int value) {
+		return ((long) value << 1) ^ (value >> 31);
+	}
+}
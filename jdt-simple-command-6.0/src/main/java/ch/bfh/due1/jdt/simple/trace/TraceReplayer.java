@@ -0,0 +1,393 @@
+/*
+ * Eric Dubuis, Berner Fachhochschule,
+ * Biel, Switzerland.
+ * Copyright (c) 2007
+ *
+ * Distributable under LGPL license.
+ * See terms of license at gnu.org.
+ */
+package ch.bfh.due1.jdt.simple.trace;
+
+import java.awt.Graphics2D;
+import java.awt.HeadlessException;
+import java.awt.event.ActionEvent;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.swing.Action;
+import javax.swing.JComponent;
+
+import org.apache.log4j.Logger;
+
+import ch.bfh.due1.jdt.framework.ActionManager;
+import ch.bfh.due1.jdt.framework.BaseAction;
+import ch.bfh.due1.jdt.framework.Shape;
+import ch.bfh.due1.jdt.framework.Sheet;
+import ch.bfh.due1.jdt.framework.Tool;
+import ch.bfh.due1.jdt.framework.ToolFactory;
+import ch.bfh.due1.jdt.framework.View;
+import ch.bfh.due1.jdt.simple.DefaultEditor;
+import ch.bfh.due1.jdt.simple.DefaultSelectionToolFactory;
+import ch.bfh.due1.jdt.simple.DefaultView;
+import ch.bfh.due1.jdt.simple.ExitAction;
+import ch.bfh.due1.jdt.simple.SheetFactoryImpl;
+import ch.bfh.due1.jdt.simple.ToolFactoriesBuilder;
+import ch.bfh.due1.jdt.simple.ViewFactoryImpl;
+import ch.bfh.due1.jdt.simple.impl.io.SheetFormat;
+import ch.bfh.due1.jdt.simple.metrics.Histogram;
+import ch.bfh.due1.jdt.simple.metrics.HistogramSummary;
+import ch.bfh.due1.jdt.simple.metrics.ViewMetrics;
+
+/**
+ * Replays a trace without a display. The replayer sets up a headless editor
+ * with one view, a sheet, and the tools and actions configured for the
+ * editor. It then passes the events of the trace as fast as possible, i.e.,
+ * the times recorded are ignored, and measures the time taken by each event.
+ * If painting is enabled, the view is painted into an offscreen image after
+ * each event.
+ * <p>
+ * Actions needing a display, e.g., opening a file chooser, are skipped. The
+ * exit action ends the replay.
+ * <p>
+ * Usage: <code>TraceReplayer &lt;trace&gt; [&lt;sheet&gt;] [-paint]</code>,
+ * where the optional sheet file is loaded before replaying.
+ *
+ * @see TraceRecorder
+ * @author Eric Dubuis
+ */
+public class TraceReplayer {
+	/** The width of the view. */
+	private static final int WIDTH = 800;
+
+	/** The height of the view. */
+	private static final int HEIGHT = 600;
+
+	/** Scales nanoseconds to microseconds. */
+	private static final double MICROS = 1e-3;
+
+	/**
+	 * The logger.
+	 */
+	private static Logger log = Logger.getLogger(TraceReplayer.class);
+
+	private final DefaultEditor editor;
+
+	private final View view;
+
+	private final ActionManager actionManager;
+
+	/** The tools by class name. */
+	private final Map<String, Tool> tools = new HashMap<String, Tool>();
+
+	/** The actions created so far by class name. */
+	private final Map<String, Action> actions = new HashMap<String, Action>();
+
+	private final ViewMetrics metrics = new ViewMetrics();
+
+	private final Histogram actionLatency = new Histogram();
+
+	/** The image painted into, or null if painting is disabled. */
+	private BufferedImage image;
+
+	private long eventCount;
+
+	private long skippedCount;
+
+	private long elapsed;
+
+	/**
+	 * Creates a replayer with the configured view, sheet, and tools.
+	 *
+	 * @throws Exception
+	 *             if the configuration cannot be read
+	 */
+	public TraceReplayer() throws Exception {
+		this.editor = new DefaultEditor(null);
+		this.view = new ViewFactoryImpl().createView(this.editor);
+		this.view.setSheet(new SheetFactoryImpl().createSheet());
+		((JComponent) this.view).setSize(WIDTH, HEIGHT);
+		if (this.view instanceof DefaultView) {
+			((DefaultView) this.view).setMetrics(this.metrics);
+		}
+		this.editor.registerView(this.view);
+
+		ToolFactoriesBuilder builder = new ToolFactoriesBuilder();
+		ToolFactory defaultFactory = builder.getFactoryForDefaultTool();
+		if (defaultFactory == null) {
+			defaultFactory = new DefaultSelectionToolFactory();
+		}
+		Tool defaultTool = defaultFactory.getTool(this.editor);
+		this.editor.registerDefaultTool(defaultTool);
+		this.tools.put(defaultTool.getClass().getName(), defaultTool);
+		for (ToolFactory tf : builder.getOtherToolFactories()) {
+			Tool tool = tf.getTool(this.editor);
+			this.editor.registerTool(tool);
+			this.tools.put(tool.getClass().getName(), tool);
+		}
+		this.editor.setCurrentView(0);
+		this.actionManager = new ActionManager(this.editor);
+	}
+
+	/**
+	 * Enables or disables painting the view after each event.
+	 *
+	 * @param enabled
+	 *            true to paint the view
+	 */
+	public void setPaintEnabled(boolean enabled) {
+		this.image = enabled ? new BufferedImage(WIDTH, HEIGHT,
+				BufferedImage.TYPE_INT_RGB) : null;
+	}
+
+	/**
+	 * Adds the given shapes to the sheet of the view.
+	 *
+	 * @param shapes
+	 *            the shapes
+	 */
+	public void load(List<Shape> shapes) {
+		Sheet sheet = this.view.getSheet();
+		for (Shape s : shapes) {
+			sheet.addShape(s);
+		}
+	}
+
+	/**
+	 * Replays the events of the given trace.
+	 *
+	 * @param reader
+	 *            the trace
+	 * @throws IOException
+	 *             if the trace cannot be read
+	 */
+	public void replay(TraceReader reader) throws IOException {
+		TraceEvent e;
+		while ((e = reader.next()) != null) {
+			if (e.getKind() == TraceEvent.Kind.ACTION
+					&& ExitAction.class.getName().equals(e.getClassName())) {
+				break;
+			}
+			long start = System.nanoTime();
+			if (dispatch(e)) {
+				long nanos = System.nanoTime() - start;
+				this.elapsed += nanos;
+				this.eventCount++;
+				if (this.image != null) {
+					paint();
+				}
+			} else {
+				this.skippedCount++;
+			}
+		}
+	}
+
+	/**
+	 * Returns the view the events are passed to.
+	 *
+	 * @return the view
+	 */
+	public View getView() {
+		return this.view;
+	}
+
+	/**
+	 * Returns the metrics of the replay, i.e., the latencies of the tools
+	 * and, if painting is enabled, of painting the view.
+	 *
+	 * @return the metrics
+	 */
+	public ViewMetrics getMetrics() {
+		return this.metrics;
+	}
+
+	/**
+	 * Returns the latency of the actions.
+	 *
+	 * @return the latency in microseconds
+	 */
+	public HistogramSummary getActionLatency() {
+		return this.actionLatency.summarize(MICROS);
+	}
+
+	/**
+	 * Returns the number of events replayed.
+	 *
+	 * @return the number of events
+	 */
+	public long getEventCount() {
+		return this.eventCount;
+	}
+
+	/**
+	 * Returns the number of events skipped, e.g., actions needing a display.
+	 *
+	 * @return the number of events
+	 */
+	public long getSkippedCount() {
+		return this.skippedCount;
+	}
+
+	/**
+	 * Returns the time taken by the events replayed, not including painting.
+	 *
+	 * @return the time in nanoseconds
+	 */
+	public long getElapsedNanos() {
+		return this.elapsed;
+	}
+
+	/**
+	 * Returns the number of events replayed per second, not including
+	 * painting.
+	 *
+	 * @return the throughput
+	 */
+	public double getThroughput() {
+		return this.elapsed == 0 ? 0.0 : this.eventCount * 1e9 / this.elapsed;
+	}
+
+	/**
+	 * Prints the throughput and the latencies, in microseconds.
+	 *
+	 * @param out
+	 *            the stream
+	 */
+	public void printReport(PrintStream out) {
+		out.println("Events replayed: " + this.eventCount + ", skipped: "
+				+ this.skippedCount);
+		out.println(String.format("Throughput: %.1f events/s",
+				getThroughput()));
+		for (Map.Entry<String, HistogramSummary> e : this.metrics
+				.getToolLatencies().entrySet()) {
+			out.println(e.getKey() + ": " + e.getValue());
+		}
+		if (this.actionLatency.getCount() > 0) {
+			out.println("actions: " + getActionLatency());
+		}
+		if (this.image != null) {
+			out.println("paint: " + this.metrics.getPaintLatency());
+		}
+	}
+
+	/**
+	 * Passes the given event and records its latency.
+	 *
+	 * @return false if the event has been skipped
+	 */
+	private boolean dispatch(TraceEvent e) {
+		switch (e.getKind()) {
+		case TOOL_EVENT:
+			Tool t = this.view.getTool();
+			long start = System.nanoTime();
+			switch (e.getToolEvent()) {
+			case MOUSE_DOWN:
+				t.mouseDown(e.getCoord(), e.getKeyModifier());
+				break;
+			case MOUSE_DRAG:
+				t.mouseDrag(e.getCoord(), e.getKeyModifier());
+				break;
+			case MOUSE_UP:
+				t.mouseUp(e.getCoord(), e.getKeyModifier());
+				break;
+			default:
+				t.mouseOver(e.getCoord(), e.getKeyModifier());
+				break;
+			}
+			this.metrics.recordToolEvent(t, e.getToolEvent(), System
+					.nanoTime()
+					- start);
+			return true;
+		case TOOL:
+			Tool tool = this.tools.get(e.getClassName());
+			if (tool == null) {
+				log.warn("Unknown tool, skipped: " + e.getClassName());
+				return false;
+			}
+			// A tool done sets the default tool by itself.
+			if (this.view.getTool() != tool) {
+				this.view.setTool(tool);
+			}
+			return true;
+		default:
+			return invoke(e.getClassName());
+		}
+	}
+
+	/**
+	 * Invokes the action of the given class and records its latency.
+	 *
+	 * @return false if the action has been skipped
+	 */
+	private boolean invoke(String className) {
+		Action a = this.actions.get(className);
+		if (a == null) {
+			a = this.actionManager.createAndGetAction(className, null, null,
+					null, null);
+			this.actions.put(className, a);
+		}
+		((BaseAction) a).checkAction();
+		if (!a.isEnabled()) {
+			log.debug("Disabled action, skipped: " + className);
+			return false;
+		}
+		long start = System.nanoTime();
+		try {
+			a.actionPerformed(new ActionEvent(this.view,
+					ActionEvent.ACTION_PERFORMED, className));
+		} catch (HeadlessException e) {
+			log.debug("Action needs a display, skipped: " + className);
+			return false;
+		} catch (UnsupportedOperationException e) {
+			log.debug("Unsupported action, skipped: " + className);
+			return false;
+		}
+		this.actionLatency.record(System.nanoTime() - start);
+		return true;
+	}
+
+	private void paint() {
+		Graphics2D g = this.image.createGraphics();
+		try {
+			g.clipRect(0, 0, WIDTH, HEIGHT);
+			((JComponent) this.view).paint(g);
+		} finally {
+			g.dispose();
+		}
+	}
+
+	/**
+	 * Replays a trace and prints the report.
+	 *
+	 * @param args
+	 *            the trace file, optionally a sheet file, and optionally
+	 *            "-paint"
+	 * @throws Exception
+	 *             if the replay fails
+	 */
+	public static void main(String[] args) throws Exception {
+		if (args.length == 0) {
+			System.err.println("Usage: TraceReplayer <trace> [<sheet>] [-paint]");
+			System.exit(1);
+		}
+		if (System.getProperty("java.awt.headless") == null) {
+			System.setProperty("java.awt.headless", "true");
+		}
+		TraceReplayer replayer = new TraceReplayer();
+		for (int i = 1; i < args.length; i++) {
+			if ("-paint".equals(args[i])) {
+				replayer.setPaintEnabled(true);
+			} else {
+				replayer.load(SheetFormat.read(Paths.get(args[i])));
+			}
+		}
+		try (TraceReader reader = new TraceReader(Paths.get(args[0]))) {
+			replayer.replay(reader);
+		}
+		replayer.printReport(System.out);
+	}
+}
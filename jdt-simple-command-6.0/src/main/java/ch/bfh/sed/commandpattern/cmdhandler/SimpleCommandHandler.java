@@ -8,66 +8,253 @@
  */
 package ch.bfh.sed.commandpattern.cmdhandler;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.log4j.Logger;
 
 import ch.bfh.due1.jdt.framework.Command;
 import ch.bfh.due1.jdt.framework.CommandHandler;
 import ch.bfh.due1.jdt.framework.CommandHandlerEvent;
 import ch.bfh.due1.jdt.framework.CommandHandlerListener;
+import ch.bfh.due1.jdt.framework.ShapeResolver;
 
 /**
  * This class manages the commands. Registered commands can be undone (provided
  * they are undoable) and redone.
+ * <p>
+ * The history of commands is kept within a memory budget. The memory taken
+ * by a command is estimated by the size of its serialized form. When the
+ * budget is exceeded, the oldest commands are moved to a spill file and read
+ * back when the user undoes that far. The shapes the commands refer to are
+ * written by means of the shape resolver, see
+ * {@link #setShapeResolver(ShapeResolver)}; without one, they are kept in
+ * memory. Commands read back remain in memory until the next command is
+ * added. If the spill file cannot be written or read, the oldest commands
+ * are discarded and cannot be undone anymore.
+ * <p>
+ * The budget is given by the system property {@link #PROP_MEMORY_BUDGET} in
+ * bytes and defaults to {@link #DEFAULT_MEMORY_BUDGET}.
+ * <p>
+ * A command added within the coalescing window after the previous one is
+ * merged into the previous one if possible, e.g., successive moves of the
+ * same shapes or successive drags of the same handle. Hence, one undo undoes
+ * them all. No command is merged into one that has been undone or redone.
+ * The memory taken by the merged command is measured again once no more
+ * commands are merged into it.
+ * The window is given by the system property {@link #PROP_COALESCING_WINDOW}
+ * in milliseconds and defaults to {@link #DEFAULT_COALESCING_WINDOW}.
  *
+ * @see SpillFile
  * @author Eric Dubuis
  */
 public class SimpleCommandHandler implements CommandHandler {
-	// TODO: Complete...
+	/**
+	 * The name of the system property defining the memory budget in bytes.
+	 */
+	public static final String PROP_MEMORY_BUDGET = "jdt.commandhandler.memory";
+
+	/**
+	 * The default memory budget, 16 MB.
+	 */
+	public static final long DEFAULT_MEMORY_BUDGET = 16L * 1024 * 1024;
+
+	/**
+	 * The name of the system property defining the coalescing window in
+	 * milliseconds.
+	 */
+	public static final String PROP_COALESCING_WINDOW = "jdt.commandhandler.coalesce";
+
+	/**
+	 * The default coalescing window, one second.
+	 */
+	public static final long DEFAULT_COALESCING_WINDOW = 1000;
+
+	/**
+	 * The memory assumed for a command whose size cannot be measured.
+	 */
+	private static final long UNKNOWN_SIZE = 1024;
+
+	/**
+	 * An entry of the history.
+	 */
+	private static class Entry {
+		/** The command, or null if spilled. */
+		private Command command;
+
+		/** The estimated memory taken by the command. */
+		private long size;
+
+		/** The record of the spilled command, or null. */
+		private SpillFile.Record record;
+
+		private Entry(Command command, long size) {
+			this.command = command;
+			this.size = size;
+		}
+	}
+
+	/**
+	 * The logger.
+	 */
+	private static Logger log = Logger.getLogger(SimpleCommandHandler.class);
 
 	/** The set of listeners for us. */
 	private Set<CommandHandlerListener> listeners =
 			new HashSet<>();
 
+	/**
+	 * The history, the oldest command first. The first {@link #spilled}
+	 * entries are spilled, the others are in memory.
+	 */
+	private final List<Entry> history = new ArrayList<Entry>();
+
+	/** The number of commands done, i.e., the index of the next redo. */
+	private int current;
+
+	/** The number of spilled commands. */
+	private int spilled;
+
+	/** The memory taken by the commands in memory. */
+	private long memoryUsed;
+
+	/** The memory budget. */
+	private final long memoryBudget;
+
+	/** The spill file. */
+	private final SpillFile spillFile;
+
+	/** The coalescing window in nanoseconds. */
+	private long coalescingWindow = TimeUnit.MILLISECONDS.toNanos(Long
+			.getLong(PROP_COALESCING_WINDOW, DEFAULT_COALESCING_WINDOW));
+
+	/**
+	 * The entry the next command may be merged into, or null.
+	 */
+	private Entry coalesceTarget;
+
+	/**
+	 * True if commands have been merged into the coalescing target since it
+	 * was measured.
+	 */
+	private boolean coalesceTargetGrown;
+
+	/** The time the last command was added, in nanoseconds. */
+	private long lastAdded;
+
 	/**
 	 * Creates a command handler. Notice that it is not associated with an
 	 * editor. To associate it with an editor call setEditor(). An associated
 	 * editor receives a call to checkEditorState() upon calling each modifier.
 	 */
 	public SimpleCommandHandler() {
-		// Empty
+		this(Long.getLong(PROP_MEMORY_BUDGET, DEFAULT_MEMORY_BUDGET), null);
+	}
+
+	/**
+	 * Creates a command handler with the given memory budget.
+	 *
+	 * @param memoryBudget
+	 *            the memory budget in bytes
+	 * @param directory
+	 *            the directory of the spill file, or null for the default
+	 *            temporary directory
+	 * @throws IllegalArgumentException
+	 *             if the memory budget is negative
+	 */
+	public SimpleCommandHandler(long memoryBudget, Path directory) {
+		if (memoryBudget < 0) {
+			throw new IllegalArgumentException("Illegal memory budget: "
+					+ memoryBudget);
+		}
+		this.memoryBudget = memoryBudget;
+		this.spillFile = new SpillFile(directory);
 	}
 
 	/**
-	 * Adds a command.
+	 * Adds a command, or merges it into the previous one. Discards the
+	 * commands having been undone. Spills the oldest commands if the memory
+	 * budget is exceeded.
 	 *
 	 * @see ch.bfh.due1.jdt.framework.CommandHandler#addCommand(ch.bfh.due1.jdt.framework.Command)
 	 */
 	@Override
 	public void addCommand(Command c) {
-		// TODO: Complete...
+		long now = System.nanoTime();
+		Entry last = this.coalesceTarget;
+		long elapsed = now - this.lastAdded;
+		this.lastAdded = now;
+		if (last != null && this.coalescingWindow > 0
+				&& elapsed <= this.coalescingWindow
+				&& last.command.canCoalesceWith(c)) {
+			last.command.coalesceWith(c);
+			this.coalesceTargetGrown = true;
+			notifyListeners();
+			return;
+		}
+		endCoalescing();
+		for (int i = this.history.size() - 1; i >= this.current; i--) {
+			this.memoryUsed -= this.history.remove(i).size;
+		}
+		Entry e = new Entry(c, measure(c));
+		this.history.add(e);
+		this.current++;
+		this.memoryUsed += e.size;
+		this.coalesceTarget = e;
+		spill();
 		notifyListeners();
 	}
 
-
 	/**
-	 * Unsupported implementation.
+	 * Discards all commands and deletes the spill file.
 	 *
 	 * @see ch.bfh.due1.jdt.framework.CommandHandler#clear()
 	 */
 	@Override
 	public void clear() {
-		throw new UnsupportedOperationException();
+		this.history.clear();
+		this.current = 0;
+		this.spilled = 0;
+		this.memoryUsed = 0;
+		this.coalesceTarget = null;
+		this.coalesceTargetGrown = false;
+		this.spillFile.close();
+		notifyListeners();
 	}
 
 	/**
-	 * Undoes the last command.
+	 * Undoes the last command. Reads the command back from the spill file if
+	 * necessary.
 	 *
 	 * @see ch.bfh.due1.jdt.framework.CommandHandler#undoLast()
 	 */
 	@Override
 	public void undoLast() {
-		// TODO: Complete...
+		if (!undoPossible()) {
+			return;
+		}
+		endCoalescing();
+		Entry e = this.history.get(this.current - 1);
+		if (e.command == null) {
+			try {
+				e.command = this.spillFile.read(e.record);
+				e.record = null;
+				this.memoryUsed += e.size;
+				this.spilled--;
+			} catch (IOException ex) {
+				log.error("Cannot read command history, discarding oldest commands.", ex);
+				discardOldest(this.spilled);
+				notifyListeners();
+				return;
+			}
+		}
+		e.command.undo();
+		this.current--;
 		notifyListeners();
 	}
 
@@ -78,7 +265,12 @@ public class SimpleCommandHandler implements CommandHandler {
 	 */
 	@Override
 	public void redoLast() {
-		// TODO: Complete...
+		if (!redoPossible()) {
+			return;
+		}
+		endCoalescing();
+		this.history.get(this.current).command.execute();
+		this.current++;
 		notifyListeners();
 	}
 
@@ -89,8 +281,7 @@ public class SimpleCommandHandler implements CommandHandler {
 	 */
 	@Override
 	public boolean redoPossible() {
-		// TODO: Complete...
-		return false;
+		return this.current < this.history.size();
 	}
 
 	/**
@@ -100,8 +291,70 @@ public class SimpleCommandHandler implements CommandHandler {
 	 */
 	@Override
 	public boolean undoPossible() {
-		// TODO: Complete...
-		return false;
+		return this.current > 0;
+	}
+
+	/**
+	 * Sets the shape resolver used for writing the shapes the commands refer
+	 * to. Applies to the commands spilled afterwards.
+	 *
+	 * @see ch.bfh.due1.jdt.framework.CommandHandler#setShapeResolver(ch.bfh.due1.jdt.framework.ShapeResolver)
+	 */
+	@Override
+	public void setShapeResolver(ShapeResolver resolver) {
+		this.spillFile.setShapeResolver(resolver);
+	}
+
+	/**
+	 * Returns the memory budget.
+	 *
+	 * @return the memory budget in bytes
+	 */
+	public long getMemoryBudget() {
+		return this.memoryBudget;
+	}
+
+	/**
+	 * Returns the estimated memory taken by the commands in memory.
+	 *
+	 * @return the memory in bytes
+	 */
+	public long getMemoryUsed() {
+		return this.memoryUsed;
+	}
+
+	/**
+	 * Returns the number of commands in the spill file.
+	 *
+	 * @return the number of spilled commands
+	 */
+	public int getSpilledCount() {
+		return this.spilled;
+	}
+
+	/**
+	 * Returns the coalescing window.
+	 *
+	 * @return the coalescing window in milliseconds
+	 */
+	public long getCoalescingWindow() {
+		return TimeUnit.NANOSECONDS.toMillis(this.coalescingWindow);
+	}
+
+	/**
+	 * Sets the coalescing window. A window of 0 disables coalescing.
+	 *
+	 * @param millis
+	 *            the coalescing window in milliseconds
+	 * @throws IllegalArgumentException
+	 *             if the window is negative
+	 */
+	public void setCoalescingWindow(long millis) {
+		if (millis < 0) {
+			throw new IllegalArgumentException("Illegal coalescing window: "
+					+ millis);
+		}
+		this.coalescingWindow = TimeUnit.MILLISECONDS.toNanos(millis);
 	}
 
 	/**
@@ -114,6 +367,76 @@ public class SimpleCommandHandler implements CommandHandler {
 		return this.getClass().getName();
 	}
 
+	/**
+	 * Ends coalescing. If commands have been merged into the coalescing
+	 * target, measures it again and spills the oldest commands if the memory
+	 * budget is exceeded.
+	 */
+	private void endCoalescing() {
+		Entry target = this.coalesceTarget;
+		boolean grown = this.coalesceTargetGrown;
+		this.coalesceTarget = null;
+		this.coalesceTargetGrown = false;
+		if (target != null && grown) {
+			this.memoryUsed -= target.size;
+			target.size = measure(target.command);
+			this.memoryUsed += target.size;
+			spill();
+		}
+	}
+
+	/**
+	 * Spills the oldest commands while the memory budget is exceeded,
+	 * keeping the last one in memory.
+	 */
+	private void spill() {
+		while (this.memoryUsed > this.memoryBudget
+				&& this.spilled < this.current - 1) {
+			Entry oldest = this.history.get(this.spilled);
+			try {
+				oldest.record = this.spillFile.write(oldest.command);
+				oldest.command = null;
+				this.memoryUsed -= oldest.size;
+				this.spilled++;
+			} catch (IOException ex) {
+				log.error("Cannot spill command history, discarding oldest commands.", ex);
+				discardOldest(this.spilled + 1);
+			}
+		}
+	}
+
+	/**
+	 * Returns the estimated memory taken by the given command.
+	 */
+	private long measure(Command c) {
+		try {
+			return this.spillFile.measure(c);
+		} catch (IOException e) {
+			log.debug("Cannot measure command: " + c, e);
+			return UNKNOWN_SIZE;
+		}
+	}
+
+	/**
+	 * Discards the given number of oldest commands, including all spilled
+	 * ones.
+	 *
+	 * @param count
+	 *            the number of commands, at least the number of spilled ones
+	 */
+	private void discardOldest(int count) {
+		List<Entry> discarded = this.history.subList(0, count);
+		for (Entry e : discarded) {
+			if (e.command != null) {
+				this.memoryUsed -= e.size;
+			}
+		}
+		discarded.clear();
+		this.current -= count;
+		this.spilled = 0;
+		this.spillFile.close();
+	}
+
 	/**
 	 * Notify associated listeners.
 	 */
@@ -0,0 +1,419 @@
+/*
+ * Eric Dubuis, Berner Fachhochschule,
+ * Biel, Switzerland.
+ * Copyright (c) 2007
+ *
+ * Distributable under LGPL license.
+ * See terms of license at gnu.org.
+ */
+package ch.bfh.sed.commandpattern.cmdhandler;
+
+import java.awt.Component;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.apache.log4j.Logger;
+
+import ch.bfh.due1.jdt.framework.Command;
+import ch.bfh.due1.jdt.framework.Editor;
+import ch.bfh.due1.jdt.framework.Shape;
+import ch.bfh.due1.jdt.framework.ShapeResolver;
+import ch.bfh.due1.jdt.framework.Sheet;
+import ch.bfh.due1.jdt.framework.View;
+
+/**
+ * The file holding the oldest commands of a command history. Commands are
+ * written by object serialization and read back in the reverse order, i.e.,
+ * the file is used as a stack and shrinks when a command is read.
+ * <p>
+ * A command read back must operate on the same objects as before. Hence, the
+ * objects a command refers to are written as follows:
+ * <ul>
+ * <li>The editor, views, sheets, Swing components, and objects which are not
+ * serializable, e.g., shape handles, are not written. The record of the
+ * command keeps them in memory and they are put back in place when the
+ * command is read.</li>
+ * <li>Shapes are written as the stand-ins given by the shape resolver, see
+ * {@link ShapeResolver}, together with an identifier. If the shape is still
+ * in use when the command is read, i.e., if it is on a sheet, on the clip
+ * board, or referred to by a command in memory, the command gets this very
+ * shape. Otherwise the shape is resolved from its stand-in. Shapes the
+ * resolver has no stand-in for, or all shapes if there is no resolver, are
+ * kept in memory.</li>
+ * <li>All other objects, e.g., coordinates and mementos, are written as
+ * they are.</li>
+ * </ul>
+ *
+ * @author Eric Dubuis
+ */
+final class SpillFile {
+	/**
+	 * A command written to the file.
+	 */
+	static final class Record {
+		/** The position of the command in the file. */
+		private final long offset;
+
+		/** The number of bytes of the command. */
+		private final int length;
+
+		/** The objects kept in memory. */
+		private final Object[] live;
+
+		private Record(long offset, int length, Object[] live) {
+			this.offset = offset;
+			this.length = length;
+			this.live = live;
+		}
+	}
+
+	/**
+	 * Stands in for an object kept in memory.
+	 */
+	private static final class LiveRef implements Serializable {
+		private static final long serialVersionUID = -3981650224171502367L;
+
+		/** The index of the object in the record. */
+		private final int index;
+
+		private LiveRef(int index) {
+			this.index = index;
+		}
+	}
+
+	/**
+	 * Stands in for a shape.
+	 */
+	private static final class ShapeRef implements Serializable {
+		private static final long serialVersionUID = 6100563307478960871L;
+
+		/** The identifier of the shape. */
+		private final long id;
+
+		/** The stand-in given by the shape resolver. */
+		private final Serializable standIn;
+
+		private ShapeRef(long id, Serializable standIn) {
+			this.id = id;
+			this.standIn = standIn;
+		}
+	}
+
+	/**
+	 * A weak reference to a shape, remembering the identifier of the shape.
+	 */
+	private static final class ShapeReference extends WeakReference<Shape> {
+		private final long id;
+
+		private ShapeReference(Shape s, long id, ReferenceQueue<Shape> queue) {
+			super(s, queue);
+			this.id = id;
+		}
+	}
+
+	/**
+	 * Writes objects, replacing shapes and the objects kept in memory.
+	 */
+	private class SpillOutputStream extends ObjectOutputStream {
+		private final List<Object> live = new ArrayList<Object>();
+
+		private SpillOutputStream(OutputStream out) throws IOException {
+			super(out);
+			enableReplaceObject(true);
+		}
+
+		@Override
+		protected Object replaceObject(Object obj) {
+			if (obj instanceof Shape) {
+				ShapeRef ref = toRef((Shape) obj);
+				if (ref != null) {
+					return ref;
+				}
+			}
+			if (!(obj instanceof Serializable) || obj instanceof Component
+					|| obj instanceof Editor || obj instanceof View
+					|| obj instanceof Sheet) {
+				this.live.add(obj);
+				return new LiveRef(this.live.size() - 1);
+			}
+			return obj;
+		}
+	}
+
+	/**
+	 * Reads objects, resolving shapes and the objects kept in memory.
+	 */
+	private class SpillInputStream extends ObjectInputStream {
+		private final Object[] live;
+
+		private SpillInputStream(InputStream in, Object[] live)
+				throws IOException {
+			super(in);
+			this.live = live;
+			enableResolveObject(true);
+		}
+
+		@Override
+		protected Object resolveObject(Object obj) throws IOException {
+			if (obj instanceof LiveRef) {
+				return this.live[((LiveRef) obj).index];
+			}
+			if (obj instanceof ShapeRef) {
+				return resolve((ShapeRef) obj);
+			}
+			return obj;
+		}
+	}
+
+	/**
+	 * Counts the bytes written.
+	 */
+	private static final class CountingOutputStream extends OutputStream {
+		private long count;
+
+		@Override
+		public void write(int b) {
+			this.count++;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+			this.count += len;
+		}
+	}
+
+	/**
+	 * The logger.
+	 */
+	private static Logger log = Logger.getLogger(SpillFile.class);
+
+	/** The directory of the file, or null for the default temporary one. */
+	private final Path directory;
+
+	/** The file, or null if not yet created. */
+	private FileChannel channel;
+
+	/** The number of bytes in use. */
+	private long size;
+
+	/** The identifiers of the shapes written. */
+	private final Map<Shape, Long> shapeIds = new WeakHashMap<Shape, Long>();
+
+	/** The shapes written by their identifiers. */
+	private final Map<Long, ShapeReference> shapes = new HashMap<Long, ShapeReference>();
+
+	/** The queue of the references to shapes no longer in use. */
+	private final ReferenceQueue<Shape> queue = new ReferenceQueue<Shape>();
+
+	/** The last identifier given to a shape. */
+	private long lastId;
+
+	/** The shape resolver, or null if shapes are kept in memory. */
+	private ShapeResolver resolver;
+
+	/**
+	 * Creates an instance. The file is created when the first command is
+	 * written.
+	 *
+	 * @param directory
+	 *            the directory of the file, or null for the default temporary
+	 *            directory
+	 */
+	SpillFile(Path directory) {
+		this.directory = directory;
+	}
+
+	/**
+	 * Sets the shape resolver. Applies to the commands written afterwards.
+	 *
+	 * @param resolver
+	 *            a shape resolver, or null if shapes are to be kept in memory
+	 */
+	void setShapeResolver(ShapeResolver resolver) {
+		this.resolver = resolver;
+	}
+
+	/**
+	 * Returns the number of bytes the given command takes in the file.
+	 *
+	 * @param c
+	 *            a command
+	 * @return the number of bytes
+	 * @throws IOException
+	 *             if the command cannot be written
+	 */
+	long measure(Command c) throws IOException {
+		CountingOutputStream counter = new CountingOutputStream();
+		try (ObjectOutputStream out = new SpillOutputStream(counter)) {
+			out.writeObject(c);
+		}
+		return counter.count;
+	}
+
+	/**
+	 * Appends the given command to the file.
+	 *
+	 * @param c
+	 *            a command
+	 * @return the record of the command
+	 * @throws IOException
+	 *             if the command cannot be written
+	 */
+	Record write(Command c) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		SpillOutputStream out = new SpillOutputStream(bytes);
+		out.writeObject(c);
+		out.close();
+		if (this.channel == null) {
+			Path file = this.directory == null ? Files.createTempFile(
+					"jdt-history", ".tmp") : Files.createTempFile(
+					this.directory, "jdt-history", ".tmp");
+			this.channel = FileChannel.open(file, StandardOpenOption.READ,
+					StandardOpenOption.WRITE,
+					StandardOpenOption.DELETE_ON_CLOSE);
+			log.debug("Created spill file " + file);
+		}
+		ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+		long offset = this.size;
+		while (buffer.hasRemaining()) {
+			this.channel.write(buffer, offset + buffer.position());
+		}
+		this.size += buffer.limit();
+		return new Record(offset, buffer.limit(), out.live.toArray());
+	}
+
+	/**
+	 * Reads the given command, being the last one written, and removes it
+	 * from the file.
+	 *
+	 * @param r
+	 *            the record of the command
+	 * @return the command
+	 * @throws IOException
+	 *             if the command cannot be read
+	 * @throws IllegalStateException
+	 *             if the command is not the last one written
+	 */
+	Command read(Record r) throws IOException {
+		if (r.offset + r.length != this.size) {
+			throw new IllegalStateException("Not the last command written.");
+		}
+		ByteBuffer buffer = ByteBuffer.allocate(r.length);
+		while (buffer.hasRemaining()) {
+			if (this.channel.read(buffer, r.offset + buffer.position()) < 0) {
+				throw new IOException("Truncated spill file.");
+			}
+		}
+		this.size = r.offset;
+		this.channel.truncate(this.size);
+		try (ObjectInputStream in = new SpillInputStream(
+				new ByteArrayInputStream(buffer.array()), r.live)) {
+			return (Command) in.readObject();
+		} catch (ClassNotFoundException e) {
+			throw new IOException("Cannot read command.", e);
+		}
+	}
+
+	/**
+	 * Returns the number of bytes in use.
+	 *
+	 * @return the size of the file
+	 */
+	long size() {
+		return this.size;
+	}
+
+	/**
+	 * Deletes the file and forgets all shapes written.
+	 */
+	void close() {
+		if (this.channel != null) {
+			try {
+				this.channel.close();
+			} catch (IOException e) {
+				log.warn("Cannot delete spill file.", e);
+			}
+			this.channel = null;
+		}
+		this.size = 0;
+		this.shapeIds.clear();
+		this.shapes.clear();
+	}
+
+	/**
+	 * Returns the stand-in of the given shape, or null if the shape is to be
+	 * kept in memory.
+	 */
+	private ShapeRef toRef(Shape s) {
+		if (this.resolver == null) {
+			return null;
+		}
+		Serializable standIn = this.resolver.replace(s);
+		return standIn == null ? null : new ShapeRef(idOf(s), standIn);
+	}
+
+	/**
+	 * Returns the identifier of the given shape.
+	 */
+	private long idOf(Shape s) {
+		Long id = this.shapeIds.get(s);
+		if (id == null) {
+			id = ++this.lastId;
+			register(s, id);
+		}
+		return id;
+	}
+
+	/**
+	 * Returns the shape in use having the identifier of the given stand-in,
+	 * or resolves the shape.
+	 */
+	private Shape resolve(ShapeRef ref) throws IOException {
+		ShapeReference r = this.shapes.get(ref.id);
+		Shape s = r == null ? null : r.get();
+		if (s == null) {
+			if (this.resolver == null) {
+				throw new IOException("No shape resolver.");
+			}
+			s = this.resolver.resolve(ref.standIn);
+			register(s, ref.id);
+		}
+		return s;
+	}
+
+	private void register(Shape s, long id) {
+		expunge();
+		this.shapeIds.put(s, id);
+		this.shapes.put(id, new ShapeReference(s, id, this.queue));
+	}
+
+	/**
+	 * Forgets the identifiers of the shapes no longer in use.
+	 */
+	private void expunge() {
+		ShapeReference r;
+		while ((r = (ShapeReference) this.queue.poll()) != null) {
+			if (this.shapes.get(r.id) == r) {
+				this.shapes.remove(r.id);
+			}
+		}
+	}
+}
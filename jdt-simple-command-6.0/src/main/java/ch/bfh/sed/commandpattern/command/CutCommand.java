@@ -8,6 +8,8 @@
  */
 package ch.bfh.sed.commandpattern.command;
 
+import java.util.Collections;
+
 import ch.bfh.due1.jdt.framework.AbstractCommand;
 import ch.bfh.due1.jdt.framework.Editor;
 import ch.bfh.due1.jdt.framework.Shape;
@@ -23,7 +25,17 @@ import ch.bfh.due1.jdt.framework.Shape;
  * @author Eric Dubuis
  */
 public class CutCommand extends AbstractCommand {
-	// TODO: Complete...
+	/** The editor. */
+	private Editor editor;
+
+	/** The shape being cut. */
+	private Shape shape;
+
+	/** The stacking index of the shape before being cut, or -1. */
+	private int index = -1;
+
+	/** True if the shape has been put onto the clip board. */
+	private boolean onClipboard = false;
 
 	/**
 	 * Constructs an instance which memorizes the shape that was just removed
@@ -35,28 +47,43 @@ public class CutCommand extends AbstractCommand {
 	 *            a shape to be removed
 	 */
 	public CutCommand(Editor editor, Shape shape) {
-		// TODO: Complete...
+		this.editor = editor;
+		this.shape = shape;
 	}
 
 	/**
-	 * Removes the shape from the editor's associated view and adds it onto the
-	 * clip board.
+	 * Records the stacking index of the shape and removes the shape from the
+	 * editor's associated view. Adds the shape onto the clip board when
+	 * executed for the first time, i.e., not when redone.
 	 *
 	 * @see ch.bfh.due1.jdt.framework.Command#execute()
 	 */
 	@Override
 	public void execute() {
-		// TODO: Complete...
+		this.index = this.editor.getStackingIndex(this.shape);
+		this.editor.removeFromSelection(this.shape);
+		this.editor.removeShape(this.shape);
+		if (!this.onClipboard) {
+			this.editor.getClipboard().put(
+					Collections.singletonList(this.shape));
+			this.onClipboard = true;
+		}
 	}
 
 	/**
-	 * Adds the shape to the editor's associated view. Shape remains on the clip
-	 * board.
+	 * Adds the shape to the editor's associated view at its former stacking
+	 * index. Shape remains on the clip board. Within a macro command, the
+	 * shapes cut are restored in the reverse order, hence, each one gets the
+	 * index it had when being cut.
 	 *
 	 * @see ch.bfh.due1.jdt.framework.Command#undo()
 	 */
 	@Override
 	public void undo() {
-		// TODO: Complete...
+		this.editor.addShape(this.shape);
+		if (this.index >= 0
+				&& this.editor.getStackingIndex(this.shape) != this.index) {
+			this.editor.setStackingIndex(this.shape, this.index);
+		}
 	}
 }
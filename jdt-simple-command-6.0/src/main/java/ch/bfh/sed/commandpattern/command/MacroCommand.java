@@ -8,19 +8,32 @@
  */
 package ch.bfh.sed.commandpattern.command;
 
-// TODO: Complete...
+import java.util.ArrayList;
+import java.util.List;
+
 import ch.bfh.due1.jdt.framework.AbstractCommand;
 import ch.bfh.due1.jdt.framework.Command;
+import ch.bfh.due1.jdt.framework.Editor;
 
 
 /**
  * A command that is a composition of commands. For example when moving several
  * selected shapes then for each shape an individual move command can be used.
+ * <p>
+ * If the macro command knows the editor, the changes made by the composed
+ * commands are run within one batch of the editor's sheet. Hence, the sheet
+ * listeners are notified once per macro command instead of once per changed
+ * shape.
  *
+ * @see ch.bfh.due1.jdt.framework.Sheet#beginBatch()
  * @author Eric Dubuis
  */
 public class MacroCommand extends AbstractCommand {
-	// TODO: Complete...
+	/** The composed commands. */
+	private List<Command> commands = new ArrayList<Command>();
+
+	/** The editor whose sheet batches the changes, or null. */
+	private Editor editor;
 
 	/**
 	 * Creates an instance of a macro command with an empty list of commands.
@@ -28,6 +41,16 @@ public class MacroCommand extends AbstractCommand {
 	public MacroCommand() {
 	}
 
+	/**
+	 * Creates an instance of a macro command with an empty list of commands.
+	 * The changes made by the commands are batched by the given editor.
+	 *
+	 * @param editor
+	 *            the editor
+	 */
+	public MacroCommand(Editor editor) {
+		this.editor = editor;
+	}
 
 	/**
 	 * Creates an instance of a macro command with an initial command.
@@ -36,7 +59,7 @@ public class MacroCommand extends AbstractCommand {
 	 *            The initial command.
 	 */
 	public MacroCommand(Command c) {
-		// TODO: Complete...
+		this.commands.add(c);
 	}
 
 	/**
@@ -47,7 +70,17 @@ public class MacroCommand extends AbstractCommand {
 	 */
 	@Override
 	public void addCommand(Command c) {
-		// TODO: Complete...
+		this.commands.add(c);
+	}
+
+	/**
+	 * Removes a command.
+	 *
+	 * @see ch.bfh.due1.jdt.framework.Command#removeCommand(ch.bfh.due1.jdt.framework.Command)
+	 */
+	@Override
+	public boolean removeCommand(Command c) {
+		return this.commands.remove(c);
 	}
 
 	/**
@@ -59,7 +92,14 @@ public class MacroCommand extends AbstractCommand {
 	 */
 	@Override
 	public void execute() {
-		// TODO: Complete...
+		beginBatch();
+		try {
+			for (Command c : this.commands) {
+				c.execute();
+			}
+		} finally {
+			commitBatch();
+		}
 	}
 
 	/**
@@ -71,6 +111,67 @@ public class MacroCommand extends AbstractCommand {
 	 */
 	@Override
 	public void undo() {
-		// TODO: Complete...
+		beginBatch();
+		try {
+			for (int i = this.commands.size() - 1; i >= 0; i--) {
+				this.commands.get(i).undo();
+			}
+		} finally {
+			commitBatch();
+		}
+	}
+
+	/**
+	 * Tells whether the given command is a macro command of as many commands,
+	 * each of which can be merged into the respective command of this macro
+	 * command.
+	 *
+	 * @see ch.bfh.due1.jdt.framework.Command#canCoalesceWith(ch.bfh.due1.jdt.framework.Command)
+	 */
+	@Override
+	public boolean canCoalesceWith(Command c) {
+		if (!(c instanceof MacroCommand)) {
+			return false;
+		}
+		List<Command> others = ((MacroCommand) c).commands;
+		if (others.size() != this.commands.size() || others.isEmpty()) {
+			return false;
+		}
+		for (int i = 0; i < others.size(); i++) {
+			if (!this.commands.get(i).canCoalesceWith(others.get(i))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Merges each command of the given macro command into the respective
+	 * command of this macro command.
+	 *
+	 * @see ch.bfh.due1.jdt.framework.Command#coalesceWith(ch.bfh.due1.jdt.framework.Command)
+	 */
+	@Override
+	public void coalesceWith(Command c) {
+		if (!canCoalesceWith(c)) {
+			throw new UnsupportedOperationException(
+					"Cannot merge into this macro command: " + c);
+		}
+		List<Command> others = ((MacroCommand) c).commands;
+		for (int i = 0; i < others.size(); i++) {
+			this.commands.get(i).coalesceWith(others.get(i));
+		}
+	}
+
+	private void beginBatch() {
+		if (this.editor != null) {
+			this.editor.beginBatch();
+		}
+	}
+
+	private void commitBatch() {
+		if (this.editor != null) {
+			this.editor.commitBatch();
+		}
 	}
 }
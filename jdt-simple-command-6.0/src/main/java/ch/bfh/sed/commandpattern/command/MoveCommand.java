@@ -9,6 +9,7 @@
 package ch.bfh.sed.commandpattern.command;
 
 import ch.bfh.due1.jdt.framework.AbstractCommand;
+import ch.bfh.due1.jdt.framework.Command;
 import ch.bfh.due1.jdt.framework.Shape;
 import ch.bfh.due1.jdt.framework.Vector;
 
@@ -20,7 +21,11 @@ import ch.bfh.due1.jdt.framework.Vector;
  * @author Eric Dubuis
  */
 public class MoveCommand extends AbstractCommand {
-	// TODO: Complete...
+	/** The moved shape. */
+	private Shape shape;
+
+	/** The distance the shape is moved by. */
+	private Vector delta;
 
 	/**
 	 * Creates a command that moves shape s with distance d.
@@ -31,7 +36,8 @@ public class MoveCommand extends AbstractCommand {
 	 *            a distance vector
 	 */
 	public MoveCommand(Shape s, Vector d) {
-		// TODO: Complete...
+		this.shape = s;
+		this.delta = d;
 	}
 
 	/**
@@ -42,7 +48,7 @@ public class MoveCommand extends AbstractCommand {
 	 */
 	@Override
 	public void execute() {
-		// TODO: Complete...
+		this.shape.move(this.delta);
 	}
 
 	/**
@@ -52,6 +58,30 @@ public class MoveCommand extends AbstractCommand {
 	 */
 	@Override
 	public void undo() {
-		// TODO: Complete...
+		this.shape.move(this.delta.neg());
+	}
+
+	/**
+	 * Tells whether the given command is a move of the same shape.
+	 *
+	 * @see ch.bfh.due1.jdt.framework.Command#canCoalesceWith(ch.bfh.due1.jdt.framework.Command)
+	 */
+	@Override
+	public boolean canCoalesceWith(Command c) {
+		return c instanceof MoveCommand && ((MoveCommand) c).shape == this.shape;
+	}
+
+	/**
+	 * Adds the distance of the given move to this move.
+	 *
+	 * @see ch.bfh.due1.jdt.framework.Command#coalesceWith(ch.bfh.due1.jdt.framework.Command)
+	 */
+	@Override
+	public void coalesceWith(Command c) {
+		if (!canCoalesceWith(c)) {
+			throw new UnsupportedOperationException(
+					"Not a move of the same shape: " + c);
+		}
+		this.delta = this.delta.plus(((MoveCommand) c).delta);
 	}
 }
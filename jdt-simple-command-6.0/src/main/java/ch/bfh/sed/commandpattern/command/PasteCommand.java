@@ -16,22 +16,34 @@ import ch.bfh.due1.jdt.framework.Shape;
  * This command implements the 'paste' operation. The shape and the editor whose
  * associated view to paste the shape is recorded.
  * <p>
- * TODO Extend this class to support a list of shapes.
+ * The shape pasted is a clone of the given shape. Pasting a group from the
+ * clip board the first time copies its children in the state they had when
+ * copied; the groups pasted share these copies until they are changed.
+ * <p>
+ * To support a list of shapes to be pasted, use a macro command, and
+ * put a paste command for each individual shape into the macro command.
  *
  * @author Eric Dubuis
  */
 public class PasteCommand extends AbstractCommand {
-	// TODO: Complete...
+	/** The editor. */
+	private Editor editor;
+
+	/** The clone of the shape being pasted. */
+	private Shape shape;
 
 	/**
 	 * Constructs an instance which memorizes the shape that was just added to
 	 * the given editor's view.
 	 *
+	 * @param editor
+	 *            the editor
 	 * @param shape
 	 *            a shape to be pasted
 	 */
 	public PasteCommand(Editor editor, Shape shape) {
-		// TODO: Complete...
+		this.editor = editor;
+		this.shape = shape.cloneMe();
 	}
 
 	/**
@@ -41,7 +53,8 @@ public class PasteCommand extends AbstractCommand {
 	 */
 	@Override
 	public void execute() {
-		// TODO: Complete...
+		this.editor.addShape(this.shape);
+		this.editor.addToSelection(this.shape);
 	}
 
 	/**
@@ -52,6 +65,7 @@ public class PasteCommand extends AbstractCommand {
 	 */
 	@Override
 	public void undo() {
-		// TODO: Complete...
+		this.editor.removeFromSelection(this.shape);
+		this.editor.removeShape(this.shape);
 	}
 }
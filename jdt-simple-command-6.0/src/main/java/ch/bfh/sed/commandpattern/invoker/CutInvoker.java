@@ -8,8 +8,12 @@
  */
 package ch.bfh.sed.commandpattern.invoker;
 
+import ch.bfh.due1.jdt.framework.Command;
 import ch.bfh.due1.jdt.framework.Editor;
+import ch.bfh.due1.jdt.framework.Shape;
 import ch.bfh.sed.commandpattern.action.CutAction;
+import ch.bfh.sed.commandpattern.command.CutCommand;
+import ch.bfh.sed.commandpattern.command.MacroCommand;
 
 
 /**
@@ -27,7 +31,7 @@ public class CutInvoker extends CutAction {
 	/**
 	 * The Command instance used by this invoker.
 	 */
-	// TODO: Complete...
+	private Command command;
 
 	/**
 	 * Given an editor, create a macro command which contains cut commands for
@@ -41,7 +45,10 @@ public class CutInvoker extends CutAction {
 	 */
 	@Override
 	protected void createCommand(Editor e) {
-		// TODO: Complete...
+		this.command = new MacroCommand(e);
+		for (Shape s : e.getSelection()) {
+			this.command.addCommand(new CutCommand(e, s));
+		}
 	}
 
 	/**
@@ -50,7 +57,7 @@ public class CutInvoker extends CutAction {
 	 */
 	@Override
 	protected void invokeCommand() {
-		// TODO: Complete...
+		this.command.execute();
 	}
 
 	/**
@@ -62,6 +69,6 @@ public class CutInvoker extends CutAction {
 	 */
 	@Override
 	protected void registerCommand(Editor e) {
-		// TODO: Complete...
+		e.getCommandHandler().addCommand(this.command);
 	}
 }
@@ -8,8 +8,12 @@
  */
 package ch.bfh.sed.commandpattern.invoker;
 
+import ch.bfh.due1.jdt.framework.Command;
 import ch.bfh.due1.jdt.framework.Editor;
+import ch.bfh.due1.jdt.framework.Shape;
 import ch.bfh.sed.commandpattern.action.PasteAction;
+import ch.bfh.sed.commandpattern.command.MacroCommand;
+import ch.bfh.sed.commandpattern.command.PasteCommand;
 
 
 /**
@@ -27,7 +31,7 @@ public class PasteInvoker extends PasteAction {
 	/**
 	 * The Command instance used by this invoker.
 	 */
-	// TODO: Complete...
+	private Command command;
 
 	public PasteInvoker() {
 		setEnabled(false);
@@ -35,18 +39,21 @@ public class PasteInvoker extends PasteAction {
 
 	/**
 	 * Given an editor, create a macro command which contains paste commands for
-	 * each shape which in turn contain the editor and a shape. The selected
-	 * shapes can be obtained by calling getSelection() on the given editor
-	 * instance. Must be the first method being called upon an instance of this
-	 * class. The paste command must clone the shape instance by applying
-	 * cloneMe() on the shape instance.
+	 * each shape on the clip board which in turn contain the editor and a
+	 * shape. The shapes can be obtained by calling getClipboard().get() on the
+	 * given editor instance. Must be the first method being called upon an
+	 * instance of this class. The paste command clones the shape instance by
+	 * applying cloneMe() on the shape instance.
 	 *
 	 * @param e
 	 *            the editor
 	 */
 	@Override
 	protected void createCommand(Editor e) {
-		// TODO: Complete...
+		this.command = new MacroCommand(e);
+		for (Shape s : e.getClipboard().get()) {
+			this.command.addCommand(new PasteCommand(e, s));
+		}
 	}
 
 	/**
@@ -55,7 +62,7 @@ public class PasteInvoker extends PasteAction {
 	 */
 	@Override
 	protected void invokeCommand() {
-		// TODO: Complete...
+		this.command.execute();
 	}
 
 	/**
@@ -67,6 +74,6 @@ public class PasteInvoker extends PasteAction {
 	 */
 	@Override
 	protected void registerCommand(Editor e) {
-		// TODO: Complete...
+		e.getCommandHandler().addCommand(this.command);
 	}
 }
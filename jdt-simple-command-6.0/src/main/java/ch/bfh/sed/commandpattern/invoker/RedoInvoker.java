@@ -34,6 +34,6 @@ public class RedoInvoker extends RedoAction {
 	 */
 	@Override
 	protected void redoLast(CommandHandler ch) {
-		// TODO: Complete...
+		ch.redoLast();
 	}
 }
@@ -33,6 +33,6 @@ public class UndoInvoker extends UndoAction {
 	 */
 	@Override
 	protected void undoLast(CommandHandler ch) {
-		// TODO: Complete...
+		ch.undoLast();
 	}
 }
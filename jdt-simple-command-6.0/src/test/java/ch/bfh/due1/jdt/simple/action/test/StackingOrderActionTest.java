@@ -0,0 +1,208 @@
+/*
+ * Eric Dubuis, Berner Fachhochschule,
+ * Biel, Switzerland.
+ * Copyright (c) 2007
+ *
+ * Distributable under LGPL license.
+ * See terms of license at gnu.org.
+ */
+package ch.bfh.due1.jdt.simple.action.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import org.junit.Test;
+
+import ch.bfh.due1.jdt.framework.BaseAction;
+import ch.bfh.due1.jdt.framework.Command;
+import ch.bfh.due1.jdt.framework.CommandHandler;
+import ch.bfh.due1.jdt.framework.CommandHandlerListener;
+import ch.bfh.due1.jdt.framework.Shape;
+import ch.bfh.due1.jdt.framework.Sheet;
+import ch.bfh.due1.jdt.framework.View;
+import ch.bfh.due1.jdt.framework.util.EditorAdaptor;
+import ch.bfh.due1.jdt.framework.util.ViewAdaptor;
+import ch.bfh.due1.jdt.simple.action.BringToFrontAction;
+import ch.bfh.due1.jdt.simple.action.MoveDownAction;
+import ch.bfh.due1.jdt.simple.action.MoveUpAction;
+import ch.bfh.due1.jdt.simple.action.SendToBackAction;
+import ch.bfh.due1.jdt.simple.impl.SimpleSheet;
+import ch.bfh.due1.jdt.simple.impl.shape.SimpleBox;
+
+/**
+ * Tests the actions changing the stacking order of the selected shapes.
+ */
+public class StackingOrderActionTest {
+	/** Mock editor. */
+	private class MockEditor extends EditorAdaptor {
+		private View view = new MockView();
+		private MockCommandHandler ch = new MockCommandHandler();
+		@Override
+		public View getCurrentView() {
+			return this.view;
+		}
+		@Override
+		public List<Shape> getShapes() {
+			return this.view.getShapes();
+		}
+		@Override
+		public List<Shape> getSelection() {
+			return this.view.getSelection();
+		}
+		@Override
+		public CommandHandler getCommandHandler() {
+			return this.ch;
+		}
+		@Override
+		public void checkEditorState() {
+		}
+	}
+
+	/** Mock view delegating to a sheet. */
+	private class MockView extends ViewAdaptor {
+		private Sheet sheet = new SimpleSheet();
+		private List<Shape> selection = new ArrayList<>();
+		@Override
+		public void addShape(Shape s) {
+			this.sheet.addShape(s);
+		}
+		@Override
+		public List<Shape> getShapes() {
+			return this.sheet.getShapes();
+		}
+		@Override
+		public List<Shape> getShapesByStackingOrder(Collection<Shape> shapes) {
+			return this.sheet.getShapesByStackingOrder(shapes);
+		}
+		@Override
+		public int getStackingIndex(Shape s) {
+			return this.sheet.getStackingIndex(s);
+		}
+		@Override
+		public void setStackingIndex(Shape s, int index) {
+			this.sheet.setStackingIndex(s, index);
+		}
+		@Override
+		public void addToSelection(Shape s) {
+			this.selection.add(s);
+		}
+		@Override
+		public List<Shape> getSelection() {
+			return this.selection;
+		}
+	}
+
+	/** Mock command handler. */
+	private class MockCommandHandler implements CommandHandler {
+		private List<Command> commands = new ArrayList<>();
+		@Override
+		public void addCommand(Command c) {
+			this.commands.add(c);
+		}
+		@Override
+		public void clear() {
+			throw new UnsupportedOperationException();
+		}
+		@Override
+		public void undoLast() {
+			this.commands.remove(this.commands.size() - 1).undo();
+		}
+		@Override
+		public void redoLast() {
+		}
+		@Override
+		public boolean undoPossible() {
+			return !this.commands.isEmpty();
+		}
+		@Override
+		public boolean redoPossible() {
+			return false;
+		}
+		@Override
+		public void addCommandHandlerListener(CommandHandlerListener listener) {
+		}
+		@Override
+		public boolean removeCommandHandlerListener(
+				CommandHandlerListener listener) {
+			return false;
+		}
+	}
+
+	private MockEditor editor = new MockEditor();
+
+	private Shape[] shapes = new Shape[5];
+
+	/**
+	 * Puts five shapes onto the sheet, and selects the ones with the given
+	 * indexes.
+	 */
+	private void setUp(int... selected) {
+		for (int i = 0; i < this.shapes.length; i++) {
+			this.shapes[i] = new SimpleBox(i * 10, i * 10, 20, 20);
+			this.editor.getCurrentView().addShape(this.shapes[i]);
+		}
+		for (int i : selected) {
+			this.editor.getCurrentView().addToSelection(this.shapes[i]);
+		}
+	}
+
+	/**
+	 * Performs the given action, checks the resulting stacking order, undoes
+	 * the action, and checks that the original order is restored.
+	 */
+	private void perform(BaseAction a, int... expectedOrder) {
+		a.putValue(BaseAction.JDT_EDITOR, this.editor);
+		a.checkAction();
+		assertTrue(a.isEnabled());
+		a.actionPerformed(null);
+		List<Shape> expected = new ArrayList<>();
+		for (int i : expectedOrder) {
+			expected.add(this.shapes[i]);
+		}
+		assertEquals(expected, this.editor.getShapes());
+		this.editor.getCommandHandler().undoLast();
+		assertEquals(Arrays.asList(this.shapes), this.editor.getShapes());
+	}
+
+	@Test
+	public void testBringToFront() {
+		setUp(3, 1);
+		perform(new BringToFrontAction(), 0, 2, 4, 1, 3);
+	}
+
+	@Test
+	public void testSendToBack() {
+		setUp(4, 2);
+		perform(new SendToBackAction(), 2, 4, 0, 1, 3);
+	}
+
+	@Test
+	public void testMoveUp() {
+		setUp(0, 3, 4);
+		perform(new MoveUpAction(), 1, 0, 2, 3, 4);
+	}
+
+	@Test
+	public void testMoveDown() {
+		setUp(0, 1, 3);
+		perform(new MoveDownAction(), 0, 1, 3, 2, 4);
+	}
+
+	/**
+	 * Tests that nothing is registered if no shape changes its stacking index.
+	 */
+	@Test
+	public void testNothingToDo() {
+		setUp(3, 4);
+		BaseAction a = new BringToFrontAction();
+		a.putValue(BaseAction.JDT_EDITOR, this.editor);
+		a.actionPerformed(null);
+		assertFalse(this.editor.getCommandHandler().undoPossible());
+	}
+}
@@ -12,6 +12,7 @@ package ch.bfh.due1.jdt.simple.impl.command.test;
 import static org.junit.Assert.assertEquals;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import org.junit.Test;
@@ -77,6 +78,12 @@ public class CutCommandTest {
 			return this.shapes;
 		}
 
+		@Override
+		public void setStackingIndex(Shape s, int index) {
+			this.shapes.remove(s);
+			this.shapes.add(index, s);
+		}
+
 		@Override
 		public void removeFromSelection(Shape s) {
 			// Intentionally left empty
@@ -99,4 +106,28 @@ public class CutCommandTest {
 		assertEquals(2, e.getClipboard().get().size());
 		assertEquals(0, e.getShapes().size());
 	}
+
+	/**
+	 * Tests that undoing a cut restores the stacking order, and that redoing
+	 * it does not put the shapes onto the clip board again.
+	 */
+	@Test
+	public void testUndoRedo() {
+		Shape s1 = new SimpleBox(10, 10, 10, 10);
+		Shape s2 = new SimpleBox(40, 40, 10, 10);
+		Shape s3 = new SimpleBox(70, 70, 10, 10);
+		e.addShape(s1);
+		e.addShape(s2);
+		e.addShape(s3);
+		Command mc = new MacroCommand();
+		mc.addCommand(new CutCommand(e, s1));
+		mc.addCommand(new CutCommand(e, s2));
+		mc.execute();
+		assertEquals(Arrays.asList(s3), e.getShapes());
+		mc.undo();
+		assertEquals(Arrays.asList(s1, s2, s3), e.getShapes());
+		mc.execute();
+		assertEquals(Arrays.asList(s3), e.getShapes());
+		assertEquals(Arrays.asList(s1, s2), e.getClipboard().get());
+	}
 }
@@ -10,7 +10,9 @@
 package ch.bfh.due1.jdt.simple.impl.command.test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 
 import java.util.Collections;
 import java.util.List;
@@ -132,4 +134,30 @@ public class DragCommandTest {
 		assertEquals(new BoundingBox(10, 10, 10, 10), s1.getBoundingBox());
 		assertEquals(new Coord(20, 20), h.getPosition());
 	}
+
+	/**
+	 * Merges two successive drags of the same handle and undoes them at once.
+	 */
+	@Test
+	public void testCoalesce() {
+		Shape s1 = new SimpleShape(10, 10, 10, 10);
+		Shape s2 = new SimpleShape(10, 10, 10, 10);
+		ShapeHandle h = s1.getShapeHandles().get(0);
+		Command cmd1 =
+				new DragCommand(h, h.getPosition(), new Coord(30, 30), KeyModifier.NONE);
+		cmd1.execute();
+		Command cmd2 =
+				new DragCommand(h, h.getPosition(), new Coord(40, 40), KeyModifier.NONE);
+		cmd2.execute();
+		assertFalse(cmd1.canCoalesceWith(new DragCommand(s2.getShapeHandles()
+				.get(0), h.getPosition(), new Coord(40, 40), KeyModifier.NONE)));
+		assertFalse(cmd1.canCoalesceWith(new DragCommand(h, h.getPosition(),
+				new Coord(40, 40), KeyModifier.SHIFT_DOWN)));
+		assertTrue(cmd1.canCoalesceWith(cmd2));
+		cmd1.coalesceWith(cmd2);
+		cmd1.undo();
+		assertEquals(new BoundingBox(10, 10, 10, 10), s1.getBoundingBox());
+		cmd1.execute();
+		assertEquals(new BoundingBox(10, 10, 30, 30), s1.getBoundingBox());
+	}
 }
@@ -0,0 +1,287 @@
+/*
+ * Eric Dubuis, Berner Fachhochschule,
+ * Biel, Switzerland.
+ * Copyright (c) 2007
+ *
+ * Distributable under LGPL license.
+ * See terms of license at gnu.org.
+ */
+package ch.bfh.due1.jdt.simple.impl.command.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import ch.bfh.due1.jdt.framework.AbstractCommand;
+import ch.bfh.due1.jdt.framework.BoundingBox;
+import ch.bfh.due1.jdt.framework.Shape;
+import ch.bfh.due1.jdt.framework.Sheet;
+import ch.bfh.due1.jdt.framework.Vector;
+import ch.bfh.due1.jdt.simple.impl.CompactSheet;
+import ch.bfh.due1.jdt.simple.impl.SimpleSheet;
+import ch.bfh.due1.jdt.simple.impl.io.SheetFormatResolver;
+import ch.bfh.due1.jdt.simple.impl.shape.ShapeGroup;
+import ch.bfh.due1.jdt.simple.impl.shape.SimpleBox;
+import ch.bfh.sed.commandpattern.cmdhandler.SimpleCommandHandler;
+import ch.bfh.sed.commandpattern.command.MacroCommand;
+import ch.bfh.sed.commandpattern.command.MoveCommand;
+
+/**
+ * Tests the command handler, including the spilling of its history.
+ *
+ * @author Eric Dubuis
+ */
+public class SimpleCommandHandlerTest {
+	/**
+	 * A command adding or removing a shape.
+	 */
+	private static class AddCommand extends AbstractCommand {
+		private static final long serialVersionUID = 1L;
+		private Sheet sheet;
+		private Shape shape;
+		private boolean remove;
+
+		AddCommand(Sheet sheet, Shape shape, boolean remove) {
+			this.sheet = sheet;
+			this.shape = shape;
+			this.remove = remove;
+		}
+
+		@Override
+		public void execute() {
+			if (this.remove) {
+				this.sheet.removeShape(this.shape);
+			} else {
+				this.sheet.addShape(this.shape);
+			}
+		}
+
+		@Override
+		public void undo() {
+			if (this.remove) {
+				this.sheet.addShape(this.shape);
+			} else {
+				this.sheet.removeShape(this.shape);
+			}
+		}
+	}
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	/**
+	 * Undoes and redoes commands in memory, and discards the undone commands
+	 * when a new one is added.
+	 */
+	@Test
+	public void testUndoRedo() {
+		SimpleCommandHandler h = new SimpleCommandHandler();
+		h.setCoalescingWindow(0);
+		assertFalse(h.undoPossible());
+		assertFalse(h.redoPossible());
+		Shape s = new SimpleBox(0, 0, 10, 10);
+		for (int i = 0; i < 3; i++) {
+			move(h, s, 10);
+		}
+		assertTrue(h.undoPossible());
+		h.undoLast();
+		h.undoLast();
+		assertEquals(new BoundingBox(10, 10, 10, 10), s.getBoundingBox());
+		assertTrue(h.redoPossible());
+		h.redoLast();
+		assertEquals(new BoundingBox(20, 20, 10, 10), s.getBoundingBox());
+		move(h, s, 100);
+		assertFalse(h.redoPossible());
+		h.undoLast();
+		h.undoLast();
+		h.undoLast();
+		assertFalse(h.undoPossible());
+		assertEquals(new BoundingBox(0, 0, 10, 10), s.getBoundingBox());
+		assertEquals(0, h.getSpilledCount());
+	}
+
+	/**
+	 * Spills all commands but the last one and reads them back when undoing.
+	 */
+	@Test
+	public void testSpill() throws IOException {
+		SimpleCommandHandler h = new SimpleCommandHandler(0, this.folder
+				.getRoot().toPath());
+		h.setShapeResolver(new SheetFormatResolver());
+		h.setCoalescingWindow(0);
+		Shape s = new SimpleBox(0, 0, 10, 10);
+		for (int i = 0; i < 100; i++) {
+			move(h, s, 1);
+		}
+		assertEquals(99, h.getSpilledCount());
+		assertTrue(h.getMemoryUsed() > 0);
+		for (int i = 0; i < 100; i++) {
+			h.undoLast();
+		}
+		assertFalse(h.undoPossible());
+		assertEquals(0, h.getSpilledCount());
+		assertEquals(new BoundingBox(0, 0, 10, 10), s.getBoundingBox());
+		for (int i = 0; i < 100; i++) {
+			h.redoLast();
+		}
+		assertEquals(new BoundingBox(100, 100, 10, 10), s.getBoundingBox());
+		h.clear();
+		assertEquals(0, h.getMemoryUsed());
+		assertEquals(0, this.folder.getRoot().list().length);
+	}
+
+	/**
+	 * Tests that spilled commands read back operate on the same sheet and on
+	 * the same shapes as the commands in memory, even if a shape is referred
+	 * to by spilled commands only.
+	 */
+	@Test
+	public void testSpillIdentity() {
+		SimpleCommandHandler h = new SimpleCommandHandler(0, this.folder
+				.getRoot().toPath());
+		h.setShapeResolver(new SheetFormatResolver());
+		Sheet sheet = new SimpleSheet();
+		for (int i = 0; i < 10; i++) {
+			add(h, sheet, new SimpleBox(i, i, 10, 10), false);
+		}
+		for (Shape s : new ArrayList<Shape>(sheet.getShapes())) {
+			add(h, sheet, s, true);
+		}
+		move(h, new SimpleBox(0, 0, 1, 1), 1);
+		assertEquals(20, h.getSpilledCount());
+		System.gc();
+		h.undoLast();
+		for (int i = 0; i < 10; i++) {
+			h.undoLast();
+		}
+		assertEquals(10, sheet.getShapes().size());
+		// Undoing the removals adds the shapes in the reverse order.
+		assertEquals(new BoundingBox(9, 9, 10, 10), sheet.getShapes().get(0)
+				.getBoundingBox());
+		for (int i = 0; i < 10; i++) {
+			h.undoLast();
+		}
+		assertEquals(0, sheet.getShapes().size());
+		h.redoLast();
+		assertSame(SimpleBox.class, sheet.getShapes().get(0).getClass());
+	}
+
+	/**
+	 * Tests that spilling a command on a group sharing its children does not
+	 * copy them, and that a group read back copies them before it changes.
+	 */
+	@Test
+	public void testSpillSharedGroup() {
+		SimpleCommandHandler h = new SimpleCommandHandler(0, this.folder
+				.getRoot().toPath());
+		h.setShapeResolver(new SheetFormatResolver());
+		Sheet sheet = new SimpleSheet();
+		ShapeGroup copy = (ShapeGroup) new ShapeGroup(Arrays.<Shape> asList(
+				new SimpleBox(0, 0, 10, 10), new SimpleBox(20, 0, 10, 10)))
+				.cloneMe();
+		add(h, sheet, copy.cloneMe(), false);
+		Shape child = copy.getChildShapes().get(0);
+		add(h, sheet, sheet.getShapes().get(0), true);
+		move(h, new SimpleBox(0, 0, 1, 1), 1);
+		assertEquals(2, h.getSpilledCount());
+		assertSame(child, copy.getChildShapes().get(0));
+		System.gc();
+		h.undoLast();
+		h.undoLast();
+		sheet.getShapes().get(0).move(new Vector(100, 0));
+		assertEquals(new BoundingBox(100, 0, 30, 10), sheet.getShapes().get(0)
+				.getBoundingBox());
+		assertEquals(new BoundingBox(0, 0, 30, 10), copy.getBoundingBox());
+	}
+
+	/**
+	 * Tests that a spilled command on a primitive of a compact sheet operates
+	 * on the primitive of the sheet after its flyweight has been collected.
+	 */
+	@Test
+	public void testSpillFlyweight() {
+		SimpleCommandHandler h = new SimpleCommandHandler(0, this.folder
+				.getRoot().toPath());
+		h.setShapeResolver(new SheetFormatResolver());
+		CompactSheet sheet = new CompactSheet();
+		sheet.addBox(0, 0, 10, 10);
+		WeakReference<Shape> flyweight = new WeakReference<Shape>(sheet
+				.getShapes().get(0));
+		move(h, sheet.getShapes().get(0), 5);
+		move(h, new SimpleBox(0, 0, 1, 1), 1);
+		assertEquals(1, h.getSpilledCount());
+		for (int i = 0; i < 10 && flyweight.get() != null; i++) {
+			System.gc();
+		}
+		assertNull(flyweight.get());
+		h.undoLast();
+		h.undoLast();
+		assertEquals(new BoundingBox(0, 0, 10, 10), sheet.getShapes().get(0)
+				.getBoundingBox());
+		h.redoLast();
+		assertEquals(new BoundingBox(5, 5, 10, 10), sheet.getShapes().get(0)
+				.getBoundingBox());
+	}
+
+	/**
+	 * Merges successive moves of the same shapes, but not into a move having
+	 * been undone or redone.
+	 */
+	@Test
+	public void testCoalesce() {
+		SimpleCommandHandler h = new SimpleCommandHandler();
+		h.setCoalescingWindow(60000);
+		Shape s1 = new SimpleBox(0, 0, 10, 10);
+		Shape s2 = new SimpleBox(0, 0, 10, 10);
+		for (int i = 0; i < 10; i++) {
+			moveAll(h, 1, s1, s2);
+		}
+		assertEquals(new BoundingBox(10, 10, 10, 10), s2.getBoundingBox());
+		h.undoLast();
+		assertFalse(h.undoPossible());
+		assertEquals(new BoundingBox(0, 0, 10, 10), s1.getBoundingBox());
+		assertEquals(new BoundingBox(0, 0, 10, 10), s2.getBoundingBox());
+		h.redoLast();
+		moveAll(h, 5, s1, s2);
+		moveAll(h, 5, s1);
+		h.undoLast();
+		assertEquals(new BoundingBox(15, 15, 10, 10), s1.getBoundingBox());
+		h.undoLast();
+		assertEquals(new BoundingBox(10, 10, 10, 10), s1.getBoundingBox());
+		assertEquals(new BoundingBox(10, 10, 10, 10), s2.getBoundingBox());
+		assertTrue(h.undoPossible());
+	}
+
+	private static void moveAll(SimpleCommandHandler h, int d, Shape... shapes) {
+		MacroCommand c = new MacroCommand();
+		for (Shape s : shapes) {
+			c.addCommand(new MoveCommand(s, new Vector(d, d)));
+		}
+		c.execute();
+		h.addCommand(c);
+	}
+
+	private static void move(SimpleCommandHandler h, Shape s, int d) {
+		MoveCommand c = new MoveCommand(s, new Vector(d, d));
+		c.execute();
+		h.addCommand(c);
+	}
+
+	private static void add(SimpleCommandHandler h, Sheet sheet, Shape s,
+			boolean remove) {
+		AddCommand c = new AddCommand(sheet, s, remove);
+		c.execute();
+		h.addCommand(c);
+	}
+}
@@ -0,0 +1,249 @@
+/*
+ * Eric Dubuis, Berner Fachhochschule,
+ * Biel, Switzerland.
+ * Copyright (c) 2007
+ *
+ * Distributable under LGPL license.
+ * See terms of license at gnu.org.
+ */
+package ch.bfh.due1.jdt.simple.impl.test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import ch.bfh.due1.jdt.framework.AbstractShape;
+import ch.bfh.due1.jdt.framework.BoundingBox;
+import ch.bfh.due1.jdt.framework.Coord;
+import ch.bfh.due1.jdt.framework.Memento;
+import ch.bfh.due1.jdt.framework.Shape;
+import ch.bfh.due1.jdt.framework.Sheet;
+import ch.bfh.due1.jdt.framework.SheetChangedEvent;
+import ch.bfh.due1.jdt.framework.SheetChangedListener;
+import ch.bfh.due1.jdt.framework.Vector;
+import ch.bfh.due1.jdt.simple.impl.CompactSheet;
+import ch.bfh.due1.jdt.simple.impl.SimpleSheet;
+import ch.bfh.due1.jdt.simple.impl.io.SheetFormat;
+import ch.bfh.due1.jdt.simple.impl.shape.SimpleBox;
+import ch.bfh.due1.jdt.simple.impl.shape.SimpleEllipse;
+import ch.bfh.due1.jdt.simple.impl.shape.SimpleLine;
+
+/**
+ * Tests the compact sheet and its flyweights.
+ *
+ * @author Eric Dubuis
+ */
+public class CompactSheetTest {
+
+	/**
+	 * Tests that the topmost primitive is found and that it has a single
+	 * flyweight while referenced.
+	 */
+	@Test
+	public void testGetShapeAt() {
+		CompactSheet sheet = new CompactSheet();
+		sheet.addBox(0, 0, 20, 20);
+		sheet.addEllipse(10, 10, 20, 20);
+		sheet.addLine(0, 40, 40, 0);
+		Shape upper = sheet.getShapeAt(new Coord(20, 20));
+		assertNotNull(upper);
+		assertEquals(CompactSheet.ELLIPSE,
+				((CompactSheet.CompactShape) upper).getKind());
+		assertSame(upper, sheet.getShapeAt(new Coord(20, 20)));
+		assertSame(upper, sheet.getShapes().get(1));
+		assertEquals(1, sheet.getStackingIndex(upper));
+		Shape lower = sheet.getShapeAt(new Coord(5, 5));
+		assertEquals(new BoundingBox(0, 0, 20, 20), lower.getBoundingBox());
+		// The ellipse does not contain the corner of its bounding box.
+		assertSame(lower, sheet.getShapeAt(new Coord(11, 11)));
+		Shape line = sheet.getShapeAt(new Coord(20, 41));
+		assertEquals(2, sheet.getStackingIndex(line));
+		assertNull(sheet.getShapeAt(new Coord(50, 50)));
+		assertEquals(2, sheet.getShapesIn(new BoundingBox(25, 25, 20, 20))
+				.size());
+	}
+
+	/**
+	 * Tests that changing a flyweight changes the primitive and notifies the
+	 * listeners of the sheet.
+	 */
+	@Test
+	public void testMove() {
+		CompactSheet sheet = new CompactSheet();
+		sheet.addBox(0, 0, 20, 20);
+		final List<SheetChangedEvent> events = new ArrayList<SheetChangedEvent>();
+		sheet.addSheetChangedListener(new SheetChangedListener() {
+			@Override
+			public void sheetChanged(SheetChangedEvent e) {
+				events.add(e);
+			}
+		});
+		Shape s = sheet.getShapeAt(new Coord(5, 5));
+		s.move(new Vector(100, 0));
+		assertEquals(1, events.size());
+		assertTrue(events.get(0).getShapes().contains(s));
+		assertEquals(new BoundingBox(0, 0, 120, 20), events.get(0)
+				.getDirtyArea());
+		assertNull(sheet.getShapeAt(new Coord(5, 5)));
+		assertSame(s, sheet.getShapeAt(new Coord(105, 5)));
+		s.setPenSize(7);
+		s.setFillColor(Color.BLUE);
+		CompactSheet.CompactShape f = (CompactSheet.CompactShape) sheet
+				.getShapes().get(0);
+		assertEquals(7, f.getPenSize());
+		assertEquals(Color.BLUE.getRGB(), f.getFillARGB());
+	}
+
+	/**
+	 * Tests that a removed flyweight keeps its state and can be added again,
+	 * and that shapes kept as objects share the stacking order.
+	 */
+	@Test
+	public void testRemove() {
+		CompactSheet sheet = new CompactSheet();
+		Shape object = new SimpleBox(0, 0, 50, 50);
+		sheet.addBox(10, 10, 10, 10);
+		sheet.addShape(object);
+		sheet.addLine(0, 49, 50, 0);
+		Shape box = sheet.getShapes().get(0);
+		assertTrue(sheet.removeShape(box));
+		assertFalse(sheet.removeShape(box));
+		assertEquals(-1, sheet.getStackingIndex(box));
+		assertEquals(2, sheet.getShapes().size());
+		box.move(new Vector(1, 1));
+		assertEquals(new BoundingBox(11, 11, 10, 10), box.getBoundingBox());
+		sheet.addShape(box);
+		assertEquals(2, sheet.getStackingIndex(box));
+		assertSame(box, sheet.getShapeAt(new Coord(15, 15)));
+		sheet.setStackingIndex(box, 0);
+		assertSame(object, sheet.getShapeAt(new Coord(15, 15)));
+		assertEquals(Arrays.asList(box, object), sheet
+				.getShapesByStackingOrder(Arrays.asList(object, box)));
+
+		Shape copy = box.cloneMe();
+		assertEquals(-1, sheet.getStackingIndex(copy));
+		sheet.addShape(copy);
+		assertEquals(3, sheet.getStackingIndex(copy));
+		assertSame(copy, sheet.getShapeAt(new Coord(15, 15)));
+	}
+
+	/**
+	 * Tests that a memento restores the primitives, the shapes kept as
+	 * objects, and the stacking order.
+	 */
+	@Test
+	public void testMemento() {
+		CompactSheet sheet = new CompactSheet();
+		Shape object = new SimpleBox(0, 0, 50, 50);
+		sheet.addShape(object);
+		sheet.addEllipse(10, 10, 20, 20);
+		Memento m0 = sheet.createMemento();
+		Shape ellipse = sheet.getShapes().get(1);
+		ellipse.move(new Vector(5, 5));
+		object.move(new Vector(100, 0));
+		sheet.removeShape(ellipse);
+		sheet.addBox(200, 200, 10, 10);
+		Memento m1 = sheet.createMemento();
+
+		sheet.setMemento(m0);
+		assertEquals(2, sheet.getShapes().size());
+		assertEquals(new BoundingBox(0, 0, 50, 50), object.getBoundingBox());
+		assertSame(ellipse, sheet.getShapeAt(new Coord(20, 20)));
+		assertEquals(new BoundingBox(10, 10, 20, 20), ellipse
+				.getBoundingBox());
+		ellipse.move(new Vector(1, 0));
+
+		sheet.setMemento(m1);
+		assertEquals(-1, sheet.getStackingIndex(ellipse));
+		assertEquals(new BoundingBox(100, 0, 50, 50), object.getBoundingBox());
+		assertNotNull(sheet.getShapeAt(new Coord(205, 205)));
+		assertSame(object, sheet.getShapeAt(new Coord(120, 20)));
+	}
+
+	/**
+	 * Tests that the compact sheet draws the same pixels as a simple sheet
+	 * holding the same shapes, with and without a clip.
+	 */
+	@Test
+	public void testDraw() {
+		Random random = new Random(4711);
+		Sheet simple = new SimpleSheet();
+		CompactSheet compact = new CompactSheet();
+		for (int i = 0; i < 300; i++) {
+			int x = random.nextInt(300);
+			int y = random.nextInt(300);
+			int w = random.nextInt(60) - 10;
+			int h = random.nextInt(60) - 10;
+			Color fill = new Color(random.nextInt(), true);
+			int penSize = 1 + random.nextInt(5);
+			simple.addShape(createShape(i % 3, x, y, w, h, fill, penSize));
+			assertTrue(compact.addCompact(createShape(i % 3, x, y, w, h,
+					fill, penSize)));
+		}
+		assertArrayEquals(paint(simple, false), paint(compact, false));
+		assertArrayEquals(paint(simple, true), paint(compact, true));
+		assertEquals(simple.getDrawnShapeCount(), compact.getDrawnShapeCount());
+	}
+
+	/**
+	 * Tests that flyweights are written as the shapes they stand for.
+	 */
+	@Test
+	public void testFormat() throws Exception {
+		CompactSheet sheet = new CompactSheet();
+		sheet.add(CompactSheet.LINE, 1, 2, 3, 4, Color.GREEN.getRGB(),
+				Color.BLUE.getRGB(), 5);
+		Shape s = SheetFormat.decode(SheetFormat.encode(sheet.getShapes()
+				.get(0)));
+		assertEquals(SimpleLine.class, s.getClass());
+		SimpleLine line = (SimpleLine) s;
+		assertEquals(new BoundingBox(1, 2, 3, 4), line.getBoundingBox());
+		assertEquals(Color.GREEN, line.getFillColor());
+		assertEquals(Color.BLUE, line.getPenColor());
+		assertEquals(5, line.getPenSize());
+	}
+
+	/**
+	 * Tests that unknown kinds are refused.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testIllegalKind() {
+		new CompactSheet().add((byte) 0, 0, 0, 1, 1, 0, 0, 2);
+	}
+
+	private static Shape createShape(int kind, int x, int y, int w, int h,
+			Color fill, int penSize) {
+		AbstractShape s = kind == 0 ? new SimpleBox(x, y, w, h)
+				: kind == 1 ? new SimpleEllipse(x, y, w, h) : new SimpleLine(
+						x, y, w, h);
+		s.setFillColor(fill);
+		s.setPenSize(penSize);
+		return s;
+	}
+
+	private static int[] paint(Sheet sheet, boolean clip) {
+		BufferedImage image = new BufferedImage(320, 320,
+				BufferedImage.TYPE_INT_ARGB);
+		Graphics2D g = image.createGraphics();
+		if (clip) {
+			g.clipRect(50, 50, 100, 100);
+		}
+		sheet.draw(g);
+		g.dispose();
+		return image.getRGB(0, 0, 320, 320, null, 0, 320);
+	}
+}
@@ -0,0 +1,199 @@
+/*
+ * Eric Dubuis, Berner Fachhochschule,
+ * Biel, Switzerland.
+ * Copyright (c) 2007
+ *
+ * Distributable under LGPL license.
+ * See terms of license at gnu.org.
+ */
+package ch.bfh.due1.jdt.simple.impl.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import ch.bfh.due1.jdt.framework.BoundingBox;
+import ch.bfh.due1.jdt.framework.Coord;
+import ch.bfh.due1.jdt.framework.Shape;
+import ch.bfh.due1.jdt.framework.ShapeChangedListener;
+import ch.bfh.due1.jdt.framework.Sheet;
+import ch.bfh.due1.jdt.framework.Vector;
+import ch.bfh.due1.jdt.framework.util.ShapeAdaptor;
+import ch.bfh.due1.jdt.simple.impl.IndexedSheet;
+import ch.bfh.due1.jdt.simple.impl.SimpleSheet;
+import ch.bfh.due1.jdt.simple.impl.shape.SimpleBox;
+import ch.bfh.due1.jdt.simple.impl.shape.SimpleEllipse;
+import ch.bfh.due1.jdt.simple.impl.shape.SimpleLine;
+
+/**
+ * Tests the spatial queries of the indexed sheet.
+ *
+ * @author Eric Dubuis
+ */
+public class IndexedSheetTest {
+
+	/**
+	 * Tests that the topmost of two overlapping shapes is found.
+	 */
+	@Test
+	public void testGetShapeAt1() {
+		Sheet sheet = new IndexedSheet();
+		Shape lower = new SimpleBox(0, 0, 20, 20);
+		Shape upper = new SimpleBox(10, 10, 20, 20);
+		sheet.addShape(lower);
+		sheet.addShape(upper);
+		assertSame(upper, sheet.getShapeAt(new Coord(15, 15)));
+		assertSame(lower, sheet.getShapeAt(new Coord(5, 5)));
+		assertNull(sheet.getShapeAt(new Coord(50, 50)));
+	}
+
+	/**
+	 * Tests that moved and removed shapes are found at their new location
+	 * only.
+	 */
+	@Test
+	public void testGetShapeAt2() {
+		Sheet sheet = new IndexedSheet();
+		Shape box = new SimpleBox(0, 0, 20, 20);
+		sheet.addShape(box);
+		box.move(new Vector(100, 100));
+		assertNull(sheet.getShapeAt(new Coord(5, 5)));
+		assertSame(box, sheet.getShapeAt(new Coord(105, 105)));
+		sheet.removeShape(box);
+		assertNull(sheet.getShapeAt(new Coord(105, 105)));
+	}
+
+	/**
+	 * Tests that a horizontal line, having a bounding box with height 0, is
+	 * found within its tolerance.
+	 */
+	@Test
+	public void testGetShapeAt3() {
+		Sheet sheet = new IndexedSheet();
+		Shape line = new SimpleLine(0, 10, 100, 0);
+		sheet.addShape(line);
+		assertSame(line, sheet.getShapeAt(new Coord(50, 11)));
+		assertNull(sheet.getShapeAt(new Coord(50, 14)));
+	}
+
+	/**
+	 * Tests the rectangle query, including the stacking order of the result.
+	 */
+	@Test
+	public void testGetShapesIn1() {
+		Sheet sheet = new IndexedSheet();
+		Shape s1 = new SimpleBox(0, 0, 10, 10);
+		Shape s2 = new SimpleBox(50, 50, 10, 10);
+		Shape s3 = new SimpleBox(8, 8, 10, 10);
+		sheet.addShape(s1);
+		sheet.addShape(s2);
+		sheet.addShape(s3);
+		List<Shape> result = sheet.getShapesIn(new BoundingBox(0, 0, 20, 20));
+		assertEquals(2, result.size());
+		assertSame(s1, result.get(0));
+		assertSame(s3, result.get(1));
+		// The margin of the index must not yield false positives.
+		assertEquals(0, sheet.getShapesIn(new BoundingBox(12, 0, 2, 2))
+				.size());
+	}
+
+	/**
+	 * Compares the answers of the indexed sheet with the ones of a sheet
+	 * visiting all shapes, for many shapes being added, moved, and removed.
+	 */
+	@Test
+	public void testCompareWithLinearSearch() {
+		Random random = new Random(4711);
+		Sheet indexed = new IndexedSheet();
+		Sheet linear = new SimpleSheet();
+		List<Shape> shapes = new ArrayList<Shape>();
+		for (int i = 0; i < 2000; i++) {
+			Shape s = createShape(random);
+			shapes.add(s);
+			indexed.addShape(s);
+			linear.addShape(s);
+		}
+		for (int i = 0; i < 500; i++) {
+			shapes.get(random.nextInt(shapes.size())).move(
+					new Vector(random.nextInt(200) - 100,
+							random.nextInt(200) - 100));
+			Shape removed = shapes.remove(random.nextInt(shapes.size()));
+			indexed.removeShape(removed);
+			linear.removeShape(removed);
+		}
+		for (int i = 0; i < 1000; i++) {
+			Coord c = new Coord(random.nextInt(1000), random.nextInt(1000));
+			assertSame(linear.getShapeAt(c), indexed.getShapeAt(c));
+		}
+		for (int i = 0; i < 100; i++) {
+			BoundingBox area = new BoundingBox(random.nextInt(1000), random
+					.nextInt(1000), random.nextInt(200) - 100, random
+					.nextInt(200) - 100);
+			assertEquals(linear.getShapesIn(area), indexed.getShapesIn(area));
+		}
+	}
+
+	/**
+	 * Tests that a shape without a bounding box is always found and returned,
+	 * and no longer once removed.
+	 */
+	@Test
+	public void testUnbounded() {
+		Sheet sheet = new IndexedSheet();
+		Shape box = new SimpleBox(0, 0, 20, 20);
+		Shape unbounded = new ShapeAdaptor() {
+			@Override
+			public BoundingBox getBoundingBox() {
+				return null;
+			}
+
+			@Override
+			public boolean contains(Coord c) {
+				return true;
+			}
+
+			@Override
+			public void addShapeChangedListener(ShapeChangedListener l) {
+			}
+
+			@Override
+			public boolean removeShapeChangedListener(ShapeChangedListener l) {
+				return true;
+			}
+		};
+		sheet.addShape(unbounded);
+		sheet.addShape(box);
+		assertSame(box, sheet.getShapeAt(new Coord(5, 5)));
+		assertSame(unbounded, sheet.getShapeAt(new Coord(500, 500)));
+		List<Shape> expected = new ArrayList<Shape>();
+		expected.add(unbounded);
+		assertEquals(expected, sheet.getShapesIn(new BoundingBox(500, 500,
+				10, 10)));
+		expected.add(box);
+		assertEquals(expected, sheet.getShapesIn(new BoundingBox(0, 0, 10,
+				10)));
+		sheet.removeShape(unbounded);
+		assertNull(sheet.getShapeAt(new Coord(500, 500)));
+	}
+
+	private Shape createShape(Random random) {
+		int x = random.nextInt(1000);
+		int y = random.nextInt(1000);
+		int w = random.nextInt(60) - 20;
+		int h = random.nextInt(60) - 20;
+		switch (random.nextInt(3)) {
+		case 0:
+			return new SimpleBox(x, y, w, h);
+		case 1:
+			return new SimpleEllipse(x, y, w, h);
+		default:
+			return new SimpleLine(x, y, w, h);
+		}
+	}
+}
@@ -0,0 +1,115 @@
+/*
+ * Eric Dubuis, Berner Fachhochschule,
+ * Biel, Switzerland.
+ * Copyright (c) 2007
+ *
+ * Distributable under LGPL license.
+ * See terms of license at gnu.org.
+ */
+package ch.bfh.due1.jdt.simple.impl.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import ch.bfh.due1.jdt.simple.impl.OrderStatisticList;
+
+/**
+ * Tests the order-statistic list.
+ *
+ * @author Eric Dubuis
+ */
+public class OrderStatisticListTest {
+
+	/**
+	 * Tests adding, moving, and removing items.
+	 */
+	@Test
+	public void testBasics() {
+		OrderStatisticList<String> list = new OrderStatisticList<String>();
+		list.add("a");
+		list.add("b");
+		list.add(0, "c");
+		assertEquals("[c, a, b]", list.toString());
+		assertEquals(2, list.indexOf("b"));
+		assertEquals(-1, list.indexOf("d"));
+		list.move("c", 2);
+		assertEquals("[a, b, c]", list.toString());
+		assertTrue(list.remove("b"));
+		assertFalse(list.remove("b"));
+		assertEquals("a", list.remove(0));
+		assertEquals(1, list.size());
+		assertTrue(list.contains("c"));
+	}
+
+	/**
+	 * Tests that an item can be added only once.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testAddTwice() {
+		OrderStatisticList<String> list = new OrderStatisticList<String>();
+		list.add("a");
+		list.add("a");
+	}
+
+	/**
+	 * Tests that iterators are fail-fast.
+	 */
+	@Test(expected = ConcurrentModificationException.class)
+	public void testFailFast() {
+		OrderStatisticList<String> list = new OrderStatisticList<String>();
+		list.add("a");
+		list.add("b");
+		Iterator<String> it = list.iterator();
+		it.next();
+		list.remove("b");
+		it.next();
+	}
+
+	/**
+	 * Compares the list with an array list for many random operations.
+	 */
+	@Test
+	public void testCompareWithArrayList() {
+		Random random = new Random(4711);
+		OrderStatisticList<Integer> list = new OrderStatisticList<Integer>();
+		List<Integer> expected = new ArrayList<Integer>();
+		for (int i = 0; i < 20000; i++) {
+			int op = random.nextInt(10);
+			if (op < 5 || expected.isEmpty()) {
+				int index = random.nextInt(expected.size() + 1);
+				list.add(index, i);
+				expected.add(index, i);
+			} else if (op < 7) {
+				Integer item = expected.get(random.nextInt(expected.size()));
+				int index = random.nextInt(expected.size());
+				list.move(item, index);
+				expected.remove(item);
+				expected.add(index, item);
+			} else if (op < 8) {
+				int index = random.nextInt(expected.size());
+				assertEquals(expected.remove(index), list.remove(index));
+			} else if (op < 9) {
+				Integer item = expected.get(random.nextInt(expected.size()));
+				assertEquals(expected.indexOf(item), list.indexOf(item));
+			} else {
+				Integer item = expected.get(random.nextInt(expected.size()));
+				expected.remove(item);
+				list.remove(item);
+			}
+			assertEquals(expected.size(), list.size());
+			if (i % 1000 == 0) {
+				assertEquals(expected, list);
+			}
+		}
+		assertEquals(expected, list);
+	}
+}
@@ -0,0 +1,153 @@
+/*
+ * Eric Dubuis, Berner Fachhochschule,
+ * Biel, Switzerland.
+ * Copyright (c) 2007
+ *
+ * Distributable under LGPL license.
+ * See terms of license at gnu.org.
+ */
+package ch.bfh.due1.jdt.simple.impl.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+import ch.bfh.due1.jdt.simple.impl.PersistentIntMap;
+
+/**
+ * Tests the persistent map.
+ *
+ * @author Eric Dubuis
+ */
+public class PersistentIntMapTest {
+
+	/**
+	 * Puts and removes values of random keys, compares the map with a hash
+	 * map, and checks that former versions are not modified.
+	 */
+	@Test
+	public void testRandomOperations() {
+		Random random = new Random(4711);
+		Map<Integer, String> expected = new HashMap<Integer, String>();
+		PersistentIntMap<String> map = PersistentIntMap.empty();
+		List<PersistentIntMap<String>> versions = new ArrayList<PersistentIntMap<String>>();
+		List<Map<Integer, String>> contents = new ArrayList<Map<Integer, String>>();
+		for (int i = 0; i < 5000; i++) {
+			// Small keys collide often; some keys need a deeper trie.
+			int key = random.nextInt(10) == 0 ? random
+					.nextInt(Integer.MAX_VALUE) : random.nextInt(2000);
+			if (random.nextInt(3) > 0) {
+				String value = "v" + i;
+				expected.put(key, value);
+				map = map.with(key, value);
+			} else {
+				expected.remove(key);
+				map = map.without(key);
+			}
+			if (i % 250 == 0) {
+				versions.add(map);
+				contents.add(new HashMap<Integer, String>(expected));
+			}
+		}
+		assertContents(expected, map);
+		for (int i = 0; i < versions.size(); i++) {
+			assertContents(contents.get(i), versions.get(i));
+		}
+	}
+
+	/**
+	 * Puts keys sharing the nodes along their paths, i.e., keys differing
+	 * in the bits of a single level only, and removes them again.
+	 */
+	@Test
+	public void testCollisions() {
+		int[] keys = { 7, 7 | 1 << 5, 7 | 1 << 10, 7 | 1 << 25, 7 | 1 << 30,
+				Integer.MAX_VALUE };
+		PersistentIntMap<String> map = PersistentIntMap.empty();
+		for (int key : keys) {
+			map = map.with(key, "v" + key);
+		}
+		assertEquals(keys.length, map.size());
+		for (int key : keys) {
+			assertEquals("v" + key, map.get(key));
+		}
+		assertNull(map.get(7 | 1 << 15));
+		map = map.with(7 | 1 << 10, "x");
+		assertEquals(keys.length, map.size());
+		assertEquals("x", map.get(7 | 1 << 10));
+		assertEquals("v" + (7 | 1 << 5), map.get(7 | 1 << 5));
+		for (int i = keys.length - 1; i > 0; i--) {
+			map = map.without(keys[i]);
+			assertNull(map.get(keys[i]));
+			assertEquals("v7", map.get(7));
+		}
+		map = map.without(7);
+		assertEquals(0, map.size());
+		assertNull(map.get(7));
+		assertNull(map.get(-1));
+	}
+
+	/**
+	 * Keeps former versions unmodified, and reports the differences of two
+	 * versions.
+	 */
+	@Test
+	public void testVersions() {
+		PersistentIntMap<String> m0 = PersistentIntMap.empty();
+		for (int i = 0; i < 5000; i += 3) {
+			m0 = m0.with(i, "v" + i);
+		}
+		PersistentIntMap<String> m1 = m0.with(3, "x").without(6).with(
+				1 << 20, "far");
+		assertEquals(1667, m0.size());
+		assertEquals(1667, m1.size());
+		assertEquals("v3", m0.get(3));
+		assertEquals("x", m1.get(3));
+		assertEquals("v6", m0.get(6));
+		assertEquals(null, m1.get(6));
+		assertEquals("far", m1.get(1 << 20));
+		assertEquals(null, m0.get(1 << 20));
+		final List<String> diffs = new ArrayList<String>();
+		PersistentIntMap.diff(m0, m1, new PersistentIntMap.Visitor<String>() {
+			@Override
+			public void visit(int key, String before, String after) {
+				diffs.add(key + ":" + before + "->" + after);
+			}
+		});
+		assertEquals("[3:v3->x, 6:v6->null, 1048576:null->far]", diffs
+				.toString());
+		assertSame(m0, m0.without(7));
+	}
+
+	/**
+	 * Tests that negative keys are refused.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testNegativeKey() {
+		PersistentIntMap.<String> empty().with(-1, "v");
+	}
+
+	/**
+	 * Tests that null values are refused.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testNullValue() {
+		PersistentIntMap.<String> empty().with(1, null);
+	}
+
+	private static void assertContents(Map<Integer, String> expected,
+			PersistentIntMap<String> map) {
+		assertEquals(expected.size(), map.size());
+		for (Map.Entry<Integer, String> e : expected.entrySet()) {
+			assertSame(e.getValue(), map.get(e.getKey()));
+		}
+	}
+}
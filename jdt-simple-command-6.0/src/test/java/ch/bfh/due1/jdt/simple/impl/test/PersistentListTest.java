@@ -0,0 +1,85 @@
+/*
+ * Eric Dubuis, Berner Fachhochschule,
+ * Biel, Switzerland.
+ * Copyright (c) 2007
+ *
+ * Distributable under LGPL license.
+ * See terms of license at gnu.org.
+ */
+package ch.bfh.due1.jdt.simple.impl.test;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import ch.bfh.due1.jdt.simple.impl.PersistentList;
+
+/**
+ * Tests the persistent list.
+ *
+ * @author Eric Dubuis
+ */
+public class PersistentListTest {
+
+	/**
+	 * Inserts and removes items at random positions, compares the list with
+	 * an array list, and checks that former versions are not modified.
+	 */
+	@Test
+	public void testRandomOperations() {
+		Random random = new Random(4711);
+		List<Integer> expected = new ArrayList<Integer>();
+		PersistentList<Integer> list = PersistentList.empty();
+		List<PersistentList<Integer>> versions = new ArrayList<PersistentList<Integer>>();
+		List<List<Integer>> contents = new ArrayList<List<Integer>>();
+		for (int i = 0; i < 2000; i++) {
+			if (expected.isEmpty() || random.nextInt(3) > 0) {
+				int index = random.nextInt(expected.size() + 1);
+				expected.add(index, i);
+				list = list.insert(index, i);
+			} else {
+				int index = random.nextInt(expected.size());
+				expected.remove(index);
+				list = list.remove(index);
+			}
+			if (i % 100 == 0) {
+				versions.add(list);
+				contents.add(new ArrayList<Integer>(expected));
+			}
+		}
+		assertEquals(expected, toList(list));
+		for (int i = 0; i < expected.size(); i += 17) {
+			assertEquals(expected.get(i), list.get(i));
+		}
+		for (int i = 0; i < versions.size(); i++) {
+			assertEquals(contents.get(i), toList(versions.get(i)));
+		}
+	}
+
+	/**
+	 * Builds a list from a given list.
+	 */
+	@Test
+	public void testOf() {
+		List<Integer> expected = new ArrayList<Integer>();
+		for (int i = 0; i < 1000; i++) {
+			expected.add(i);
+		}
+		PersistentList<Integer> list = PersistentList.of(expected);
+		assertEquals(1000, list.size());
+		assertEquals(expected, toList(list));
+		assertEquals(Integer.valueOf(500), list.remove(0).get(499));
+	}
+
+	private static <E> List<E> toList(PersistentList<E> list) {
+		List<E> result = new ArrayList<E>();
+		for (E e : list) {
+			result.add(e);
+		}
+		return result;
+	}
+}
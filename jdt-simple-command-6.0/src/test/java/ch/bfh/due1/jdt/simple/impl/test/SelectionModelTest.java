@@ -0,0 +1,98 @@
+/*
+ * Eric Dubuis, Berner Fachhochschule,
+ * Biel, Switzerland.
+ * Copyright (c) 2007
+ *
+ * Distributable under LGPL license.
+ * See terms of license at gnu.org.
+ */
+package ch.bfh.due1.jdt.simple.impl.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import ch.bfh.due1.jdt.framework.Shape;
+import ch.bfh.due1.jdt.framework.ShapeHandle;
+import ch.bfh.due1.jdt.simple.impl.SelectionModel;
+import ch.bfh.due1.jdt.simple.impl.shape.SimpleBox;
+
+/**
+ * Tests the selection model and its list views.
+ *
+ * @author Eric Dubuis
+ */
+public class SelectionModelTest {
+
+	/**
+	 * Tests that the list views reflect adding and removing shapes, along the
+	 * order of their selection.
+	 */
+	@Test
+	public void testAddRemove() {
+		SelectionModel model = new SelectionModel();
+		Shape box1 = new SimpleBox(0, 0, 10, 10);
+		Shape box2 = new SimpleBox(20, 20, 10, 10);
+		List<Shape> shapes = model.getShapes();
+		List<ShapeHandle> handles = model.getHandles();
+		assertTrue(model.add(box2));
+		assertTrue(model.add(box1));
+		assertFalse(model.add(box2));
+		assertEquals(Arrays.asList(box2, box1), shapes);
+		assertTrue(shapes.contains(box1));
+		int count = box1.getShapeHandles().size();
+		assertEquals(2 * count, handles.size());
+		assertSame(box2, handles.get(0).getOwner());
+		assertSame(box1, handles.get(count).getOwner());
+		assertTrue(model.remove(box2));
+		assertFalse(model.remove(box2));
+		assertEquals(Arrays.asList(box1), shapes);
+		assertEquals(count, handles.size());
+		assertSame(box1, handles.get(0).getOwner());
+		assertNull(model.getHandles(box2));
+		model.clear();
+		assertTrue(model.isEmpty());
+		assertEquals(0, shapes.size());
+		assertEquals(0, handles.size());
+	}
+
+	/**
+	 * Tests that the list views are read-only.
+	 */
+	@Test(expected = UnsupportedOperationException.class)
+	public void testReadOnly() {
+		SelectionModel model = new SelectionModel();
+		model.getShapes().add(new SimpleBox(0, 0, 10, 10));
+	}
+
+	/**
+	 * Selects and deselects many shapes, as a rubber-band selection does.
+	 */
+	@Test(timeout = 5000)
+	public void testManyShapes() {
+		SelectionModel model = new SelectionModel();
+		List<Shape> all = new ArrayList<Shape>();
+		for (int i = 0; i < 20000; i++) {
+			all.add(new SimpleBox(i, i, 10, 10));
+		}
+		for (Shape s : all) {
+			if (!model.getShapes().contains(s)) {
+				model.add(s);
+			}
+		}
+		for (int i = 0; i < all.size(); i += 2) {
+			model.remove(all.get(i));
+		}
+		assertEquals(10000, model.getShapes().size());
+		assertSame(all.get(1), model.getShapes().get(0));
+		assertSame(all.get(19999), model.getShapes().get(9999));
+	}
+}
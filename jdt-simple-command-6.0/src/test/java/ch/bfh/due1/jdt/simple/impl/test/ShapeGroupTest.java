@@ -9,7 +9,10 @@
 package ch.bfh.due1.jdt.simple.impl.test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
@@ -21,7 +24,10 @@ import ch.bfh.due1.jdt.framework.BoundingBox;
 import ch.bfh.due1.jdt.framework.Coord;
 import ch.bfh.due1.jdt.framework.KeyModifier;
 import ch.bfh.due1.jdt.framework.Shape;
+import ch.bfh.due1.jdt.framework.ShapeChangedEvent;
+import ch.bfh.due1.jdt.framework.ShapeChangedListener;
 import ch.bfh.due1.jdt.framework.ShapeHandle;
+import ch.bfh.due1.jdt.framework.Vector;
 import ch.bfh.due1.jdt.simple.impl.shape.ShapeGroup;
 import ch.bfh.due1.jdt.simple.impl.shape.SimpleBox;
 import ch.bfh.due1.jdt.simple.impl.shape.ShapeGroup.ShapeGroupMemento;
@@ -409,4 +415,141 @@ public class ShapeGroupTest {
 				new BoundingBox(10, 10, 51, 51).equals(clone.getBoundingBox())
 				);
 	}
+
+	/**
+	 * Tests that the cached bounding box follows the changes of members,
+	 * whether they grow the group or shrink it.
+	 */
+	@Test
+	public void testGetBoundingBoxAfterMemberChanged() {
+		Shape inner = new SimpleBox(5, 5, 5, 5);
+		Shape outer = new SimpleBox(20, 20, 10, 10);
+		List<Shape> shapes = new ArrayList<Shape>();
+		shapes.add(new SimpleBox(0, 0, 10, 10));
+		shapes.add(inner);
+		shapes.add(outer);
+		Shape group = new ShapeGroup(shapes);
+		assertEquals(new BoundingBox(0, 0, 30, 30), group.getBoundingBox());
+		inner.move(new Vector(40, 0));
+		assertEquals(new BoundingBox(0, 0, 50, 30), group.getBoundingBox());
+		outer.move(new Vector(-20, -20));
+		assertEquals(new BoundingBox(0, 0, 50, 10), group.getBoundingBox());
+	}
+
+	/**
+	 * Tests that moving a nested group notifies the listeners of the outer
+	 * group once, and moves the bounding boxes of both groups.
+	 */
+	@Test
+	public void testMoveNotifiesOnce() {
+		List<Shape> innerShapes = new ArrayList<Shape>();
+		for (int i = 0; i < 10; i++) {
+			innerShapes.add(new SimpleBox(i * 10, 0, 5, 5));
+		}
+		Shape inner = new ShapeGroup(innerShapes);
+		List<Shape> shapes = new ArrayList<Shape>();
+		shapes.add(inner);
+		shapes.add(new SimpleBox(0, 50, 5, 5));
+		Shape group = new ShapeGroup(shapes);
+		final List<ShapeChangedEvent> events = new ArrayList<ShapeChangedEvent>();
+		group.addShapeChangedListener(new ShapeChangedListener() {
+			@Override
+			public void shapeChanged(ShapeChangedEvent e) {
+				events.add(e);
+			}
+		});
+		group.move(new Vector(10, 10));
+		assertEquals(1, events.size());
+		assertEquals(new BoundingBox(10, 10, 95, 55), group.getBoundingBox());
+		assertEquals(new BoundingBox(10, 10, 95, 5), inner.getBoundingBox());
+		assertEquals(new BoundingBox(0, 0, 105, 65), events.get(0)
+				.getDirtyArea());
+	}
+
+	/**
+	 * Tests that cloning a group the caller may refer to the children of
+	 * copies them when the clone is used first, in the state they had when
+	 * cloned, that the clones of a clone share the children, and that a
+	 * group sharing its children copies them before it changes. Reading the
+	 * children for writing them does not copy them.
+	 */
+	@Test
+	public void testCloneCopyOnWrite() {
+		int[] clones = new int[1];
+		List<Shape> shapes = new ArrayList<Shape>();
+		for (int i = 0; i < 2; i++) {
+			shapes.add(new CloneCountingBox(i * 10, 0, clones));
+		}
+		ShapeGroup group = new ShapeGroup(shapes);
+		ShapeGroup c1 = (ShapeGroup) group.cloneMe();
+		assertEquals(0, clones[0]);
+		shapes.get(0).move(new Vector(0, 10));
+		ShapeGroup c2 = (ShapeGroup) c1.cloneMe();
+		ShapeGroup c3 = (ShapeGroup) c2.cloneMe();
+		assertEquals(2, clones[0]);
+		assertEquals(new BoundingBox(0, 0, 15, 5), c3.getBoundingBox());
+		assertSame(c1.getChildShapes().get(0), c3.getChildShapes().get(0));
+		assertEquals(2, clones[0]);
+		c1.move(new Vector(100, 0));
+		assertEquals(4, clones[0]);
+		assertEquals(new BoundingBox(100, 0, 15, 5), c1.getBoundingBox());
+		assertEquals(new BoundingBox(0, 0, 15, 5), c2.getBoundingBox());
+		assertNotSame(c1.getChildShapes().get(0), c2.getChildShapes().get(0));
+		assertEquals(new BoundingBox(0, 0, 15, 15), group.cloneMe()
+				.getBoundingBox());
+		assertEquals(6, clones[0]);
+	}
+
+	/**
+	 * Tests that taking a snapshot of a group copies the children without
+	 * letting the group share them, i.e., the group then changes them in
+	 * place.
+	 */
+	@Test
+	public void testSnapshot() {
+		int[] clones = new int[1];
+		List<Shape> shapes = new ArrayList<Shape>();
+		for (int i = 0; i < 2; i++) {
+			shapes.add(new CloneCountingBox(i * 10, 0, clones));
+		}
+		ShapeGroup group = (ShapeGroup) new ShapeGroup(shapes).cloneMe();
+		group.getBoundingBox();
+		Shape snapshot = group.snapshot();
+		assertEquals(4, clones[0]);
+		group.move(new Vector(10, 0));
+		assertEquals(4, clones[0]);
+		assertEquals(new BoundingBox(0, 0, 15, 5), snapshot.getBoundingBox());
+		assertEquals(new BoundingBox(10, 0, 15, 5), group.getBoundingBox());
+	}
+
+	/**
+	 * Tests that changing a child shared by groups is rejected.
+	 */
+	@Test(expected = IllegalStateException.class)
+	public void testChangeSharedChild() {
+		List<Shape> shapes = new ArrayList<Shape>();
+		shapes.add(new SimpleBox(0, 0, 5, 5));
+		ShapeGroup group = (ShapeGroup) new ShapeGroup(shapes).cloneMe();
+		group.cloneMe();
+		group.getChildShapes().get(0).move(new Vector(1, 1));
+	}
+
+	/**
+	 * A box counting the clones taken of it and of its clones.
+	 */
+	private static class CloneCountingBox extends SimpleBox {
+		private final int[] clones;
+
+		CloneCountingBox(int x0, int y0, int[] clones) {
+			super(x0, y0, 5, 5);
+			this.clones = clones;
+		}
+
+		@Override
+		public Shape cloneMe() {
+			this.clones[0]++;
+			BoundingBox b = getBoundingBox();
+			return new CloneCountingBox(b.getX0(), b.getY0(), this.clones);
+		}
+	}
 }
@@ -0,0 +1,163 @@
+/*
+ * Eric Dubuis, Berner Fachhochschule,
+ * Biel, Switzerland.
+ * Copyright (c) 2007
+ *
+ * Distributable under LGPL license.
+ * See terms of license at gnu.org.
+ */
+package ch.bfh.due1.jdt.simple.impl.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.Color;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import ch.bfh.due1.jdt.framework.BoundingBox;
+import ch.bfh.due1.jdt.framework.Shape;
+import ch.bfh.due1.jdt.simple.impl.io.SheetFormat;
+import ch.bfh.due1.jdt.simple.impl.shape.ShapeGroup;
+import ch.bfh.due1.jdt.simple.impl.shape.SimpleBox;
+import ch.bfh.due1.jdt.simple.impl.shape.SimpleEllipse;
+import ch.bfh.due1.jdt.simple.impl.shape.SimpleLine;
+
+/**
+ * Tests writing and reading sheet files.
+ *
+ * @author Eric Dubuis
+ */
+public class SheetFormatTest {
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	/**
+	 * Writes and reads shapes, including nested groups, and compares their
+	 * kinds, bounding boxes, colors, and pen sizes.
+	 */
+	@Test
+	public void testWriteRead() throws IOException {
+		SimpleBox box = new SimpleBox(10, 20, 30, 40);
+		box.setPenColor(Color.BLUE);
+		box.setFillColor(new Color(1, 2, 3, 4));
+		box.setPenSize(5);
+		SimpleLine line = new SimpleLine(100, 100, -50, 20);
+		Shape inner = new ShapeGroup(Arrays.<Shape> asList(new SimpleEllipse(
+				0, 0, 10, 10), new SimpleBox(20, 20, 10, 10)));
+		Shape outer = new ShapeGroup(Arrays.<Shape> asList(inner,
+				new SimpleLine(5, 5, 5, 5)));
+		List<Shape> shapes = Arrays.<Shape> asList(box, line, outer);
+		Path file = this.folder.newFile("test.jdt").toPath();
+		SheetFormat.write(shapes, file);
+		List<Shape> read = SheetFormat.read(file);
+		assertEquals(3, read.size());
+		assertSame(SimpleBox.class, read.get(0).getClass());
+		SimpleBox box2 = (SimpleBox) read.get(0);
+		assertEquals(box.getBoundingBox(), box2.getBoundingBox());
+		assertEquals(Color.BLUE, box2.getPenColor());
+		assertEquals(new Color(1, 2, 3, 4), box2.getFillColor());
+		assertEquals(5, box2.getPenSize());
+		assertSame(SimpleLine.class, read.get(1).getClass());
+		assertEquals(new BoundingBox(100, 100, -50, 20), read.get(1)
+				.getBoundingBox());
+		Shape outer2 = read.get(2);
+		assertSame(ShapeGroup.class, outer2.getClass());
+		assertEquals(outer.getBoundingBox(), outer2.getBoundingBox());
+		Shape inner2 = outer2.getShapes().get(0);
+		assertSame(ShapeGroup.class, inner2.getClass());
+		assertSame(SimpleEllipse.class, inner2.getShapes().get(0).getClass());
+		assertEquals(new BoundingBox(20, 20, 10, 10), inner2.getShapes()
+				.get(1).getBoundingBox());
+	}
+
+	/**
+	 * Tests that a file of another kind is rejected.
+	 */
+	@Test(expected = IOException.class)
+	public void testBadMagic() throws IOException {
+		SheetFormat.read(ByteBuffer.wrap(new byte[] { 'P', 'K', 3, 4, 0, 1,
+				0, 0, 0, 0, 0, 0 }));
+	}
+
+	/**
+	 * Tests that a file of a later version is rejected.
+	 */
+	@Test(expected = IOException.class)
+	public void testLaterVersion() throws IOException {
+		ByteBuffer b = ByteBuffer.allocate(12);
+		b.putInt(SheetFormat.MAGIC).putShort((short) (SheetFormat.VERSION + 1))
+				.putShort((short) 0).putInt(0).flip();
+		SheetFormat.read(b);
+	}
+
+	/**
+	 * Tests that a truncated file is rejected.
+	 */
+	@Test
+	public void testTruncated() throws IOException {
+		Path file = this.folder.newFile("truncated.jdt").toPath();
+		SheetFormat.write(Arrays.<Shape> asList(new SimpleBox(1, 2, 3, 4)),
+				file);
+		byte[] bytes = Files.readAllBytes(file);
+		try {
+			SheetFormat.read(ByteBuffer.wrap(bytes, 0, bytes.length - 1));
+			assertTrue("IOException expected", false);
+		} catch (IOException e) {
+			// Expected.
+		}
+	}
+
+	/**
+	 * Tests that a file is left as it was if the shapes cannot be written,
+	 * and that no temporary file is left behind.
+	 */
+	@Test
+	public void testWriteFailure() throws IOException {
+		Path file = this.folder.newFile("kept.jdt").toPath();
+		SheetFormat.write(Arrays.<Shape> asList(new SimpleBox(1, 2, 3, 4)),
+				file);
+		Shape unsupported = new SimpleBox(5, 6, 7, 8) {
+			private static final long serialVersionUID = 1L;
+		};
+		try {
+			SheetFormat.write(Arrays.<Shape> asList(new SimpleBox(0, 0, 1, 1),
+					unsupported), file);
+			assertTrue("IllegalArgumentException expected", false);
+		} catch (IllegalArgumentException e) {
+			// Expected.
+		}
+		List<Shape> read = SheetFormat.read(file);
+		assertEquals(1, read.size());
+		assertEquals(new BoundingBox(1, 2, 3, 4), read.get(0).getBoundingBox());
+		assertEquals(1, this.folder.getRoot().list().length);
+	}
+
+	/**
+	 * Writes and reads one million shapes.
+	 */
+	@Test(timeout = 10000)
+	public void testManyShapes() throws IOException {
+		List<Shape> shapes = new ArrayList<Shape>();
+		for (int i = 0; i < 1000000; i++) {
+			shapes.add(new SimpleBox(i % 1000, i / 1000, 10, 10));
+		}
+		Path file = this.folder.newFile("many.jdt").toPath();
+		SheetFormat.write(shapes, file);
+		assertEquals(12 + 27 * 1000000L, Files.size(file));
+		List<Shape> read = SheetFormat.read(file);
+		assertEquals(1000000, read.size());
+		assertEquals(new BoundingBox(999, 999, 10, 10), read.get(999999)
+				.getBoundingBox());
+	}
+}
@@ -10,6 +10,8 @@ package ch.bfh.due1.jdt.simple.impl.test;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
@@ -115,6 +117,25 @@ public class SimpleBoxTest {
 		assertTrue(coords.size() == 0);
 	}
 
+	/**
+	 * Tests that the handles follow the box without being updated, and that
+	 * they are dropped upon deselecting the box.
+	 */
+	@Test
+	public void testHandles2() {
+		Shape box = new SimpleBox(10, 10, 10, 10);
+		List<ShapeHandle> handles = box.getShapeHandles();
+		box.setSelected(true);
+		assertSame(handles, box.getShapeHandles());
+		box.move(new Vector(5, 5));
+		assertEquals(new Coord(15, 15), handles.get(0).getPosition());
+		box.setBoundingBox(new BoundingBox(0, 0, 40, 20));
+		assertEquals(new Coord(40, 20), handles.get(4).getPosition());
+		assertEquals(new Coord(0, 10), handles.get(7).getPosition());
+		box.setSelected(false);
+		assertNotSame(handles, box.getShapeHandles());
+	}
+
 	/**
 	 * Test whether the created memento restores the box.
 	 */
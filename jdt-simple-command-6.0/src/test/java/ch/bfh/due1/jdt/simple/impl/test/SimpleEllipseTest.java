@@ -12,9 +12,11 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import java.awt.geom.Ellipse2D;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Random;
 
 import org.junit.Test;
 
@@ -127,4 +129,27 @@ public class SimpleEllipseTest {
 		s.setMemento(memento);
 		assertEquals(new BoundingBox(10, 20, 30, 40), s.getBoundingBox());
 	}
+
+	/**
+	 * Compares the hit test of ellipses with the one of the AWT ellipse, for
+	 * random ellipses and points.
+	 */
+	@Test
+	public void testContains2() {
+		Random random = new Random(4711);
+		for (int i = 0; i < 1000; i++) {
+			int x = random.nextInt(100);
+			int y = random.nextInt(100);
+			int w = random.nextInt(60) - 10;
+			int h = random.nextInt(60) - 10;
+			Shape s = new SimpleEllipse(x, y, w, h);
+			Ellipse2D e = new Ellipse2D.Double(x, y, w, h);
+			for (int j = 0; j < 100; j++) {
+				Coord c = new Coord(random.nextInt(180) - 10,
+						random.nextInt(180) - 10);
+				assertEquals(e.contains(c.getAWTPoint()), s.mayContain(c)
+						&& s.contains(c));
+			}
+		}
+	}
 }
@@ -404,4 +404,18 @@ public class SimpleLineTest {
 		s.setMemento(memento);
 		assertEquals(new BoundingBox(10, 20, 30, 40), s.getBoundingBox());
 	}
+
+	/**
+	 * Tests the broad-phase test of a line: points next to the line pass,
+	 * points far from its bounding box are rejected.
+	 */
+	@Test
+	public void testMayContain() {
+		Shape s = new SimpleLine(10, 10, 20, 0);
+		assertTrue(s.mayContain(new Coord(20, 12)));
+		assertTrue(s.contains(new Coord(20, 12)));
+		assertFalse(s.mayContain(new Coord(20, 13)));
+		assertFalse(s.contains(new Coord(20, 13)));
+		assertFalse(s.mayContain(new Coord(33, 10)));
+	}
 }
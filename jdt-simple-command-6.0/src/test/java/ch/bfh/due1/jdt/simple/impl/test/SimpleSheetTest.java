@@ -0,0 +1,305 @@
+/*
+ * Eric Dubuis, Berner Fachhochschule,
+ * Biel, Switzerland.
+ * Copyright (c) 2007
+ *
+ * Distributable under LGPL license.
+ * See terms of license at gnu.org.
+ */
+package ch.bfh.due1.jdt.simple.impl.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+import ch.bfh.due1.jdt.framework.BoundingBox;
+import ch.bfh.due1.jdt.framework.Coord;
+import ch.bfh.due1.jdt.framework.Memento;
+import ch.bfh.due1.jdt.framework.Shape;
+import ch.bfh.due1.jdt.framework.Sheet;
+import ch.bfh.due1.jdt.framework.SheetChangedEvent;
+import ch.bfh.due1.jdt.framework.SheetChangedListener;
+import ch.bfh.due1.jdt.framework.Vector;
+import ch.bfh.due1.jdt.simple.impl.IndexedSheet;
+import ch.bfh.due1.jdt.simple.impl.SimpleSheet;
+import ch.bfh.due1.jdt.simple.impl.shape.SimpleBox;
+
+/**
+ * Tests the change notifications and the drawing of a sheet.
+ *
+ * @author Eric Dubuis
+ */
+public class SimpleSheetTest {
+	/**
+	 * A box counting how often it gets drawn.
+	 */
+	private static class CountingBox extends SimpleBox {
+		private int drawCount = 0;
+
+		CountingBox(int x0, int y0, int width, int height) {
+			super(x0, y0, width, height);
+		}
+
+		@Override
+		protected void doDrawShape(Graphics g) {
+			this.drawCount++;
+			super.doDrawShape(g);
+		}
+	}
+
+	/**
+	 * A box notifying a change without telling its bounding boxes.
+	 */
+	private static class VagueBox extends SimpleBox {
+		VagueBox(int x0, int y0, int width, int height) {
+			super(x0, y0, width, height);
+		}
+
+		void touch() {
+			notifyShapeChangedListeners();
+		}
+	}
+
+	/**
+	 * Records the events of a sheet.
+	 */
+	private static class Recorder implements SheetChangedListener {
+		private List<SheetChangedEvent> events = new ArrayList<SheetChangedEvent>();
+
+		@Override
+		public void sheetChanged(SheetChangedEvent e) {
+			this.events.add(e);
+		}
+	}
+
+	/**
+	 * Tests that the sheet changed event of a moved shape carries the union of
+	 * the old and the new bounding box.
+	 */
+	@Test
+	public void testDirtyArea() {
+		Sheet sheet = new SimpleSheet();
+		SimpleBox box = new SimpleBox(0, 0, 10, 10);
+		sheet.addShape(box);
+		Recorder r = new Recorder();
+		sheet.addSheetChangedListener(r);
+		box.move(new Vector(5, 20));
+		assertEquals(1, r.events.size());
+		assertEquals(new BoundingBox(0, 0, 15, 30), r.events.get(0)
+				.getDirtyArea());
+		sheet.removeShape(box);
+		assertEquals(new BoundingBox(5, 20, 10, 10), r.events.get(1)
+				.getDirtyArea());
+	}
+
+	/**
+	 * Tests that the changes within a batch are notified by a single event
+	 * carrying the affected shapes and their combined dirty area.
+	 */
+	@Test
+	public void testBatch1() {
+		Sheet sheet = new SimpleSheet();
+		SimpleBox box1 = new SimpleBox(0, 0, 10, 10);
+		SimpleBox box2 = new SimpleBox(50, 50, 10, 10);
+		SimpleBox box3 = new SimpleBox(200, 200, 10, 10);
+		sheet.addShape(box1);
+		sheet.addShape(box2);
+		sheet.addShape(box3);
+		Recorder r = new Recorder();
+		sheet.addSheetChangedListener(r);
+		sheet.beginBatch();
+		box1.move(new Vector(5, 0));
+		sheet.beginBatch();
+		box2.move(new Vector(0, 5));
+		box1.move(new Vector(5, 0));
+		sheet.commitBatch();
+		assertEquals(0, r.events.size());
+		sheet.commitBatch();
+		assertEquals(1, r.events.size());
+		SheetChangedEvent e = r.events.get(0);
+		assertEquals(2, e.getShapes().size());
+		assertTrue(e.getShapes().contains(box1));
+		assertTrue(e.getShapes().contains(box2));
+		assertEquals(new BoundingBox(0, 0, 60, 65), e.getDirtyArea());
+		// An empty batch is not notified.
+		sheet.beginBatch();
+		sheet.commitBatch();
+		assertEquals(1, r.events.size());
+	}
+
+	/**
+	 * Tests that the dirty area of a batch is unknown if the one of some
+	 * change is unknown, and that a batch must have been begun to be
+	 * committed.
+	 */
+	@Test(expected = IllegalStateException.class)
+	public void testBatch2() {
+		Sheet sheet = new SimpleSheet();
+		VagueBox box = new VagueBox(0, 0, 10, 10);
+		sheet.addShape(box);
+		Recorder r = new Recorder();
+		sheet.addSheetChangedListener(r);
+		sheet.beginBatch();
+		box.move(new Vector(5, 0));
+		box.touch();
+		sheet.commitBatch();
+		assertEquals(1, r.events.size());
+		assertNull(r.events.get(0).getDirtyArea());
+		sheet.commitBatch();
+	}
+
+	/**
+	 * Tests changing the stacking order, and that the indexed sheet finds the
+	 * topmost shape accordingly.
+	 */
+	@Test
+	public void testStackingIndex() {
+		Sheet sheet = new IndexedSheet();
+		SimpleBox box1 = new SimpleBox(0, 0, 20, 20);
+		SimpleBox box2 = new SimpleBox(10, 10, 20, 20);
+		SimpleBox box3 = new SimpleBox(100, 100, 20, 20);
+		sheet.addShape(box1);
+		sheet.addShape(box2);
+		sheet.addShape(box3);
+		assertEquals(1, sheet.getStackingIndex(box2));
+		assertSame(box2, sheet.getShapeAt(new Coord(15, 15)));
+		Recorder r = new Recorder();
+		sheet.addSheetChangedListener(r);
+		sheet.setStackingIndex(box1, 2);
+		assertEquals(Arrays.asList(box2, box3, box1), sheet.getShapes());
+		assertSame(box1, sheet.getShapeAt(new Coord(15, 15)));
+		assertEquals(1, r.events.size());
+		assertEquals(box1.getBoundingBox(), r.events.get(0).getDirtyArea());
+		assertEquals(Arrays.asList(box2, box1), sheet
+				.getShapesByStackingOrder(Arrays.<Shape> asList(box1, box2,
+						box1)));
+	}
+
+	/**
+	 * Tests that shapes outside the clip bounds are not drawn.
+	 */
+	@Test
+	public void testDrawClipped1() {
+		testDrawClipped(new SimpleSheet());
+	}
+
+	/**
+	 * Tests that shapes outside the clip bounds are not drawn by an indexed
+	 * sheet.
+	 */
+	@Test
+	public void testDrawClipped2() {
+		testDrawClipped(new IndexedSheet());
+	}
+
+	/**
+	 * Tests restoring mementos of a sheet.
+	 */
+	@Test
+	public void testMemento1() {
+		testMemento(new SimpleSheet());
+	}
+
+	/**
+	 * Tests restoring mementos of an indexed sheet, including its index.
+	 */
+	@Test
+	public void testMemento2() {
+		testMemento(new IndexedSheet());
+	}
+
+	/**
+	 * Tests that a memento of another sheet is rejected.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testForeignMemento() {
+		Sheet other = new SimpleSheet();
+		new SimpleSheet().setMemento(other.createMemento());
+	}
+
+	private void testMemento(Sheet sheet) {
+		Shape untouched = new SimpleBox(500, 500, 10, 10);
+		Shape a = new SimpleBox(0, 0, 10, 10);
+		Shape b = new SimpleBox(20, 0, 10, 10);
+		Shape c = new SimpleBox(40, 0, 10, 10);
+		Shape d = new SimpleBox(60, 0, 10, 10);
+		sheet.addShape(untouched);
+		sheet.addShape(a);
+		sheet.addShape(b);
+		sheet.addShape(c);
+		Memento m0 = sheet.createMemento();
+		a.move(new Vector(100, 100));
+		sheet.removeShape(b);
+		sheet.addShape(d);
+		sheet.setStackingIndex(c, 0);
+		Memento m1 = sheet.createMemento();
+		assertEquals(Arrays.asList(c, untouched, a, d), sheet.getShapes());
+
+		final Set<Shape> affected = new HashSet<Shape>();
+		SheetChangedListener l = new SheetChangedListener() {
+			@Override
+			public void sheetChanged(SheetChangedEvent e) {
+				affected.addAll(e.getShapes());
+			}
+		};
+		sheet.addSheetChangedListener(l);
+		sheet.setMemento(m0);
+		assertEquals(Arrays.asList(untouched, a, b, c), sheet.getShapes());
+		assertEquals(new BoundingBox(0, 0, 10, 10), a.getBoundingBox());
+		assertFalse(affected.contains(untouched));
+		assertTrue(affected.containsAll(Arrays.asList(a, b, d)));
+		assertEquals(Arrays.asList(a), sheet.getShapesIn(new BoundingBox(0,
+				0, 5, 5)));
+		assertEquals(-1, sheet.getStackingIndex(d));
+
+		affected.clear();
+		sheet.setMemento(m1);
+		assertEquals(Arrays.asList(c, untouched, a, d), sheet.getShapes());
+		assertEquals(new BoundingBox(100, 100, 10, 10), a.getBoundingBox());
+		assertEquals(Arrays.asList(a), sheet.getShapesIn(new BoundingBox(100,
+				100, 5, 5)));
+		assertFalse(affected.contains(untouched));
+
+		// Changes made after restoring are recorded by the next memento.
+		affected.clear();
+		sheet.setMemento(m1);
+		assertTrue(affected.isEmpty());
+		untouched.move(new Vector(1, 1));
+		Memento m2 = sheet.createMemento();
+		sheet.setMemento(m0);
+		sheet.setMemento(m2);
+		assertEquals(new BoundingBox(501, 501, 10, 10), untouched
+				.getBoundingBox());
+		sheet.removeSheetChangedListener(l);
+	}
+
+	private void testDrawClipped(Sheet sheet) {
+		CountingBox inside = new CountingBox(10, 10, 20, 20);
+		CountingBox outside = new CountingBox(200, 200, 20, 20);
+		sheet.addShape(inside);
+		sheet.addShape(outside);
+		BufferedImage image = new BufferedImage(300, 300,
+				BufferedImage.TYPE_INT_ARGB);
+		Graphics2D g = image.createGraphics();
+		g.setClip(0, 0, 100, 100);
+		sheet.draw(g);
+		g.setClip(null);
+		sheet.draw(g);
+		g.dispose();
+		assertEquals(2, inside.drawCount);
+		assertEquals(1, outside.drawCount);
+	}
+}
@@ -0,0 +1,129 @@
+/*
+ * Eric Dubuis, Berner Fachhochschule,
+ * Biel, Switzerland.
+ * Copyright (c) 2007
+ *
+ * Distributable under LGPL license.
+ * See terms of license at gnu.org.
+ */
+package ch.bfh.due1.jdt.simple.metrics.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.Graphics2D;
+import java.awt.event.MouseEvent;
+import java.awt.image.BufferedImage;
+import java.util.Map;
+
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.TabularData;
+
+import org.junit.Test;
+
+import ch.bfh.due1.jdt.framework.Coord;
+import ch.bfh.due1.jdt.framework.Editor;
+import ch.bfh.due1.jdt.framework.KeyModifier;
+import ch.bfh.due1.jdt.framework.util.EditorAdaptor;
+import ch.bfh.due1.jdt.framework.util.MockTool;
+import ch.bfh.due1.jdt.simple.DefaultView;
+import ch.bfh.due1.jdt.simple.impl.SimpleSheet;
+import ch.bfh.due1.jdt.simple.impl.shape.SimpleBox;
+import ch.bfh.due1.jdt.simple.metrics.Histogram;
+import ch.bfh.due1.jdt.simple.metrics.HistogramSummary;
+import ch.bfh.due1.jdt.simple.metrics.ViewMetrics;
+
+/**
+ * Tests the view metrics and their histograms.
+ *
+ * @author Eric Dubuis
+ */
+public class ViewMetricsTest {
+	/**
+	 * Tests that the percentiles are off by at most 25 percent.
+	 */
+	@Test
+	public void testHistogram() {
+		Histogram h = new Histogram();
+		for (int i = 1; i <= 1000; i++) {
+			h.record(i);
+		}
+		HistogramSummary s = h.summarize(1.0);
+		assertEquals(1000, s.getCount());
+		assertEquals(500.5, s.getMean(), 1e-9);
+		assertEquals(1000.0, s.getMax(), 0.0);
+		assertTrue(s.getP50() >= 500 && s.getP50() <= 625);
+		assertTrue(s.getP90() >= 900 && s.getP90() <= 1000);
+		assertTrue(s.getP99() >= 990 && s.getP99() <= 1000);
+		h.record(Long.MAX_VALUE);
+		assertEquals((double) Long.MAX_VALUE, h.summarize(1.0).getMax(), 0.0);
+		h.reset();
+		assertEquals(0, h.summarize(1.0).getCount());
+	}
+
+	/**
+	 * Tests that the view records the tool events, the paint latency, and the
+	 * shapes drawn, and that the metrics are published as an MXBean.
+	 */
+	@Test
+	public void testViewMetrics() throws Exception {
+		ViewMetrics metrics = new ViewMetrics();
+		Editor editor = new EditorAdaptor() {
+			@Override
+			public void checkEditorState() {
+			}
+		};
+		DefaultView view = new DefaultView(editor);
+		view.setSheet(new SimpleSheet());
+		view.setSize(100, 100);
+		view.setMetrics(metrics);
+		view.addShape(new SimpleBox(10, 10, 10, 10));
+		view.addShape(new SimpleBox(500, 500, 10, 10));
+		MockTool tool = new MockTool(editor) {
+			@Override
+			public void activate() {
+			}
+
+			@Override
+			public void mouseDown(Coord c, KeyModifier k) {
+			}
+		};
+		view.setTool(tool);
+		for (int i = 0; i < 3; i++) {
+			view.dispatchEvent(new MouseEvent(view, MouseEvent.MOUSE_PRESSED,
+					0L, 0, 10, 10, 1, false, MouseEvent.BUTTON1));
+		}
+		BufferedImage image = new BufferedImage(100, 100,
+				BufferedImage.TYPE_INT_ARGB);
+		Graphics2D g = image.createGraphics();
+		view.paintComponent(g);
+		g.dispose();
+
+		String key = tool.getClass().getName() + ".mouseDown";
+		Map<String, HistogramSummary> tools = metrics.getToolLatencies();
+		assertEquals(3, tools.get(key).getCount());
+		assertEquals(1, metrics.getPaintLatency().getCount());
+		assertEquals(1.0, metrics.getShapesDrawn().getMax(), 0.0);
+
+		MBeanServer server = MBeanServerFactory.newMBeanServer();
+		ObjectName name = new ObjectName(ViewMetrics.OBJECT_NAME);
+		server.registerMBean(metrics, name);
+		CompositeData paint = (CompositeData) server.getAttribute(name,
+				"PaintLatency");
+		assertEquals(1L, paint.get("count"));
+		TabularData latencies = (TabularData) server.getAttribute(name,
+				"ToolLatencies");
+		assertEquals(1, latencies.size());
+		metrics.recordDroppedEvent();
+		metrics.recordDroppedEvent();
+		assertEquals(2L, server.getAttribute(name, "DroppedEvents"));
+		assertTrue((Integer) server.getAttribute(name, "FramesPerSecond") <= 1);
+		server.invoke(name, "reset", null, null);
+		assertEquals(0, metrics.getPaintLatency().getCount());
+		assertEquals(0L, metrics.getDroppedEvents());
+		assertEquals(0, metrics.getFramesPerSecond());
+	}
+}
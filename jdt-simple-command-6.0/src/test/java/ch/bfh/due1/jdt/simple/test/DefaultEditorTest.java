@@ -0,0 +1,46 @@
+/*
+ * Eric Dubuis, Berner Fachhochschule,
+ * Biel, Switzerland.
+ * Copyright (c) 2007
+ *
+ * Distributable under LGPL license.
+ * See terms of license at gnu.org.
+ */
+package ch.bfh.due1.jdt.simple.test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.util.function.Supplier;
+
+import org.junit.Test;
+
+import ch.bfh.due1.jdt.framework.Logger;
+import ch.bfh.due1.jdt.simple.DefaultEditor;
+
+/**
+ * Tests the loggers of the default editor, the debug level being disabled
+ * by the log4j configuration.
+ *
+ * @author Eric Dubuis
+ */
+public class DefaultEditorTest {
+	/**
+	 * Keeps the logger of a class, and does not build messages not logged.
+	 */
+	@Test
+	public void testLogger() {
+		DefaultEditor editor = new DefaultEditor(null);
+		Logger logger = editor.getLogger(DefaultEditorTest.class);
+		assertSame(logger, editor.getLogger(DefaultEditorTest.class));
+		assertFalse(logger.isDebugEnabled());
+		logger.debug(new Supplier<String>() {
+			@Override
+			public String get() {
+				fail("Message built although not logged.");
+				return null;
+			}
+		});
+	}
+}
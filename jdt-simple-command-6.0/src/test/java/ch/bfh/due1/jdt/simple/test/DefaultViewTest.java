@@ -0,0 +1,267 @@
+/*
+ * Eric Dubuis, Berner Fachhochschule,
+ * Biel, Switzerland.
+ * Copyright (c) 2007
+ *
+ * Distributable under LGPL license.
+ * See terms of license at gnu.org.
+ */
+package ch.bfh.due1.jdt.simple.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.event.MouseEvent;
+import java.awt.image.BufferedImage;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import ch.bfh.due1.jdt.framework.BoundingBox;
+import ch.bfh.due1.jdt.framework.Coord;
+import ch.bfh.due1.jdt.framework.Editor;
+import ch.bfh.due1.jdt.framework.KeyModifier;
+import ch.bfh.due1.jdt.framework.Shape;
+import ch.bfh.due1.jdt.framework.Vector;
+import ch.bfh.due1.jdt.framework.util.EditorAdaptor;
+import ch.bfh.due1.jdt.framework.util.MockTool;
+import ch.bfh.due1.jdt.simple.DefaultView;
+import ch.bfh.due1.jdt.simple.impl.SimpleSheet;
+import ch.bfh.due1.jdt.simple.impl.shape.SimpleBox;
+
+/**
+ * Tests the render cache and the viewport of the default view.
+ *
+ * @author Eric Dubuis
+ */
+public class DefaultViewTest {
+	/**
+	 * A box counting how often it gets drawn.
+	 */
+	private static class CountingBox extends SimpleBox {
+		private int drawCount = 0;
+
+		CountingBox(int x0, int y0, int width, int height) {
+			super(x0, y0, width, height);
+		}
+
+		@Override
+		protected void doDrawShape(Graphics g) {
+			this.drawCount++;
+			super.doDrawShape(g);
+		}
+	}
+
+	private DefaultView view;
+
+	private CountingBox still;
+
+	private CountingBox dragged;
+
+	private BufferedImage image;
+
+	/**
+	 * Creates a view showing two boxes, one of them being selected, with the
+	 * render cache enabled.
+	 */
+	@Before
+	public void setUp() {
+		this.view = new DefaultView(null);
+		this.view.setSheet(new SimpleSheet());
+		this.view.setSize(300, 300);
+		this.still = new CountingBox(10, 10, 20, 20);
+		this.dragged = new CountingBox(100, 100, 20, 20);
+		this.view.addShape(this.still);
+		this.view.addShape(this.dragged);
+		this.view.addToSelection(this.dragged);
+		this.view.setRenderCacheEnabled(true);
+		this.image = new BufferedImage(300, 300, BufferedImage.TYPE_INT_ARGB);
+	}
+
+	/**
+	 * Tests that the shapes not being selected are drawn once only, whereas
+	 * the selected shapes are drawn whenever the view is painted.
+	 */
+	@Test
+	public void testRenderCache1() {
+		paint();
+		this.dragged.move(new Vector(5, 5));
+		paint();
+		assertEquals(1, this.still.drawCount);
+		assertEquals(2, this.dragged.drawCount);
+	}
+
+	/**
+	 * Tests that a change of a shape not being selected, as well as disabling
+	 * the render cache, makes the shape being drawn again.
+	 */
+	@Test
+	public void testRenderCache2() {
+		paint();
+		this.still.move(new Vector(5, 5));
+		paint();
+		assertEquals(2, this.still.drawCount);
+		this.view.setRenderCacheEnabled(false);
+		paint();
+		assertEquals(3, this.still.drawCount);
+		assertEquals(3, this.dragged.drawCount);
+	}
+
+	/**
+	 * Tests the visible area after zooming and panning.
+	 */
+	@Test
+	public void testVisibleArea() {
+		assertEquals(new BoundingBox(0, 0, 300, 300), this.view.getVisibleArea());
+		this.view.setZoom(2.0);
+		assertEquals(new BoundingBox(75, 75, 150, 150), this.view
+				.getVisibleArea());
+		this.view.setViewOrigin(new Coord(200, 100));
+		assertEquals(new Coord(200, 100), this.view.getViewOrigin());
+		assertEquals(new BoundingBox(200, 100, 150, 150), this.view
+				.getVisibleArea());
+	}
+
+	/**
+	 * Tests that an illegal zoom factor is rejected.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testIllegalZoom() {
+		this.view.setZoom(0.0);
+	}
+
+	/**
+	 * Tests that the mouse coordinates reach the tool in sheet coordinates.
+	 */
+	@Test
+	public void testMouseCoord() {
+		final Coord[] pressed = new Coord[1];
+		Editor editor = new EditorAdaptor() {
+			@Override
+			public void checkEditorState() {
+			}
+		};
+		this.view.setEditor(editor);
+		this.view.setTool(new MockTool(editor) {
+			@Override
+			public void activate() {
+			}
+
+			@Override
+			public void mouseDown(Coord c, KeyModifier k) {
+				pressed[0] = c;
+			}
+		});
+		this.view.setZoom(2.0);
+		this.view.setViewOrigin(new Coord(100, 50));
+		this.view.dispatchEvent(new MouseEvent(this.view,
+				MouseEvent.MOUSE_PRESSED, 0L, 0, 40, 20, 1, false,
+				MouseEvent.BUTTON1));
+		assertEquals(new Coord(120, 60), pressed[0]);
+	}
+
+	/**
+	 * Tests that the shapes outside of the visible area are not drawn.
+	 */
+	@Test
+	public void testCulling() {
+		this.view.setRenderCacheEnabled(false);
+		this.view.setViewOrigin(new Coord(95, 95));
+		paint();
+		assertEquals(0, this.still.drawCount);
+		assertEquals(1, this.dragged.drawCount);
+		this.view.setRenderCacheEnabled(true);
+		paint();
+		assertEquals(0, this.still.drawCount);
+		assertEquals(2, this.dragged.drawCount);
+	}
+
+	/**
+	 * Tests that the shapes being small on the screen are drawn in reduced
+	 * detail, i.e., without calling their drawing method.
+	 */
+	@Test
+	public void testLevelOfDetail() {
+		this.view.setRenderCacheEnabled(false);
+		this.view.setDetailThresholds(3.0, 0.0);
+		paint();
+		assertEquals(1, this.still.drawCount);
+		this.view.setZoom(0.1);
+		paint();
+		assertEquals(1, this.still.drawCount);
+		this.view.setDetailThresholds(0.0, 0.0);
+		paint();
+		assertEquals(2, this.still.drawCount);
+	}
+
+	/**
+	 * Tests that the shapes are rasterized by the render thread, not by the
+	 * calling thread, and that a change of a shape leads to a new frame.
+	 */
+	@Test
+	public void testBackgroundRendering() throws InterruptedException {
+		this.view.setRenderCacheEnabled(false);
+		this.view.setBackgroundRenderingEnabled(true);
+		try {
+			awaitPixel(10, 20);
+			this.still.move(new Vector(50, 0));
+			awaitPixel(60, 20);
+			assertEquals(0, this.still.drawCount);
+		} finally {
+			this.view.setBackgroundRenderingEnabled(false);
+		}
+	}
+
+	/**
+	 * Tests that the frames keep the colors of the shapes, and that a shape
+	 * which cannot be cloned is drawn by the calling thread instead.
+	 */
+	@Test
+	public void testBackgroundRenderingSnapshot() throws InterruptedException {
+		this.still.setFillColor(Color.BLUE);
+		CountingBox area = new CountingBox(200, 200, 20, 20) {
+			@Override
+			public Shape cloneMe() {
+				throw new UnsupportedOperationException();
+			}
+		};
+		this.view.addShape(area);
+		this.view.setRenderCacheEnabled(false);
+		this.view.setBackgroundRenderingEnabled(true);
+		try {
+			awaitPixel(20, 20);
+			assertEquals(Color.BLUE.getRGB(), this.image.getRGB(20, 20));
+			assertTrue(area.drawCount > 0);
+			assertEquals(0, this.still.drawCount);
+		} finally {
+			this.view.setBackgroundRenderingEnabled(false);
+		}
+	}
+
+	/**
+	 * Paints the view until the given pixel is drawn.
+	 */
+	private void awaitPixel(int x, int y) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 5000;
+		while (true) {
+			this.image = new BufferedImage(300, 300,
+					BufferedImage.TYPE_INT_ARGB);
+			paint();
+			if ((this.image.getRGB(x, y) >>> 24) != 0) {
+				return;
+			}
+			assertTrue("No frame rendered",
+					System.currentTimeMillis() < deadline);
+			Thread.sleep(10);
+		}
+	}
+
+	private void paint() {
+		Graphics2D g = this.image.createGraphics();
+		this.view.paintComponent(g);
+		g.dispose();
+	}
+}
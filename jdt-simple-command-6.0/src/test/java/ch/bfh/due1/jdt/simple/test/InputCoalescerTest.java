@@ -0,0 +1,132 @@
+/*
+ * Eric Dubuis, Berner Fachhochschule,
+ * Biel, Switzerland.
+ * Copyright (c) 2007
+ *
+ * Distributable under LGPL license.
+ * See terms of license at gnu.org.
+ */
+package ch.bfh.due1.jdt.simple.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import ch.bfh.due1.jdt.framework.Coord;
+import ch.bfh.due1.jdt.framework.KeyModifier;
+import ch.bfh.due1.jdt.simple.InputCoalescer;
+import ch.bfh.due1.jdt.simple.metrics.ViewMetrics.ToolEvent;
+
+/**
+ * Tests the input coalescer.
+ *
+ * @author Eric Dubuis
+ */
+public class InputCoalescerTest {
+	/** The length of a frame. */
+	private static final long FRAME = 1000;
+
+	private final List<ToolEvent> events = new ArrayList<ToolEvent>();
+
+	private final List<Coord> coords = new ArrayList<Coord>();
+
+	private int dropped;
+
+	private InputCoalescer coalescer;
+
+	/**
+	 * Creates a coalescer recording the events delivered.
+	 */
+	@Before
+	public void setUp() {
+		this.coalescer = new InputCoalescer(new InputCoalescer.Target() {
+			@Override
+			public void deliver(ToolEvent event, Coord c, KeyModifier k) {
+				InputCoalescerTest.this.events.add(event);
+				InputCoalescerTest.this.coords.add(c);
+			}
+
+			@Override
+			public void dropped(ToolEvent event) {
+				InputCoalescerTest.this.dropped++;
+			}
+		}, FRAME);
+	}
+
+	/**
+	 * Tests that the drags of a frame are collapsed to the latest one, and
+	 * that the distances delivered add up to the distance dragged.
+	 */
+	@Test
+	public void testDrag() {
+		long now = 1000000;
+		assertEquals(-1, this.coalescer.submit(ToolEvent.MOUSE_DRAG,
+				new Coord(1, 0), KeyModifier.NONE, now));
+		for (int i = 2; i <= 10; i++) {
+			long delay = this.coalescer.submit(ToolEvent.MOUSE_DRAG,
+					new Coord(i, 0), KeyModifier.NONE, now + i);
+			assertEquals(FRAME - i, delay);
+		}
+		assertTrue(this.coalescer.isPending());
+		assertEquals(1, this.events.size());
+		assertEquals(8, this.dropped);
+		this.coalescer.flush(now + FRAME);
+		assertFalse(this.coalescer.isPending());
+		assertEquals(2, this.events.size());
+		assertEquals(new Coord(10, 0), this.coords.get(1));
+
+		// Within the frame started by the flush.
+		this.coalescer.submit(ToolEvent.MOUSE_DRAG, new Coord(11, 0),
+				KeyModifier.NONE, now + FRAME + 1);
+		this.coalescer.submit(ToolEvent.MOUSE_DRAG, new Coord(17, 0),
+				KeyModifier.NONE, now + FRAME + 2);
+		this.coalescer.flushNow();
+		assertEquals(3, this.events.size());
+		int distance = 0;
+		Coord previous = new Coord(0, 0);
+		for (Coord c : this.coords) {
+			distance += c.getX0() - previous.getX0();
+			previous = c;
+		}
+		assertEquals(17, distance);
+		assertEquals(9, this.dropped);
+	}
+
+	/**
+	 * Tests that an event of another kind delivers the pending event first.
+	 */
+	@Test
+	public void testOrder() {
+		long now = 1000000;
+		this.coalescer.submit(ToolEvent.MOUSE_OVER, new Coord(1, 1),
+				KeyModifier.NONE, now);
+		this.coalescer.submit(ToolEvent.MOUSE_OVER, new Coord(2, 2),
+				KeyModifier.NONE, now + 1);
+		this.coalescer.submit(ToolEvent.MOUSE_DRAG, new Coord(3, 3),
+				KeyModifier.NONE, now + 2);
+		this.coalescer.submit(ToolEvent.MOUSE_DRAG, new Coord(4, 4),
+				KeyModifier.SHIFT_DOWN, now + 3);
+		this.coalescer.flushNow();
+		assertEquals(4, this.events.size());
+		assertEquals(ToolEvent.MOUSE_OVER, this.events.get(1));
+		assertEquals(new Coord(2, 2), this.coords.get(1));
+		assertEquals(ToolEvent.MOUSE_DRAG, this.events.get(2));
+		assertEquals(new Coord(4, 4), this.coords.get(3));
+		assertEquals(0, this.dropped);
+	}
+
+	/**
+	 * Tests that mouse down and mouse up events are refused.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testIllegalEvent() {
+		this.coalescer.submit(ToolEvent.MOUSE_UP, new Coord(0, 0),
+				KeyModifier.NONE, 0);
+	}
+}
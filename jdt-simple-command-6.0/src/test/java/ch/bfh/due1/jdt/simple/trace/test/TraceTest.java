@@ -0,0 +1,124 @@
+/*
+ * Eric Dubuis, Berner Fachhochschule,
+ * Biel, Switzerland.
+ * Copyright (c) 2007
+ *
+ * Distributable under LGPL license.
+ * See terms of license at gnu.org.
+ */
+package ch.bfh.due1.jdt.simple.trace.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import ch.bfh.due1.jdt.framework.BoundingBox;
+import ch.bfh.due1.jdt.framework.Coord;
+import ch.bfh.due1.jdt.framework.KeyModifier;
+import ch.bfh.due1.jdt.framework.util.TestEditor;
+import ch.bfh.due1.jdt.simple.ExitAction;
+import ch.bfh.due1.jdt.simple.action.SelectAllAction;
+import ch.bfh.due1.jdt.simple.impl.shape.BoxTool;
+import ch.bfh.due1.jdt.simple.metrics.ViewMetrics.ToolEvent;
+import ch.bfh.due1.jdt.simple.trace.TraceEvent;
+import ch.bfh.due1.jdt.simple.trace.TraceReader;
+import ch.bfh.due1.jdt.simple.trace.TraceRecorder;
+import ch.bfh.due1.jdt.simple.trace.TraceReplayer;
+
+/**
+ * Tests recording, reading, and replaying a trace.
+ *
+ * @author Eric Dubuis
+ */
+public class TraceTest {
+	private byte[] trace;
+
+	/**
+	 * Records drawing a box, selecting all shapes, and exiting.
+	 */
+	@Before
+	public void setUp() throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		TraceRecorder r = new TraceRecorder(bytes);
+		r.recordToolEvent(ToolEvent.MOUSE_OVER, new Coord(-5, 70000),
+				KeyModifier.NONE);
+		r.recordTool(new BoxTool(new TestEditor()));
+		r.recordToolEvent(ToolEvent.MOUSE_DOWN, new Coord(10, 10),
+				KeyModifier.SHIFT_DOWN);
+		r.recordToolEvent(ToolEvent.MOUSE_DRAG, new Coord(30, 20),
+				KeyModifier.SHIFT_DOWN);
+		r.recordToolEvent(ToolEvent.MOUSE_UP, new Coord(40, 30),
+				KeyModifier.NONE);
+		r.recordAction(new SelectAllAction());
+		r.recordAction(new ExitAction());
+		r.recordToolEvent(ToolEvent.MOUSE_DOWN, new Coord(0, 0),
+				KeyModifier.NONE);
+		assertEquals(8, r.getEventCount());
+		r.close();
+		this.trace = bytes.toByteArray();
+	}
+
+	@Test
+	public void testRead() throws IOException {
+		TraceReader reader = new TraceReader(new ByteArrayInputStream(
+				this.trace));
+		TraceEvent e = reader.next();
+		assertEquals(TraceEvent.Kind.TOOL_EVENT, e.getKind());
+		assertEquals(ToolEvent.MOUSE_OVER, e.getToolEvent());
+		assertEquals(new Coord(-5, 70000), e.getCoord());
+		assertEquals(KeyModifier.NONE, e.getKeyModifier());
+		e = reader.next();
+		assertEquals(TraceEvent.Kind.TOOL, e.getKind());
+		assertEquals(BoxTool.class.getName(), e.getClassName());
+		e = reader.next();
+		assertEquals(ToolEvent.MOUSE_DOWN, e.getToolEvent());
+		assertEquals(KeyModifier.SHIFT_DOWN, e.getKeyModifier());
+		reader.next();
+		e = reader.next();
+		assertEquals(ToolEvent.MOUSE_UP, e.getToolEvent());
+		assertEquals(new Coord(40, 30), e.getCoord());
+		e = reader.next();
+		assertEquals(TraceEvent.Kind.ACTION, e.getKind());
+		assertEquals(SelectAllAction.class.getName(), e.getClassName());
+		reader.next();
+		reader.next();
+		assertNull(reader.next());
+		reader.close();
+	}
+
+	@Test(expected = IOException.class)
+	public void testTruncated() throws IOException {
+		byte[] truncated = new byte[this.trace.length - 1];
+		System.arraycopy(this.trace, 0, truncated, 0, truncated.length);
+		TraceReader reader = new TraceReader(new ByteArrayInputStream(
+				truncated));
+		while (reader.next() != null) {
+		}
+	}
+
+	/**
+	 * Replays the trace until the exit action.
+	 */
+	@Test
+	public void testReplay() throws Exception {
+		TraceReplayer replayer = new TraceReplayer();
+		replayer.setPaintEnabled(true);
+		replayer.replay(new TraceReader(new ByteArrayInputStream(this.trace)));
+		assertEquals(6, replayer.getEventCount());
+		assertEquals(0, replayer.getSkippedCount());
+		assertEquals(1, replayer.getView().getShapes().size());
+		assertEquals(new BoundingBox(10, 10, 30, 20), replayer.getView()
+				.getShapes().get(0).getBoundingBox());
+		assertEquals(1, replayer.getView().getSelection().size());
+		assertEquals(1, replayer.getMetrics().getToolLatencies().get(
+				BoxTool.class.getName() + ".mouseDown").getCount());
+		assertEquals(1, replayer.getActionLatency().getCount());
+		assertEquals(6, replayer.getMetrics().getPaintLatency().getCount());
+	}
+}